@@ -12,6 +12,9 @@ SET FOREIGN_KEY_CHECKS = 0;
 
 -- Activity and analytics tables
 TRUNCATE TABLE user_activity;
+TRUNCATE TABLE active_user_sketches;
+TRUNCATE TABLE user_login_months;
+TRUNCATE TABLE user_login_daily;
 TRUNCATE TABLE user_login_logs;
 
 -- Certificate tables
@@ -34,6 +37,11 @@ TRUNCATE TABLE enrollments;
 -- Lessons table
 TRUNCATE TABLE lessons;
 
+-- Media store index (files under media/ are reclaimed by the GC)
+TRUNCATE TABLE video_renditions;
+TRUNCATE TABLE transcode_jobs;
+TRUNCATE TABLE media_objects;
+
 -- Courses table
 TRUNCATE TABLE courses;
 
@@ -58,6 +66,7 @@ ALTER TABLE course_review_likes AUTO_INCREMENT = 1;
 ALTER TABLE certificates AUTO_INCREMENT = 1;
 ALTER TABLE user_activity AUTO_INCREMENT = 1;
 ALTER TABLE user_login_logs AUTO_INCREMENT = 1;
+ALTER TABLE video_renditions AUTO_INCREMENT = 1;
 
 COMMIT;
 
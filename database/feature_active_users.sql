@@ -0,0 +1,18 @@
+-- ============================================================================
+-- E-Learning Platform: Active User Sketches (migration for existing databases)
+-- ============================================================================
+-- Fresh installs get this table from schema.sql.
+-- One HyperLogLog sketch (about 4 KB, ~1.6% error) per day of distinct active
+-- users, fed by logins and domain events. DAU reads one sketch; WAU and MAU
+-- merge 7 and 30 of them, so rolling windows cost the same regardless of the
+-- number of users. Past days without a sketch are backfilled on first read
+-- from user_login_logs, user_login_daily and user_activity.
+-- ============================================================================
+
+USE elearning_db;
+
+CREATE TABLE IF NOT EXISTS active_user_sketches (
+    sketch_date DATE PRIMARY KEY,
+    registers BLOB NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,18 @@
+-- ============================================================================
+-- E-Learning Platform: Activity Feed (migration for existing databases)
+-- ============================================================================
+-- Fresh installs get these changes from schema.sql.
+-- ActivityService appends enroll/complete/like/comment/review/test entries to
+-- user_activity in batches and pages feeds newest-first by (created_at, id).
+-- The composite index lets a per-user page read only the rows it returns.
+-- ============================================================================
+
+USE elearning_db;
+
+ALTER TABLE user_activity
+    MODIFY COLUMN action_type ENUM(
+        'LESSON_VIEW', 'LESSON_LIKE', 'LESSON_COMMENT', 'LESSON_COMPLETE',
+        'REVIEW_CREATE', 'REVIEW_COMMENT', 'REVIEW_LIKE',
+        'COURSE_ENROLL', 'COURSE_COMPLETE', 'CERT_ISSUED', 'TEST_COMPLETE'
+    ) NOT NULL,
+    ADD INDEX idx_user_feed (user_id, created_at, id);
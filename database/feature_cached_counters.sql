@@ -0,0 +1,23 @@
+-- ============================================================================
+-- E-Learning Platform: Cached Like/Comment Counters (migration for existing databases)
+-- ============================================================================
+-- Fresh installs get reply_count from schema.sql.
+-- lessons.like_count / lessons.comment_count and lesson_comments.reply_count
+-- are updated in the same transaction as the like/comment rows, so counts are
+-- plain column reads. CounterReconciler repairs any drift every few hours.
+-- ============================================================================
+
+USE elearning_db;
+
+ALTER TABLE lesson_comments
+    ADD COLUMN reply_count INT NOT NULL DEFAULT 0 AFTER is_edited;
+
+-- Backfill from the source tables
+UPDATE lessons l
+SET like_count = (SELECT COUNT(*) FROM lesson_likes ll WHERE ll.lesson_id = l.id),
+    comment_count = (SELECT COUNT(*) FROM lesson_comments c WHERE c.lesson_id = l.id);
+
+UPDATE lesson_comments c
+LEFT JOIN (SELECT parent_id, COUNT(*) AS replies FROM lesson_comments
+           WHERE parent_id IS NOT NULL GROUP BY parent_id) r ON r.parent_id = c.id
+SET c.reply_count = COALESCE(r.replies, 0);
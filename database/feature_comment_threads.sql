@@ -0,0 +1,14 @@
+-- ============================================================================
+-- E-Learning Platform: Threaded Comment Paging (migration for existing databases)
+-- ============================================================================
+-- Fresh installs get this index from schema.sql.
+-- Lesson comments are loaded one page of top-level comments at a time
+-- (newest first, keyset on created_at/id) together with all their replies.
+-- This index serves the page lookup; replies use the existing idx_parent.
+-- Requires MySQL 8.0+ or MariaDB 10.2+ (recursive CTEs).
+-- ============================================================================
+
+USE elearning_db;
+
+ALTER TABLE lesson_comments
+    ADD INDEX idx_lesson_thread (lesson_id, parent_id, created_at, id);
@@ -35,6 +35,8 @@ CREATE TABLE course_tests (
     shuffle_options BOOLEAN DEFAULT FALSE,               -- Randomize answer options
     max_attempts INT DEFAULT NULL,                       -- NULL = unlimited attempts
     is_published BOOLEAN DEFAULT FALSE,                  -- Only published tests are visible
+    bank_draw_count INT DEFAULT NULL,                    -- Question bank: questions drawn per group, NULL = fixed list
+    bank_group_by ENUM('NONE', 'TOPIC', 'DIFFICULTY') DEFAULT 'NONE',  -- Question bank grouping
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
 
@@ -43,7 +45,8 @@ CREATE TABLE course_tests (
     UNIQUE KEY unique_course_test (course_id),           -- One test per course
     CHECK (passing_score >= 0 AND passing_score <= 100),
     CHECK (time_limit_minutes IS NULL OR time_limit_minutes > 0),
-    CHECK (max_attempts IS NULL OR max_attempts > 0)
+    CHECK (max_attempts IS NULL OR max_attempts > 0),
+    CHECK (bank_draw_count IS NULL OR bank_draw_count > 0)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- ============================================================================
@@ -56,6 +59,8 @@ CREATE TABLE test_questions (
     question_text TEXT NOT NULL,
     order_index INT DEFAULT 0,                           -- For ordering questions
     points DECIMAL(5, 2) DEFAULT 1.00,                   -- Points for this question
+    topic VARCHAR(100) DEFAULT NULL,                     -- Question bank grouping (NULL = General)
+    difficulty ENUM('EASY', 'MEDIUM', 'HARD') DEFAULT 'MEDIUM',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
 
@@ -108,11 +113,14 @@ CREATE TABLE test_attempts (
     started_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     completed_at TIMESTAMP NULL DEFAULT NULL,
     time_spent_seconds INT DEFAULT 0,
+    assembly_seed BIGINT DEFAULT NULL,                   -- Seed used to draw/shuffle questions
+    question_ids TEXT DEFAULT NULL,                      -- Drawn question ids in the order shown, comma-separated
 
     -- Constraints
     FOREIGN KEY (test_id) REFERENCES course_tests(id) ON DELETE CASCADE,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
     FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE CASCADE,
+    UNIQUE KEY unique_user_test_attempt (user_id, test_id, attempt_number),  -- Attempt numbers cannot be reused
     INDEX idx_user_test (user_id, test_id),
     INDEX idx_course_attempts (course_id, user_id),
     INDEX idx_completed (completed_at),
@@ -287,7 +295,9 @@ INSERT INTO answer_options (question_id, option_text, is_correct, option_letter)
 -- Business Rules to Implement in Application Layer
 -- ============================================================================
 -- 1. User can only access test if enrollment.progress_percent = 100
--- 2. Respect max_attempts limit (if set)
+-- 2. Respect max_attempts limit (if set) - enforced in TestService.startAttempt
+--    with a locking read; existing databases need:
+--    ALTER TABLE test_attempts ADD UNIQUE KEY unique_user_test_attempt (user_id, test_id, attempt_number);
 -- 3. Generate unique certificate_code (e.g., CERT-YYYY-COURSEID-USERID-RANDOM)
 -- 4. Auto-calculate score_percentage when test is completed
 -- 5. Create certificate automatically when passed = TRUE
@@ -0,0 +1,27 @@
+-- ============================================================================
+-- E-Learning Platform: Incremental Course Progress (migration for existing databases)
+-- ============================================================================
+-- Fresh installs get these columns from schema.sql.
+-- Completing or resetting a lesson moves completed_lessons by one inside the
+-- same transaction that writes lesson_progress, and progress_percent is derived
+-- from the two counts. total_lessons is only recomputed when lessons are added
+-- to or removed from a course.
+-- ============================================================================
+
+USE elearning_db;
+
+ALTER TABLE enrollments
+    ADD COLUMN completed_lessons INT NOT NULL DEFAULT 0 AFTER completed_at,
+    ADD COLUMN total_lessons INT NOT NULL DEFAULT 0 AFTER completed_lessons;
+
+-- Backfill counts for existing enrollments
+UPDATE enrollments SET
+    total_lessons = (SELECT COUNT(*) FROM lessons l WHERE l.course_id = enrollments.course_id),
+    completed_lessons = (SELECT COUNT(*) FROM lesson_progress lp
+                         JOIN lessons l ON lp.lesson_id = l.id
+                         WHERE lp.user_id = enrollments.user_id
+                           AND l.course_id = enrollments.course_id
+                           AND lp.is_completed = TRUE);
+
+UPDATE enrollments SET
+    progress_percent = CASE WHEN total_lessons > 0 THEN completed_lessons * 100.0 / total_lessons ELSE 0 END;
@@ -0,0 +1,18 @@
+-- ============================================================================
+-- E-Learning Platform: Lesson View Counts (migration for existing databases)
+-- ============================================================================
+-- Fresh installs get view_count from schema.sql.
+-- Lesson views are deduplicated per user/lesson session window in memory and
+-- written to lesson_views in JDBC batches; the same transaction adds the
+-- batch's per-lesson totals to lessons.view_count, so instructor dashboards
+-- read one column instead of counting lesson_views rows.
+-- ============================================================================
+
+USE elearning_db;
+
+ALTER TABLE lessons
+    ADD COLUMN view_count INT NOT NULL DEFAULT 0 AFTER comment_count;
+
+-- Backfill from existing view rows
+UPDATE lessons l
+SET view_count = (SELECT COUNT(*) FROM lesson_views lv WHERE lv.lesson_id = l.id);
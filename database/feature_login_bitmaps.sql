@@ -0,0 +1,28 @@
+-- ============================================================================
+-- E-Learning Platform: Login Calendar Bitmaps (migration for existing databases)
+-- ============================================================================
+-- Fresh installs get this table from schema.sql (LoginLogDAO also creates and
+-- backfills it on first use).
+-- One row per user and month; bit (day - 1) of day_bits marks a login on that
+-- day. Logins OR their bit in with an upsert, and the dashboards' calendars
+-- and streaks read these rows instead of SELECT DISTINCT DATE(login_at).
+-- ============================================================================
+
+USE elearning_db;
+
+CREATE TABLE IF NOT EXISTS user_login_months (
+    user_id INT NOT NULL,
+    login_month INT NOT NULL,                 -- yyyymm
+    day_bits INT NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (user_id, login_month),
+
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Backfill from existing login logs
+INSERT INTO user_login_months (user_id, login_month, day_bits)
+SELECT user_id, EXTRACT(YEAR_MONTH FROM login_at), BIT_OR(1 << (DAY(login_at) - 1))
+FROM user_login_logs
+GROUP BY user_id, EXTRACT(YEAR_MONTH FROM login_at)
+ON DUPLICATE KEY UPDATE day_bits = user_login_months.day_bits | VALUES(day_bits);
@@ -0,0 +1,35 @@
+-- ============================================================================
+-- E-Learning Platform: Login Log Retention (migration for existing databases)
+-- ============================================================================
+-- Fresh installs get these changes from schema.sql.
+-- user_login_logs keeps raw rows for 90 days. LoginLogCompactor runs daily,
+-- rolls older rows into user_login_daily (one row per user and day) in chunks
+-- of 5000 and deletes them, so the raw table stays bounded. Calendars and
+-- streaks read user_login_months (see feature_login_bitmaps.sql).
+--
+-- Range partitioning by month was considered, but MySQL/MariaDB do not allow
+-- foreign keys on partitioned InnoDB tables and would require login_at in the
+-- primary key; the rollup keeps the FK to users and the same bounded size.
+-- ============================================================================
+
+USE elearning_db;
+
+ALTER TABLE user_login_logs
+    ADD INDEX idx_login_user_time (user_id, login_at);
+
+-- The composite index now serves the user_id foreign key
+ALTER TABLE user_login_logs
+    DROP INDEX idx_login_user;
+
+CREATE TABLE IF NOT EXISTS user_login_daily (
+    user_id INT NOT NULL,
+    login_date DATE NOT NULL,
+    login_count INT NOT NULL DEFAULT 0,
+    first_login_at TIMESTAMP NULL,
+    last_login_at TIMESTAMP NULL,
+
+    PRIMARY KEY (user_id, login_date),
+    INDEX idx_daily_date (login_date),
+
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,32 @@
+-- ============================================================================
+-- E-Learning Platform: Content-Addressed Media Store (migration for existing databases)
+-- ============================================================================
+-- Fresh installs get these changes from schema.sql.
+-- Uploaded videos and hero images are stored once per content hash under
+-- media/objects/; lessons.video_path and courses.thumbnail_path point at the
+-- stored file and media_objects counts the references. Deleting or replacing
+-- media drops a reference. MediaStore runs daily: it moves legacy files from
+-- videos/ and thumbnails/ into the store with hard links, recounts references
+-- and deletes objects that stayed unreferenced for 24 hours.
+-- ============================================================================
+
+USE elearning_db;
+
+CREATE TABLE IF NOT EXISTS media_objects (
+    sha256 CHAR(64) PRIMARY KEY,
+    storage_path VARCHAR(500) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    ref_count INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    UNIQUE KEY uk_media_path (storage_path),
+    INDEX idx_media_collect (ref_count, updated_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Reference lookups by path (GC re-checks, recounts)
+ALTER TABLE lessons
+    ADD INDEX idx_lesson_video (video_path);
+
+ALTER TABLE courses
+    ADD INDEX idx_course_thumbnail (thumbnail_path);
@@ -0,0 +1,18 @@
+-- ============================================================================
+-- E-Learning Platform: Playback Checkpoints (migration for existing databases)
+-- ============================================================================
+-- Fresh installs get these changes from schema.sql.
+-- The video player reports the playback position every few seconds; positions
+-- are buffered in memory and written in batches, so reopening a lesson resumes
+-- where the student stopped. watched_bitmap has one bit per second of video
+-- played, merged across sessions so replays count once; watched_seconds is the
+-- number of bits set, and a lesson completes itself once most of its video has
+-- been covered.
+-- ============================================================================
+
+USE elearning_db;
+
+ALTER TABLE lesson_progress
+    ADD COLUMN position_seconds INT NOT NULL DEFAULT 0 AFTER last_opened_at,
+    ADD COLUMN watched_seconds INT NOT NULL DEFAULT 0 AFTER position_seconds,
+    ADD COLUMN watched_bitmap BLOB NULL AFTER watched_seconds;
@@ -0,0 +1,23 @@
+-- ============================================================================
+-- E-Learning Platform: Question Bank Mode (migration for existing databases)
+-- ============================================================================
+-- Fresh installs get these columns from feature_course_tests_and_certificates.sql.
+-- Question-bank tests draw bank_draw_count random questions per topic or
+-- difficulty group for every attempt. The attempt stores the seed and the ids of
+-- the questions it was given (answered or not), so it can be rebuilt for review
+-- and re-grading even after the bank changes.
+-- ============================================================================
+
+USE elearning_db;
+
+ALTER TABLE course_tests
+    ADD COLUMN bank_draw_count INT DEFAULT NULL AFTER is_published,
+    ADD COLUMN bank_group_by ENUM('NONE', 'TOPIC', 'DIFFICULTY') DEFAULT 'NONE' AFTER bank_draw_count;
+
+ALTER TABLE test_questions
+    ADD COLUMN topic VARCHAR(100) DEFAULT NULL AFTER points,
+    ADD COLUMN difficulty ENUM('EASY', 'MEDIUM', 'HARD') DEFAULT 'MEDIUM' AFTER topic;
+
+ALTER TABLE test_attempts
+    ADD COLUMN assembly_seed BIGINT DEFAULT NULL AFTER time_spent_seconds,
+    ADD COLUMN question_ids TEXT DEFAULT NULL AFTER assembly_seed;
@@ -0,0 +1,24 @@
+-- ============================================================================
+-- E-Learning Platform: Video Metadata Probe (migration for existing databases)
+-- ============================================================================
+-- Fresh installs get these changes from schema.sql.
+-- Duration, resolution and bitrate are read from MP4/MOV headers in the
+-- background when a lesson gets a video, and stored on the lesson. A known
+-- duration also replaces duration_minutes, and course totals use the probed
+-- seconds. Results for stored media are cached on media_objects by content
+-- hash. Existing lessons are probed by the daily pass after startup.
+-- ============================================================================
+
+USE elearning_db;
+
+ALTER TABLE lessons
+    ADD COLUMN duration_seconds INT AFTER duration_minutes,
+    ADD COLUMN video_width INT AFTER duration_seconds,
+    ADD COLUMN video_height INT AFTER video_width,
+    ADD COLUMN video_bitrate_kbps INT AFTER video_height;
+
+ALTER TABLE media_objects
+    ADD COLUMN duration_ms BIGINT AFTER ref_count,
+    ADD COLUMN video_width INT AFTER duration_ms,
+    ADD COLUMN video_height INT AFTER video_width,
+    ADD COLUMN bitrate_kbps INT AFTER video_height;
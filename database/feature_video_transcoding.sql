@@ -0,0 +1,41 @@
+-- ============================================================================
+-- E-Learning Platform: Video Transcoding (migration for existing databases)
+-- ============================================================================
+-- Fresh installs get these changes from schema.sql.
+-- Stored lesson videos are transcoded in the background (local ffmpeg) into
+-- lower-bitrate MP4 renditions under media/renditions/.
+-- transcode_jobs is the persistent queue (status, attempts, backoff);
+-- video_renditions lists what was produced, so the player can pick a
+-- rendition that fits the window instead of the original upload.
+-- Existing videos are queued by the daily pass after startup.
+-- ============================================================================
+
+USE elearning_db;
+
+CREATE TABLE IF NOT EXISTS transcode_jobs (
+    source_sha256 CHAR(64) PRIMARY KEY,
+    status ENUM('PENDING', 'RUNNING', 'DONE', 'FAILED') NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(500),
+    output_dir VARCHAR(500),
+    next_attempt_at TIMESTAMP NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    FOREIGN KEY (source_sha256) REFERENCES media_objects(sha256) ON DELETE CASCADE,
+    INDEX idx_transcode_due (status, next_attempt_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS video_renditions (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    source_sha256 CHAR(64) NOT NULL,
+    height INT NOT NULL,
+    width INT NOT NULL,
+    bitrate_kbps INT NOT NULL,
+    file_path VARCHAR(500) NOT NULL,
+    size_bytes BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    FOREIGN KEY (source_sha256) REFERENCES media_objects(sha256) ON DELETE CASCADE,
+    UNIQUE KEY uk_rendition (source_sha256, height)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
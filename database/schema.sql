@@ -23,6 +23,9 @@ DROP TABLE IF EXISTS review_likes;
 DROP TABLE IF EXISTS review_comments;
 DROP TABLE IF EXISTS reviews;
 DROP TABLE IF EXISTS comments;
+DROP TABLE IF EXISTS active_user_sketches;
+DROP TABLE IF EXISTS user_login_months;
+DROP TABLE IF EXISTS user_login_daily;
 DROP TABLE IF EXISTS user_login_logs;
 DROP TABLE IF EXISTS user_activity;
 DROP TABLE IF EXISTS certificates;
@@ -35,6 +38,9 @@ DROP TABLE IF EXISTS course_reviews;
 DROP TABLE IF EXISTS lesson_comments;
 DROP TABLE IF EXISTS enrollments;
 DROP TABLE IF EXISTS lessons;
+DROP TABLE IF EXISTS video_renditions;
+DROP TABLE IF EXISTS transcode_jobs;
+DROP TABLE IF EXISTS media_objects;
 DROP TABLE IF EXISTS courses;
 DROP TABLE IF EXISTS users;
 
@@ -87,7 +93,8 @@ CREATE TABLE courses (
 
     INDEX idx_instructor (instructor_id),
     INDEX idx_status (status),
-    INDEX idx_category (category)
+    INDEX idx_category (category),
+    INDEX idx_course_thumbnail (thumbnail_path)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 -- Lessons table
@@ -101,17 +108,72 @@ CREATE TABLE lessons (
     video_path VARCHAR(500),                  -- Video file path (locally stored)
     content_text TEXT,                        -- Lesson description
     duration_minutes INT,
+    duration_seconds INT,                     -- Probed from the video file (0 = unreadable, NULL = not probed)
+    video_width INT,
+    video_height INT,
+    video_bitrate_kbps INT,
     order_index INT NOT NULL DEFAULT 0,       -- Display order in course
     is_preview BOOLEAN DEFAULT FALSE,         -- Allow non-enrolled users to preview
     like_count INT DEFAULT 0,                 -- Cached likes for quick display
     comment_count INT DEFAULT 0,              -- Cached comments for quick display
+    view_count INT NOT NULL DEFAULT 0,        -- Cached views, bumped by each lesson_views batch
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
 
     FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE CASCADE,
 
     INDEX idx_course (course_id),
-    INDEX idx_order (course_id, order_index)
+    INDEX idx_order (course_id, order_index),
+    INDEX idx_lesson_video (video_path)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Content-addressed media store (videos and hero images)
+-- Files live once under media/objects/ab/<sha256>.<ext>; lessons.video_path and
+-- courses.thumbnail_path point at storage_path and ref_count counts those references
+CREATE TABLE media_objects (
+    sha256 CHAR(64) PRIMARY KEY,
+    storage_path VARCHAR(500) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    ref_count INT NOT NULL DEFAULT 0,
+    duration_ms BIGINT,                       -- Video metadata cached by content, NULL until probed
+    video_width INT,
+    video_height INT,
+    bitrate_kbps INT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    UNIQUE KEY uk_media_path (storage_path),
+    INDEX idx_media_collect (ref_count, updated_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Transcoding queue: one job per stored video (renditions depend only on content)
+CREATE TABLE transcode_jobs (
+    source_sha256 CHAR(64) PRIMARY KEY,
+    status ENUM('PENDING', 'RUNNING', 'DONE', 'FAILED') NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(500),
+    output_dir VARCHAR(500),                  -- media/renditions/<sha256>, set when done
+    next_attempt_at TIMESTAMP NULL,           -- Backoff after a failed attempt
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    FOREIGN KEY (source_sha256) REFERENCES media_objects(sha256) ON DELETE CASCADE,
+    INDEX idx_transcode_due (status, next_attempt_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Lower-bitrate copies of a stored video (progressive MP4)
+CREATE TABLE video_renditions (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    source_sha256 CHAR(64) NOT NULL,
+    height INT NOT NULL,
+    width INT NOT NULL,
+    bitrate_kbps INT NOT NULL,
+    file_path VARCHAR(500) NOT NULL,
+    size_bytes BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    FOREIGN KEY (source_sha256) REFERENCES media_objects(sha256) ON DELETE CASCADE,
+    UNIQUE KEY uk_rendition (source_sha256, height)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 -- Enrollments table
@@ -126,6 +188,8 @@ CREATE TABLE enrollments (
     progress_percent DECIMAL(5,2) DEFAULT 0.00,    -- Progress: 0.00 to 100.00
     last_accessed_at TIMESTAMP NULL,                -- Last time student accessed course
     completed_at TIMESTAMP NULL,                    -- Set when progress reaches 100%
+    completed_lessons INT NOT NULL DEFAULT 0,       -- Maintained by delta on lesson completion
+    total_lessons INT NOT NULL DEFAULT 0,           -- Recomputed when lessons are added/removed
 
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
     FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE CASCADE,
@@ -146,6 +210,9 @@ CREATE TABLE lesson_progress (
     is_completed BOOLEAN DEFAULT FALSE,         -- Video marked as complete by student
     completed_at TIMESTAMP NULL,                -- When student marked video complete
     last_opened_at TIMESTAMP NULL,              -- Last time student opened this video
+    position_seconds INT NOT NULL DEFAULT 0,    -- Where playback stopped, for resuming
+    watched_seconds INT NOT NULL DEFAULT 0,     -- Seconds played at least once (bits set in watched_bitmap)
+    watched_bitmap BLOB NULL,                   -- One bit per second of video played (replays count once)
 
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
     FOREIGN KEY (lesson_id) REFERENCES lessons(id) ON DELETE CASCADE,
@@ -163,6 +230,7 @@ CREATE TABLE lesson_comments (
     parent_id INT NULL,
     content TEXT NOT NULL,
     is_edited BOOLEAN DEFAULT FALSE,
+    reply_count INT NOT NULL DEFAULT 0,       -- Cached direct replies for quick display
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
 
@@ -172,7 +240,8 @@ CREATE TABLE lesson_comments (
 
     INDEX idx_lesson (lesson_id),
     INDEX idx_user (user_id),
-    INDEX idx_parent (parent_id)
+    INDEX idx_parent (parent_id),
+    INDEX idx_lesson_thread (lesson_id, parent_id, created_at, id)  -- Top-level comment paging
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 -- Lesson likes
@@ -283,9 +352,9 @@ CREATE TABLE user_activity (
     course_id INT NULL,
     lesson_id INT NULL,
     action_type ENUM(
-        'LESSON_VIEW', 'LESSON_LIKE', 'LESSON_COMMENT',
+        'LESSON_VIEW', 'LESSON_LIKE', 'LESSON_COMMENT', 'LESSON_COMPLETE',
         'REVIEW_CREATE', 'REVIEW_COMMENT', 'REVIEW_LIKE',
-        'COURSE_ENROLL', 'COURSE_COMPLETE', 'CERT_ISSUED'
+        'COURSE_ENROLL', 'COURSE_COMPLETE', 'CERT_ISSUED', 'TEST_COMPLETE'
     ) NOT NULL,
     metadata JSON NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -294,7 +363,8 @@ CREATE TABLE user_activity (
     INDEX idx_course (course_id),
     INDEX idx_lesson (lesson_id),
     INDEX idx_action (action_type),
-    INDEX idx_created (created_at),
+    INDEX idx_created (created_at),                     -- Platform feed (InnoDB appends id)
+    INDEX idx_user_feed (user_id, created_at, id),      -- Per-user feed keyset
 
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
     FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE SET NULL,
@@ -307,8 +377,43 @@ CREATE TABLE user_login_logs (
     user_id INT NOT NULL,
     login_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
 
-    INDEX idx_login_user (user_id),
-    INDEX idx_login_at (login_at),
+    INDEX idx_login_user_time (user_id, login_at),  -- Per-user range reads (also serves the FK)
+    INDEX idx_login_at (login_at),                  -- Retention cutoff
+
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Daily login summaries: raw user_login_logs rows past the retention period
+-- are rolled up here by LoginLogCompactor and then deleted
+CREATE TABLE user_login_daily (
+    user_id INT NOT NULL,
+    login_date DATE NOT NULL,
+    login_count INT NOT NULL DEFAULT 0,
+    first_login_at TIMESTAMP NULL,
+    last_login_at TIMESTAMP NULL,
+
+    PRIMARY KEY (user_id, login_date),
+    INDEX idx_daily_date (login_date),
+
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Distinct active users per day as a mergeable HyperLogLog sketch
+-- ActiveUserService merges 7 or 30 of these for WAU/MAU
+CREATE TABLE active_user_sketches (
+    sketch_date DATE PRIMARY KEY,
+    registers BLOB NOT NULL,                  -- HyperLogLog, 4096 one-byte registers
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Login calendar bitmaps: bit (day - 1) of day_bits is set when the user logged in that day
+-- Maintained on every login; calendar and streak reads use these rows instead of the logs
+CREATE TABLE user_login_months (
+    user_id INT NOT NULL,
+    login_month INT NOT NULL,                 -- yyyymm
+    day_bits INT NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (user_id, login_month),
 
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -278,7 +278,27 @@ INSERT INTO user_login_logs (user_id, login_at) VALUES
 -- Update cached counters for lessons
 UPDATE lessons l
 SET like_count = (SELECT COUNT(*) FROM lesson_likes ll WHERE ll.lesson_id = l.id),
-    comment_count = (SELECT COUNT(*) FROM lesson_comments c WHERE c.lesson_id = l.id);
+    comment_count = (SELECT COUNT(*) FROM lesson_comments c WHERE c.lesson_id = l.id),
+    view_count = (SELECT COUNT(*) FROM lesson_views lv WHERE lv.lesson_id = l.id);
+
+-- Update cached reply counts for comments
+UPDATE lesson_comments c
+LEFT JOIN (SELECT parent_id, COUNT(*) AS replies FROM lesson_comments
+           WHERE parent_id IS NOT NULL GROUP BY parent_id) r ON r.parent_id = c.id
+SET c.reply_count = COALESCE(r.replies, 0);
+
+-- Build login calendar bitmaps from the seeded login logs
+INSERT INTO user_login_months (user_id, login_month, day_bits)
+SELECT user_id, EXTRACT(YEAR_MONTH FROM login_at), BIT_OR(1 << (DAY(login_at) - 1))
+FROM user_login_logs
+GROUP BY user_id, EXTRACT(YEAR_MONTH FROM login_at);
+
+-- Update cached lesson counts for enrollments
+UPDATE enrollments e
+SET total_lessons = (SELECT COUNT(*) FROM lessons l WHERE l.course_id = e.course_id),
+    completed_lessons = (SELECT COUNT(*) FROM lesson_progress lp
+                         JOIN lessons l ON lp.lesson_id = l.id
+                         WHERE lp.user_id = e.user_id AND l.course_id = e.course_id AND lp.is_completed = TRUE);
 
 COMMIT;
 
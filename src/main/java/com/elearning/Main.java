@@ -1,6 +1,17 @@
 package com.elearning;
 
+import com.elearning.service.ActiveUserService;
+import com.elearning.service.ActivityService;
+import com.elearning.service.CounterReconciler;
+import com.elearning.service.EnrollmentService;
+import com.elearning.service.LoginLogCompactor;
+import com.elearning.service.MediaServer;
+import com.elearning.service.MediaStore;
+import com.elearning.service.StorageAuditor;
+import com.elearning.service.TranscodeService;
+import com.elearning.service.VideoMetadataService;
 import com.elearning.ui.LoginFrame;
+import com.elearning.ui.components.MediaPlayerPool;
 import com.elearning.ui.components.UITheme;
 import com.elearning.util.DBConnection;
 import com.formdev.flatlaf.FlatDarkLaf;
@@ -57,6 +68,21 @@ public class Main {
             showDatabaseConnectionError();
         }
 
+        // Create services that subscribe to domain events before any UI can publish
+        EnrollmentService.getInstance();
+        ActivityService.getInstance();
+        ActiveUserService.getInstance();
+        CounterReconciler.getInstance().start();
+        LoginLogCompactor.getInstance().start();
+        MediaStore.getInstance().start();
+        StorageAuditor.getInstance().start();
+        VideoMetadataService.getInstance().start();
+        TranscodeService.getInstance().start();
+        MediaServer.getInstance().start();
+
+        // Start JavaFX in the background so the first lesson video opens without the toolkit delay
+        MediaPlayerPool.getInstance().warmUp();
+
         // Launch application on EDT
         SwingUtilities.invokeLater(() -> {
             LoginFrame loginFrame = new LoginFrame();
@@ -0,0 +1,147 @@
+package com.elearning.dao;
+
+import com.elearning.util.DBConnection;
+import com.elearning.util.HyperLogLog;
+import com.elearning.util.SqlDialect;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * DAO for daily active-user sketches
+ * One HyperLogLog per calendar day in active_user_sketches. Several clients
+ * write the same day's row, so writes merge into the stored registers under a
+ * row lock instead of overwriting them.
+ */
+public class ActiveUserSketchDAO {
+    private final String insertSql;
+
+    public ActiveUserSketchDAO() {
+        this(DBConnection.getInstance().getDialect());
+    }
+
+    public ActiveUserSketchDAO(SqlDialect dialect) {
+        this.insertSql = dialect.insertOrIgnore(
+                "INSERT INTO active_user_sketches (sketch_date, registers) VALUES (?, ?)");
+    }
+
+    /**
+     * Merge a sketch into the stored sketch for a day (creating it if missing)
+     * Runs on a dedicated connection (background flusher, backfill).
+     */
+    public boolean mergeInto(LocalDate day, HyperLogLog sketch) {
+        return mergeAll(Collections.singletonMap(day, sketch));
+    }
+
+    /**
+     * Merge sketches into the stored sketches of their days in one transaction
+     * Runs on a dedicated connection (background flusher, backfill).
+     */
+    public boolean mergeAll(Map<LocalDate, HyperLogLog> sketches) {
+        if (sketches.isEmpty()) {
+            return true;
+        }
+        String lockSql = "SELECT registers FROM active_user_sketches WHERE sketch_date = ? FOR UPDATE";
+        String updateSql = "UPDATE active_user_sketches SET registers = ? WHERE sketch_date = ?";
+
+        try (Connection conn = DBConnection.getInstance().openConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insertStmt = conn.prepareStatement(insertSql);
+                 PreparedStatement lockStmt = conn.prepareStatement(lockSql);
+                 PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
+
+                // Days in order, so concurrent writers lock rows in the same order
+                for (Map.Entry<LocalDate, HyperLogLog> entry : new TreeMap<>(sketches).entrySet()) {
+                    Date day = Date.valueOf(entry.getKey());
+                    insertStmt.setDate(1, day);
+                    insertStmt.setBytes(2, entry.getValue().toBytes());
+                    if (insertStmt.executeUpdate() > 0) {
+                        continue;
+                    }
+                    // Row exists: merge under the lock so concurrent writers never lose registers
+                    HyperLogLog merged = entry.getValue().copy();
+                    lockStmt.setDate(1, day);
+                    try (ResultSet rs = lockStmt.executeQuery()) {
+                        if (rs.next()) {
+                            merged.merge(HyperLogLog.fromBytes(rs.getBytes(1)));
+                        }
+                    }
+                    updateStmt.setBytes(1, merged.toBytes());
+                    updateStmt.setDate(2, day);
+                    updateStmt.executeUpdate();
+                }
+
+                conn.commit();
+                return true;
+            } catch (SQLException | IllegalArgumentException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Load stored sketches for a date range (inclusive), keyed by day
+     */
+    public Map<LocalDate, HyperLogLog> findRange(LocalDate from, LocalDate to) {
+        Map<LocalDate, HyperLogLog> sketches = new TreeMap<>();
+        String sql = "SELECT sketch_date, registers FROM active_user_sketches " +
+                     "WHERE sketch_date BETWEEN ? AND ?";
+
+        try (Connection conn = DBConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setDate(1, Date.valueOf(from));
+            stmt.setDate(2, Date.valueOf(to));
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                sketches.put(rs.getDate("sketch_date").toLocalDate(), HyperLogLog.fromBytes(rs.getBytes("registers")));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return sketches;
+    }
+
+    /**
+     * Users with a login or recorded activity on each day of a range (inclusive), for backfilling
+     * Reads raw logins, compacted daily login summaries and the activity feed in
+     * one grouped query. Days without activity are absent from the result.
+     */
+    public Map<LocalDate, List<Integer>> findActiveUserIdsByDay(LocalDate from, LocalDate to) {
+        Map<LocalDate, List<Integer>> usersByDay = new TreeMap<>();
+        String sql = "SELECT DATE(login_at) AS day, user_id FROM user_login_logs WHERE login_at >= ? AND login_at < ? " +
+                     "UNION SELECT login_date, user_id FROM user_login_daily WHERE login_date BETWEEN ? AND ? " +
+                     "UNION SELECT DATE(created_at), user_id FROM user_activity WHERE created_at >= ? AND created_at < ?";
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.plusDays(1).atStartOfDay());
+
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, start);
+            stmt.setTimestamp(2, end);
+            stmt.setDate(3, Date.valueOf(from));
+            stmt.setDate(4, Date.valueOf(to));
+            stmt.setTimestamp(5, start);
+            stmt.setTimestamp(6, end);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                usersByDay.computeIfAbsent(rs.getDate(1).toLocalDate(), day -> new ArrayList<>()).add(rs.getInt(2));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return usersByDay;
+    }
+}
@@ -36,6 +36,32 @@ public class AnswerOptionDAO {
         return options;
     }
 
+    /**
+     * Find all options of every question in a test with one query
+     * Ordered by question and letter so callers can group them in a single pass.
+     */
+    public List<AnswerOption> findByTestId(int testId) {
+        List<AnswerOption> options = new ArrayList<>();
+        String sql = "SELECT ao.* FROM answer_options ao " +
+                     "JOIN test_questions tq ON ao.question_id = tq.id " +
+                     "WHERE tq.test_id = ? " +
+                     "ORDER BY ao.question_id ASC, ao.option_letter ASC";
+
+        try (Connection conn = DBConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, testId);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                options.add(mapResultSetToAnswerOption(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return options;
+    }
+
     /**
      * Find option by ID
      */
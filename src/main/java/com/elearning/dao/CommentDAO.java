@@ -2,11 +2,15 @@ package com.elearning.dao;
 
 import com.elearning.model.Comment;
 import com.elearning.util.DBConnection;
+import com.elearning.util.SqlDialect;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DAO for Comment entity
@@ -91,6 +95,80 @@ public class CommentDAO {
         return replies;
     }
 
+    /**
+     * Load one page of top-level comments (newest first) with all their replies
+     * One recursive query fetches the page roots and every descendant; the tree
+     * is then linked in memory with an id map. Paging is keyset-based: pass the
+     * last root of the previous page (or null for the first page), so comments
+     * posted meanwhile never shift or duplicate rows.
+     * Returns up to limit roots; replies are in getReplies(), oldest first.
+     */
+    public List<Comment> findThreadPage(int lessonId, Comment afterRoot, int limit) {
+        String keyset = afterRoot != null
+                ? "AND (created_at < ? OR (created_at = ? AND id < ?)) "
+                : "";
+        String sql = "WITH RECURSIVE page AS (" +
+                     "SELECT id FROM lesson_comments " +
+                     "WHERE lesson_id = ? AND parent_id IS NULL " + keyset +
+                     "ORDER BY created_at DESC, id DESC LIMIT ?" +
+                     "), thread AS (" +
+                     "SELECT id FROM page " +
+                     "UNION ALL " +
+                     "SELECT c.id FROM lesson_comments c JOIN thread t ON c.parent_id = t.id" +
+                     ") " +
+                     "SELECT c.*, u.full_name as user_name, u.avatar_path as user_avatar " +
+                     "FROM thread t " +
+                     "JOIN lesson_comments c ON c.id = t.id " +
+                     "JOIN users u ON c.user_id = u.id " +
+                     "ORDER BY c.created_at ASC, c.id ASC";
+
+        List<Comment> rows = new ArrayList<>();
+        try (Connection conn = DBConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            stmt.setInt(index++, lessonId);
+            if (afterRoot != null) {
+                Timestamp createdAt = Timestamp.valueOf(afterRoot.getCreatedAt());
+                stmt.setTimestamp(index++, createdAt);
+                stmt.setTimestamp(index++, createdAt);
+                stmt.setInt(index++, afterRoot.getId());
+            }
+            stmt.setInt(index, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                rows.add(mapResultSetToComment(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return buildTree(rows);
+    }
+
+    /**
+     * Link flat rows (oldest first) into roots with nested replies, O(n)
+     * Roots come back newest first to match the page order
+     */
+    private List<Comment> buildTree(List<Comment> rows) {
+        Map<Integer, Comment> byId = new HashMap<>(rows.size() * 2);
+        for (Comment comment : rows) {
+            byId.put(comment.getId(), comment);
+        }
+
+        List<Comment> roots = new ArrayList<>();
+        for (Comment comment : rows) {
+            Comment parent = comment.getParentId() != null ? byId.get(comment.getParentId()) : null;
+            if (parent != null) {
+                parent.addReply(comment);
+            } else if (comment.getParentId() == null) {
+                roots.add(comment);
+            }
+        }
+        Collections.reverse(roots);
+        return roots;
+    }
+
     /**
      * Find comment by ID
      */
@@ -117,34 +195,71 @@ public class CommentDAO {
 
     /**
      * Insert new comment
+     * The comment row and the cached lessons.comment_count (plus the parent's
+     * reply_count for replies) are written in one transaction. The counters are
+     * bumped first: that takes the lesson (then parent) row lock in the same
+     * order as delete, before the insert's FK check could take a shared lock on
+     * them that two concurrent comments would both try to upgrade.
      */
     public boolean insert(Comment comment) {
         String sql = "INSERT INTO lesson_comments (user_id, lesson_id, parent_id, content, is_edited) " +
                      "VALUES (?, ?, ?, ?, ?)";
+        String lessonCountSql = "UPDATE lessons SET comment_count = comment_count + 1 WHERE id = ?";
+        String replyCountSql = "UPDATE lesson_comments SET reply_count = reply_count + 1 WHERE id = ?";
 
-        try (Connection conn = DBConnection.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = DBConnection.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
 
-            stmt.setInt(1, comment.getUserId());
-            stmt.setInt(2, comment.getLessonId());
+            try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement lessonStmt = conn.prepareStatement(lessonCountSql);
+                 PreparedStatement replyStmt = conn.prepareStatement(replyCountSql)) {
 
-            if (comment.getParentId() != null) {
-                stmt.setInt(3, comment.getParentId());
-            } else {
-                stmt.setNull(3, Types.INTEGER);
-            }
+                lessonStmt.setInt(1, comment.getLessonId());
+                if (lessonStmt.executeUpdate() == 0) {
+                    // Lesson deleted
+                    conn.rollback();
+                    return false;
+                }
+
+                if (comment.getParentId() != null) {
+                    replyStmt.setInt(1, comment.getParentId());
+                    if (replyStmt.executeUpdate() == 0) {
+                        // Replying to a comment that was deleted meanwhile
+                        conn.rollback();
+                        return false;
+                    }
+                }
+
+                stmt.setInt(1, comment.getUserId());
+                stmt.setInt(2, comment.getLessonId());
 
-            stmt.setString(4, comment.getContent());
-            stmt.setBoolean(5, comment.isEdited());
+                if (comment.getParentId() != null) {
+                    stmt.setInt(3, comment.getParentId());
+                } else {
+                    stmt.setNull(3, Types.INTEGER);
+                }
+
+                stmt.setString(4, comment.getContent());
+                stmt.setBoolean(5, comment.isEdited());
 
-            int affectedRows = stmt.executeUpdate();
+                if (stmt.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
 
-            if (affectedRows > 0) {
                 ResultSet rs = stmt.getGeneratedKeys();
                 if (rs.next()) {
                     comment.setId(rs.getInt(1));
                 }
+
+                conn.commit();
                 return true;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -174,17 +289,60 @@ public class CommentDAO {
 
     /**
      * Delete comment and its replies (cascade)
+     * Cached counters are decremented by the size of the removed subtree in the
+     * same transaction; the lesson row is locked first so concurrent deletes on
+     * one lesson cannot double-count.
      */
     public boolean delete(int commentId) {
+        String findSql = "SELECT lesson_id, parent_id FROM lesson_comments WHERE id = ?";
+        String lockLessonSql = "SELECT comment_count FROM lessons WHERE id = ? FOR UPDATE";
+        String subtreeSql = "WITH RECURSIVE thread AS (" +
+                            "SELECT id FROM lesson_comments WHERE id = ? " +
+                            "UNION ALL " +
+                            "SELECT c.id FROM lesson_comments c JOIN thread t ON c.parent_id = t.id" +
+                            ") SELECT COUNT(*) FROM thread";
         // First delete all replies
         String deleteRepliesSql = "DELETE FROM lesson_comments WHERE parent_id = ?";
         String deleteCommentSql = "DELETE FROM lesson_comments WHERE id = ?";
+        String lessonCountSql = "UPDATE lessons SET comment_count = GREATEST(comment_count - ?, 0) WHERE id = ?";
+        String replyCountSql = "UPDATE lesson_comments SET reply_count = GREATEST(reply_count - 1, 0) WHERE id = ?";
 
         try (Connection conn = DBConnection.getInstance().getConnection()) {
             conn.setAutoCommit(false);
 
-            try (PreparedStatement repliesStmt = conn.prepareStatement(deleteRepliesSql);
-                 PreparedStatement commentStmt = conn.prepareStatement(deleteCommentSql)) {
+            try (PreparedStatement findStmt = conn.prepareStatement(findSql);
+                 PreparedStatement lockStmt = conn.prepareStatement(lockLessonSql);
+                 PreparedStatement subtreeStmt = conn.prepareStatement(subtreeSql);
+                 PreparedStatement repliesStmt = conn.prepareStatement(deleteRepliesSql);
+                 PreparedStatement commentStmt = conn.prepareStatement(deleteCommentSql);
+                 PreparedStatement lessonStmt = conn.prepareStatement(lessonCountSql);
+                 PreparedStatement replyStmt = conn.prepareStatement(replyCountSql)) {
+
+                findStmt.setInt(1, commentId);
+                int lessonId;
+                Integer parentId = null;
+                try (ResultSet rs = findStmt.executeQuery()) {
+                    if (!rs.next()) {
+                        conn.rollback();
+                        return false;
+                    }
+                    lessonId = rs.getInt("lesson_id");
+                    int parent = rs.getInt("parent_id");
+                    if (!rs.wasNull()) {
+                        parentId = parent;
+                    }
+                }
+
+                lockStmt.setInt(1, lessonId);
+                lockStmt.executeQuery().close();
+
+                int removed = 0;
+                subtreeStmt.setInt(1, commentId);
+                try (ResultSet rs = subtreeStmt.executeQuery()) {
+                    if (rs.next()) {
+                        removed = rs.getInt(1);
+                    }
+                }
 
                 // Delete replies
                 repliesStmt.setInt(1, commentId);
@@ -194,6 +352,17 @@ public class CommentDAO {
                 commentStmt.setInt(1, commentId);
                 int rowsAffected = commentStmt.executeUpdate();
 
+                if (rowsAffected > 0) {
+                    lessonStmt.setInt(1, removed);
+                    lessonStmt.setInt(2, lessonId);
+                    lessonStmt.executeUpdate();
+
+                    if (parentId != null) {
+                        replyStmt.setInt(1, parentId);
+                        replyStmt.executeUpdate();
+                    }
+                }
+
                 conn.commit();
                 return rowsAffected > 0;
 
@@ -210,10 +379,10 @@ public class CommentDAO {
     }
 
     /**
-     * Count comments for a lesson
+     * Count comments for a lesson (cached lessons.comment_count)
      */
     public int countByLessonId(int lessonId) {
-        String sql = "SELECT COUNT(*) FROM lesson_comments WHERE lesson_id = ?";
+        String sql = "SELECT comment_count FROM lessons WHERE id = ?";
 
         try (Connection conn = DBConnection.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -231,10 +400,10 @@ public class CommentDAO {
     }
 
     /**
-     * Count replies for a comment
+     * Count direct replies for a comment (cached lesson_comments.reply_count)
      */
     public int countReplies(int commentId) {
-        String sql = "SELECT COUNT(*) FROM lesson_comments WHERE parent_id = ?";
+        String sql = "SELECT reply_count FROM lesson_comments WHERE id = ?";
 
         try (Connection conn = DBConnection.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -251,6 +420,33 @@ public class CommentDAO {
         return 0;
     }
 
+    /**
+     * Recompute reply_count from lesson_comments where it has drifted
+     * Runs on a dedicated connection (background reconciliation).
+     * Returns the number of comments corrected, or -1 on failure.
+     */
+    public int reconcileReplyCounts() {
+        String sql = DBConnection.getInstance().getDialect() == SqlDialect.POSTGRESQL
+                ? "UPDATE lesson_comments c SET reply_count = r.actual " +
+                  "FROM (SELECT p.id, COUNT(ch.id) AS actual FROM lesson_comments p " +
+                  "LEFT JOIN lesson_comments ch ON ch.parent_id = p.id GROUP BY p.id) r " +
+                  "WHERE r.id = c.id AND c.reply_count <> r.actual"
+                // MySQL cannot read the updated table in a subquery; the derived table is materialized first
+                : "UPDATE lesson_comments c " +
+                  "LEFT JOIN (SELECT parent_id, COUNT(*) AS actual FROM lesson_comments " +
+                  "WHERE parent_id IS NOT NULL GROUP BY parent_id) r ON r.parent_id = c.id " +
+                  "SET c.reply_count = COALESCE(r.actual, 0) " +
+                  "WHERE c.reply_count <> COALESCE(r.actual, 0)";
+
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             Statement stmt = conn.createStatement()) {
+            return stmt.executeUpdate(sql);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
     /**
      * Map ResultSet to Comment object
      */
@@ -267,6 +463,7 @@ public class CommentDAO {
 
         comment.setContent(rs.getString("content"));
         comment.setEdited(rs.getBoolean("is_edited"));
+        comment.setReplyCount(rs.getInt("reply_count"));
 
         // User info
         comment.setUserName(rs.getString("user_name"));
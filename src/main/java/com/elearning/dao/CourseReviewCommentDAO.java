@@ -5,7 +5,12 @@ import com.elearning.util.DBConnection;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DAO for course review comments.
@@ -54,6 +59,65 @@ public class CourseReviewCommentDAO {
         return replies;
     }
 
+    /**
+     * Load the comment threads of several reviews in one query
+     * Returns review id -> top-level comments (newest first), each with nested
+     * replies (oldest first); reviews without comments map to an empty list.
+     * Returns null if the query failed, so callers can tell it from "no comments".
+     */
+    public Map<Integer, List<CourseReviewComment>> findThreadsByReviewIds(Collection<Integer> reviewIds) {
+        Map<Integer, List<CourseReviewComment>> threads = new LinkedHashMap<>();
+        if (reviewIds == null || reviewIds.isEmpty()) {
+            return threads;
+        }
+        for (Integer reviewId : reviewIds) {
+            threads.put(reviewId, new ArrayList<>());
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(threads.size(), "?"));
+        String sql = "SELECT c.*, u.full_name as user_name, u.avatar_path as user_avatar " +
+                "FROM course_review_comments c " +
+                "JOIN users u ON c.user_id = u.id " +
+                "WHERE c.review_id IN (" + placeholders + ") " +
+                "ORDER BY c.created_at ASC, c.id ASC";
+
+        List<CourseReviewComment> rows = new ArrayList<>();
+        try (Connection conn = DBConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (Integer reviewId : threads.keySet()) {
+                stmt.setInt(index++, reviewId);
+            }
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                rows.add(mapResultSet(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+
+        // Link rows into trees in O(n); rows are oldest first, roots are reversed below
+        Map<Integer, CourseReviewComment> byId = new HashMap<>(rows.size() * 2);
+        for (CourseReviewComment comment : rows) {
+            byId.put(comment.getId(), comment);
+        }
+        for (CourseReviewComment comment : rows) {
+            if (comment.getParentId() == null) {
+                threads.get(comment.getReviewId()).add(comment);
+            } else {
+                CourseReviewComment parent = byId.get(comment.getParentId());
+                if (parent != null) {
+                    parent.addReply(comment);
+                }
+            }
+        }
+        for (List<CourseReviewComment> roots : threads.values()) {
+            Collections.reverse(roots);
+        }
+        return threads;
+    }
+
     public CourseReviewComment findById(int id) {
         String sql = "SELECT c.*, u.full_name as user_name, u.avatar_path as user_avatar " +
                 "FROM course_review_comments c " +
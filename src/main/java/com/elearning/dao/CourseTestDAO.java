@@ -61,8 +61,9 @@ public class CourseTestDAO {
      */
     public CourseTest create(CourseTest test) {
         String sql = "INSERT INTO course_tests (course_id, title, description, passing_score, " +
-                     "time_limit_minutes, shuffle_questions, shuffle_options, max_attempts, is_published) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                     "time_limit_minutes, shuffle_questions, shuffle_options, max_attempts, is_published, " +
+                     "bank_draw_count, bank_group_by) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
         try (Connection conn = DBConnection.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
@@ -89,6 +90,13 @@ public class CourseTestDAO {
 
             stmt.setBoolean(9, test.getIsPublished());
 
+            if (test.getBankDrawCount() != null) {
+                stmt.setInt(10, test.getBankDrawCount());
+            } else {
+                stmt.setNull(10, Types.INTEGER);
+            }
+            stmt.setString(11, test.getBankGroupBy() != null ? test.getBankGroupBy() : "NONE");
+
             int affectedRows = stmt.executeUpdate();
             if (affectedRows > 0) {
                 ResultSet rs = stmt.getGeneratedKeys();
@@ -109,7 +117,7 @@ public class CourseTestDAO {
     public boolean update(CourseTest test) {
         String sql = "UPDATE course_tests SET title = ?, description = ?, passing_score = ?, " +
                      "time_limit_minutes = ?, shuffle_questions = ?, shuffle_options = ?, " +
-                     "max_attempts = ?, is_published = ? WHERE id = ?";
+                     "max_attempts = ?, is_published = ?, bank_draw_count = ?, bank_group_by = ? WHERE id = ?";
 
         try (Connection conn = DBConnection.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -134,7 +142,14 @@ public class CourseTestDAO {
             }
 
             stmt.setBoolean(8, test.getIsPublished());
-            stmt.setInt(9, test.getId());
+
+            if (test.getBankDrawCount() != null) {
+                stmt.setInt(9, test.getBankDrawCount());
+            } else {
+                stmt.setNull(9, Types.INTEGER);
+            }
+            stmt.setString(10, test.getBankGroupBy() != null ? test.getBankGroupBy() : "NONE");
+            stmt.setInt(11, test.getId());
 
             return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
@@ -283,6 +298,13 @@ public class CourseTestDAO {
 
         test.setIsPublished(rs.getBoolean("is_published"));
 
+        int bankDrawCount = rs.getInt("bank_draw_count");
+        if (!rs.wasNull()) {
+            test.setBankDrawCount(bankDrawCount);
+        }
+        String bankGroupBy = rs.getString("bank_group_by");
+        test.setBankGroupBy(bankGroupBy != null ? bankGroupBy : "NONE");
+
         Timestamp createdAt = rs.getTimestamp("created_at");
         if (createdAt != null) {
             test.setCreatedAt(createdAt.toLocalDateTime());
@@ -132,13 +132,16 @@ public class EnrollmentDAO {
             return false;
         }
 
-        String sql = "INSERT INTO enrollments (user_id, course_id, progress_percent) VALUES (?, ?, 0.0)";
+        // Snapshot the lesson count so progress can be maintained by delta
+        String sql = "INSERT INTO enrollments (user_id, course_id, progress_percent, completed_lessons, total_lessons) " +
+                     "SELECT ?, ?, 0.0, 0, COUNT(*) FROM lessons WHERE course_id = ?";
 
         try (Connection conn = DBConnection.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setInt(1, userId);
             stmt.setInt(2, courseId);
+            stmt.setInt(3, courseId);
 
             int affected = stmt.executeUpdate();
             return affected > 0;
@@ -199,6 +202,163 @@ public class EnrollmentDAO {
         return false;
     }
 
+    /**
+     * Mark a lesson completed or incomplete and apply the change to the
+     * enrollment's lesson counts, all in one transaction
+     * The enrollment row is locked first, so concurrent windows serialize and
+     * each lesson is counted once. Only the changed lesson is looked at; counts
+     * are recomputed from scratch only when they look stale (e.g. total of 0).
+     * Returns the updated enrollment (course id, counts, progress), or null when
+     * the lesson does not exist or the user is not enrolled in its course.
+     */
+    public Enrollment setLessonCompletion(int userId, int lessonId, boolean completed) throws SQLException {
+        String lockSql = "SELECT e.id, e.course_id, e.completed_lessons, e.total_lessons " +
+                         "FROM lessons l " +
+                         "JOIN enrollments e ON e.course_id = l.course_id AND e.user_id = ? " +
+                         "WHERE l.id = ? FOR UPDATE";
+        // Separate locking read: outer-joined rows cannot be locked on every database
+        String currentSql = "SELECT is_completed FROM lesson_progress WHERE user_id = ? AND lesson_id = ? FOR UPDATE";
+        String completeSql = LessonProgressDAO.markCompletedSql(DBConnection.getInstance().getDialect(), "lesson_progress");
+        String incompleteSql = "UPDATE lesson_progress SET is_completed = FALSE, completed_at = NULL " +
+                               "WHERE user_id = ? AND lesson_id = ?";
+        String progressSql = "UPDATE enrollments SET completed_lessons = ?, total_lessons = ?, progress_percent = ?, " +
+                             "completed_at = CASE WHEN ? >= 100.0 AND completed_at IS NULL THEN NOW() ELSE completed_at END" +
+                             (completed ? ", last_accessed_at = NOW() " : " ") +
+                             "WHERE id = ?";
+
+        try (Connection conn = DBConnection.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Enrollment enrollment;
+                boolean wasCompleted;
+                try (PreparedStatement stmt = conn.prepareStatement(lockSql)) {
+                    stmt.setInt(1, userId);
+                    stmt.setInt(2, lessonId);
+                    ResultSet rs = stmt.executeQuery();
+                    if (!rs.next()) {
+                        conn.rollback();
+                        return null;
+                    }
+                    enrollment = new Enrollment(userId, rs.getInt("course_id"));
+                    enrollment.setId(rs.getInt("id"));
+                    enrollment.setCompletedLessons(rs.getInt("completed_lessons"));
+                    enrollment.setTotalLessons(rs.getInt("total_lessons"));
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(currentSql)) {
+                    stmt.setInt(1, userId);
+                    stmt.setInt(2, lessonId);
+                    ResultSet rs = stmt.executeQuery();
+                    wasCompleted = rs.next() && rs.getBoolean("is_completed");
+                }
+
+                if (completed) {
+                    try (PreparedStatement stmt = conn.prepareStatement(completeSql)) {
+                        stmt.setInt(1, userId);
+                        stmt.setInt(2, lessonId);
+                        stmt.executeUpdate();
+                    }
+                } else if (wasCompleted) {
+                    try (PreparedStatement stmt = conn.prepareStatement(incompleteSql)) {
+                        stmt.setInt(1, userId);
+                        stmt.setInt(2, lessonId);
+                        stmt.executeUpdate();
+                    }
+                }
+
+                int delta = completed == wasCompleted ? 0 : (completed ? 1 : -1);
+                int completedLessons = enrollment.getCompletedLessons() + delta;
+                int totalLessons = enrollment.getTotalLessons();
+                if (totalLessons <= 0 || completedLessons < 0 || completedLessons > totalLessons) {
+                    // Counts predate this column or drifted; rebuild them once
+                    int[] counts = countLessons(conn, userId, enrollment.getCourseId());
+                    completedLessons = counts[0];
+                    totalLessons = counts[1];
+                }
+                double progressPercent = totalLessons == 0 ? 0.0 : (completedLessons * 100.0) / totalLessons;
+
+                try (PreparedStatement stmt = conn.prepareStatement(progressSql)) {
+                    stmt.setInt(1, completedLessons);
+                    stmt.setInt(2, totalLessons);
+                    stmt.setDouble(3, progressPercent);
+                    stmt.setDouble(4, progressPercent);
+                    stmt.setInt(5, enrollment.getId());
+                    stmt.executeUpdate();
+                }
+
+                conn.commit();
+                enrollment.setCompletedLessons(completedLessons);
+                enrollment.setTotalLessons(totalLessons);
+                enrollment.setProgressPercent(progressPercent);
+                return enrollment;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Recompute lesson counts and progress for every enrollment in a course
+     * Needed only when lessons are added to or removed from the course
+     */
+    public boolean recalculateCourseProgress(int courseId) {
+        String countsSql = "UPDATE enrollments SET " +
+                           "total_lessons = (SELECT COUNT(*) FROM lessons l WHERE l.course_id = enrollments.course_id), " +
+                           "completed_lessons = (SELECT COUNT(*) FROM lesson_progress lp " +
+                           "JOIN lessons l ON lp.lesson_id = l.id " +
+                           "WHERE lp.user_id = enrollments.user_id AND l.course_id = enrollments.course_id " +
+                           "AND lp.is_completed = TRUE) " +
+                           "WHERE course_id = ?";
+        String percentSql = "UPDATE enrollments SET " +
+                            "progress_percent = CASE WHEN total_lessons > 0 THEN completed_lessons * 100.0 / total_lessons ELSE 0 END " +
+                            "WHERE course_id = ?";
+
+        try (Connection conn = DBConnection.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement countsStmt = conn.prepareStatement(countsSql);
+                 PreparedStatement percentStmt = conn.prepareStatement(percentSql)) {
+                countsStmt.setInt(1, courseId);
+                countsStmt.executeUpdate();
+                percentStmt.setInt(1, courseId);
+                percentStmt.executeUpdate();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Completed and total lesson counts for one enrollment, on the caller's connection
+     */
+    private int[] countLessons(Connection conn, int userId, int courseId) throws SQLException {
+        String sql = "SELECT " +
+                     "COUNT(l.id) as total_lessons, " +
+                     "COUNT(CASE WHEN lp.is_completed = TRUE THEN 1 END) as completed_lessons " +
+                     "FROM lessons l " +
+                     "LEFT JOIN lesson_progress lp ON l.id = lp.lesson_id AND lp.user_id = ? " +
+                     "WHERE l.course_id = ?";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            stmt.setInt(2, courseId);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return new int[]{rs.getInt("completed_lessons"), rs.getInt("total_lessons")};
+            }
+        }
+        return new int[]{0, 0};
+    }
+
     /**
      * Update last accessed timestamp
      */
@@ -448,6 +608,8 @@ public class EnrollmentDAO {
         enrollment.setUserId(rs.getInt("user_id"));
         enrollment.setCourseId(rs.getInt("course_id"));
         enrollment.setProgressPercent(rs.getDouble("progress_percent"));
+        enrollment.setCompletedLessons(rs.getInt("completed_lessons"));
+        enrollment.setTotalLessons(rs.getInt("total_lessons"));
 
         Timestamp enrolledAt = rs.getTimestamp("enrolled_at");
         if (enrolledAt != null) {
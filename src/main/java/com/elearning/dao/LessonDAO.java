@@ -2,11 +2,14 @@ package com.elearning.dao;
 
 import com.elearning.model.Lesson;
 import com.elearning.util.DBConnection;
+import com.elearning.util.VideoMetadataProbe;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DAO for Lesson entity
@@ -123,28 +126,39 @@ public class LessonDAO {
      * Update lesson
      */
     public boolean update(Lesson lesson) {
-        String sql = "UPDATE lessons SET title = ?, video_path = ?, content_text = ?, " +
+        // Probed metadata is cleared when the video changes; these come first because
+        // MySQL evaluates SET left to right and must still see the old video_path
+        String keepIfSameVideo = "CASE WHEN video_path = ? THEN %s END";
+        String sql = "UPDATE lessons SET " +
+                     "duration_seconds = " + String.format(keepIfSameVideo, "duration_seconds") + ", " +
+                     "video_width = " + String.format(keepIfSameVideo, "video_width") + ", " +
+                     "video_height = " + String.format(keepIfSameVideo, "video_height") + ", " +
+                     "video_bitrate_kbps = " + String.format(keepIfSameVideo, "video_bitrate_kbps") + ", " +
+                     "title = ?, video_path = ?, content_text = ?, " +
                      "duration_minutes = ?, order_index = ?, is_preview = ? " +
                      "WHERE id = ?";
 
         try (Connection conn = DBConnection.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, lesson.getTitle());
-            stmt.setString(2, lesson.getVideoPath());
+            for (int i = 1; i <= 4; i++) {
+                stmt.setString(i, lesson.getVideoPath());
+            }
+            stmt.setString(5, lesson.getTitle());
+            stmt.setString(6, lesson.getVideoPath());
             // Map description to content_text for database storage
             String content = lesson.getDescription() != null ? lesson.getDescription() : lesson.getContentText();
-            stmt.setString(3, content);
+            stmt.setString(7, content);
 
             if (lesson.getDurationMinutes() != null) {
-                stmt.setInt(4, lesson.getDurationMinutes());
+                stmt.setInt(8, lesson.getDurationMinutes());
             } else {
-                stmt.setNull(4, Types.INTEGER);
+                stmt.setNull(8, Types.INTEGER);
             }
 
-            stmt.setInt(5, lesson.getOrderIndex());
-            stmt.setBoolean(6, lesson.isPreview());
-            stmt.setInt(7, lesson.getId());
+            stmt.setInt(9, lesson.getOrderIndex());
+            stmt.setBoolean(10, lesson.isPreview());
+            stmt.setInt(11, lesson.getId());
 
             return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
@@ -245,10 +259,36 @@ public class LessonDAO {
     }
 
     /**
-     * Get total duration of all lessons in a course
+     * Recompute like_count, comment_count and view_count from lesson_likes/lesson_comments/lesson_views
+     * Only lessons whose cached values drifted are written. Runs on a dedicated
+     * connection (background reconciliation).
+     * Returns the number of lessons corrected, or -1 on failure.
+     */
+    public int reconcileCounters() {
+        String likes = "(SELECT COUNT(*) FROM lesson_likes ll WHERE ll.lesson_id = lessons.id)";
+        String comments = "(SELECT COUNT(*) FROM lesson_comments c WHERE c.lesson_id = lessons.id)";
+        String views = "(SELECT COUNT(*) FROM lesson_views lv WHERE lv.lesson_id = lessons.id)";
+        String sql = "UPDATE lessons SET like_count = " + likes + ", comment_count = " + comments +
+                     ", view_count = " + views + " " +
+                     "WHERE like_count <> " + likes + " OR comment_count <> " + comments +
+                     " OR view_count <> " + views;
+
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             Statement stmt = conn.createStatement()) {
+            return stmt.executeUpdate(sql);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    /**
+     * Get total duration of all lessons in a course, in minutes
+     * Uses the probed video length where known and the entered minutes otherwise.
      */
     public int getTotalDuration(int courseId) {
-        String sql = "SELECT COALESCE(SUM(duration_minutes), 0) FROM lessons WHERE course_id = ?";
+        String sql = "SELECT COALESCE(SUM(CASE WHEN duration_seconds > 0 THEN duration_seconds " +
+                     "ELSE duration_minutes * 60 END), 0) FROM lessons WHERE course_id = ?";
 
         try (Connection conn = DBConnection.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -257,7 +297,7 @@ public class LessonDAO {
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return rs.getInt(1);
+                return (int) Math.round(rs.getLong(1) / 60.0);
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -265,6 +305,62 @@ public class LessonDAO {
         return 0;
     }
 
+    /**
+     * Lessons with a video that has not been probed yet, by id (keyset paging)
+     */
+    public Map<Integer, String> findUnprobedVideos(int afterId, int limit) {
+        Map<Integer, String> videos = new LinkedHashMap<>();
+        String sql = "SELECT id, video_path FROM lessons " +
+                     "WHERE id > ? AND duration_seconds IS NULL AND video_path IS NOT NULL AND video_path <> '' " +
+                     "ORDER BY id LIMIT ?";
+
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                videos.put(rs.getInt("id"), rs.getString("video_path"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return videos;
+    }
+
+    /**
+     * Store probed video metadata, only if the lesson still has the probed video
+     * A probe without a duration is stored as 0 seconds so the lesson is not probed
+     * again; a known duration also replaces the hand-entered minutes.
+     */
+    public boolean updateVideoMetadata(int lessonId, String videoPath, VideoMetadataProbe.Metadata metadata) {
+        String sql = "UPDATE lessons SET duration_seconds = ?, video_width = ?, video_height = ?, " +
+                     "video_bitrate_kbps = ?, duration_minutes = COALESCE(?, duration_minutes) " +
+                     "WHERE id = ? AND video_path = ?";
+
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, metadata.getDurationSeconds());
+            stmt.setInt(2, metadata.getWidth());
+            stmt.setInt(3, metadata.getHeight());
+            stmt.setInt(4, metadata.getBitrateKbps());
+            if (metadata.hasDuration()) {
+                stmt.setInt(5, metadata.getDurationMinutes());
+            } else {
+                stmt.setNull(5, Types.INTEGER);
+            }
+            stmt.setInt(6, lessonId);
+            stmt.setString(7, videoPath);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
     /**
      * Map ResultSet to Lesson object
      */
@@ -284,8 +380,19 @@ public class LessonDAO {
             lesson.setDurationMinutes(durationMinutes);
         }
 
+        Integer durationSeconds = rs.getInt("duration_seconds");
+        if (!rs.wasNull()) {
+            lesson.setDurationSeconds(durationSeconds);
+            lesson.setVideoWidth(rs.getInt("video_width"));
+            lesson.setVideoHeight(rs.getInt("video_height"));
+            lesson.setVideoBitrateKbps(rs.getInt("video_bitrate_kbps"));
+        }
+
         lesson.setOrderIndex(rs.getInt("order_index"));
         lesson.setPreview(rs.getBoolean("is_preview"));
+        lesson.setLikeCount(rs.getInt("like_count"));
+        lesson.setCommentCount(rs.getInt("comment_count"));
+        lesson.setViewCount(rs.getInt("view_count"));
 
         Timestamp createdAt = rs.getTimestamp("created_at");
         if (createdAt != null) {
@@ -0,0 +1,112 @@
+package com.elearning.dao;
+
+import com.elearning.util.DBConnection;
+import com.elearning.util.SqlDialect;
+
+import java.sql.*;
+
+/**
+ * DAO for lesson likes
+ * Like and unlike keep the cached lessons.like_count in the same transaction
+ * as the lesson_likes row, so the counter only moves when a row really changes.
+ */
+public class LessonLikeDAO {
+    private final String insertSql;
+
+    public LessonLikeDAO() {
+        this(DBConnection.getInstance().getDialect());
+    }
+
+    public LessonLikeDAO(SqlDialect dialect) {
+        this.insertSql = dialect.insertOrIgnore("INSERT INTO lesson_likes (lesson_id, user_id) VALUES (?, ?)");
+    }
+
+    /**
+     * Add a like; returns true only if the user had not liked the lesson yet
+     */
+    public boolean insert(int lessonId, int userId) {
+        return change(insertSql, "UPDATE lessons SET like_count = like_count + 1 WHERE id = ?", lessonId, userId);
+    }
+
+    /**
+     * Remove a like; returns true only if a like was removed
+     */
+    public boolean delete(int lessonId, int userId) {
+        return change("DELETE FROM lesson_likes WHERE lesson_id = ? AND user_id = ?",
+                "UPDATE lessons SET like_count = GREATEST(like_count - 1, 0) WHERE id = ?", lessonId, userId);
+    }
+
+    /**
+     * Check whether a user liked a lesson
+     */
+    public boolean exists(int lessonId, int userId) {
+        String sql = "SELECT 1 FROM lesson_likes WHERE lesson_id = ? AND user_id = ?";
+
+        try (Connection conn = DBConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, lessonId);
+            stmt.setInt(2, userId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Count likes for a lesson (cached lessons.like_count)
+     */
+    public int countByLessonId(int lessonId) {
+        String sql = "SELECT like_count FROM lessons WHERE id = ?";
+
+        try (Connection conn = DBConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, lessonId);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * Write the like row and adjust the counter only if the row changed
+     */
+    private boolean change(String rowSql, String counterSql, int lessonId, int userId) {
+        try (Connection conn = DBConnection.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement rowStmt = conn.prepareStatement(rowSql);
+                 PreparedStatement counterStmt = conn.prepareStatement(counterSql)) {
+
+                rowStmt.setInt(1, lessonId);
+                rowStmt.setInt(2, userId);
+                boolean changed = rowStmt.executeUpdate() > 0;
+
+                if (changed) {
+                    counterStmt.setInt(1, lessonId);
+                    counterStmt.executeUpdate();
+                }
+
+                conn.commit();
+                return changed;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+}
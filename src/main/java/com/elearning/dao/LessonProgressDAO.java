@@ -2,16 +2,77 @@ package com.elearning.dao;
 
 import com.elearning.model.LessonProgress;
 import com.elearning.util.DBConnection;
+import com.elearning.util.SqlDialect;
+import com.elearning.util.WatchCoverage;
 
 import java.sql.*;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 /**
  * DAO for LessonProgress entity
  */
 public class LessonProgressDAO {
+    private static final String TABLE = "lesson_progress";
+    private static final String[] UNIQUE_KEY = {"user_id", "lesson_id"};
+
+    // Mutations are single upsert statements on uk_user_lesson, built once per dialect
+    private final String markOpenedSql;
+    private final String markCompletedSql;
+    private final String openedBatchSql;
+    private final String lastAccessedBatchSql;
+    private final String checkpointBatchSql;
+
+    public LessonProgressDAO() {
+        this(DBConnection.getInstance().getDialect());
+    }
+
+    public LessonProgressDAO(SqlDialect dialect) {
+        this.markOpenedSql = markOpenedSql(dialect, TABLE);
+        this.markCompletedSql = markCompletedSql(dialect, TABLE);
+        this.openedBatchSql = dialect.upsert(
+                "INSERT INTO " + TABLE + " (user_id, lesson_id, is_completed, last_opened_at) " +
+                "SELECT e.user_id, l.id, FALSE, " + dialect.secondsAgo() + " FROM lessons l " +
+                "JOIN enrollments e ON e.course_id = l.course_id AND e.user_id = ? " +
+                "WHERE l.id = ?",
+                UNIQUE_KEY,
+                "last_opened_at = GREATEST(COALESCE(" + TABLE + ".last_opened_at, " + dialect.inserted("last_opened_at") + "), " +
+                dialect.inserted("last_opened_at") + ")");
+        this.lastAccessedBatchSql = "UPDATE enrollments SET last_accessed_at = " +
+                "GREATEST(COALESCE(last_accessed_at, " + dialect.secondsAgo() + "), " + dialect.secondsAgo() + ") " +
+                "WHERE user_id = ? AND course_id = (SELECT course_id FROM lessons WHERE id = ?)";
+        this.checkpointBatchSql = dialect.upsert(
+                "INSERT INTO " + TABLE + " (user_id, lesson_id, is_completed, position_seconds) " +
+                "SELECT e.user_id, l.id, FALSE, ? FROM lessons l " +
+                "JOIN enrollments e ON e.course_id = l.course_id AND e.user_id = ? " +
+                "WHERE l.id = ?",
+                UNIQUE_KEY,
+                "position_seconds = " + dialect.inserted("position_seconds"));
+    }
+
+    /**
+     * Upsert that stamps last_opened_at (parameters: user_id, lesson_id)
+     */
+    public static String markOpenedSql(SqlDialect dialect, String table) {
+        return dialect.upsert(
+                "INSERT INTO " + table + " (user_id, lesson_id, is_completed, last_opened_at) VALUES (?, ?, FALSE, NOW())",
+                UNIQUE_KEY,
+                "last_opened_at = NOW()");
+    }
+
+    /**
+     * Upsert that marks a lesson completed (parameters: user_id, lesson_id)
+     */
+    public static String markCompletedSql(SqlDialect dialect, String table) {
+        return dialect.upsert(
+                "INSERT INTO " + table + " (user_id, lesson_id, is_completed, completed_at, last_opened_at) " +
+                "VALUES (?, ?, TRUE, NOW(), NOW())",
+                UNIQUE_KEY,
+                "is_completed = TRUE, completed_at = NOW(), last_opened_at = NOW()");
+    }
 
     /**
      * Find all lesson progress for a user in a specific course
@@ -65,75 +126,144 @@ public class LessonProgressDAO {
      * Mark lesson as opened (creates progress record if doesn't exist)
      */
     public boolean markAsOpened(int userId, int lessonId) {
-        // Check if progress already exists
-        LessonProgress existing = findByUserAndLesson(userId, lessonId);
+        try (Connection conn = DBConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(markOpenedSql)) {
 
-        if (existing != null) {
-            // Update last opened time
-            String sql = "UPDATE lesson_progress SET last_opened_at = NOW() WHERE user_id = ? AND lesson_id = ?";
+            stmt.setInt(1, userId);
+            stmt.setInt(2, lessonId);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
 
-            try (Connection conn = DBConnection.getInstance().getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+    /**
+     * Write a batch of buffered "lesson opened" touches in one transaction
+     * Upserts lesson_progress.last_opened_at and bumps enrollments.last_accessed_at,
+     * never moving either timestamp backwards. Rows are only created while the
+     * user is still enrolled, so a late flush cannot resurrect deleted progress.
+     * Touch times are sent as an age relative to the server's NOW(), keeping them
+     * comparable with the NOW() stamps written by markAsCompleted.
+     * Runs on a dedicated connection because it is called from a background thread.
+     * Returns the number of touches written; throws if the batch is rolled back.
+     */
+    public int recordOpenedBatch(List<LessonProgress> touches) throws SQLException {
+        if (touches == null || touches.isEmpty()) {
+            return 0;
+        }
 
-                stmt.setInt(1, userId);
-                stmt.setInt(2, lessonId);
-                return stmt.executeUpdate() > 0;
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
-        } else {
-            // Create new progress record
-            String sql = "INSERT INTO lesson_progress (user_id, lesson_id, is_completed, last_opened_at) " +
-                         "VALUES (?, ?, FALSE, NOW())";
+        LocalDateTime now = LocalDateTime.now();
 
-            try (Connection conn = DBConnection.getInstance().getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DBConnection.getInstance().openConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement progressStmt = conn.prepareStatement(openedBatchSql);
+                 PreparedStatement enrollmentStmt = conn.prepareStatement(lastAccessedBatchSql)) {
 
-                stmt.setInt(1, userId);
-                stmt.setInt(2, lessonId);
-                return stmt.executeUpdate() > 0;
+                for (LessonProgress touch : touches) {
+                    long ageSeconds = Math.max(0, Duration.between(touch.getLastOpenedAt(), now).getSeconds());
+
+                    progressStmt.setLong(1, ageSeconds);
+                    progressStmt.setInt(2, touch.getUserId());
+                    progressStmt.setInt(3, touch.getLessonId());
+                    progressStmt.addBatch();
+
+                    enrollmentStmt.setLong(1, ageSeconds);
+                    enrollmentStmt.setLong(2, ageSeconds);
+                    enrollmentStmt.setInt(3, touch.getUserId());
+                    enrollmentStmt.setInt(4, touch.getLessonId());
+                    enrollmentStmt.addBatch();
+                }
+
+                progressStmt.executeBatch();
+                enrollmentStmt.executeBatch();
+                conn.commit();
+                return touches.size();
             } catch (SQLException e) {
-                e.printStackTrace();
+                conn.rollback();
+                throw e;
             }
         }
-        return false;
     }
 
     /**
-     * Mark lesson as completed
+     * Write a batch of buffered playback checkpoints in one transaction
+     * The position is overwritten and the watched bitmap is OR-ed into the stored
+     * one under a row lock, so watched_seconds is the video covered across all
+     * sessions. Like recordOpenedBatch, rows are only created while the user is
+     * enrolled. Rows are locked in (user, lesson) order so concurrent flushes
+     * cannot deadlock. Runs on a dedicated connection because it is called from
+     * a background thread. Returns the number of checkpoints written; throws if
+     * the batch is rolled back.
      */
-    public boolean markAsCompleted(int userId, int lessonId) {
-        // Check if progress exists
-        LessonProgress existing = findByUserAndLesson(userId, lessonId);
-
-        if (existing != null) {
-            // Update to completed
-            String sql = "UPDATE lesson_progress SET is_completed = TRUE, completed_at = NOW(), " +
-                         "last_opened_at = NOW() WHERE user_id = ? AND lesson_id = ?";
-
-            try (Connection conn = DBConnection.getInstance().getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+    public int saveCheckpointsBatch(List<LessonProgress> checkpoints) throws SQLException {
+        if (checkpoints == null || checkpoints.isEmpty()) {
+            return 0;
+        }
 
-                stmt.setInt(1, userId);
-                stmt.setInt(2, lessonId);
-                return stmt.executeUpdate() > 0;
+        List<LessonProgress> sorted = new ArrayList<>(checkpoints);
+        sorted.sort(Comparator.comparingInt(LessonProgress::getUserId).thenComparingInt(LessonProgress::getLessonId));
+
+        try (Connection conn = DBConnection.getInstance().openConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(checkpointBatchSql);
+                 PreparedStatement lockStmt = conn.prepareStatement(
+                         "SELECT watched_bitmap FROM " + TABLE + " WHERE user_id = ? AND lesson_id = ? FOR UPDATE");
+                 PreparedStatement watchedStmt = conn.prepareStatement(
+                         "UPDATE " + TABLE + " SET watched_bitmap = ?, watched_seconds = ? WHERE user_id = ? AND lesson_id = ?")) {
+
+                for (LessonProgress checkpoint : sorted) {
+                    stmt.setInt(1, checkpoint.getPositionSeconds());
+                    stmt.setInt(2, checkpoint.getUserId());
+                    stmt.setInt(3, checkpoint.getLessonId());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+
+                for (LessonProgress checkpoint : sorted) {
+                    if (checkpoint.getWatchedBitmap() == null || checkpoint.getWatchedBitmap().length == 0) {
+                        continue;
+                    }
+                    lockStmt.setInt(1, checkpoint.getUserId());
+                    lockStmt.setInt(2, checkpoint.getLessonId());
+                    WatchCoverage watched;
+                    try (ResultSet rs = lockStmt.executeQuery()) {
+                        if (!rs.next()) {
+                            // Not enrolled, so no row was created
+                            continue;
+                        }
+                        watched = WatchCoverage.fromBytes(rs.getBytes("watched_bitmap"));
+                    }
+                    watched.merge(WatchCoverage.fromBytes(checkpoint.getWatchedBitmap()));
+
+                    watchedStmt.setBytes(1, watched.toBytes());
+                    watchedStmt.setInt(2, watched.coveredSeconds());
+                    watchedStmt.setInt(3, checkpoint.getUserId());
+                    watchedStmt.setInt(4, checkpoint.getLessonId());
+                    watchedStmt.addBatch();
+                }
+                watchedStmt.executeBatch();
+                conn.commit();
+                return checkpoints.size();
             } catch (SQLException e) {
-                e.printStackTrace();
+                conn.rollback();
+                throw e;
             }
-        } else {
-            // Create as completed
-            String sql = "INSERT INTO lesson_progress (user_id, lesson_id, is_completed, completed_at, last_opened_at) " +
-                         "VALUES (?, ?, TRUE, NOW(), NOW())";
+        }
+    }
 
-            try (Connection conn = DBConnection.getInstance().getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+    /**
+     * Mark lesson as completed (creates progress record if doesn't exist)
+     */
+    public boolean markAsCompleted(int userId, int lessonId) {
+        try (Connection conn = DBConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(markCompletedSql)) {
 
-                stmt.setInt(1, userId);
-                stmt.setInt(2, lessonId);
-                return stmt.executeUpdate() > 0;
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+            stmt.setInt(1, userId);
+            stmt.setInt(2, lessonId);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
         }
         return false;
     }
@@ -302,6 +432,10 @@ public class LessonProgressDAO {
             progress.setLastOpenedAt(lastOpenedAt.toLocalDateTime());
         }
 
+        progress.setPositionSeconds(rs.getInt("position_seconds"));
+        progress.setWatchedSeconds(rs.getInt("watched_seconds"));
+        progress.setWatchedBitmap(rs.getBytes("watched_bitmap"));
+
         return progress;
     }
 }
@@ -0,0 +1,162 @@
+package com.elearning.dao;
+
+import com.elearning.model.LessonView;
+import com.elearning.util.DBConnection;
+import com.elearning.util.SqlDialect;
+
+import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DAO for lesson views
+ * Raw rows go to lesson_views for analytics; per-lesson totals are kept in the
+ * cached lessons.view_count so read paths never scan lesson_views.
+ */
+public class LessonViewDAO {
+    private final String insertSql;
+
+    public LessonViewDAO() {
+        this(DBConnection.getInstance().getDialect());
+    }
+
+    public LessonViewDAO(SqlDialect dialect) {
+        // SELECT from lessons and users so views of a lesson or user deleted meanwhile are skipped
+        // instead of failing the batch
+        this.insertSql = "INSERT INTO lesson_views (lesson_id, user_id, viewed_at) " +
+                         "SELECT l.id, u.id, " + dialect.secondsAgo() + " FROM lessons l " +
+                         "JOIN users u ON u.id = ? " +
+                         "WHERE l.id = ?";
+    }
+
+    /**
+     * Insert a batch of views and bump lessons.view_count in one transaction
+     * Runs on a dedicated connection (called from the background flusher).
+     * View times are sent as an age so the server clock stamps them.
+     * Returns the number of views written; views of a deleted lesson or user
+     * are skipped. Throws if the batch is rolled back, so the caller can tell a
+     * lost connection (DBConnection.isRetryable) from bad rows.
+     */
+    public int insertBatch(List<LessonView> views) throws SQLException {
+        if (views == null || views.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+
+        try (Connection conn = DBConnection.getInstance().openConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement viewStmt = conn.prepareStatement(insertSql);
+                 PreparedStatement countStmt = conn.prepareStatement(
+                         "UPDATE lessons SET view_count = view_count + ? WHERE id = ?")) {
+
+                for (LessonView view : views) {
+                    bindInsert(viewStmt, view, now);
+                    viewStmt.addBatch();
+                }
+                int[] results = viewStmt.executeBatch();
+
+                // Count only the views that were written
+                Map<Integer, Integer> perLesson = new HashMap<>();
+                int inserted = 0;
+                for (int i = 0; i < results.length; i++) {
+                    if (results[i] > 0 || results[i] == Statement.SUCCESS_NO_INFO) {
+                        perLesson.merge(views.get(i).getLessonId(), 1, Integer::sum);
+                        inserted++;
+                    }
+                }
+
+                for (Map.Entry<Integer, Integer> entry : perLesson.entrySet()) {
+                    countStmt.setInt(1, entry.getValue());
+                    countStmt.setInt(2, entry.getKey());
+                    countStmt.addBatch();
+                }
+                countStmt.executeBatch();
+                conn.commit();
+                return inserted;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Insert one view and bump its lesson's view_count (used to isolate a row that made a batch fail)
+     * Returns false if the lesson or user no longer exists.
+     */
+    public boolean insert(LessonView view) throws SQLException {
+        try (Connection conn = DBConnection.getInstance().openConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement viewStmt = conn.prepareStatement(insertSql);
+                 PreparedStatement countStmt = conn.prepareStatement(
+                         "UPDATE lessons SET view_count = view_count + 1 WHERE id = ?")) {
+
+                bindInsert(viewStmt, view, LocalDateTime.now());
+                boolean inserted = viewStmt.executeUpdate() > 0;
+                if (inserted) {
+                    countStmt.setInt(1, view.getLessonId());
+                    countStmt.executeUpdate();
+                }
+                conn.commit();
+                return inserted;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static void bindInsert(PreparedStatement stmt, LessonView view, LocalDateTime now) throws SQLException {
+        stmt.setLong(1, Math.max(0, Duration.between(view.getViewedAt(), now).getSeconds()));
+        stmt.setInt(2, view.getUserId());
+        stmt.setInt(3, view.getLessonId());
+    }
+
+    /**
+     * View counts for every lesson of a course (cached lessons.view_count), in lesson order
+     */
+    public Map<Integer, Integer> findViewCountsByCourse(int courseId) {
+        Map<Integer, Integer> counts = new LinkedHashMap<>();
+        String sql = "SELECT id, view_count FROM lessons WHERE course_id = ? ORDER BY order_index ASC";
+
+        try (Connection conn = DBConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, courseId);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                counts.put(rs.getInt("id"), rs.getInt("view_count"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return counts;
+    }
+
+    /**
+     * Count views for a lesson (cached lessons.view_count)
+     */
+    public int countByLessonId(int lessonId) {
+        String sql = "SELECT view_count FROM lessons WHERE id = ?";
+
+        try (Connection conn = DBConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, lessonId);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+}
@@ -1,6 +1,8 @@
 package com.elearning.dao;
 
 import com.elearning.util.DBConnection;
+import com.elearning.util.LoginBitmap;
+import com.elearning.util.SqlDialect;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -11,79 +13,278 @@ import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
-import java.util.LinkedHashSet;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 /**
  * DAO for user login logs.
+ * Each login appends a row to user_login_logs and ORs the day's bit into the
+ * user's user_login_months bitmap, so calendar and streak reads touch one
+ * small row per month instead of scanning log rows.
+ * Raw rows older than the retention period are rolled up into
+ * user_login_daily (one row per user and day) and deleted.
  */
 public class LoginLogDAO {
+    // Tables are checked once per JVM rather than on every call
+    private static volatile boolean tablesChecked;
+
+    private final SqlDialect dialect;
+    private final String markDaySql;
+    private final String rollupSql;
+
+    public LoginLogDAO() {
+        this(DBConnection.getInstance().getDialect());
+    }
+
+    public LoginLogDAO(SqlDialect dialect) {
+        this.dialect = dialect;
+        this.markDaySql = dialect.upsert(
+                "INSERT INTO user_login_months (user_id, login_month, day_bits) VALUES (?, ?, ?)",
+                new String[]{"user_id", "login_month"},
+                "day_bits = user_login_months.day_bits | " + dialect.inserted("day_bits"));
+        this.rollupSql = dialect.upsert(
+                "INSERT INTO user_login_daily (user_id, login_date, login_count, first_login_at, last_login_at) " +
+                "SELECT user_id, CAST(login_at AS DATE), COUNT(*), MIN(login_at), MAX(login_at) " +
+                "FROM user_login_logs WHERE id BETWEEN ? AND ? AND login_at < ? " +
+                "GROUP BY user_id, CAST(login_at AS DATE)",
+                new String[]{"user_id", "login_date"},
+                "login_count = user_login_daily.login_count + " + dialect.inserted("login_count") + ", " +
+                "first_login_at = LEAST(user_login_daily.first_login_at, " + dialect.inserted("first_login_at") + "), " +
+                "last_login_at = GREATEST(user_login_daily.last_login_at, " + dialect.inserted("last_login_at") + ")");
+    }
 
     /**
-     * Insert a login log entry.
+     * Insert a login log entry and mark the day in the month bitmap.
      */
     public boolean insertLogin(int userId, LocalDateTime loginAt) {
         ensureTableExists();
         String sql = "INSERT INTO user_login_logs (user_id, login_at) VALUES (?, ?)";
+        try (Connection conn = DBConnection.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                 PreparedStatement bitmapStmt = conn.prepareStatement(markDaySql)) {
+
+                stmt.setInt(1, userId);
+                stmt.setTimestamp(2, Timestamp.valueOf(loginAt));
+                stmt.executeUpdate();
+
+                LocalDate day = loginAt.toLocalDate();
+                bitmapStmt.setInt(1, userId);
+                bitmapStmt.setInt(2, LoginBitmap.monthKey(YearMonth.from(day)));
+                bitmapStmt.setInt(3, LoginBitmap.dayBit(day));
+                bitmapStmt.executeUpdate();
+
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Get the login bitmap for a user and month (0 when there were no logins).
+     */
+    public int findMonthBitmap(int userId, YearMonth month) {
+        ensureTableExists();
+        String sql = "SELECT day_bits FROM user_login_months WHERE user_id = ? AND login_month = ?";
+
         try (Connection conn = DBConnection.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
-            stmt.setTimestamp(2, Timestamp.valueOf(loginAt));
-            return stmt.executeUpdate() > 0;
+            stmt.setInt(2, LoginBitmap.monthKey(month));
+
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return false;
+        return 0;
     }
 
     /**
-     * Get distinct login dates for a user within a given month.
+     * Get the bitmaps for a range of months, oldest first (0 for months without logins).
      */
-    public Set<LocalDate> findLoginDatesForMonth(int userId, YearMonth month) {
+    public List<Integer> findMonthBitmaps(int userId, YearMonth from, YearMonth to) {
         ensureTableExists();
-        Set<LocalDate> dates = new LinkedHashSet<>();
-        LocalDateTime start = month.atDay(1).atStartOfDay();
-        LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
-        String sql = "SELECT DISTINCT DATE(login_at) AS login_date " +
-                "FROM user_login_logs " +
-                "WHERE user_id = ? AND login_at >= ? AND login_at < ? " +
-                "ORDER BY login_date ASC";
+        List<Integer> bitmaps = new ArrayList<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            bitmaps.add(0);
+        }
+
+        String sql = "SELECT login_month, day_bits FROM user_login_months " +
+                "WHERE user_id = ? AND login_month BETWEEN ? AND ?";
 
         try (Connection conn = DBConnection.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
-            stmt.setTimestamp(2, Timestamp.valueOf(start));
-            stmt.setTimestamp(3, Timestamp.valueOf(end));
+            stmt.setInt(2, LoginBitmap.monthKey(from));
+            stmt.setInt(3, LoginBitmap.monthKey(to));
 
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
-                java.sql.Date date = rs.getDate("login_date");
-                if (date != null) {
-                    dates.add(date.toLocalDate());
+                int key = rs.getInt("login_month");
+                YearMonth month = YearMonth.of(key / 100, key % 100);
+                int index = (int) from.until(month, ChronoUnit.MONTHS);
+                bitmaps.set(index, rs.getInt("day_bits"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return bitmaps;
+    }
+
+    /**
+     * Get distinct login dates for a user within a given month.
+     */
+    public Set<LocalDate> findLoginDatesForMonth(int userId, YearMonth month) {
+        return LoginBitmap.toDates(month, findMonthBitmap(userId, month));
+    }
+
+    /**
+     * Roll up and delete one chunk of raw log rows older than the cutoff.
+     * The chunk is the oldest rows by id; rollup and delete run in one
+     * transaction on a dedicated connection (background job).
+     * Returns the number of rows compacted, 0 when nothing is left, or -1 on failure.
+     */
+    public int compactChunk(LocalDateTime cutoff, int chunkSize) {
+        ensureTableExists();
+        String boundsSql = "SELECT MIN(id), MAX(id), COUNT(*) FROM (" +
+                "SELECT id FROM user_login_logs WHERE login_at < ? ORDER BY id LIMIT ?) chunk";
+        String deleteSql = "DELETE FROM user_login_logs WHERE id BETWEEN ? AND ? AND login_at < ?";
+        Timestamp cutoffTs = Timestamp.valueOf(cutoff);
+
+        try (Connection conn = DBConnection.getInstance().openConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement boundsStmt = conn.prepareStatement(boundsSql);
+                 PreparedStatement rollupStmt = conn.prepareStatement(rollupSql);
+                 PreparedStatement deleteStmt = conn.prepareStatement(deleteSql)) {
+
+                boundsStmt.setTimestamp(1, cutoffTs);
+                boundsStmt.setInt(2, chunkSize);
+                long minId;
+                long maxId;
+                try (ResultSet rs = boundsStmt.executeQuery()) {
+                    if (!rs.next() || rs.getInt(3) == 0) {
+                        conn.rollback();
+                        return 0;
+                    }
+                    minId = rs.getLong(1);
+                    maxId = rs.getLong(2);
                 }
+
+                // The id range holds exactly the chunk's rows that are older than the cutoff
+                rollupStmt.setLong(1, minId);
+                rollupStmt.setLong(2, maxId);
+                rollupStmt.setTimestamp(3, cutoffTs);
+                rollupStmt.executeUpdate();
+
+                deleteStmt.setLong(1, minId);
+                deleteStmt.setLong(2, maxId);
+                deleteStmt.setTimestamp(3, cutoffTs);
+                int deleted = deleteStmt.executeUpdate();
+
+                conn.commit();
+                return deleted;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return dates;
+        return -1;
     }
 
     private void ensureTableExists() {
-        String ddl = "CREATE TABLE IF NOT EXISTS user_login_logs (" +
-                "id BIGINT PRIMARY KEY AUTO_INCREMENT, " +
-                "user_id INT NOT NULL, " +
-                "login_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
-                "INDEX idx_login_user (user_id), " +
-                "INDEX idx_login_at (login_at), " +
-                "FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE" +
-                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
+        if (tablesChecked) {
+            return;
+        }
+        String idColumn = dialect == SqlDialect.POSTGRESQL
+                ? "id BIGSERIAL PRIMARY KEY, "
+                : "id BIGINT PRIMARY KEY AUTO_INCREMENT, ";
         try (Connection conn = DBConnection.getInstance().getConnection();
              Statement stmt = conn.createStatement()) {
-            stmt.execute(ddl);
+            createTable(stmt, "user_login_logs",
+                    idColumn +
+                    "user_id INT NOT NULL, " +
+                    "login_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                    "FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE",
+                    "idx_login_user_time (user_id, login_at)",
+                    "idx_login_at (login_at)");
+            createTable(stmt, "user_login_daily",
+                    "user_id INT NOT NULL, " +
+                    "login_date DATE NOT NULL, " +
+                    "login_count INT NOT NULL DEFAULT 0, " +
+                    "first_login_at TIMESTAMP NULL, " +
+                    "last_login_at TIMESTAMP NULL, " +
+                    "PRIMARY KEY (user_id, login_date), " +
+                    "FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE",
+                    "idx_daily_date (login_date)");
+            boolean bitmapsExisted = conn.getMetaData()
+                    .getTables(conn.getCatalog(), null, "user_login_months", null).next();
+            if (!bitmapsExisted) {
+                createTable(stmt, "user_login_months",
+                        "user_id INT NOT NULL, " +
+                        "login_month INT NOT NULL, " +
+                        "day_bits INT NOT NULL DEFAULT 0, " +
+                        "PRIMARY KEY (user_id, login_month), " +
+                        "FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE");
+                // Build bitmaps for logins recorded before the table existed; another
+                // client starting at the same time may be doing the same, so OR into its rows
+                stmt.executeUpdate(backfillSql());
+            }
+            tablesChecked = true;
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
+
+    /**
+     * CREATE TABLE IF NOT EXISTS with secondary indexes given as "name (columns)"
+     * MySQL declares them inline; PostgreSQL needs separate CREATE INDEX statements.
+     */
+    private void createTable(Statement stmt, String table, String columns, String... indexes) throws SQLException {
+        if (dialect == SqlDialect.POSTGRESQL) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + table + " (" + columns + ")");
+            for (String index : indexes) {
+                int space = index.indexOf(' ');
+                stmt.execute("CREATE INDEX IF NOT EXISTS " + index.substring(0, space) +
+                        " ON " + table + index.substring(space));
+            }
+            return;
+        }
+        StringBuilder ddl = new StringBuilder("CREATE TABLE IF NOT EXISTS ").append(table)
+                .append(" (").append(columns);
+        for (String index : indexes) {
+            ddl.append(", INDEX ").append(index);
+        }
+        stmt.execute(ddl.append(") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4").toString());
+    }
+
+    private String backfillSql() {
+        String select = dialect == SqlDialect.POSTGRESQL
+                ? "SELECT user_id, CAST(TO_CHAR(login_at, 'YYYYMM') AS INT), " +
+                  "BIT_OR(1 << (EXTRACT(DAY FROM login_at)::INT - 1)) " +
+                  "FROM user_login_logs GROUP BY 1, 2"
+                : "SELECT user_id, EXTRACT(YEAR_MONTH FROM login_at), BIT_OR(1 << (DAY(login_at) - 1)) " +
+                  "FROM user_login_logs GROUP BY user_id, EXTRACT(YEAR_MONTH FROM login_at)";
+        return dialect.upsert(
+                "INSERT INTO user_login_months (user_id, login_month, day_bits) " + select,
+                new String[]{"user_id", "login_month"},
+                "day_bits = user_login_months.day_bits | " + dialect.inserted("day_bits"));
+    }
 }
@@ -0,0 +1,411 @@
+package com.elearning.dao;
+
+import com.elearning.model.MediaObject;
+import com.elearning.util.DBConnection;
+import com.elearning.util.SqlDialect;
+import com.elearning.util.VideoMetadataProbe;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DAO for the content-addressed media store (media_objects)
+ * ref_count is the number of lessons.video_path / courses.thumbnail_path values
+ * pointing at an object. It is adjusted on store and release and periodically
+ * recounted from the referencing tables, which stay the source of truth.
+ * Writes run on dedicated connections because uploads and the GC run off the UI thread.
+ */
+public class MediaObjectDAO {
+    private final SqlDialect dialect;
+    private final String insertSql;
+
+    public MediaObjectDAO() {
+        this(DBConnection.getInstance().getDialect());
+    }
+
+    public MediaObjectDAO(SqlDialect dialect) {
+        this.dialect = dialect;
+        this.insertSql = dialect.insertOrIgnore(
+                "INSERT INTO media_objects (sha256, storage_path, size_bytes, ref_count) VALUES (?, ?, ?, 1)");
+    }
+
+    /**
+     * Work on an object's file while the current transaction holds its row lock
+     */
+    public interface LockedFileStep {
+        /**
+         * @return false to roll the transaction back
+         */
+        boolean run(MediaObject object);
+    }
+
+    /**
+     * Register one more reference to the content, creating the row if it is new
+     * Returns the canonical row (its storage_path wins over the proposed one),
+     * or null on failure. whileLocked runs before the commit, so work on the file
+     * (e.g. refreshing its mtime) is ordered against a GC deleting the same object.
+     */
+    public MediaObject acquire(String sha256, String proposedPath, long sizeBytes, LockedFileStep whileLocked) {
+        String updateSql = "UPDATE media_objects SET ref_count = ref_count + 1, updated_at = CURRENT_TIMESTAMP " +
+                           "WHERE sha256 = ?";
+
+        try (Connection conn = DBConnection.getInstance().openConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insertStmt = conn.prepareStatement(insertSql);
+                 PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
+
+                // A concurrent GC may delete the row between the two statements; retry once
+                for (int attempt = 0; attempt < 2; attempt++) {
+                    insertStmt.setString(1, sha256);
+                    insertStmt.setString(2, proposedPath);
+                    insertStmt.setLong(3, sizeBytes);
+                    boolean acquired = insertStmt.executeUpdate() > 0;
+                    if (!acquired) {
+                        updateStmt.setString(1, sha256);
+                        acquired = updateStmt.executeUpdate() > 0;
+                    }
+                    if (acquired) {
+                        MediaObject object = findBySha(conn, sha256);
+                        if (object == null || !whileLocked.run(object)) {
+                            break;
+                        }
+                        conn.commit();
+                        return object;
+                    }
+                }
+                conn.rollback();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Drop one reference; returns false if the path is not a stored object
+     */
+    public boolean release(String storagePath) {
+        String sql = "UPDATE media_objects SET ref_count = GREATEST(ref_count - 1, 0), " +
+                     "updated_at = CURRENT_TIMESTAMP WHERE storage_path = ?";
+
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, storagePath);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Find a stored object by content hash
+     */
+    public MediaObject findBySha(String sha256) {
+        try (Connection conn = DBConnection.getInstance().openConnection()) {
+            return findBySha(conn, sha256);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Find a stored object by its file path
+     */
+    public MediaObject findByPath(String storagePath) {
+        String sql = "SELECT * FROM media_objects WHERE storage_path = ?";
+
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, storagePath);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return mapResultSetToMediaObject(rs);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Cache probed video metadata on a stored object (same content, same metadata)
+     */
+    public boolean saveMetadata(String sha256, VideoMetadataProbe.Metadata metadata) {
+        String sql = "UPDATE media_objects SET duration_ms = ?, video_width = ?, video_height = ?, bitrate_kbps = ? " +
+                     "WHERE sha256 = ?";
+
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, metadata.getDurationMillis());
+            stmt.setInt(2, metadata.getWidth());
+            stmt.setInt(3, metadata.getHeight());
+            stmt.setInt(4, metadata.getBitrateKbps());
+            stmt.setString(5, sha256);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Recount references from lessons and courses and fix rows that drifted
+     * Only paths and objects under the store prefix are considered, so objects
+     * of a store this instance cannot see are left alone. Returns rows changed,
+     * or -1 on failure.
+     */
+    public int reconcileRefCounts(String storePrefix) {
+        String countSql = "SELECT video_path AS path, COUNT(*) AS refs FROM lessons " +
+                          "WHERE video_path LIKE ? GROUP BY video_path " +
+                          "UNION ALL " +
+                          "SELECT thumbnail_path AS path, COUNT(*) AS refs FROM courses " +
+                          "WHERE thumbnail_path LIKE ? GROUP BY thumbnail_path";
+        String objectsSql = "SELECT sha256, storage_path, ref_count FROM media_objects WHERE storage_path LIKE ?";
+        String updateSql = "UPDATE media_objects SET ref_count = ?, updated_at = CURRENT_TIMESTAMP " +
+                           "WHERE sha256 = ? AND ref_count = ?";
+
+        try (Connection conn = DBConnection.getInstance().openConnection()) {
+            Map<String, Integer> references = new HashMap<>();
+            try (PreparedStatement stmt = conn.prepareStatement(countSql)) {
+                stmt.setString(1, storePrefix + "%");
+                stmt.setString(2, storePrefix + "%");
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    references.merge(rs.getString("path"), rs.getInt("refs"), Integer::sum);
+                }
+            }
+
+            int changed = 0;
+            try (PreparedStatement select = conn.prepareStatement(objectsSql);
+                 PreparedStatement update = conn.prepareStatement(updateSql)) {
+                select.setString(1, storePrefix + "%");
+                ResultSet rs = select.executeQuery();
+                while (rs.next()) {
+                    int stored = rs.getInt("ref_count");
+                    int actual = references.getOrDefault(rs.getString("storage_path"), 0);
+                    if (stored != actual) {
+                        // Guarded by the old value so a concurrent acquire/release is not overwritten
+                        update.setInt(1, actual);
+                        update.setString(2, rs.getString("sha256"));
+                        update.setInt(3, stored);
+                        update.addBatch();
+                        changed++;
+                    }
+                }
+                if (changed > 0) {
+                    update.executeBatch();
+                }
+            }
+            return changed;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    /**
+     * Unreferenced objects under the store prefix whose last change is older than the grace period
+     * Oldest first, keyset paged on (updated_at, sha256): pass the last object of
+     * the previous page as after (null for the first page), so objects that were
+     * listed but not deleted are not returned again.
+     */
+    public List<MediaObject> findCollectable(String storePrefix, long graceSeconds, MediaObject after, int limit) {
+        List<MediaObject> objects = new ArrayList<>();
+        String sql = "SELECT * FROM media_objects WHERE ref_count = 0 AND storage_path LIKE ? " +
+                     "AND updated_at < " + dialect.secondsAgo() +
+                     (after != null ? " AND (updated_at > ? OR (updated_at = ? AND sha256 > ?))" : "") +
+                     " ORDER BY updated_at, sha256 LIMIT ?";
+
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            stmt.setString(index++, storePrefix + "%");
+            stmt.setLong(index++, graceSeconds);
+            if (after != null) {
+                Timestamp afterUpdatedAt = Timestamp.valueOf(after.getUpdatedAt());
+                stmt.setTimestamp(index++, afterUpdatedAt);
+                stmt.setTimestamp(index++, afterUpdatedAt);
+                stmt.setString(index++, after.getSha256());
+            }
+            stmt.setInt(index, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                objects.add(mapResultSetToMediaObject(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return objects;
+    }
+
+    /**
+     * Delete an object row if it is still unreferenced and unchanged for the grace period
+     * The row is locked and re-checked (ref_count, updated_at, lessons and
+     * courses), then deleteFile runs before the commit. A concurrent acquire
+     * waits on the lock, so it either bumps ref_count first (and the object is
+     * kept) or runs after the file is gone and places it again.
+     */
+    public boolean deleteIfUnreferenced(MediaObject object, long graceSeconds, LockedFileStep deleteFile) {
+        String lockSql = "SELECT sha256 FROM media_objects WHERE sha256 = ? AND ref_count = 0 " +
+                         "AND updated_at < " + dialect.secondsAgo() + " FOR UPDATE";
+        String deleteSql = "DELETE FROM media_objects WHERE sha256 = ? AND ref_count = 0 " +
+                           "AND NOT EXISTS (SELECT 1 FROM lessons WHERE video_path = ?) " +
+                           "AND NOT EXISTS (SELECT 1 FROM courses WHERE thumbnail_path = ?)";
+
+        try (Connection conn = DBConnection.getInstance().openConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement lockStmt = conn.prepareStatement(lockSql);
+                 PreparedStatement deleteStmt = conn.prepareStatement(deleteSql)) {
+
+                lockStmt.setString(1, object.getSha256());
+                lockStmt.setLong(2, graceSeconds);
+                try (ResultSet rs = lockStmt.executeQuery()) {
+                    if (!rs.next()) {
+                        // Referenced or touched again since it was listed
+                        conn.rollback();
+                        return false;
+                    }
+                }
+
+                deleteStmt.setString(1, object.getSha256());
+                deleteStmt.setString(2, object.getStoragePath());
+                deleteStmt.setString(3, object.getStoragePath());
+                if (deleteStmt.executeUpdate() == 0 || !deleteFile.run(object)) {
+                    conn.rollback();
+                    return false;
+                }
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Lessons whose video lives outside the store, by id (keyset paging)
+     */
+    public Map<Integer, String> findLegacyVideoPaths(String storePrefix, int afterId, int limit) {
+        return findLegacyPaths("SELECT id, video_path FROM lessons " +
+                "WHERE id > ? AND video_path IS NOT NULL AND video_path <> '' AND video_path NOT LIKE ? " +
+                "ORDER BY id LIMIT ?", storePrefix, afterId, limit);
+    }
+
+    /**
+     * Courses whose thumbnail lives outside the store, by id (keyset paging)
+     */
+    public Map<Integer, String> findLegacyThumbnailPaths(String storePrefix, int afterId, int limit) {
+        return findLegacyPaths("SELECT id, thumbnail_path FROM courses " +
+                "WHERE id > ? AND thumbnail_path IS NOT NULL AND thumbnail_path <> '' AND thumbnail_path NOT LIKE ? " +
+                "ORDER BY id LIMIT ?", storePrefix, afterId, limit);
+    }
+
+    /**
+     * Point a lesson at a stored object, only if it still has the old path
+     */
+    public boolean replaceVideoPath(int lessonId, String oldPath, String newPath) {
+        return replacePath("UPDATE lessons SET video_path = ? WHERE id = ? AND video_path = ?",
+                lessonId, oldPath, newPath);
+    }
+
+    /**
+     * Point a course at a stored thumbnail, only if it still has the old path
+     */
+    public boolean replaceThumbnailPath(int courseId, String oldPath, String newPath) {
+        return replacePath("UPDATE courses SET thumbnail_path = ? WHERE id = ? AND thumbnail_path = ?",
+                courseId, oldPath, newPath);
+    }
+
+    private Map<Integer, String> findLegacyPaths(String sql, String storePrefix, int afterId, int limit) {
+        Map<Integer, String> paths = new LinkedHashMap<>();
+
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, afterId);
+            stmt.setString(2, storePrefix + "%");
+            stmt.setInt(3, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                paths.put(rs.getInt(1), rs.getString(2));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return paths;
+    }
+
+    private boolean replacePath(String sql, int id, String oldPath, String newPath) {
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, newPath);
+            stmt.setInt(2, id);
+            stmt.setString(3, oldPath);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    private MediaObject findBySha(Connection conn, String sha256) throws SQLException {
+        String sql = "SELECT * FROM media_objects WHERE sha256 = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, sha256);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? mapResultSetToMediaObject(rs) : null;
+        }
+    }
+
+    /**
+     * Map ResultSet to MediaObject object
+     */
+    private MediaObject mapResultSetToMediaObject(ResultSet rs) throws SQLException {
+        MediaObject object = new MediaObject();
+        object.setSha256(rs.getString("sha256"));
+        object.setStoragePath(rs.getString("storage_path"));
+        object.setSizeBytes(rs.getLong("size_bytes"));
+        object.setRefCount(rs.getInt("ref_count"));
+
+        long durationMs = rs.getLong("duration_ms");
+        if (!rs.wasNull()) {
+            object.setDurationMs(durationMs);
+            object.setVideoWidth(rs.getInt("video_width"));
+            object.setVideoHeight(rs.getInt("video_height"));
+            object.setBitrateKbps(rs.getInt("bitrate_kbps"));
+        }
+
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        if (createdAt != null) {
+            object.setCreatedAt(createdAt.toLocalDateTime());
+        }
+
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        if (updatedAt != null) {
+            object.setUpdatedAt(updatedAt.toLocalDateTime());
+        }
+
+        return object;
+    }
+}
@@ -0,0 +1,101 @@
+package com.elearning.dao;
+
+import com.elearning.util.DBConnection;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * DAO for the storage auditor
+ * Looks up which files on disk are referenced by lessons, courses, certificates,
+ * the media store or the transcoder (rendition directories), one batched query
+ * per group of paths.
+ * Runs on a dedicated connection because the auditor works off the UI thread.
+ */
+public class StorageAuditDAO {
+    // Course id recorded for paths referenced only by media_objects
+    public static final int NO_COURSE = 0;
+
+    /**
+     * Courses referencing each of the given paths
+     * Paths absent from the result are not referenced anywhere; paths known only
+     * to the media store map to {NO_COURSE}. Returns null on failure so callers
+     * never treat a database error as "unreferenced".
+     */
+    public Map<String, Set<Integer>> findReferences(Collection<String> paths) {
+        Map<String, Set<Integer>> references = new HashMap<>();
+        if (paths.isEmpty()) {
+            return references;
+        }
+
+        String in = "(" + String.join(", ", Collections.nCopies(paths.size(), "?")) + ")";
+        String sql = "SELECT video_path AS path, course_id FROM lessons WHERE video_path IN " + in +
+                     " UNION ALL " +
+                     "SELECT thumbnail_path AS path, id AS course_id FROM courses WHERE thumbnail_path IN " + in +
+                     " UNION ALL " +
+                     "SELECT file_path AS path, course_id FROM certificates WHERE file_path IN " + in +
+                     " UNION ALL " +
+                     "SELECT storage_path AS path, " + NO_COURSE + " AS course_id FROM media_objects WHERE storage_path IN " + in +
+                     " UNION ALL " +
+                     "SELECT j.output_dir AS path, COALESCE(l.course_id, " + NO_COURSE + ") AS course_id FROM transcode_jobs j " +
+                     "JOIN media_objects m ON m.sha256 = j.source_sha256 " +
+                     "LEFT JOIN lessons l ON l.video_path = m.storage_path " +
+                     "WHERE j.output_dir IN " + in;
+
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            for (int group = 0; group < 5; group++) {
+                for (String path : paths) {
+                    stmt.setString(index++, path);
+                }
+            }
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                references.computeIfAbsent(rs.getString("path"), p -> new HashSet<>()).add(rs.getInt("course_id"));
+            }
+            return references;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Titles for the given course ids
+     */
+    public Map<Integer, String> findCourseTitles(Collection<Integer> courseIds) {
+        Map<Integer, String> titles = new HashMap<>();
+        if (courseIds.isEmpty()) {
+            return titles;
+        }
+        List<Integer> ids = new ArrayList<>(courseIds);
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        String sql = "SELECT id, title FROM courses WHERE id IN (" + placeholders + ")";
+
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setInt(i + 1, ids.get(i));
+            }
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                titles.put(rs.getInt("id"), rs.getString("title"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return titles;
+    }
+}
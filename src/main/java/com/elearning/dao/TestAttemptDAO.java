@@ -2,6 +2,7 @@ package com.elearning.dao;
 
 import com.elearning.model.TestAttempt;
 import com.elearning.util.DBConnection;
+import com.elearning.util.ScoreDistribution;
 
 import java.sql.*;
 import java.time.LocalDateTime;
@@ -18,11 +19,11 @@ public class TestAttemptDAO {
      */
     public TestAttempt create(TestAttempt attempt) {
         String sql = """
-            INSERT INTO test_attempts (test_id, user_id, course_id, attempt_number, 
-                                     total_questions, total_points, earned_points, 
-                                     score_percentage, status, passed, started_at, 
-                                     completed_at, time_spent_seconds) 
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            INSERT INTO test_attempts (test_id, user_id, course_id, attempt_number,
+                                     total_questions, total_points, earned_points,
+                                     score_percentage, status, passed, started_at,
+                                     completed_at, time_spent_seconds, assembly_seed, question_ids)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
         """;
 
         try (Connection conn = DBConnection.getInstance().getConnection();
@@ -43,6 +44,7 @@ public class TestAttemptDAO {
             stmt.setTimestamp(12, attempt.getCompletedAt() != null ? 
                 Timestamp.valueOf(attempt.getCompletedAt()) : null);
             stmt.setInt(13, attempt.getTimeSpentSeconds());
+            setAssembly(stmt, 14, attempt);
 
             int rowsAffected = stmt.executeUpdate();
             if (rowsAffected > 0) {
@@ -59,13 +61,95 @@ public class TestAttemptDAO {
         return null;
     }
 
+    /**
+     * Create an attempt with the next attempt number in a single transaction
+     * The existing attempts of the user are read with a locking read, so two
+     * windows starting the same test are serialized; the unique key on
+     * (user_id, test_id, attempt_number) backs this up. Transient conflicts
+     * (deadlock, duplicate number) are thrown to the caller for a retry.
+     *
+     * @return the created attempt, or null when maxAttempts has been reached
+     */
+    public TestAttempt createNextAttempt(TestAttempt attempt, Integer maxAttempts) throws SQLException {
+        String lockSql = """
+            SELECT COUNT(*), COALESCE(MAX(attempt_number), 0)
+            FROM test_attempts
+            WHERE user_id = ? AND test_id = ?
+            FOR UPDATE
+        """;
+        String insertSql = """
+            INSERT INTO test_attempts (test_id, user_id, course_id, attempt_number,
+                                     total_questions, total_points, earned_points,
+                                     score_percentage, status, passed, started_at,
+                                     completed_at, time_spent_seconds, assembly_seed, question_ids)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NULL, 0, ?, ?)
+        """;
+
+        try (Connection conn = DBConnection.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement lockStmt = conn.prepareStatement(lockSql);
+                 PreparedStatement insertStmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
+
+                lockStmt.setInt(1, attempt.getUserId());
+                lockStmt.setInt(2, attempt.getTestId());
+                int existingAttempts = 0;
+                int lastAttemptNumber = 0;
+                try (ResultSet rs = lockStmt.executeQuery()) {
+                    if (rs.next()) {
+                        existingAttempts = rs.getInt(1);
+                        lastAttemptNumber = rs.getInt(2);
+                    }
+                }
+
+                if (maxAttempts != null && existingAttempts >= maxAttempts) {
+                    conn.rollback();
+                    return null;
+                }
+
+                attempt.setAttemptNumber(lastAttemptNumber + 1);
+                if (attempt.getStartedAt() == null) {
+                    attempt.setStartedAt(LocalDateTime.now());
+                }
+
+                insertStmt.setInt(1, attempt.getTestId());
+                insertStmt.setInt(2, attempt.getUserId());
+                insertStmt.setInt(3, attempt.getCourseId());
+                insertStmt.setInt(4, attempt.getAttemptNumber());
+                insertStmt.setInt(5, attempt.getTotalQuestions());
+                insertStmt.setDouble(6, attempt.getTotalPoints());
+                insertStmt.setDouble(7, attempt.getEarnedPoints());
+                insertStmt.setDouble(8, attempt.getScorePercentage());
+                insertStmt.setString(9, attempt.getStatus());
+                insertStmt.setBoolean(10, attempt.isPassed());
+                insertStmt.setTimestamp(11, Timestamp.valueOf(attempt.getStartedAt()));
+                setAssembly(insertStmt, 12, attempt);
+                insertStmt.executeUpdate();
+
+                try (ResultSet generatedKeys = insertStmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        attempt.setId(generatedKeys.getInt(1));
+                    }
+                }
+
+                conn.commit();
+                return attempt;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
     /**
      * Update an existing test attempt
      */
     public boolean update(TestAttempt attempt) {
         String sql = """
-            UPDATE test_attempts 
-            SET earned_points = ?, score_percentage = ?, status = ?, 
+            UPDATE test_attempts
+            SET earned_points = ?, score_percentage = ?, status = ?,
                 passed = ?, completed_at = ?, time_spent_seconds = ?
             WHERE id = ?
         """;
@@ -115,10 +199,10 @@ public class TestAttemptDAO {
      */
     public List<TestAttempt> findByTestId(int testId) {
         String sql = """
-            SELECT ta.*, u.full_name as user_name 
-            FROM test_attempts ta 
-            JOIN users u ON ta.user_id = u.id 
-            WHERE ta.test_id = ? 
+            SELECT ta.*, u.full_name as user_name
+            FROM test_attempts ta
+            JOIN users u ON ta.user_id = u.id
+            WHERE ta.test_id = ?
             ORDER BY ta.started_at DESC
         """;
 
@@ -168,9 +252,9 @@ public class TestAttemptDAO {
      */
     public TestAttempt findBestAttempt(int userId, int testId) {
         String sql = """
-            SELECT * FROM test_attempts 
+            SELECT * FROM test_attempts
             WHERE user_id = ? AND test_id = ? AND status = 'COMPLETED'
-            ORDER BY score_percentage DESC, started_at DESC 
+            ORDER BY score_percentage DESC, started_at DESC
             LIMIT 1
         """;
 
@@ -244,14 +328,14 @@ public class TestAttemptDAO {
      */
     public TestStatistics getTestStatistics(int testId) {
         String sql = """
-            SELECT 
+            SELECT
                 COUNT(DISTINCT user_id) as total_students,
                 COUNT(*) as total_attempts,
                 AVG(score_percentage) as average_score,
                 SUM(CASE WHEN passed = TRUE THEN 1 ELSE 0 END) as passed_count,
                 SUM(CASE WHEN status = 'COMPLETED' AND passed = FALSE THEN 1 ELSE 0 END) as failed_count,
                 AVG(time_spent_seconds) as average_time_seconds
-            FROM test_attempts 
+            FROM test_attempts
             WHERE test_id = ? AND status = 'COMPLETED'
         """;
 
@@ -277,6 +361,40 @@ public class TestAttemptDAO {
         return new TestStatistics(); // Return empty stats on error
     }
 
+    /**
+     * Stream completed attempts of a test into a score distribution
+     * Only the columns needed for the distribution are read, and rows are
+     * consumed one at a time instead of being materialized as a list.
+     */
+    public ScoreDistribution loadScoreDistribution(int testId) {
+        String sql = """
+            SELECT attempt_number, score_percentage, time_spent_seconds, passed
+            FROM test_attempts
+            WHERE test_id = ? AND status = 'COMPLETED'
+        """;
+
+        ScoreDistribution distribution = new ScoreDistribution();
+        try (Connection conn = DBConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, testId);
+            stmt.setFetchSize(500);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    distribution.accept(
+                        rs.getInt("attempt_number"),
+                        rs.getDouble("score_percentage"),
+                        rs.getInt("time_spent_seconds"),
+                        rs.getBoolean("passed")
+                    );
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return distribution;
+    }
+
     /**
      * Delete test attempt
      */
@@ -322,9 +440,46 @@ public class TestAttemptDAO {
         }
         
         attempt.setTimeSpentSeconds(rs.getInt("time_spent_seconds"));
+
+        long assemblySeed = rs.getLong("assembly_seed");
+        if (!rs.wasNull()) {
+            attempt.setAssemblySeed(assemblySeed);
+        }
+        String questionIds = rs.getString("question_ids");
+        if (questionIds != null && !questionIds.isEmpty()) {
+            List<Integer> ids = new ArrayList<>();
+            for (String id : questionIds.split(",")) {
+                ids.add(Integer.parseInt(id.trim()));
+            }
+            attempt.setQuestionIds(ids);
+        }
         return attempt;
     }
 
+    /**
+     * Bind assembly_seed and question_ids (comma-separated) starting at index
+     */
+    private static void setAssembly(PreparedStatement stmt, int index, TestAttempt attempt) throws SQLException {
+        if (attempt.getAssemblySeed() != null) {
+            stmt.setLong(index, attempt.getAssemblySeed());
+        } else {
+            stmt.setNull(index, Types.BIGINT);
+        }
+        List<Integer> questionIds = attempt.getQuestionIds();
+        if (questionIds != null) {
+            StringBuilder ids = new StringBuilder();
+            for (Integer id : questionIds) {
+                if (ids.length() > 0) {
+                    ids.append(',');
+                }
+                ids.append(id);
+            }
+            stmt.setString(index + 1, ids.toString());
+        } else {
+            stmt.setNull(index + 1, Types.VARCHAR);
+        }
+    }
+
     /**
      * Inner class for test statistics
      */
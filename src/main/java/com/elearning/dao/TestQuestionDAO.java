@@ -1,12 +1,15 @@
 package com.elearning.dao;
 
+import com.elearning.model.AnswerOption;
 import com.elearning.model.TestQuestion;
 import com.elearning.util.DBConnection;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * DAO for TestQuestion entity
@@ -61,8 +64,8 @@ public class TestQuestionDAO {
      * Create a new question
      */
     public TestQuestion create(TestQuestion question) {
-        String sql = "INSERT INTO test_questions (test_id, question_text, order_index, points) " +
-                     "VALUES (?, ?, ?, ?)";
+        String sql = "INSERT INTO test_questions (test_id, question_text, order_index, points, topic, difficulty) " +
+                     "VALUES (?, ?, ?, ?, ?, ?)";
 
         try (Connection conn = DBConnection.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
@@ -71,6 +74,8 @@ public class TestQuestionDAO {
             stmt.setString(2, question.getQuestionText());
             stmt.setInt(3, question.getOrderIndex());
             stmt.setDouble(4, question.getPoints());
+            stmt.setString(5, question.getTopic());
+            stmt.setString(6, question.getDifficulty() != null ? question.getDifficulty() : "MEDIUM");
 
             int affectedRows = stmt.executeUpdate();
             if (affectedRows > 0) {
@@ -90,7 +95,8 @@ public class TestQuestionDAO {
      * Update an existing question
      */
     public boolean update(TestQuestion question) {
-        String sql = "UPDATE test_questions SET question_text = ?, order_index = ?, points = ? WHERE id = ?";
+        String sql = "UPDATE test_questions SET question_text = ?, order_index = ?, points = ?, " +
+                     "topic = ?, difficulty = ? WHERE id = ?";
 
         try (Connection conn = DBConnection.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -98,7 +104,9 @@ public class TestQuestionDAO {
             stmt.setString(1, question.getQuestionText());
             stmt.setInt(2, question.getOrderIndex());
             stmt.setDouble(3, question.getPoints());
-            stmt.setInt(4, question.getId());
+            stmt.setString(4, question.getTopic());
+            stmt.setString(5, question.getDifficulty() != null ? question.getDifficulty() : "MEDIUM");
+            stmt.setInt(6, question.getId());
 
             return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
@@ -107,6 +115,95 @@ public class TestQuestionDAO {
         return false;
     }
 
+    /**
+     * Update a question and replace its answer options in one transaction
+     * Options are matched by letter and updated in place, so answers students
+     * already gave (which reference option ids) survive the edit. Letters not in
+     * the new list and duplicate rows of a letter are deleted, new letters are
+     * inserted.
+     */
+    public boolean updateWithOptions(TestQuestion question, List<AnswerOption> options) {
+        String questionSql = "UPDATE test_questions SET question_text = ?, points = ?, topic = ?, difficulty = ? " +
+                             "WHERE id = ?";
+        String updateOptionSql = "UPDATE answer_options SET option_text = ?, is_correct = ? " +
+                                 "WHERE question_id = ? AND option_letter = ?";
+        String insertOptionSql = "INSERT INTO answer_options (question_id, option_text, is_correct, option_letter) " +
+                                 "VALUES (?, ?, ?, ?)";
+        String deleteOptionSql = "DELETE FROM answer_options WHERE id = ?";
+
+        try (Connection conn = DBConnection.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement questionStmt = conn.prepareStatement(questionSql);
+                 PreparedStatement updateStmt = conn.prepareStatement(updateOptionSql);
+                 PreparedStatement insertStmt = conn.prepareStatement(insertOptionSql, Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement deleteStmt = conn.prepareStatement(deleteOptionSql);
+                 PreparedStatement existingStmt = conn.prepareStatement(
+                         "SELECT id, option_letter FROM answer_options WHERE question_id = ? ORDER BY id")) {
+
+                questionStmt.setString(1, question.getQuestionText());
+                questionStmt.setDouble(2, question.getPoints());
+                questionStmt.setString(3, question.getTopic());
+                questionStmt.setString(4, question.getDifficulty() != null ? question.getDifficulty() : "MEDIUM");
+                questionStmt.setInt(5, question.getId());
+                if (questionStmt.executeUpdate() == 0) {
+                    // Question deleted meanwhile
+                    conn.rollback();
+                    return false;
+                }
+
+                Set<String> letters = new HashSet<>();
+                for (AnswerOption option : options) {
+                    option.setQuestionId(question.getId());
+                    letters.add(option.getOptionLetter());
+
+                    updateStmt.setString(1, option.getOptionText());
+                    updateStmt.setBoolean(2, option.getIsCorrect());
+                    updateStmt.setInt(3, question.getId());
+                    updateStmt.setString(4, option.getOptionLetter());
+                    if (updateStmt.executeUpdate() > 0) {
+                        continue;
+                    }
+
+                    insertStmt.setInt(1, question.getId());
+                    insertStmt.setString(2, option.getOptionText());
+                    insertStmt.setBoolean(3, option.getIsCorrect());
+                    insertStmt.setString(4, option.getOptionLetter());
+                    insertStmt.executeUpdate();
+                    ResultSet keys = insertStmt.getGeneratedKeys();
+                    if (keys.next()) {
+                        option.setId(keys.getInt(1));
+                    }
+                }
+
+                existingStmt.setInt(1, question.getId());
+                ResultSet rs = existingStmt.executeQuery();
+                Set<String> kept = new HashSet<>();
+                while (rs.next()) {
+                    String letter = rs.getString("option_letter");
+                    if (!letters.contains(letter) || !kept.add(letter)) {
+                        deleteStmt.setInt(1, rs.getInt("id"));
+                        deleteStmt.addBatch();
+                    }
+                }
+                deleteStmt.executeBatch();
+
+                conn.commit();
+                question.setOptions(new ArrayList<>(options));
+                return true;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
     /**
      * Delete a question and all its options (cascade)
      */
@@ -224,6 +321,8 @@ public class TestQuestionDAO {
         question.setQuestionText(rs.getString("question_text"));
         question.setOrderIndex(rs.getInt("order_index"));
         question.setPoints(rs.getDouble("points"));
+        question.setTopic(rs.getString("topic"));
+        question.setDifficulty(rs.getString("difficulty"));
 
         Timestamp createdAt = rs.getTimestamp("created_at");
         if (createdAt != null) {
@@ -0,0 +1,315 @@
+package com.elearning.dao;
+
+import com.elearning.model.TranscodeJob;
+import com.elearning.model.VideoRendition;
+import com.elearning.util.DBConnection;
+import com.elearning.util.SqlDialect;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * DAO for the transcoding queue (transcode_jobs) and its output (video_renditions)
+ * Jobs are keyed by the source's content hash, so a video shared by several
+ * lessons is transcoded once. Claiming is a conditional UPDATE, so several
+ * application instances can work the same queue.
+ * Runs on dedicated connections because the transcoder works off the UI thread.
+ */
+public class TranscodeDAO {
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final int CLAIM_CANDIDATES = 5;
+
+    private final SqlDialect dialect;
+    private final String enqueueSql;
+    private final String enqueueMissingSql;
+
+    public TranscodeDAO() {
+        this(DBConnection.getInstance().getDialect());
+    }
+
+    public TranscodeDAO(SqlDialect dialect) {
+        this.dialect = dialect;
+        this.enqueueSql = dialect.insertOrIgnore(
+                "INSERT INTO transcode_jobs (source_sha256, status, next_attempt_at) VALUES (?, 'PENDING', NOW())");
+        this.enqueueMissingSql = dialect.insertOrIgnore(
+                "INSERT INTO transcode_jobs (source_sha256, status, next_attempt_at) " +
+                "SELECT DISTINCT m.sha256, 'PENDING', NOW() FROM media_objects m " +
+                "JOIN lessons l ON l.video_path = m.storage_path " +
+                "WHERE NOT EXISTS (SELECT 1 FROM transcode_jobs j WHERE j.source_sha256 = m.sha256)");
+    }
+
+    /**
+     * Queue a stored video (no-op if it already has a job)
+     */
+    public boolean enqueue(String sha256) {
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement stmt = conn.prepareStatement(enqueueSql)) {
+
+            stmt.setString(1, sha256);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Queue every stored lesson video that has no job yet
+     * Returns the number of jobs created
+     */
+    public int enqueueMissing() {
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement stmt = conn.prepareStatement(enqueueMissingSql)) {
+
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * Put jobs left RUNNING by a crashed process back in the queue
+     */
+    public int requeueStale(long staleSeconds) {
+        String sql = "UPDATE transcode_jobs SET status = 'PENDING', next_attempt_at = NOW() " +
+                     "WHERE status = 'RUNNING' AND updated_at < " + dialect.secondsAgo();
+
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, staleSeconds);
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * Take the next due job whose source this instance can read and mark it RUNNING (counts as an attempt)
+     * Jobs whose source fails sourceReadable are left for an instance that has
+     * the file. Returns null if nothing is due.
+     */
+    public TranscodeJob claimNext(Predicate<String> sourceReadable) {
+        String selectSql = "SELECT j.*, m.storage_path FROM transcode_jobs j " +
+                           "JOIN media_objects m ON m.sha256 = j.source_sha256 " +
+                           "WHERE j.status = 'PENDING' AND j.next_attempt_at <= NOW() " +
+                           "ORDER BY j.next_attempt_at LIMIT ?";
+        String claimSql = "UPDATE transcode_jobs SET status = 'RUNNING', attempts = attempts + 1 " +
+                          "WHERE source_sha256 = ? AND status = 'PENDING'";
+
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement selectStmt = conn.prepareStatement(selectSql);
+             PreparedStatement claimStmt = conn.prepareStatement(claimSql)) {
+
+            selectStmt.setInt(1, CLAIM_CANDIDATES);
+            List<TranscodeJob> candidates = new ArrayList<>();
+            ResultSet rs = selectStmt.executeQuery();
+            while (rs.next()) {
+                candidates.add(mapResultSetToJob(rs));
+            }
+
+            // Another instance may claim the same job first; try the next one
+            for (TranscodeJob job : candidates) {
+                if (!sourceReadable.test(job.getSourcePath())) {
+                    continue;
+                }
+                claimStmt.setString(1, job.getSourceSha256());
+                if (claimStmt.executeUpdate() > 0) {
+                    job.setStatus(TranscodeJob.RUNNING);
+                    job.setAttempts(job.getAttempts() + 1);
+                    return job;
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Show that a running job is still alive (keeps requeueStale away from it)
+     */
+    public void heartbeat(String sha256) {
+        String sql = "UPDATE transcode_jobs SET updated_at = CURRENT_TIMESTAMP WHERE source_sha256 = ? AND status = 'RUNNING'";
+
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, sha256);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Record a finished job and replace its renditions in one transaction
+     */
+    public boolean complete(String sha256, String outputDir, List<VideoRendition> renditions) {
+        String deleteSql = "DELETE FROM video_renditions WHERE source_sha256 = ?";
+        String insertSql = "INSERT INTO video_renditions (source_sha256, height, width, bitrate_kbps, " +
+                           "file_path, size_bytes) VALUES (?, ?, ?, ?, ?, ?)";
+        String jobSql = "UPDATE transcode_jobs SET status = 'DONE', output_dir = ?, last_error = NULL " +
+                        "WHERE source_sha256 = ?";
+
+        try (Connection conn = DBConnection.getInstance().openConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement deleteStmt = conn.prepareStatement(deleteSql);
+                 PreparedStatement insertStmt = conn.prepareStatement(insertSql);
+                 PreparedStatement jobStmt = conn.prepareStatement(jobSql)) {
+
+                deleteStmt.setString(1, sha256);
+                deleteStmt.executeUpdate();
+
+                for (VideoRendition rendition : renditions) {
+                    insertStmt.setString(1, sha256);
+                    insertStmt.setInt(2, rendition.getHeight());
+                    insertStmt.setInt(3, rendition.getWidth());
+                    insertStmt.setInt(4, rendition.getBitrateKbps());
+                    insertStmt.setString(5, rendition.getFilePath());
+                    insertStmt.setLong(6, rendition.getSizeBytes());
+                    insertStmt.addBatch();
+                }
+                if (!renditions.isEmpty()) {
+                    insertStmt.executeBatch();
+                }
+
+                jobStmt.setString(1, outputDir);
+                jobStmt.setString(2, sha256);
+                jobStmt.executeUpdate();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Record a failed attempt: retried after retryAfterSeconds, or FAILED for good if giveUp
+     */
+    public boolean fail(String sha256, String error, long retryAfterSeconds, boolean giveUp) {
+        // secondsAgo with a negative age is a time in the future
+        String sql = "UPDATE transcode_jobs SET status = ?, last_error = ?, next_attempt_at = " + dialect.secondsAgo() +
+                     " WHERE source_sha256 = ?";
+
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, giveUp ? TranscodeJob.FAILED : TranscodeJob.PENDING);
+            stmt.setString(2, truncate(error));
+            stmt.setLong(3, -retryAfterSeconds);
+            stmt.setString(4, sha256);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Hand an interrupted job back to the queue without using up an attempt
+     */
+    public boolean requeue(String sha256) {
+        String sql = "UPDATE transcode_jobs SET status = 'PENDING', attempts = attempts - 1, next_attempt_at = NOW() " +
+                     "WHERE source_sha256 = ? AND status = 'RUNNING'";
+
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, sha256);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Number of jobs per status (for monitoring)
+     */
+    public Map<String, Integer> countByStatus() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        String sql = "SELECT status, COUNT(*) AS job_count FROM transcode_jobs GROUP BY status";
+
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                counts.put(rs.getString("status"), rs.getInt("job_count"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return counts;
+    }
+
+    /**
+     * Renditions of the stored video at a path, lowest first (empty if none or not stored)
+     */
+    public List<VideoRendition> findRenditionsByPath(String storagePath) {
+        List<VideoRendition> renditions = new ArrayList<>();
+        String sql = "SELECT r.* FROM video_renditions r " +
+                     "JOIN media_objects m ON m.sha256 = r.source_sha256 " +
+                     "WHERE m.storage_path = ? ORDER BY r.height";
+
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, storagePath);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                renditions.add(mapResultSetToRendition(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return renditions;
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    /**
+     * Map ResultSet to TranscodeJob object
+     */
+    private TranscodeJob mapResultSetToJob(ResultSet rs) throws SQLException {
+        TranscodeJob job = new TranscodeJob();
+        job.setSourceSha256(rs.getString("source_sha256"));
+        job.setSourcePath(rs.getString("storage_path"));
+        job.setStatus(rs.getString("status"));
+        job.setAttempts(rs.getInt("attempts"));
+        job.setLastError(rs.getString("last_error"));
+        job.setOutputDir(rs.getString("output_dir"));
+        return job;
+    }
+
+    /**
+     * Map ResultSet to VideoRendition object
+     */
+    private VideoRendition mapResultSetToRendition(ResultSet rs) throws SQLException {
+        VideoRendition rendition = new VideoRendition();
+        rendition.setSourceSha256(rs.getString("source_sha256"));
+        rendition.setHeight(rs.getInt("height"));
+        rendition.setWidth(rs.getInt("width"));
+        rendition.setBitrateKbps(rs.getInt("bitrate_kbps"));
+        rendition.setFilePath(rs.getString("file_path"));
+        rendition.setSizeBytes(rs.getLong("size_bytes"));
+        return rendition;
+    }
+}
@@ -0,0 +1,204 @@
+package com.elearning.dao;
+
+import com.elearning.model.UserActivity;
+import com.elearning.util.DBConnection;
+import com.elearning.util.SqlDialect;
+
+import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DAO for the user_activity feed
+ * Writes are append-only JDBC batches; reads page newest-first by keyset on
+ * (created_at, id) so a page costs the same no matter how deep the feed is.
+ */
+public class UserActivityDAO {
+    private static final String FEED_SELECT =
+            "SELECT a.*, u.full_name AS user_name, c.title AS course_title, l.title AS lesson_title " +
+            "FROM user_activity a " +
+            "JOIN users u ON a.user_id = u.id " +
+            "LEFT JOIN lessons l ON a.lesson_id = l.id " +
+            // Lesson-level entries may omit course_id; take it from the lesson
+            "LEFT JOIN courses c ON c.id = COALESCE(a.course_id, l.course_id) ";
+    private static final String KEYSET = "(a.created_at < ? OR (a.created_at = ? AND a.id < ?)) ";
+    private static final String FEED_ORDER = "ORDER BY a.created_at DESC, a.id DESC LIMIT ?";
+
+    private final String insertSql;
+
+    public UserActivityDAO() {
+        this(DBConnection.getInstance().getDialect());
+    }
+
+    public UserActivityDAO(SqlDialect dialect) {
+        // Entries whose user, course or lesson has been deleted meanwhile are skipped instead of failing
+        this.insertSql = "INSERT INTO user_activity (user_id, course_id, lesson_id, action_type, metadata, created_at) " +
+                         "SELECT u.id, c.id, l.id, ?, " + dialect.jsonParameter() + ", " + dialect.secondsAgo() + " " +
+                         "FROM users u " +
+                         "LEFT JOIN courses c ON c.id = ? " +
+                         "LEFT JOIN lessons l ON l.id = ? " +
+                         "WHERE u.id = ? AND (c.id IS NOT NULL OR ? IS NULL) AND (l.id IS NOT NULL OR ? IS NULL)";
+    }
+
+    /**
+     * Append a batch of activities in one transaction
+     * Runs on a dedicated connection (called from the background writer).
+     * Times are sent as an age so the server clock stamps them.
+     * Returns the number of rows written; entries whose user, course or lesson
+     * no longer exists are skipped. Throws if the batch is rolled back, so the
+     * caller can tell a lost connection (DBConnection.isRetryable) from bad rows.
+     */
+    public int insertBatch(List<UserActivity> activities) throws SQLException {
+        if (activities == null || activities.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+
+        try (Connection conn = DBConnection.getInstance().openConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
+
+                for (UserActivity activity : activities) {
+                    bindInsert(stmt, activity, now);
+                    stmt.addBatch();
+                }
+
+                int inserted = 0;
+                for (int count : stmt.executeBatch()) {
+                    inserted += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, count);
+                }
+                conn.commit();
+                return inserted;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Append one activity on its own (used to isolate a row that made a batch fail)
+     * Returns false if its user, course or lesson no longer exists.
+     */
+    public boolean insert(UserActivity activity) throws SQLException {
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement stmt = conn.prepareStatement(insertSql)) {
+
+            bindInsert(stmt, activity, LocalDateTime.now());
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    private static void bindInsert(PreparedStatement stmt, UserActivity activity, LocalDateTime now) throws SQLException {
+        stmt.setString(1, activity.getActionType());
+        stmt.setString(2, activity.getMetadata());
+        stmt.setLong(3, Math.max(0, Duration.between(activity.getCreatedAt(), now).getSeconds()));
+        setNullableInt(stmt, 4, activity.getCourseId());
+        setNullableInt(stmt, 5, activity.getLessonId());
+        stmt.setInt(6, activity.getUserId());
+        setNullableInt(stmt, 7, activity.getCourseId());
+        setNullableInt(stmt, 8, activity.getLessonId());
+    }
+
+    /**
+     * One page of a user's activity, newest first
+     * Pass the last entry of the previous page, or null for the first page
+     */
+    public List<UserActivity> findByUser(int userId, UserActivity after, int limit) {
+        String sql = FEED_SELECT + "WHERE a.user_id = ? " + (after != null ? "AND " + KEYSET : "") + FEED_ORDER;
+
+        try (Connection conn = DBConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            stmt.setInt(index++, userId);
+            index = bindKeyset(stmt, index, after);
+            stmt.setInt(index, limit);
+            return mapFeed(stmt.executeQuery());
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * One page of platform-wide activity, newest first
+     * Pass the last entry of the previous page, or null for the first page
+     */
+    public List<UserActivity> findRecent(UserActivity after, int limit) {
+        String sql = FEED_SELECT + (after != null ? "WHERE " + KEYSET : "") + FEED_ORDER;
+
+        try (Connection conn = DBConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = bindKeyset(stmt, 1, after);
+            stmt.setInt(index, limit);
+            return mapFeed(stmt.executeQuery());
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
+
+    private int bindKeyset(PreparedStatement stmt, int index, UserActivity after) throws SQLException {
+        if (after == null) {
+            return index;
+        }
+        Timestamp createdAt = Timestamp.valueOf(after.getCreatedAt());
+        stmt.setTimestamp(index++, createdAt);
+        stmt.setTimestamp(index++, createdAt);
+        stmt.setLong(index++, after.getId());
+        return index;
+    }
+
+    private static void setNullableInt(PreparedStatement stmt, int index, Integer value) throws SQLException {
+        if (value != null) {
+            stmt.setInt(index, value);
+        } else {
+            stmt.setNull(index, Types.INTEGER);
+        }
+    }
+
+    private List<UserActivity> mapFeed(ResultSet rs) throws SQLException {
+        List<UserActivity> activities = new ArrayList<>();
+        while (rs.next()) {
+            activities.add(mapResultSetToActivity(rs));
+        }
+        return activities;
+    }
+
+    /**
+     * Map ResultSet to UserActivity object
+     */
+    private UserActivity mapResultSetToActivity(ResultSet rs) throws SQLException {
+        UserActivity activity = new UserActivity();
+        activity.setId(rs.getLong("id"));
+        activity.setUserId(rs.getInt("user_id"));
+
+        int courseId = rs.getInt("course_id");
+        if (!rs.wasNull()) {
+            activity.setCourseId(courseId);
+        }
+
+        int lessonId = rs.getInt("lesson_id");
+        if (!rs.wasNull()) {
+            activity.setLessonId(lessonId);
+        }
+
+        activity.setActionType(rs.getString("action_type"));
+        activity.setMetadata(rs.getString("metadata"));
+
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        if (createdAt != null) {
+            activity.setCreatedAt(createdAt.toLocalDateTime());
+        }
+
+        activity.setUserName(rs.getString("user_name"));
+        activity.setCourseTitle(rs.getString("course_title"));
+        activity.setLessonTitle(rs.getString("lesson_title"));
+        return activity;
+    }
+}
@@ -94,6 +94,27 @@ public class UserDAO {
         return users;
     }
 
+    /**
+     * Count users with the given status
+     */
+    public int countByStatus(String status) {
+        String sql = "SELECT COUNT(*) FROM users WHERE status = ?";
+
+        try (Connection conn = DBConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, status);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
     /**
      * Find users by role
      */
@@ -1,6 +1,8 @@
 package com.elearning.model;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Comment entity - represents user comments on lessons
@@ -12,12 +14,14 @@ public class Comment {
     private Integer parentId;
     private String content;
     private boolean isEdited;
+    private int replyCount;     // Cached lesson_comments.reply_count (direct replies)
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
     // Additional fields
     private String userName;
     private String userAvatar;
+    private List<Comment> replies = new ArrayList<>(); // Filled when loaded as a thread
 
     // Constructors
     public Comment() {
@@ -95,6 +99,14 @@ public class Comment {
         this.updatedAt = updatedAt;
     }
 
+    public int getReplyCount() {
+        return replyCount;
+    }
+
+    public void setReplyCount(int replyCount) {
+        this.replyCount = replyCount;
+    }
+
     public String getUserName() {
         return userName;
     }
@@ -111,6 +123,18 @@ public class Comment {
         this.userAvatar = userAvatar;
     }
 
+    public List<Comment> getReplies() {
+        return replies;
+    }
+
+    public void setReplies(List<Comment> replies) {
+        this.replies = replies;
+    }
+
+    public void addReply(Comment reply) {
+        replies.add(reply);
+    }
+
     @Override
     public String toString() {
         return "Comment{" +
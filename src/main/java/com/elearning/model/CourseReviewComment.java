@@ -1,6 +1,8 @@
 package com.elearning.model;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Comment entity for course reviews (threaded).
@@ -16,6 +18,7 @@ public class CourseReviewComment {
     private String userAvatar;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private List<CourseReviewComment> replies = new ArrayList<>(); // Filled when loaded as a thread
 
     public Integer getId() {
         return id;
@@ -96,4 +99,16 @@ public class CourseReviewComment {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public List<CourseReviewComment> getReplies() {
+        return replies;
+    }
+
+    public void setReplies(List<CourseReviewComment> replies) {
+        this.replies = replies;
+    }
+
+    public void addReply(CourseReviewComment reply) {
+        replies.add(reply);
+    }
 }
@@ -17,6 +17,8 @@ public class CourseTest {
     private Boolean shuffleOptions;      // Randomize answer options
     private Integer maxAttempts;         // NULL = unlimited attempts
     private Boolean isPublished;         // Only published tests are visible to students
+    private Integer bankDrawCount;       // Question bank: questions drawn per group, NULL = fixed question list
+    private String bankGroupBy;          // Question bank grouping: NONE, TOPIC, DIFFICULTY
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -30,6 +32,7 @@ public class CourseTest {
         this.shuffleQuestions = false;
         this.shuffleOptions = false;
         this.isPublished = false;
+        this.bankGroupBy = "NONE";
     }
 
     public CourseTest(Integer courseId, String title, String description) {
@@ -120,6 +123,29 @@ public class CourseTest {
         this.isPublished = isPublished;
     }
 
+    public Integer getBankDrawCount() {
+        return bankDrawCount;
+    }
+
+    public void setBankDrawCount(Integer bankDrawCount) {
+        this.bankDrawCount = bankDrawCount;
+    }
+
+    public String getBankGroupBy() {
+        return bankGroupBy;
+    }
+
+    public void setBankGroupBy(String bankGroupBy) {
+        this.bankGroupBy = bankGroupBy;
+    }
+
+    /**
+     * Check if attempts draw random questions from a bank instead of using the fixed list
+     */
+    public boolean isQuestionBank() {
+        return bankDrawCount != null && bankDrawCount > 0;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,343 @@
+package com.elearning.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Base class for domain events published on the EventBus
+ * Events are small immutable facts about something that already happened;
+ * subscribers use the ids to invalidate caches or update rollups.
+ */
+public abstract class DomainEvent {
+    private final LocalDateTime occurredAt;
+
+    protected DomainEvent() {
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    /**
+     * An admin approved a pending course
+     */
+    public static final class CourseApproved extends DomainEvent {
+        private final int courseId;
+        private final int adminId;
+
+        public CourseApproved(int courseId, int adminId) {
+            this.courseId = courseId;
+            this.adminId = adminId;
+        }
+
+        public int getCourseId() {
+            return courseId;
+        }
+
+        public int getAdminId() {
+            return adminId;
+        }
+    }
+
+    /**
+     * Lessons were added to or removed from a course
+     */
+    public static final class CourseLessonsChanged extends DomainEvent {
+        private final int courseId;
+
+        public CourseLessonsChanged(int courseId) {
+            this.courseId = courseId;
+        }
+
+        public int getCourseId() {
+            return courseId;
+        }
+    }
+
+    /**
+     * A lesson got a new video file
+     */
+    public static final class LessonVideoChanged extends DomainEvent {
+        private final int lessonId;
+        private final int courseId;
+        private final String videoPath;
+
+        public LessonVideoChanged(int lessonId, int courseId, String videoPath) {
+            this.lessonId = lessonId;
+            this.courseId = courseId;
+            this.videoPath = videoPath;
+        }
+
+        public int getLessonId() {
+            return lessonId;
+        }
+
+        public int getCourseId() {
+            return courseId;
+        }
+
+        public String getVideoPath() {
+            return videoPath;
+        }
+    }
+
+    /**
+     * A user signed in
+     */
+    public static final class UserLoggedIn extends DomainEvent {
+        private final int userId;
+
+        public UserLoggedIn(int userId) {
+            this.userId = userId;
+        }
+
+        public int getUserId() {
+            return userId;
+        }
+    }
+
+    /**
+     * A student enrolled in a course
+     */
+    public static final class UserEnrolled extends DomainEvent {
+        private final int userId;
+        private final int courseId;
+
+        public UserEnrolled(int userId, int courseId) {
+            this.userId = userId;
+            this.courseId = courseId;
+        }
+
+        public int getUserId() {
+            return userId;
+        }
+
+        public int getCourseId() {
+            return courseId;
+        }
+    }
+
+    /**
+     * A student left a course
+     */
+    public static final class UserUnenrolled extends DomainEvent {
+        private final int userId;
+        private final int courseId;
+
+        public UserUnenrolled(int userId, int courseId) {
+            this.userId = userId;
+            this.courseId = courseId;
+        }
+
+        public int getUserId() {
+            return userId;
+        }
+
+        public int getCourseId() {
+            return courseId;
+        }
+    }
+
+    /**
+     * A student marked a lesson complete
+     */
+    public static final class LessonCompleted extends DomainEvent {
+        private final int userId;
+        private final int courseId;
+        private final int lessonId;
+        private final double progressPercent;
+
+        public LessonCompleted(int userId, int courseId, int lessonId, double progressPercent) {
+            this.userId = userId;
+            this.courseId = courseId;
+            this.lessonId = lessonId;
+            this.progressPercent = progressPercent;
+        }
+
+        public int getUserId() {
+            return userId;
+        }
+
+        public int getCourseId() {
+            return courseId;
+        }
+
+        public int getLessonId() {
+            return lessonId;
+        }
+
+        public double getProgressPercent() {
+            return progressPercent;
+        }
+    }
+
+    /**
+     * A student posted a course review
+     */
+    public static final class ReviewPosted extends DomainEvent {
+        private final int reviewId;
+        private final int courseId;
+        private final int userId;
+        private final int rating;
+
+        public ReviewPosted(int reviewId, int courseId, int userId, int rating) {
+            this.reviewId = reviewId;
+            this.courseId = courseId;
+            this.userId = userId;
+            this.rating = rating;
+        }
+
+        public int getReviewId() {
+            return reviewId;
+        }
+
+        public int getCourseId() {
+            return courseId;
+        }
+
+        public int getUserId() {
+            return userId;
+        }
+
+        public int getRating() {
+            return rating;
+        }
+    }
+
+    /**
+     * A comment or reply was posted on a lesson
+     */
+    public static final class CommentPosted extends DomainEvent {
+        private final int commentId;
+        private final int lessonId;
+        private final int userId;
+        private final Integer parentId;
+
+        public CommentPosted(int commentId, int lessonId, int userId, Integer parentId) {
+            this.commentId = commentId;
+            this.lessonId = lessonId;
+            this.userId = userId;
+            this.parentId = parentId;
+        }
+
+        public int getCommentId() {
+            return commentId;
+        }
+
+        public int getLessonId() {
+            return lessonId;
+        }
+
+        public int getUserId() {
+            return userId;
+        }
+
+        public Integer getParentId() {
+            return parentId;
+        }
+
+        public boolean isReply() {
+            return parentId != null;
+        }
+    }
+
+    /**
+     * A student liked a lesson
+     */
+    public static final class LessonLiked extends DomainEvent {
+        private final int lessonId;
+        private final int courseId;
+        private final int userId;
+
+        public LessonLiked(int lessonId, int courseId, int userId) {
+            this.lessonId = lessonId;
+            this.courseId = courseId;
+            this.userId = userId;
+        }
+
+        public int getLessonId() {
+            return lessonId;
+        }
+
+        public int getCourseId() {
+            return courseId;
+        }
+
+        public int getUserId() {
+            return userId;
+        }
+    }
+
+    /**
+     * A student finished a test attempt and it was graded
+     */
+    public static final class TestAttemptCompleted extends DomainEvent {
+        private final int attemptId;
+        private final int testId;
+        private final int courseId;
+        private final int userId;
+        private final double scorePercentage;
+        private final boolean passed;
+
+        public TestAttemptCompleted(int attemptId, int testId, int courseId, int userId,
+                                    double scorePercentage, boolean passed) {
+            this.attemptId = attemptId;
+            this.testId = testId;
+            this.courseId = courseId;
+            this.userId = userId;
+            this.scorePercentage = scorePercentage;
+            this.passed = passed;
+        }
+
+        public int getAttemptId() {
+            return attemptId;
+        }
+
+        public int getTestId() {
+            return testId;
+        }
+
+        public int getCourseId() {
+            return courseId;
+        }
+
+        public int getUserId() {
+            return userId;
+        }
+
+        public double getScorePercentage() {
+            return scorePercentage;
+        }
+
+        public boolean isPassed() {
+            return passed;
+        }
+    }
+
+    /**
+     * A course test was published or unpublished
+     */
+    public static final class TestPublicationChanged extends DomainEvent {
+        private final int testId;
+        private final int courseId;
+        private final boolean published;
+
+        public TestPublicationChanged(int testId, int courseId, boolean published) {
+            this.testId = testId;
+            this.courseId = courseId;
+            this.published = published;
+        }
+
+        public int getTestId() {
+            return testId;
+        }
+
+        public int getCourseId() {
+            return courseId;
+        }
+
+        public boolean isPublished() {
+            return published;
+        }
+    }
+}
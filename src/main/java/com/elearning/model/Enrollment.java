@@ -13,6 +13,8 @@ public class Enrollment {
     private double progressPercent;
     private LocalDateTime lastAccessedAt;
     private LocalDateTime completedAt;
+    private int completedLessons;
+    private int totalLessons;
 
     // Additional fields
     private String courseTitle;
@@ -87,6 +89,22 @@ public class Enrollment {
         this.completedAt = completedAt;
     }
 
+    public int getCompletedLessons() {
+        return completedLessons;
+    }
+
+    public void setCompletedLessons(int completedLessons) {
+        this.completedLessons = completedLessons;
+    }
+
+    public int getTotalLessons() {
+        return totalLessons;
+    }
+
+    public void setTotalLessons(int totalLessons) {
+        this.totalLessons = totalLessons;
+    }
+
     public String getCourseTitle() {
         return courseTitle;
     }
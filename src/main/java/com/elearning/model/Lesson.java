@@ -13,8 +13,15 @@ public class Lesson {
     private String videoPath;
     private String contentText;
     private Integer durationMinutes;
+    private Integer durationSeconds;   // Probed from the video file, null until probed
+    private Integer videoWidth;
+    private Integer videoHeight;
+    private Integer videoBitrateKbps;
     private Integer orderIndex;
     private boolean isPreview;
+    private int likeCount;      // Cached lessons.like_count
+    private int commentCount;   // Cached lessons.comment_count
+    private int viewCount;      // Cached lessons.view_count
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -86,6 +93,38 @@ public class Lesson {
         this.durationMinutes = durationMinutes;
     }
 
+    public Integer getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(Integer durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public Integer getVideoWidth() {
+        return videoWidth;
+    }
+
+    public void setVideoWidth(Integer videoWidth) {
+        this.videoWidth = videoWidth;
+    }
+
+    public Integer getVideoHeight() {
+        return videoHeight;
+    }
+
+    public void setVideoHeight(Integer videoHeight) {
+        this.videoHeight = videoHeight;
+    }
+
+    public Integer getVideoBitrateKbps() {
+        return videoBitrateKbps;
+    }
+
+    public void setVideoBitrateKbps(Integer videoBitrateKbps) {
+        this.videoBitrateKbps = videoBitrateKbps;
+    }
+
     public Integer getOrderIndex() {
         return orderIndex;
     }
@@ -102,6 +141,30 @@ public class Lesson {
         isPreview = preview;
     }
 
+    public int getLikeCount() {
+        return likeCount;
+    }
+
+    public void setLikeCount(int likeCount) {
+        this.likeCount = likeCount;
+    }
+
+    public int getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(int commentCount) {
+        this.commentCount = commentCount;
+    }
+
+    public int getViewCount() {
+        return viewCount;
+    }
+
+    public void setViewCount(int viewCount) {
+        this.viewCount = viewCount;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -12,6 +12,9 @@ public class LessonProgress {
     private boolean isCompleted;
     private LocalDateTime completedAt;
     private LocalDateTime lastOpenedAt;
+    private int positionSeconds;   // Where video playback stopped
+    private int watchedSeconds;    // Seconds of video played through at least once
+    private byte[] watchedBitmap;  // Which seconds were played (see WatchCoverage)
 
     // Additional fields for display
     private String lessonTitle;
@@ -76,6 +79,30 @@ public class LessonProgress {
         this.lastOpenedAt = lastOpenedAt;
     }
 
+    public int getPositionSeconds() {
+        return positionSeconds;
+    }
+
+    public void setPositionSeconds(int positionSeconds) {
+        this.positionSeconds = positionSeconds;
+    }
+
+    public int getWatchedSeconds() {
+        return watchedSeconds;
+    }
+
+    public void setWatchedSeconds(int watchedSeconds) {
+        this.watchedSeconds = watchedSeconds;
+    }
+
+    public byte[] getWatchedBitmap() {
+        return watchedBitmap;
+    }
+
+    public void setWatchedBitmap(byte[] watchedBitmap) {
+        this.watchedBitmap = watchedBitmap;
+    }
+
     public String getLessonTitle() {
         return lessonTitle;
     }
@@ -100,6 +127,7 @@ public class LessonProgress {
                 ", lessonId=" + lessonId +
                 ", isCompleted=" + isCompleted +
                 ", lastOpenedAt=" + lastOpenedAt +
+                ", positionSeconds=" + positionSeconds +
                 '}';
     }
 }
@@ -0,0 +1,65 @@
+package com.elearning.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * LessonView entity - one counted view of a lesson (analytics)
+ */
+public class LessonView {
+    private Long id;
+    private Integer lessonId;
+    private Integer userId;
+    private LocalDateTime viewedAt;
+
+    // Constructors
+    public LessonView() {
+    }
+
+    public LessonView(Integer lessonId, Integer userId, LocalDateTime viewedAt) {
+        this.lessonId = lessonId;
+        this.userId = userId;
+        this.viewedAt = viewedAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getLessonId() {
+        return lessonId;
+    }
+
+    public void setLessonId(Integer lessonId) {
+        this.lessonId = lessonId;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public LocalDateTime getViewedAt() {
+        return viewedAt;
+    }
+
+    public void setViewedAt(LocalDateTime viewedAt) {
+        this.viewedAt = viewedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "LessonView{" +
+                "lessonId=" + lessonId +
+                ", userId=" + userId +
+                ", viewedAt=" + viewedAt +
+                '}';
+    }
+}
@@ -0,0 +1,120 @@
+package com.elearning.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * MediaObject entity - one stored file in the content-addressed media store
+ */
+public class MediaObject {
+    private String sha256;
+    private String storagePath;
+    private long sizeBytes;
+    private int refCount;
+    private Long durationMs;   // Video metadata cached by content, null until probed
+    private Integer videoWidth;
+    private Integer videoHeight;
+    private Integer bitrateKbps;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public MediaObject() {
+    }
+
+    public MediaObject(String sha256, String storagePath, long sizeBytes) {
+        this.sha256 = sha256;
+        this.storagePath = storagePath;
+        this.sizeBytes = sizeBytes;
+    }
+
+    // Getters and Setters
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public String getStoragePath() {
+        return storagePath;
+    }
+
+    public void setStoragePath(String storagePath) {
+        this.storagePath = storagePath;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(int refCount) {
+        this.refCount = refCount;
+    }
+
+    public Long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(Long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public Integer getVideoWidth() {
+        return videoWidth;
+    }
+
+    public void setVideoWidth(Integer videoWidth) {
+        this.videoWidth = videoWidth;
+    }
+
+    public Integer getVideoHeight() {
+        return videoHeight;
+    }
+
+    public void setVideoHeight(Integer videoHeight) {
+        this.videoHeight = videoHeight;
+    }
+
+    public Integer getBitrateKbps() {
+        return bitrateKbps;
+    }
+
+    public void setBitrateKbps(Integer bitrateKbps) {
+        this.bitrateKbps = bitrateKbps;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "MediaObject{" +
+                "sha256=" + sha256 +
+                ", storagePath=" + storagePath +
+                ", sizeBytes=" + sizeBytes +
+                ", refCount=" + refCount +
+                '}';
+    }
+}
@@ -1,6 +1,7 @@
 package com.elearning.model;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Model class representing a student's attempt at taking a test
@@ -25,6 +26,8 @@ public class TestAttempt {
     private LocalDateTime startedAt;
     private LocalDateTime completedAt;
     private Integer timeSpentSeconds;
+    private Long assemblySeed;          // Seed used to draw/shuffle questions
+    private List<Integer> questionIds;  // Questions drawn for this attempt, in the order shown
 
     // Transient fields (for display)
     private String userName;
@@ -164,6 +167,22 @@ public class TestAttempt {
         this.timeSpentSeconds = timeSpentSeconds;
     }
 
+    public Long getAssemblySeed() {
+        return assemblySeed;
+    }
+
+    public void setAssemblySeed(Long assemblySeed) {
+        this.assemblySeed = assemblySeed;
+    }
+
+    public List<Integer> getQuestionIds() {
+        return questionIds;
+    }
+
+    public void setQuestionIds(List<Integer> questionIds) {
+        this.questionIds = questionIds;
+    }
+
     public String getUserName() {
         return userName;
     }
@@ -14,6 +14,8 @@ public class TestQuestion {
     private String questionText;
     private Integer orderIndex;         // For ordering questions
     private Double points;              // Points awarded for correct answer, default 1.0
+    private String topic;               // Question bank grouping, NULL = general
+    private String difficulty;          // EASY, MEDIUM, HARD
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -24,6 +26,7 @@ public class TestQuestion {
     public TestQuestion() {
         this.orderIndex = 0;
         this.points = 1.0;
+        this.difficulty = "MEDIUM";
         this.options = new ArrayList<>();
     }
 
@@ -74,6 +77,22 @@ public class TestQuestion {
         this.points = points;
     }
 
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(String difficulty) {
+        this.difficulty = difficulty;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,80 @@
+package com.elearning.model;
+
+/**
+ * TranscodeJob entity - queued transcoding of one stored video into renditions
+ */
+public class TranscodeJob {
+    public static final String PENDING = "PENDING";
+    public static final String RUNNING = "RUNNING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    private String sourceSha256;
+    private String sourcePath;   // media_objects.storage_path of the source
+    private String status;
+    private int attempts;
+    private String lastError;
+    private String outputDir;
+
+    // Constructors
+    public TranscodeJob() {
+    }
+
+    // Getters and Setters
+    public String getSourceSha256() {
+        return sourceSha256;
+    }
+
+    public void setSourceSha256(String sourceSha256) {
+        this.sourceSha256 = sourceSha256;
+    }
+
+    public String getSourcePath() {
+        return sourcePath;
+    }
+
+    public void setSourcePath(String sourcePath) {
+        this.sourcePath = sourcePath;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public String getOutputDir() {
+        return outputDir;
+    }
+
+    public void setOutputDir(String outputDir) {
+        this.outputDir = outputDir;
+    }
+
+    @Override
+    public String toString() {
+        return "TranscodeJob{" +
+                "sourceSha256=" + sourceSha256 +
+                ", status=" + status +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
@@ -0,0 +1,135 @@
+package com.elearning.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * UserActivity entity - one entry of the activity feed (user_activity table)
+ */
+public class UserActivity {
+    // Action types (user_activity.action_type)
+    public static final String LESSON_VIEW = "LESSON_VIEW";
+    public static final String LESSON_LIKE = "LESSON_LIKE";
+    public static final String LESSON_COMMENT = "LESSON_COMMENT";
+    public static final String LESSON_COMPLETE = "LESSON_COMPLETE";
+    public static final String REVIEW_CREATE = "REVIEW_CREATE";
+    public static final String COURSE_ENROLL = "COURSE_ENROLL";
+    public static final String COURSE_COMPLETE = "COURSE_COMPLETE";
+    public static final String TEST_COMPLETE = "TEST_COMPLETE";
+
+    private Long id;
+    private Integer userId;
+    private Integer courseId;
+    private Integer lessonId;
+    private String actionType;
+    private String metadata;            // JSON object text, may be null
+    private LocalDateTime createdAt;
+
+    // Additional fields for display
+    private String userName;
+    private String courseTitle;
+    private String lessonTitle;
+
+    // Constructors
+    public UserActivity() {
+    }
+
+    public UserActivity(Integer userId, Integer courseId, Integer lessonId, String actionType, String metadata) {
+        this.userId = userId;
+        this.courseId = courseId;
+        this.lessonId = lessonId;
+        this.actionType = actionType;
+        this.metadata = metadata;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public Integer getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(Integer courseId) {
+        this.courseId = courseId;
+    }
+
+    public Integer getLessonId() {
+        return lessonId;
+    }
+
+    public void setLessonId(Integer lessonId) {
+        this.lessonId = lessonId;
+    }
+
+    public String getActionType() {
+        return actionType;
+    }
+
+    public void setActionType(String actionType) {
+        this.actionType = actionType;
+    }
+
+    public String getMetadata() {
+        return metadata;
+    }
+
+    public void setMetadata(String metadata) {
+        this.metadata = metadata;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public String getCourseTitle() {
+        return courseTitle;
+    }
+
+    public void setCourseTitle(String courseTitle) {
+        this.courseTitle = courseTitle;
+    }
+
+    public String getLessonTitle() {
+        return lessonTitle;
+    }
+
+    public void setLessonTitle(String lessonTitle) {
+        this.lessonTitle = lessonTitle;
+    }
+
+    @Override
+    public String toString() {
+        return "UserActivity{" +
+                "id=" + id +
+                ", userId=" + userId +
+                ", actionType='" + actionType + '\'' +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
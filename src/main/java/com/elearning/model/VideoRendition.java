@@ -0,0 +1,82 @@
+package com.elearning.model;
+
+/**
+ * VideoRendition entity - a lower-bitrate copy of a stored lesson video
+ */
+public class VideoRendition {
+    private String sourceSha256;
+    private int height;
+    private int width;
+    private int bitrateKbps;
+    private String filePath;       // Progressive MP4
+    private long sizeBytes;
+
+    // Constructors
+    public VideoRendition() {
+    }
+
+    public VideoRendition(String sourceSha256, int height, int width, int bitrateKbps) {
+        this.sourceSha256 = sourceSha256;
+        this.height = height;
+        this.width = width;
+        this.bitrateKbps = bitrateKbps;
+    }
+
+    // Getters and Setters
+    public String getSourceSha256() {
+        return sourceSha256;
+    }
+
+    public void setSourceSha256(String sourceSha256) {
+        this.sourceSha256 = sourceSha256;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void setHeight(int height) {
+        this.height = height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public void setWidth(int width) {
+        this.width = width;
+    }
+
+    public int getBitrateKbps() {
+        return bitrateKbps;
+    }
+
+    public void setBitrateKbps(int bitrateKbps) {
+        this.bitrateKbps = bitrateKbps;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "VideoRendition{" +
+                "sourceSha256=" + sourceSha256 +
+                ", height=" + height +
+                ", bitrateKbps=" + bitrateKbps +
+                '}';
+    }
+}
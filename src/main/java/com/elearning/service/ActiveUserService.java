@@ -0,0 +1,321 @@
+package com.elearning.service;
+
+import com.elearning.dao.ActiveUserSketchDAO;
+import com.elearning.model.DomainEvent;
+import com.elearning.util.EventBus;
+import com.elearning.util.HyperLogLog;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service for daily/weekly/monthly active users
+ * Logins and domain events mark their user active in an in-memory HyperLogLog
+ * for the current day; a background thread merges it into that day's stored
+ * sketch every minute. DAU/WAU/MAU for any day are the estimate of the merged
+ * 1, 7 or 30 daily sketches, so a rolling window costs one fixed-size sketch
+ * regardless of how many users were active. Days without a stored sketch are
+ * backfilled once from login logs and the activity feed.
+ * Singleton pattern for single instance across application
+ */
+public class ActiveUserService {
+    private static final long FLUSH_INTERVAL_SECONDS = 60;
+    private static final int WEEK_DAYS = 7;
+    private static final int MONTH_DAYS = 30;
+    public static final int MAX_TREND_DAYS = 180;
+
+    private final ActiveUserSketchDAO sketchDAO;
+    // Activity not yet merged into the stored sketches, per day
+    private final Map<LocalDate, HyperLogLog> pending = new HashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final Object flushLock = new Object();
+
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong sketchesWritten = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    // Private constructor to prevent direct instantiation
+    private ActiveUserService() {
+        this.sketchDAO = new ActiveUserSketchDAO();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "active-user-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly,
+                FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "active-user-shutdown"));
+
+        // Every event that names its acting user counts as activity
+        EventBus.getInstance().subscribeAsync(DomainEvent.class, event -> {
+            Integer userId = actingUser(event);
+            if (userId != null) {
+                recordActive(userId);
+            }
+        });
+    }
+
+    // Static inner holder class - lazily loaded and thread-safe
+    private static class SingletonHolder {
+        private static final ActiveUserService INSTANCE = new ActiveUserService();
+    }
+
+    // Public accessor method
+    public static ActiveUserService getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Mark a user active today (in memory only)
+     */
+    public void recordActive(int userId) {
+        recorded.incrementAndGet();
+        LocalDate today = LocalDate.now();
+        synchronized (pending) {
+            pending.computeIfAbsent(today, day -> new HyperLogLog()).add(userId);
+        }
+    }
+
+    /**
+     * DAU/WAU/MAU for each day in the range (inclusive), oldest first
+     * At most the last MAX_TREND_DAYS days of the range are returned; the first key
+     * is the day the returned trend actually starts on. Runs queries, so keep it off the EDT.
+     */
+    public Map<LocalDate, ActiveUserCounts> getTrend(LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now();
+        if (to.isAfter(today)) {
+            to = today;
+        }
+        if (from.isBefore(to.minusDays(MAX_TREND_DAYS - 1))) {
+            from = to.minusDays(MAX_TREND_DAYS - 1);
+        }
+
+        LocalDate windowStart = from.minusDays(MONTH_DAYS - 1);
+        Map<LocalDate, HyperLogLog> daily = loadSketches(windowStart, to, today);
+
+        Map<LocalDate, ActiveUserCounts> trend = new LinkedHashMap<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            trend.put(day, countsFor(daily, day));
+        }
+        return trend;
+    }
+
+    /**
+     * DAU/WAU/MAU ending on the given day
+     */
+    public ActiveUserCounts getCounts(LocalDate day) {
+        return getTrend(day, day).getOrDefault(day, new ActiveUserCounts(day, 0, 0, 0));
+    }
+
+    /**
+     * Merge pending activity into the stored sketches
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            Map<LocalDate, HyperLogLog> batch;
+            synchronized (pending) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = new HashMap<>(pending);
+                pending.clear();
+            }
+
+            for (Map.Entry<LocalDate, HyperLogLog> entry : batch.entrySet()) {
+                if (sketchDAO.mergeInto(entry.getKey(), entry.getValue())) {
+                    sketchesWritten.incrementAndGet();
+                } else {
+                    // Keep it for the next run; merging is idempotent
+                    failedFlushes.incrementAndGet();
+                    synchronized (pending) {
+                        pending.computeIfAbsent(entry.getKey(), day -> new HyperLogLog()).merge(entry.getValue());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop the background thread and write pending activity
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    public SketchStats getStats() {
+        int pendingDays;
+        synchronized (pending) {
+            pendingDays = pending.size();
+        }
+        return new SketchStats(recorded.get(), sketchesWritten.get(), failedFlushes.get(), pendingDays);
+    }
+
+    private Map<LocalDate, HyperLogLog> loadSketches(LocalDate from, LocalDate to, LocalDate today) {
+        Map<LocalDate, HyperLogLog> daily = sketchDAO.findRange(from, to);
+
+        // Past days without a sketch: one grouped query over their span, one transaction to store them
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (LocalDate day = from; !day.isAfter(to) && day.isBefore(today); day = day.plusDays(1)) {
+            if (!daily.containsKey(day)) {
+                firstMissing = firstMissing == null ? day : firstMissing;
+                lastMissing = day;
+            }
+        }
+        if (firstMissing != null) {
+            Map<LocalDate, List<Integer>> activeUsers = sketchDAO.findActiveUserIdsByDay(firstMissing, lastMissing);
+            Map<LocalDate, HyperLogLog> backfill = new HashMap<>();
+            for (LocalDate day = firstMissing; !day.isAfter(lastMissing); day = day.plusDays(1)) {
+                if (!daily.containsKey(day)) {
+                    HyperLogLog sketch = new HyperLogLog();
+                    for (int userId : activeUsers.getOrDefault(day, Collections.emptyList())) {
+                        sketch.add(userId);
+                    }
+                    backfill.put(day, sketch);
+                }
+            }
+            sketchDAO.mergeAll(backfill);
+            daily.putAll(backfill);
+        }
+
+        // Include activity that has not been flushed yet
+        synchronized (pending) {
+            for (Map.Entry<LocalDate, HyperLogLog> entry : pending.entrySet()) {
+                if (!entry.getKey().isBefore(from) && !entry.getKey().isAfter(to)) {
+                    daily.computeIfAbsent(entry.getKey(), day -> new HyperLogLog()).merge(entry.getValue());
+                }
+            }
+        }
+        return daily;
+    }
+
+    private ActiveUserCounts countsFor(Map<LocalDate, HyperLogLog> daily, LocalDate day) {
+        HyperLogLog window = new HyperLogLog();
+        long dau = 0;
+        long wau = 0;
+        // Walk back from the day, reading off DAU/WAU on the way to the 30-day union
+        for (int offset = 0; offset < MONTH_DAYS; offset++) {
+            window.merge(daily.get(day.minusDays(offset)));
+            if (offset == 0) {
+                dau = window.estimate();
+            } else if (offset == WEEK_DAYS - 1) {
+                wau = window.estimate();
+            }
+        }
+        return new ActiveUserCounts(day, dau, wau, window.estimate());
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Keep the scheduled task alive; pending activity stays queued
+            e.printStackTrace();
+        }
+    }
+
+    private static Integer actingUser(Object event) {
+        if (event instanceof DomainEvent.UserLoggedIn) {
+            return ((DomainEvent.UserLoggedIn) event).getUserId();
+        } else if (event instanceof DomainEvent.UserEnrolled) {
+            return ((DomainEvent.UserEnrolled) event).getUserId();
+        } else if (event instanceof DomainEvent.LessonCompleted) {
+            return ((DomainEvent.LessonCompleted) event).getUserId();
+        } else if (event instanceof DomainEvent.LessonLiked) {
+            return ((DomainEvent.LessonLiked) event).getUserId();
+        } else if (event instanceof DomainEvent.CommentPosted) {
+            return ((DomainEvent.CommentPosted) event).getUserId();
+        } else if (event instanceof DomainEvent.ReviewPosted) {
+            return ((DomainEvent.ReviewPosted) event).getUserId();
+        } else if (event instanceof DomainEvent.TestAttemptCompleted) {
+            return ((DomainEvent.TestAttemptCompleted) event).getUserId();
+        }
+        return null;
+    }
+
+    /**
+     * Estimated distinct active users for the day, the 7 days and the 30 days ending on it
+     */
+    public static class ActiveUserCounts {
+        private final LocalDate day;
+        private final long dailyActive;
+        private final long weeklyActive;
+        private final long monthlyActive;
+
+        public ActiveUserCounts(LocalDate day, long dailyActive, long weeklyActive, long monthlyActive) {
+            this.day = day;
+            this.dailyActive = dailyActive;
+            this.weeklyActive = weeklyActive;
+            this.monthlyActive = monthlyActive;
+        }
+
+        public LocalDate getDay() {
+            return day;
+        }
+
+        public long getDailyActive() {
+            return dailyActive;
+        }
+
+        public long getWeeklyActive() {
+            return weeklyActive;
+        }
+
+        public long getMonthlyActive() {
+            return monthlyActive;
+        }
+    }
+
+    /**
+     * Counters for monitoring the sketch writer
+     */
+    public static class SketchStats {
+        private final long recorded;
+        private final long sketchesWritten;
+        private final long failedFlushes;
+        private final int pendingDays;
+
+        public SketchStats(long recorded, long sketchesWritten, long failedFlushes, int pendingDays) {
+            this.recorded = recorded;
+            this.sketchesWritten = sketchesWritten;
+            this.failedFlushes = failedFlushes;
+            this.pendingDays = pendingDays;
+        }
+
+        public long getRecorded() {
+            return recorded;
+        }
+
+        public long getSketchesWritten() {
+            return sketchesWritten;
+        }
+
+        public long getFailedFlushes() {
+            return failedFlushes;
+        }
+
+        public int getPendingDays() {
+            return pendingDays;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("recorded=%d, sketchesWritten=%d, failedFlushes=%d, pendingDays=%d",
+                    recorded, sketchesWritten, failedFlushes, pendingDays);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.elearning.service;
+
+import com.elearning.dao.UserActivityDAO;
+import com.elearning.model.DomainEvent;
+import com.elearning.model.UserActivity;
+import com.elearning.util.EventBus;
+import com.elearning.util.WriteBehindWriter;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service for the user activity feed
+ * Enrollments, lesson completions and likes, comments, reviews and test
+ * attempts are picked up from the EventBus (async subscribers, so the action
+ * that caused them never waits) and appended to user_activity by a
+ * WriteBehindWriter. Feeds are read newest-first with keyset paging.
+ * Entries whose user, course or lesson is gone by the time they are written
+ * are dropped.
+ * Singleton pattern for single instance across application
+ */
+public class ActivityService {
+    private static final long FLUSH_INTERVAL_SECONDS = 2;
+    private static final int MAX_PENDING = 50_000;   // Drop new entries beyond this while the database is down
+
+    private final UserActivityDAO userActivityDAO;
+    private final WriteBehindWriter<Long, UserActivity> writer;
+    // Entries are never coalesced, so each gets its own key
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Private constructor to prevent direct instantiation
+    private ActivityService() {
+        this.userActivityDAO = new UserActivityDAO();
+        this.writer = new WriteBehindWriter<>("Activity writer", FLUSH_INTERVAL_SECONDS, MAX_PENDING,
+                new WriteBehindWriter.Sink<UserActivity>() {
+                    @Override
+                    public int writeBatch(List<UserActivity> batch) throws SQLException {
+                        return userActivityDAO.insertBatch(batch);
+                    }
+
+                    @Override
+                    public boolean writeOne(UserActivity activity) throws SQLException {
+                        return userActivityDAO.insert(activity);
+                    }
+                });
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "activity-writer-shutdown"));
+
+        subscribe();
+    }
+
+    // Static inner holder class - lazily loaded and thread-safe
+    private static class SingletonHolder {
+        private static final ActivityService INSTANCE = new ActivityService();
+    }
+
+    // Public accessor method
+    public static ActivityService getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    private void subscribe() {
+        EventBus bus = EventBus.getInstance();
+        bus.subscribeAsync(DomainEvent.UserEnrolled.class, event ->
+                record(new UserActivity(event.getUserId(), event.getCourseId(), null,
+                        UserActivity.COURSE_ENROLL, null)));
+        bus.subscribeAsync(DomainEvent.LessonCompleted.class, event -> {
+            record(new UserActivity(event.getUserId(), event.getCourseId(), event.getLessonId(),
+                    UserActivity.LESSON_COMPLETE, json("progress", event.getProgressPercent())));
+            if (event.getProgressPercent() >= 100.0) {
+                record(new UserActivity(event.getUserId(), event.getCourseId(), null,
+                        UserActivity.COURSE_COMPLETE, null));
+            }
+        });
+        bus.subscribeAsync(DomainEvent.LessonLiked.class, event ->
+                record(new UserActivity(event.getUserId(), event.getCourseId(), event.getLessonId(),
+                        UserActivity.LESSON_LIKE, null)));
+        bus.subscribeAsync(DomainEvent.CommentPosted.class, event ->
+                record(new UserActivity(event.getUserId(), null, event.getLessonId(),
+                        UserActivity.LESSON_COMMENT, json("commentId", event.getCommentId()))));
+        bus.subscribeAsync(DomainEvent.ReviewPosted.class, event ->
+                record(new UserActivity(event.getUserId(), event.getCourseId(), null,
+                        UserActivity.REVIEW_CREATE, json("rating", event.getRating()))));
+        bus.subscribeAsync(DomainEvent.TestAttemptCompleted.class, event ->
+                record(new UserActivity(event.getUserId(), event.getCourseId(), null,
+                        UserActivity.TEST_COMPLETE,
+                        String.format(Locale.ROOT, "{\"testId\":%d,\"score\":%.2f,\"passed\":%b}",
+                                event.getTestId(), event.getScorePercentage(), event.isPassed()))));
+    }
+
+    /**
+     * Queue an activity for the background writer (never blocks on the database)
+     */
+    public void record(UserActivity activity) {
+        if (writer.record(sequence.incrementAndGet(), activity)
+                && writer.getPendingCount() >= WriteBehindWriter.MAX_BATCH_SIZE) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * One page of a user's activity, newest first
+     * Pass the last entry of the previous page to continue, or null to start
+     */
+    public List<UserActivity> getUserFeed(int userId, UserActivity after, int pageSize) {
+        return userActivityDAO.findByUser(userId, after, pageSize);
+    }
+
+    /**
+     * One page of activity across the platform, newest first
+     * Pass the last entry of the previous page to continue, or null to start
+     */
+    public List<UserActivity> getPlatformFeed(UserActivity after, int pageSize) {
+        return userActivityDAO.findRecent(after, pageSize);
+    }
+
+    /**
+     * Ask the background writer to flush soon
+     */
+    public void requestFlush() {
+        writer.requestFlush();
+    }
+
+    /**
+     * Write all queued activities on the calling thread
+     * Returns the number of entries written
+     */
+    public int flush() {
+        return writer.flush();
+    }
+
+    /**
+     * Stop the background writer and write everything still queued
+     */
+    public void shutdown() {
+        // Let the bus hand over events that are already in flight
+        EventBus.getInstance().awaitIdle(1000);
+        writer.shutdown();
+    }
+
+    public WriteBehindWriter.WriterStats getStats() {
+        return writer.getStats();
+    }
+
+    private static String json(String key, Number value) {
+        return "{\"" + key + "\":" + (value instanceof Double
+                ? String.format(Locale.ROOT, "%.2f", value.doubleValue())
+                : value) + "}";
+    }
+}
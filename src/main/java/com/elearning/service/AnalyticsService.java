@@ -311,10 +311,7 @@ public class AnalyticsService {
      * Helper method to count active users
      */
     private int countActiveUsers() {
-        List<com.elearning.model.User> allUsers = userDAO.findAll();
-        return (int) allUsers.stream()
-            .filter(u -> "ACTIVE".equals(u.getStatus()))
-            .count();
+        return userDAO.countByStatus("ACTIVE");
     }
 
     /**
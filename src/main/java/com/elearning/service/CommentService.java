@@ -4,8 +4,10 @@ import com.elearning.dao.CommentDAO;
 import com.elearning.dao.EnrollmentDAO;
 import com.elearning.dao.LessonDAO;
 import com.elearning.model.Comment;
+import com.elearning.model.DomainEvent;
 import com.elearning.model.Enrollment;
 import com.elearning.model.Lesson;
+import com.elearning.util.EventBus;
 
 import java.util.List;
 
@@ -49,6 +51,15 @@ public class CommentService {
         return commentDAO.findTopLevelComments(lessonId);
     }
 
+    /**
+     * Get one page of threads for a lesson: top-level comments (newest first)
+     * with nested replies, loaded in a single query
+     * Pass the last comment of the previous page to continue, or null to start
+     */
+    public List<Comment> getCommentThreads(int lessonId, Comment afterRoot, int pageSize) {
+        return commentDAO.findThreadPage(lessonId, afterRoot, pageSize);
+    }
+
     /**
      * Get replies to a comment
      */
@@ -104,7 +115,12 @@ public class CommentService {
             }
         }
 
-        return commentDAO.insert(comment);
+        boolean inserted = commentDAO.insert(comment);
+        if (inserted) {
+            EventBus.getInstance().publish(new DomainEvent.CommentPosted(
+                    comment.getId(), comment.getLessonId(), userId, comment.getParentId()));
+        }
+        return inserted;
     }
 
     /**
@@ -0,0 +1,145 @@
+package com.elearning.service;
+
+import com.elearning.dao.CommentDAO;
+import com.elearning.dao.LessonDAO;
+import com.elearning.util.MaintenanceLock;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodic repair of cached counters
+ * lessons.like_count, comment_count, view_count and lesson_comments.reply_count
+ * are maintained transactionally by the DAOs; this job recomputes them from the
+ * source tables and fixes any drift (manual SQL edits, FK cascades, old rows).
+ * Only one instance runs it at a time (see MaintenanceLock).
+ * Singleton pattern for single instance across application
+ */
+public class CounterReconciler {
+    private static final long INITIAL_DELAY_MINUTES = 1;
+    private static final long INTERVAL_HOURS = 6;
+
+    private final LessonDAO lessonDAO;
+    private final CommentDAO commentDAO;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong lessonsFixed = new AtomicLong();
+    private final AtomicLong commentsFixed = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    // Private constructor to prevent direct instantiation
+    private CounterReconciler() {
+        this.lessonDAO = new LessonDAO();
+        this.commentDAO = new CommentDAO();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "counter-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Static inner holder class - lazily loaded and thread-safe
+    private static class SingletonHolder {
+        private static final CounterReconciler INSTANCE = new CounterReconciler();
+    }
+
+    // Public accessor method
+    public static CounterReconciler getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Schedule the job in the background (first run shortly after startup)
+     * Not scheduled when maintenance.enabled is false.
+     */
+    public void start() {
+        if (!MaintenanceLock.isEnabled()) {
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(this::reconcileQuietly,
+                TimeUnit.MINUTES.toSeconds(INITIAL_DELAY_MINUTES),
+                TimeUnit.HOURS.toSeconds(INTERVAL_HOURS), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Run one reconciliation pass on the calling thread
+     * Returns the number of rows corrected
+     */
+    public synchronized int reconcile() {
+        runs.incrementAndGet();
+        int lessons = lessonDAO.reconcileCounters();
+        int comments = commentDAO.reconcileReplyCounts();
+
+        if (lessons < 0 || comments < 0) {
+            failures.incrementAndGet();
+        }
+        lessonsFixed.addAndGet(Math.max(lessons, 0));
+        commentsFixed.addAndGet(Math.max(comments, 0));
+
+        int fixed = Math.max(lessons, 0) + Math.max(comments, 0);
+        if (fixed > 0) {
+            System.out.println("Counter reconciliation corrected " + lessons + " lessons, " + comments + " comments");
+        }
+        return fixed;
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public ReconcileStats getStats() {
+        return new ReconcileStats(runs.get(), lessonsFixed.get(), commentsFixed.get(), failures.get());
+    }
+
+    private void reconcileQuietly() {
+        try {
+            MaintenanceLock.runExclusive("counter-reconcile", this::reconcile);
+        } catch (RuntimeException e) {
+            // Keep the scheduled task alive for the next run
+            failures.incrementAndGet();
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Counters for monitoring the job
+     */
+    public static class ReconcileStats {
+        private final long runs;
+        private final long lessonsFixed;
+        private final long commentsFixed;
+        private final long failures;
+
+        public ReconcileStats(long runs, long lessonsFixed, long commentsFixed, long failures) {
+            this.runs = runs;
+            this.lessonsFixed = lessonsFixed;
+            this.commentsFixed = commentsFixed;
+            this.failures = failures;
+        }
+
+        public long getRuns() {
+            return runs;
+        }
+
+        public long getLessonsFixed() {
+            return lessonsFixed;
+        }
+
+        public long getCommentsFixed() {
+            return commentsFixed;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("runs=%d, lessonsFixed=%d, commentsFixed=%d, failures=%d",
+                    runs, lessonsFixed, commentsFixed, failures);
+        }
+    }
+}
@@ -5,7 +5,9 @@ import com.elearning.dao.ReviewDAO;
 import com.elearning.model.CourseReviewComment;
 import com.elearning.model.Review;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service for course review comments.
@@ -31,6 +33,14 @@ public class CourseReviewCommentService {
         return commentDAO.findTopLevelComments(reviewId);
     }
 
+    /**
+     * Comment threads for a batch of reviews, loaded with a single query
+     * Null if they could not be loaded.
+     */
+    public Map<Integer, List<CourseReviewComment>> getCommentThreads(Collection<Integer> reviewIds) {
+        return commentDAO.findThreadsByReviewIds(reviewIds);
+    }
+
     public List<CourseReviewComment> getReplies(int parentId) {
         return commentDAO.findReplies(parentId);
     }
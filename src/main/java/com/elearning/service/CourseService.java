@@ -2,6 +2,8 @@ package com.elearning.service;
 
 import com.elearning.dao.CourseDAO;
 import com.elearning.model.Course;
+import com.elearning.model.DomainEvent;
+import com.elearning.util.EventBus;
 
 import java.util.List;
 
@@ -179,7 +181,11 @@ public class CourseService {
             throw new IllegalStateException("Can only approve pending courses");
         }
 
-        return courseDAO.approveCourse(courseId, adminId);
+        boolean approved = courseDAO.approveCourse(courseId, adminId);
+        if (approved) {
+            EventBus.getInstance().publish(new DomainEvent.CourseApproved(courseId, adminId));
+        }
+        return approved;
     }
 
     /**
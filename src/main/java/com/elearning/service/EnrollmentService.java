@@ -5,9 +5,13 @@ import com.elearning.dao.EnrollmentDAO;
 import com.elearning.dao.LessonDAO;
 import com.elearning.dao.LessonProgressDAO;
 import com.elearning.model.Course;
+import com.elearning.model.DomainEvent;
 import com.elearning.model.Enrollment;
 import com.elearning.model.LessonProgress;
+import com.elearning.util.EventBus;
+import com.elearning.util.WatchCoverage;
 
+import java.sql.SQLException;
 import java.util.List;
 
 /**
@@ -15,11 +19,16 @@ import java.util.List;
  * Singleton pattern for single instance across application
  */
 public class EnrollmentService {
+    // Share of a lesson video that must be watched before the lesson completes itself
+    public static final int AUTO_COMPLETE_PERCENT = 90;
+
     private final EnrollmentDAO enrollmentDAO;
     private final LessonProgressDAO lessonProgressDAO;
     private final CourseDAO courseDAO;
     private final LessonDAO lessonDAO;
     private final CertificateService certificateService;
+    private final LessonAccessBuffer lessonAccessBuffer;
+    private final PlaybackCheckpointBuffer playbackBuffer;
 
     // Private constructor to prevent direct instantiation
     private EnrollmentService() {
@@ -28,6 +37,12 @@ public class EnrollmentService {
         this.courseDAO = new CourseDAO();
         this.lessonDAO = new LessonDAO();
         this.certificateService = CertificateService.getInstance();
+        this.lessonAccessBuffer = LessonAccessBuffer.getInstance();
+        this.playbackBuffer = PlaybackCheckpointBuffer.getInstance();
+
+        // Lesson count changed: rebase every enrollment's progress
+        EventBus.getInstance().subscribe(DomainEvent.CourseLessonsChanged.class,
+                event -> enrollmentDAO.recalculateCourseProgress(event.getCourseId()));
     }
 
     // Static inner holder class - lazily loaded and thread-safe
@@ -63,7 +78,11 @@ public class EnrollmentService {
             throw new IllegalStateException("Already enrolled in this course");
         }
 
-        return enrollmentDAO.enroll(userId, courseId);
+        boolean enrolled = enrollmentDAO.enroll(userId, courseId);
+        if (enrolled) {
+            EventBus.getInstance().publish(new DomainEvent.UserEnrolled(userId, courseId));
+        }
+        return enrolled;
     }
 
     /**
@@ -83,11 +102,19 @@ public class EnrollmentService {
             throw new IllegalStateException("Cannot unenroll after completing 10% of the course");
         }
 
+        // Write buffered touches first so none land after the delete
+        lessonAccessBuffer.flush();
+        playbackBuffer.flush();
+
         // Delete lesson progress
         lessonProgressDAO.deleteByUserAndCourse(userId, courseId);
 
         // Delete enrollment
-        return enrollmentDAO.unenroll(userId, courseId);
+        boolean unenrolled = enrollmentDAO.unenroll(userId, courseId);
+        if (unenrolled) {
+            EventBus.getInstance().publish(new DomainEvent.UserUnenrolled(userId, courseId));
+        }
+        return unenrolled;
     }
 
     /**
@@ -148,82 +175,97 @@ public class EnrollmentService {
 
     /**
      * Mark lesson as opened and update enrollment
+     * Buffered: the touch is coalesced per (user, lesson) and written in the
+     * background with lesson_progress.last_opened_at and enrollment last access
      */
     public boolean openLesson(int userId, int lessonId) {
-        // Mark lesson as opened
-        boolean success = lessonProgressDAO.markAsOpened(userId, lessonId);
-
-        if (success) {
-            // Get course ID from lesson
-            var lesson = lessonDAO.findById(lessonId);
-            if (lesson != null) {
-                // Update last accessed time for enrollment
-                enrollmentDAO.updateLastAccessed(userId, lesson.getCourseId());
-            }
-        }
-
-        return success;
+        lessonAccessBuffer.recordOpened(userId, lessonId);
+        return true;
     }
 
     /**
-     * Mark lesson as completed and update course progress
+     * Write buffered lesson touches soon (e.g. before showing "continue learning")
      */
-    public boolean completeLesson(int userId, int lessonId) {
-        // Get lesson to find course ID
-        var lesson = lessonDAO.findById(lessonId);
-        if (lesson == null) {
-            throw new IllegalArgumentException("Lesson not found");
-        }
+    public void flushLessonAccess() {
+        lessonAccessBuffer.requestFlush();
+        playbackBuffer.requestFlush();
+    }
 
-        int courseId = lesson.getCourseId();
+    /**
+     * Record a video playback checkpoint (buffered like lesson touches)
+     * Returns true once the seconds watched at least once cover AUTO_COMPLETE_PERCENT
+     * of the video, i.e. the lesson should be completed (replaying a part does not count twice)
+     */
+    public boolean recordPlayback(int userId, int lessonId, int positionSeconds, WatchCoverage watched, int durationSeconds) {
+        playbackBuffer.record(userId, lessonId, positionSeconds, watched);
+        return durationSeconds > 0
+                && watched.coveredSeconds(durationSeconds) * 100L >= (long) durationSeconds * AUTO_COMPLETE_PERCENT;
+    }
 
-        // Check if enrolled
-        if (!enrollmentDAO.isEnrolled(userId, courseId)) {
-            throw new SecurityException("Must be enrolled to complete lessons");
+    /**
+     * Where a user left off in a lesson video: the buffered checkpoint if any, else the stored one
+     * Returns null if the lesson was never played
+     */
+    public LessonProgress getPlaybackPosition(int userId, int lessonId) {
+        LessonProgress pending = playbackBuffer.getPending(userId, lessonId);
+        if (pending != null) {
+            return pending;
         }
+        return lessonProgressDAO.findByUserAndLesson(userId, lessonId);
+    }
 
-        // Mark lesson as completed
-        boolean success = lessonProgressDAO.markAsCompleted(userId, lessonId);
-
-        if (success) {
-            // Recalculate course progress
-            double progressPercent = lessonProgressDAO.calculateProgressPercent(userId, courseId);
-
-            // Update enrollment progress
-            enrollmentDAO.updateProgress(userId, courseId, progressPercent);
-            enrollmentDAO.updateLastAccessed(userId, courseId);
+    /**
+     * Mark lesson as completed and update course progress
+     * One transaction: the enrollment's completed-lesson count moves by delta
+     * instead of re-aggregating every lesson in the course
+     */
+    public boolean completeLesson(int userId, int lessonId) {
+        // The completion write stamps last_opened_at itself
+        lessonAccessBuffer.discard(userId, lessonId);
 
-            // Issue certificate when completion reaches 100%
-            certificateService.issueIfEligible(userId, courseId, progressPercent);
+        Enrollment progress = applyLessonCompletion(userId, lessonId, true);
+        if (progress == null) {
+            return false;
         }
 
-        return success;
+        // Issue certificate when completion reaches 100%
+        certificateService.issueIfEligible(userId, progress.getCourseId(), progress.getProgressPercent());
+        EventBus.getInstance().publish(new DomainEvent.LessonCompleted(
+                userId, progress.getCourseId(), lessonId, progress.getProgressPercent()));
+        return true;
     }
 
     /**
      * Mark lesson as incomplete
      */
     public boolean resetLessonProgress(int userId, int lessonId) {
-        // Get lesson to find course ID
-        var lesson = lessonDAO.findById(lessonId);
-        if (lesson == null) {
-            throw new IllegalArgumentException("Lesson not found");
-        }
-
-        int courseId = lesson.getCourseId();
-
-        // Mark as incomplete
-        boolean success = lessonProgressDAO.markAsIncomplete(userId, lessonId);
+        return applyLessonCompletion(userId, lessonId, false) != null;
+    }
 
-        if (success) {
-            // Recalculate course progress
-            double progressPercent = lessonProgressDAO.calculateProgressPercent(userId, courseId);
+    /**
+     * Recompute progress for all enrollments after lessons are added or removed
+     */
+    public boolean recalculateCourseProgress(int courseId) {
+        return enrollmentDAO.recalculateCourseProgress(courseId);
+    }
 
-            // Update enrollment progress
-            enrollmentDAO.updateProgress(userId, courseId, progressPercent);
+    private Enrollment applyLessonCompletion(int userId, int lessonId, boolean completed) {
+        Enrollment progress;
+        try {
+            progress = enrollmentDAO.setLessonCompletion(userId, lessonId, completed);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
         }
 
-        return success;
+        if (progress == null) {
+            // Only the failure path pays for telling the two cases apart
+            if (lessonDAO.findById(lessonId) == null) {
+                throw new IllegalArgumentException("Lesson not found");
+            }
+            throw new SecurityException("Must be enrolled to " + (completed ? "complete" : "reset") + " lessons");
+        }
+        return progress;
     }
 
     /**
@@ -235,7 +277,9 @@ public class EnrollmentService {
             throw new SecurityException("Must be enrolled to view progress");
         }
 
-        return lessonProgressDAO.findByUserAndCourse(userId, courseId);
+        List<LessonProgress> progressList = lessonProgressDAO.findByUserAndCourse(userId, courseId);
+        playbackBuffer.overlay(progressList);
+        return progressList;
     }
 
     /**
@@ -0,0 +1,97 @@
+package com.elearning.service;
+
+import com.elearning.dao.LessonProgressDAO;
+import com.elearning.model.LessonProgress;
+import com.elearning.util.WriteBehindWriter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Write-behind buffer for "lesson opened" touches
+ * Opening a lesson only records the latest touch per (user, lesson) in memory;
+ * a WriteBehindWriter flushes pending touches every few seconds as one batched
+ * transaction. Pending touches are flushed on a clean JVM shutdown.
+ * Singleton pattern for single instance across application
+ */
+public class LessonAccessBuffer {
+    private static final long FLUSH_INTERVAL_SECONDS = 5;
+    private static final int MAX_PENDING = 50_000;   // Drop touches of new lessons beyond this while the database is down
+
+    private final LessonProgressDAO lessonProgressDAO;
+    private final WriteBehindWriter<Long, LessonProgress> writer;
+
+    // Private constructor to prevent direct instantiation
+    private LessonAccessBuffer() {
+        this.lessonProgressDAO = new LessonProgressDAO();
+        this.writer = new WriteBehindWriter<>("Lesson access buffer", FLUSH_INTERVAL_SECONDS, MAX_PENDING,
+                LessonAccessBuffer::latest, lessonProgressDAO::recordOpenedBatch);
+        Runtime.getRuntime().addShutdownHook(new Thread(writer::shutdown, "lesson-access-shutdown"));
+    }
+
+    // Static inner holder class - lazily loaded and thread-safe
+    private static class SingletonHolder {
+        private static final LessonAccessBuffer INSTANCE = new LessonAccessBuffer();
+    }
+
+    // Public accessor method
+    public static LessonAccessBuffer getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Record that a user opened a lesson (never blocks on the database)
+     */
+    public void recordOpened(int userId, int lessonId) {
+        LessonProgress touch = new LessonProgress();
+        touch.setUserId(userId);
+        touch.setLessonId(lessonId);
+        touch.setLastOpenedAt(LocalDateTime.now());
+        writer.record(key(userId, lessonId), touch);
+    }
+
+    /**
+     * Drop the pending touch for a lesson that is about to be written directly
+     * Waits for an in-flight flush, so the caller's own write cannot race it
+     */
+    public void discard(int userId, int lessonId) {
+        writer.discard(key(userId, lessonId));
+    }
+
+    /**
+     * Ask the background thread to flush soon (e.g. when a lesson window closes)
+     */
+    public void requestFlush() {
+        writer.requestFlush();
+    }
+
+    /**
+     * Flush all pending touches on the calling thread
+     * Returns the number of touches written
+     */
+    public int flush() {
+        return writer.flush();
+    }
+
+    /**
+     * Stop the background thread and write everything still pending
+     */
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    public int getPendingCount() {
+        return writer.getPendingCount();
+    }
+
+    public WriteBehindWriter.WriterStats getStats() {
+        return writer.getStats();
+    }
+
+    private static long key(int userId, int lessonId) {
+        return ((long) userId << 32) | (lessonId & 0xFFFFFFFFL);
+    }
+
+    private static LessonProgress latest(LessonProgress a, LessonProgress b) {
+        return a.getLastOpenedAt().isAfter(b.getLastOpenedAt()) ? a : b;
+    }
+}
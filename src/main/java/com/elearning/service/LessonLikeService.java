@@ -0,0 +1,119 @@
+package com.elearning.service;
+
+import com.elearning.dao.EnrollmentDAO;
+import com.elearning.dao.LessonDAO;
+import com.elearning.dao.LessonLikeDAO;
+import com.elearning.dao.LessonViewDAO;
+import com.elearning.model.DomainEvent;
+import com.elearning.model.Lesson;
+import com.elearning.util.EventBus;
+
+import java.util.Map;
+
+/**
+ * Service for lesson likes and view counts
+ * Likes are idempotent: liking twice or unliking a lesson that was not liked
+ * changes nothing. Views go through LessonViewBuffer; all counts are read from
+ * the cached columns on lessons.
+ * Singleton pattern for single instance across application
+ */
+public class LessonLikeService {
+    private final LessonLikeDAO lessonLikeDAO;
+    private final LessonViewDAO lessonViewDAO;
+    private final LessonDAO lessonDAO;
+    private final EnrollmentDAO enrollmentDAO;
+
+    // Private constructor to prevent direct instantiation
+    private LessonLikeService() {
+        this.lessonLikeDAO = new LessonLikeDAO();
+        this.lessonViewDAO = new LessonViewDAO();
+        this.lessonDAO = new LessonDAO();
+        this.enrollmentDAO = new EnrollmentDAO();
+    }
+
+    // Static inner holder class - lazily loaded and thread-safe
+    private static class SingletonHolder {
+        private static final LessonLikeService INSTANCE = new LessonLikeService();
+    }
+
+    // Public accessor method
+    public static LessonLikeService getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Set whether a user likes a lesson (requires enrollment or preview access)
+     * Returns the state actually stored, which differs from liked if the write failed
+     */
+    public boolean setLiked(int lessonId, int userId, String userRole, boolean liked) {
+        Lesson lesson = lessonDAO.findById(lessonId);
+        if (lesson == null) {
+            throw new IllegalArgumentException("Lesson not found");
+        }
+
+        boolean isAdmin = "ADMIN".equals(userRole);
+        if (!isAdmin && !lesson.isPreview()
+                && enrollmentDAO.findByUserAndCourse(userId, lesson.getCourseId()) == null) {
+            throw new SecurityException("You must be enrolled to like this lesson");
+        }
+
+        boolean changed = liked ? lessonLikeDAO.insert(lessonId, userId) : lessonLikeDAO.delete(lessonId, userId);
+        if (changed) {
+            if (liked) {
+                EventBus.getInstance().publish(new DomainEvent.LessonLiked(lessonId, lesson.getCourseId(), userId));
+            }
+            return liked;
+        }
+        // Already in that state, or the write failed: report what is stored
+        return lessonLikeDAO.exists(lessonId, userId);
+    }
+
+    /**
+     * Flip the like state for a user; returns the new state
+     */
+    public boolean toggleLike(int lessonId, int userId, String userRole) {
+        return setLiked(lessonId, userId, userRole, !lessonLikeDAO.exists(lessonId, userId));
+    }
+
+    /**
+     * Check whether a user liked a lesson
+     */
+    public boolean isLiked(int lessonId, int userId) {
+        return lessonLikeDAO.exists(lessonId, userId);
+    }
+
+    /**
+     * Get like count for a lesson
+     */
+    public int getLikeCount(int lessonId) {
+        return lessonLikeDAO.countByLessonId(lessonId);
+    }
+
+    /**
+     * Record that a user viewed a lesson (buffered, deduplicated per session window)
+     */
+    public void recordView(int userId, int lessonId) {
+        LessonViewBuffer.getInstance().recordView(userId, lessonId);
+    }
+
+    /**
+     * Get view count for a lesson
+     */
+    public int getViewCount(int lessonId) {
+        return lessonViewDAO.countByLessonId(lessonId);
+    }
+
+    /**
+     * Get view counts for all lessons of a course (lesson id to views)
+     */
+    public Map<Integer, Integer> getViewCounts(int courseId) {
+        return lessonViewDAO.findViewCountsByCourse(courseId);
+    }
+
+    /**
+     * Ask the view buffer to write pending views soon
+     */
+    public void flushViews() {
+        LessonViewBuffer.getInstance().requestFlush();
+    }
+}
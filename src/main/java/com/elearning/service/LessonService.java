@@ -3,7 +3,9 @@ package com.elearning.service;
 import com.elearning.dao.CourseDAO;
 import com.elearning.dao.LessonDAO;
 import com.elearning.model.Course;
+import com.elearning.model.DomainEvent;
 import com.elearning.model.Lesson;
+import com.elearning.util.EventBus;
 
 import java.util.List;
 
@@ -121,7 +123,12 @@ public class LessonService {
             lesson.setOrderIndex(lessonDAO.getNextOrderIndex(lesson.getCourseId()));
         }
 
-        return lessonDAO.insert(lesson);
+        boolean created = lessonDAO.insert(lesson);
+        if (created) {
+            EventBus.getInstance().publish(new DomainEvent.CourseLessonsChanged(lesson.getCourseId()));
+            publishVideoChanged(lesson, null);
+        }
+        return created;
     }
 
     /**
@@ -156,7 +163,19 @@ public class LessonService {
         // Preserve course_id (prevent changing lesson to different course)
         lesson.setCourseId(existing.getCourseId());
 
-        return lessonDAO.update(lesson);
+        boolean updated = lessonDAO.update(lesson);
+        if (updated) {
+            publishVideoChanged(lesson, existing.getVideoPath());
+        }
+        return updated;
+    }
+
+    private void publishVideoChanged(Lesson lesson, String previousVideoPath) {
+        String videoPath = lesson.getVideoPath();
+        if (videoPath != null && !videoPath.isEmpty() && !videoPath.equals(previousVideoPath)) {
+            EventBus.getInstance().publish(
+                    new DomainEvent.LessonVideoChanged(lesson.getId(), lesson.getCourseId(), videoPath));
+        }
     }
 
     /**
@@ -184,7 +203,11 @@ public class LessonService {
         }
 
         // Delete will fail if there are progress records (handled in DAO)
-        return lessonDAO.delete(lessonId);
+        boolean deleted = lessonDAO.delete(lessonId);
+        if (deleted) {
+            EventBus.getInstance().publish(new DomainEvent.CourseLessonsChanged(lesson.getCourseId()));
+        }
+        return deleted;
     }
 
     /**
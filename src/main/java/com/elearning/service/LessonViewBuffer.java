@@ -0,0 +1,170 @@
+package com.elearning.service;
+
+import com.elearning.dao.LessonViewDAO;
+import com.elearning.model.LessonView;
+import com.elearning.util.WriteBehindWriter;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ingestion buffer for lesson views
+ * A view counts once per (user, lesson) per session window: re-opening the same
+ * lesson within the window is dropped in memory. Counted views are written by
+ * a WriteBehindWriter every few seconds; views the database rejects (their
+ * lesson or user was deleted) are dropped. Pending views are flushed on a
+ * clean JVM shutdown.
+ * Singleton pattern for single instance across application
+ */
+public class LessonViewBuffer {
+    private static final long SESSION_WINDOW_MINUTES = 30;
+    private static final long FLUSH_INTERVAL_SECONDS = 10;
+    private static final int MAX_PENDING = 50_000;   // Drop new views beyond this while the database is down
+
+    private final LessonViewDAO lessonViewDAO;
+    // Last counted view per (user, lesson), for the session-window dedup
+    private final ConcurrentHashMap<Long, LocalDateTime> lastCounted = new ConcurrentHashMap<>();
+    private final WriteBehindWriter<Long, LessonView> writer;
+    // Views are never coalesced, so each gets its own key
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+
+    // Private constructor to prevent direct instantiation
+    private LessonViewBuffer() {
+        this.lessonViewDAO = new LessonViewDAO();
+        this.writer = new WriteBehindWriter<>("Lesson view buffer", FLUSH_INTERVAL_SECONDS, MAX_PENDING,
+                new WriteBehindWriter.Sink<LessonView>() {
+                    @Override
+                    public int writeBatch(List<LessonView> batch) throws SQLException {
+                        return lessonViewDAO.insertBatch(batch);
+                    }
+
+                    @Override
+                    public boolean writeOne(LessonView view) throws SQLException {
+                        return lessonViewDAO.insert(view);
+                    }
+
+                    @Override
+                    public void afterFlush() {
+                        pruneWindow();
+                    }
+                });
+        Runtime.getRuntime().addShutdownHook(new Thread(writer::shutdown, "lesson-view-shutdown"));
+    }
+
+    // Static inner holder class - lazily loaded and thread-safe
+    private static class SingletonHolder {
+        private static final LessonViewBuffer INSTANCE = new LessonViewBuffer();
+    }
+
+    // Public accessor method
+    public static LessonViewBuffer getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Record a lesson view (never blocks on the database)
+     * Returns true if the view was counted, false if it fell inside the session window
+     * or was dropped because too many views are waiting for the database
+     */
+    public boolean recordView(int userId, int lessonId) {
+        received.incrementAndGet();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime windowStart = now.minusMinutes(SESSION_WINDOW_MINUTES);
+
+        boolean[] duplicate = {false};
+        boolean[] queued = {false};
+        lastCounted.compute(key(userId, lessonId), (key, last) -> {
+            if (last != null && last.isAfter(windowStart)) {
+                duplicate[0] = true;
+                return last;
+            }
+            // Only a view that was queued starts a window; a dropped one must not hide the next
+            queued[0] = writer.record(sequence.incrementAndGet(), new LessonView(lessonId, userId, now));
+            return queued[0] ? now : last;
+        });
+
+        if (duplicate[0]) {
+            deduplicated.incrementAndGet();
+        }
+        return queued[0];
+    }
+
+    /**
+     * Ask the background thread to flush soon (e.g. when a lesson window closes)
+     */
+    public void requestFlush() {
+        writer.requestFlush();
+    }
+
+    /**
+     * Flush all pending views on the calling thread
+     * Returns the number of views written
+     */
+    public int flush() {
+        return writer.flush();
+    }
+
+    /**
+     * Stop the background thread and write everything still pending
+     */
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    public ViewStats getStats() {
+        return new ViewStats(received.get(), deduplicated.get(), writer.getStats());
+    }
+
+    /**
+     * Forget dedup entries whose session window has passed
+     */
+    private void pruneWindow() {
+        LocalDateTime windowStart = LocalDateTime.now().minusMinutes(SESSION_WINDOW_MINUTES);
+        lastCounted.values().removeIf(last -> !last.isAfter(windowStart));
+    }
+
+    private static long key(int userId, int lessonId) {
+        return ((long) userId << 32) | (lessonId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Counters for monitoring the buffer
+     */
+    public static class ViewStats {
+        private final long received;
+        private final long deduplicated;
+        private final WriteBehindWriter.WriterStats writer;
+
+        public ViewStats(long received, long deduplicated, WriteBehindWriter.WriterStats writer) {
+            this.received = received;
+            this.deduplicated = deduplicated;
+            this.writer = writer;
+        }
+
+        public long getReceived() {
+            return received;
+        }
+
+        public long getDeduplicated() {
+            return deduplicated;
+        }
+
+        /**
+         * Queue, write and rejection counters of the counted views
+         */
+        public WriteBehindWriter.WriterStats getWriter() {
+            return writer;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("received=%d, deduplicated=%d, %s", received, deduplicated, writer);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.elearning.service;
+
+import com.elearning.dao.LoginLogDAO;
+import com.elearning.util.MaintenanceLock;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retention job for user_login_logs
+ * Raw login rows are kept for RETENTION_DAYS; older rows are rolled up into
+ * user_login_daily (count, first and last login per user and day) and deleted
+ * in small chunks so the job never holds long locks. Calendars and streaks
+ * read user_login_months and are not affected. Only one instance runs it at a
+ * time (see MaintenanceLock).
+ * Singleton pattern for single instance across application
+ */
+public class LoginLogCompactor {
+    private static final int RETENTION_DAYS = 90;
+    private static final int CHUNK_SIZE = 5000;
+    private static final long INITIAL_DELAY_MINUTES = 5;
+    private static final long INTERVAL_HOURS = 24;
+
+    private final LoginLogDAO loginLogDAO;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong rowsCompacted = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    // Private constructor to prevent direct instantiation
+    private LoginLogCompactor() {
+        this.loginLogDAO = new LoginLogDAO();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "login-log-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Static inner holder class - lazily loaded and thread-safe
+    private static class SingletonHolder {
+        private static final LoginLogCompactor INSTANCE = new LoginLogCompactor();
+    }
+
+    // Public accessor method
+    public static LoginLogCompactor getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Schedule the job in the background (first run shortly after startup)
+     * Not scheduled when maintenance.enabled is false.
+     */
+    public void start() {
+        if (!MaintenanceLock.isEnabled()) {
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(this::compactQuietly,
+                TimeUnit.MINUTES.toSeconds(INITIAL_DELAY_MINUTES),
+                TimeUnit.HOURS.toSeconds(INTERVAL_HOURS), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Compact every raw row older than the retention period, on the calling thread
+     * Returns the number of rows rolled up
+     */
+    public synchronized long compact() {
+        runs.incrementAndGet();
+        // Cut at midnight so a day is never split between raw rows and its summary
+        LocalDateTime cutoff = LocalDate.now().minusDays(RETENTION_DAYS).atStartOfDay();
+
+        long total = 0;
+        int compacted;
+        while ((compacted = loginLogDAO.compactChunk(cutoff, CHUNK_SIZE)) > 0) {
+            total += compacted;
+        }
+        if (compacted < 0) {
+            failures.incrementAndGet();
+        }
+
+        rowsCompacted.addAndGet(total);
+        if (total > 0) {
+            System.out.println("Login log compaction rolled up " + total + " rows older than " + cutoff.toLocalDate());
+        }
+        return total;
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public CompactionStats getStats() {
+        return new CompactionStats(runs.get(), rowsCompacted.get(), failures.get());
+    }
+
+    private void compactQuietly() {
+        try {
+            MaintenanceLock.runExclusive("login-log-compaction", this::compact);
+        } catch (RuntimeException e) {
+            // Keep the scheduled task alive for the next run
+            failures.incrementAndGet();
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Counters for monitoring the job
+     */
+    public static class CompactionStats {
+        private final long runs;
+        private final long rowsCompacted;
+        private final long failures;
+
+        public CompactionStats(long runs, long rowsCompacted, long failures) {
+            this.runs = runs;
+            this.rowsCompacted = rowsCompacted;
+            this.failures = failures;
+        }
+
+        public long getRuns() {
+            return runs;
+        }
+
+        public long getRowsCompacted() {
+            return rowsCompacted;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("runs=%d, rowsCompacted=%d, failures=%d", runs, rowsCompacted, failures);
+        }
+    }
+}
@@ -1,16 +1,25 @@
 package com.elearning.service;
 
 import com.elearning.dao.LoginLogDAO;
+import com.elearning.model.DomainEvent;
+import com.elearning.util.EventBus;
+import com.elearning.util.LoginBitmap;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 /**
  * Service for user login logging.
  */
 public class LoginLogService {
+    private static final int STREAK_WINDOW_MONTHS = 12;
+
     private final LoginLogDAO loginLogDAO;
 
     private LoginLogService() {
@@ -27,9 +36,60 @@ public class LoginLogService {
 
     public void recordLogin(int userId) {
         loginLogDAO.insertLogin(userId, LocalDateTime.now());
+        EventBus.getInstance().publish(new DomainEvent.UserLoggedIn(userId));
     }
 
     public Set<LocalDate> getLoginDatesForMonth(int userId, YearMonth month) {
         return loginLogDAO.findLoginDatesForMonth(userId, month);
     }
+
+    /**
+     * Active days and streaks from the last twelve monthly bitmaps (one query).
+     */
+    public LoginStats getLoginStats(int userId, YearMonth month) {
+        LocalDate today = LocalDate.now();
+        YearMonth current = YearMonth.from(today);
+        List<Integer> oldestFirst = loginLogDAO.findMonthBitmaps(
+                userId, current.minusMonths(STREAK_WINDOW_MONTHS - 1), current);
+
+        List<Integer> newestFirst = new ArrayList<>(oldestFirst);
+        Collections.reverse(newestFirst);
+
+        int monthIndex = (int) month.until(current, ChronoUnit.MONTHS);
+        int monthBits = monthIndex >= 0 && monthIndex < newestFirst.size()
+                ? newestFirst.get(monthIndex)
+                : loginLogDAO.findMonthBitmap(userId, month);
+
+        return new LoginStats(
+                LoginBitmap.activeDays(monthBits),
+                LoginBitmap.currentStreak(newestFirst, today),
+                LoginBitmap.longestStreak(oldestFirst, current.minusMonths(STREAK_WINDOW_MONTHS - 1)));
+    }
+
+    /**
+     * Login analytics for one user.
+     */
+    public static class LoginStats {
+        private final int activeDays;
+        private final int currentStreak;
+        private final int longestStreak;
+
+        public LoginStats(int activeDays, int currentStreak, int longestStreak) {
+            this.activeDays = activeDays;
+            this.currentStreak = currentStreak;
+            this.longestStreak = longestStreak;
+        }
+
+        public int getActiveDays() {
+            return activeDays;
+        }
+
+        public int getCurrentStreak() {
+            return currentStreak;
+        }
+
+        public int getLongestStreak() {
+            return longestStreak;
+        }
+    }
 }
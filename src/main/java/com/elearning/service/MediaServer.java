@@ -0,0 +1,518 @@
+package com.elearning.service;
+
+import com.elearning.util.DBConnection;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded HTTP server for lesson media
+ * Serves files under media/ and videos/ so players open http: URLs instead of
+ * file: URLs. Supports single byte ranges (seeking), strong ETags with
+ * If-None-Match / If-Range, and long-lived caching for content-addressed
+ * objects. Large files are sent with FileChannel.transferTo; small hot files
+ * (thumbnails, small videos) are kept in a bounded LRU in memory.
+ * Lab clients set media.server.remote to stream from one shared media host
+ * instead of local disks or network mounts.
+ * Singleton pattern for single instance across application
+ */
+public class MediaServer {
+    private static final String[] SERVED_ROOTS = {"media/", "videos/"};
+    private static final String IMMUTABLE_ROOT = "media/objects/";   // Content-addressed, never rewritten
+    private static final int MAX_CACHED_FILE_BYTES = 4 * 1024 * 1024;
+    private static final long MAX_CACHE_BYTES = 64L * 1024 * 1024;
+    private static final long IMMUTABLE_MAX_AGE_SECONDS = TimeUnit.DAYS.toSeconds(365);
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+    private static final Map<String, String> CONTENT_TYPES = new LinkedHashMap<>();
+
+    static {
+        CONTENT_TYPES.put("mp4", "video/mp4");
+        CONTENT_TYPES.put("m4v", "video/x-m4v");
+        CONTENT_TYPES.put("mov", "video/quicktime");
+        CONTENT_TYPES.put("jpg", "image/jpeg");
+        CONTENT_TYPES.put("jpeg", "image/jpeg");
+        CONTENT_TYPES.put("png", "image/png");
+        CONTENT_TYPES.put("gif", "image/gif");
+    }
+
+    private final Path workingDir;
+    private final boolean enabled;
+    private final String bindAddress;
+    private final int port;
+    private final int threads;
+    private final String remoteBaseUrl;
+    private volatile HttpServer server;
+    private volatile ExecutorService executor;
+    private volatile String baseUrl;
+
+    // Access order, so iteration starts at the least recently used file
+    private final LinkedHashMap<String, byte[]> hotCache = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong rangeRequests = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong aborted = new AtomicLong();
+
+    // Private constructor to prevent direct instantiation
+    private MediaServer() {
+        DBConnection db = DBConnection.getInstance();
+        this.workingDir = Paths.get("").toAbsolutePath().normalize();
+        this.enabled = Boolean.parseBoolean(db.getConfigProperty("media.server.enabled", "true"));
+        this.bindAddress = db.getConfigProperty("media.server.bind", "127.0.0.1").trim();
+        this.port = parseInt(db.getConfigProperty("media.server.port", "0"), 0);
+        this.threads = Math.max(2, parseInt(db.getConfigProperty("media.server.threads", "16"), 16));
+        String remote = db.getConfigProperty("media.server.remote", "").trim();
+        this.remoteBaseUrl = remote.isEmpty() ? null : (remote.endsWith("/") ? remote : remote + "/");
+    }
+
+    // Static inner holder class - lazily loaded and thread-safe
+    private static class SingletonHolder {
+        private static final MediaServer INSTANCE = new MediaServer();
+    }
+
+    // Public accessor method
+    public static MediaServer getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Start serving (or point at the remote media host); on failure players keep using file: URLs
+     */
+    public synchronized void start() {
+        if (baseUrl != null || !enabled) {
+            return;
+        }
+        if (remoteBaseUrl != null) {
+            baseUrl = remoteBaseUrl;
+            System.out.println("Media: streaming from " + remoteBaseUrl);
+            return;
+        }
+
+        try {
+            AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r, "media-http-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            server = HttpServer.create(new InetSocketAddress(bindAddress, port), 64);
+            server.createContext("/", this::handleQuietly);
+            server.setExecutor(executor);
+            server.start();
+
+            // A wildcard bind is still reached locally through the loopback address
+            String host = "0.0.0.0".equals(bindAddress) || "::".equals(bindAddress) ? "127.0.0.1" : bindAddress;
+            baseUrl = "http://" + host + ":" + server.getAddress().getPort() + "/";
+            System.out.println("Media server listening on " + bindAddress + ":" + server.getAddress().getPort());
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Media server could not start, playing local files: " + e.getMessage());
+            stopServer();
+        }
+    }
+
+    /**
+     * URL a player should open for a media path: http: while serving, file: otherwise
+     */
+    public String urlFor(String path) {
+        String served = baseUrl != null ? servedPath(path) : null;
+        if (served == null) {
+            return new File(path).toURI().toString();
+        }
+        StringBuilder url = new StringBuilder(baseUrl);
+        String[] segments = served.split("/");
+        for (int i = 0; i < segments.length; i++) {
+            if (i > 0) {
+                url.append('/');
+            }
+            url.append(URLEncoder.encode(segments[i], StandardCharsets.UTF_8).replace("+", "%20"));
+        }
+        return url.toString();
+    }
+
+    /**
+     * True if the media can be played here: a local file, or one the remote media host serves
+     */
+    public boolean isPlayable(String path) {
+        if (path == null || path.isEmpty()) {
+            return false;
+        }
+        return new File(path).isFile() || (remoteBaseUrl != null && servedPath(path) != null);
+    }
+
+    public boolean isServing() {
+        return baseUrl != null;
+    }
+
+    public void shutdown() {
+        stopServer();
+    }
+
+    public ServerStats getStats() {
+        synchronized (hotCache) {
+            return new ServerStats(requests.get(), rangeRequests.get(), notModified.get(), cacheHits.get(),
+                    bytesSent.get(), aborted.get(), hotCache.size(), cachedBytes);
+        }
+    }
+
+    /**
+     * Path relative to the served roots ("media/objects/ab/...") or null if it is not served
+     * Paths from another machine (remote host) are matched on their media/ or videos/ part.
+     */
+    private String servedPath(String path) {
+        if (path == null || path.isEmpty()) {
+            return null;
+        }
+        Path absolute = Paths.get(path).toAbsolutePath().normalize();
+        String relative = null;
+        if (absolute.startsWith(workingDir)) {
+            relative = workingDir.relativize(absolute).toString().replace('\\', '/');
+        } else if (remoteBaseUrl != null) {
+            String slashed = path.replace('\\', '/');
+            for (String root : SERVED_ROOTS) {
+                int index = slashed.lastIndexOf("/" + root);
+                if (index >= 0) {
+                    relative = slashed.substring(index + 1);
+                    break;
+                }
+            }
+        }
+        return relative != null && isServedRoot(relative) && !relative.contains("..") ? relative : null;
+    }
+
+    private static boolean isServedRoot(String relative) {
+        for (String root : SERVED_ROOTS) {
+            if (relative.startsWith(root)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void handleQuietly(HttpExchange exchange) {
+        try {
+            handle(exchange);
+        } catch (IOException e) {
+            // Players drop connections all the time when seeking
+            aborted.incrementAndGet();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String method = exchange.getRequestMethod();
+        boolean head = "HEAD".equals(method);
+        if (!head && !"GET".equals(method)) {
+            exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+            exchange.sendResponseHeaders(405, -1);
+            return;
+        }
+
+        // Check the normalized path, so "media/../" cannot escape the served roots
+        Path file = workingDir.resolve(exchange.getRequestURI().getPath().replaceFirst("^/+", "")).normalize();
+        String relative = workingDir.relativize(file).toString().replace('\\', '/');
+        if (!file.startsWith(workingDir) || !isServedRoot(relative)
+                || !Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        long size = attrs.size();
+        long modified = attrs.lastModifiedTime().toMillis();
+        String etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(modified) + "\"";
+
+        Headers request = exchange.getRequestHeaders();
+        Headers response = exchange.getResponseHeaders();
+        response.set("Accept-Ranges", "bytes");
+        response.set("ETag", etag);
+        response.set("Last-Modified", HTTP_DATE.format(Instant.ofEpochMilli(modified)));
+        response.set("Content-Type", contentType(file));
+        response.set("Cache-Control", relative.startsWith(IMMUTABLE_ROOT)
+                ? "public, max-age=" + IMMUTABLE_MAX_AGE_SECONDS + ", immutable"
+                : "no-cache");
+
+        if (matches(request.getFirst("If-None-Match"), etag)) {
+            notModified.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+
+        // A Range is only honoured if the client's copy is still current
+        String range = request.getFirst("Range");
+        String ifRange = request.getFirst("If-Range");
+        if (ifRange != null && !ifRange.equals(etag)) {
+            range = null;
+        }
+
+        long start = 0;
+        long length = size;
+        int status = 200;
+        if (range != null) {
+            long[] bounds = parseRange(range, size);
+            if (bounds == null) {
+                // Malformed or multiple ranges: send the whole file
+                range = null;
+            } else if (bounds.length == 0) {
+                response.set("Content-Range", "bytes */" + size);
+                exchange.sendResponseHeaders(416, -1);
+                return;
+            } else {
+                start = bounds[0];
+                length = bounds[1] - bounds[0] + 1;
+                status = 206;
+                rangeRequests.incrementAndGet();
+                response.set("Content-Range", "bytes " + bounds[0] + "-" + bounds[1] + "/" + size);
+            }
+        }
+
+        if (head) {
+            response.set("Content-Length", String.valueOf(length));
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        // 0 would mean "chunked" to HttpServer
+        exchange.sendResponseHeaders(status, length > 0 ? length : -1);
+        if (length == 0) {
+            return;
+        }
+
+        byte[] cached = size <= MAX_CACHED_FILE_BYTES ? cachedContent(file, etag, size) : null;
+        try (OutputStream body = exchange.getResponseBody()) {
+            if (cached != null) {
+                body.write(cached, (int) start, (int) length);
+            } else {
+                transfer(file, start, length, body);
+            }
+        }
+        bytesSent.addAndGet(length);
+    }
+
+    /**
+     * Send part of a file through FileChannel.transferTo
+     */
+    private static void transfer(Path file, long start, long length, OutputStream body) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(body);
+            long position = start;
+            long end = start + length;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, target);
+                if (sent <= 0) {
+                    throw new IOException("File shrank while sending: " + file.getFileName());
+                }
+                position += sent;
+            }
+        }
+    }
+
+    /**
+     * Small file content from the hot cache, loaded on a miss (the ETag in the key drops stale copies)
+     */
+    private byte[] cachedContent(Path file, String etag, long size) throws IOException {
+        String key = file + "|" + etag;
+        synchronized (hotCache) {
+            byte[] content = hotCache.get(key);
+            if (content != null) {
+                cacheHits.incrementAndGet();
+                return content;
+            }
+        }
+
+        byte[] content = Files.readAllBytes(file);
+        if (content.length != size) {
+            // Changed while reading; serve what was read without caching it
+            return null;
+        }
+        synchronized (hotCache) {
+            if (hotCache.put(key, content) == null) {
+                cachedBytes += content.length;
+            }
+            Iterator<byte[]> it = hotCache.values().iterator();
+            while (cachedBytes > MAX_CACHE_BYTES && it.hasNext()) {
+                cachedBytes -= it.next().length;
+                it.remove();
+            }
+        }
+        return content;
+    }
+
+    /**
+     * {start, end} (inclusive) for a single "bytes=" range, {} if unsatisfiable, null to ignore it
+     */
+    static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return new long[0];
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+            if (start >= size || start > end) {
+                return new long[0];
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String contentType(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String extension = dot >= 0 ? name.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+        return CONTENT_TYPES.getOrDefault(extension, "application/octet-stream");
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private synchronized void stopServer() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        baseUrl = null;
+    }
+
+    /**
+     * Counters for monitoring the server
+     */
+    public static class ServerStats {
+        private final long requests;
+        private final long rangeRequests;
+        private final long notModified;
+        private final long cacheHits;
+        private final long bytesSent;
+        private final long aborted;
+        private final int cachedFiles;
+        private final long cachedBytes;
+
+        public ServerStats(long requests, long rangeRequests, long notModified, long cacheHits,
+                           long bytesSent, long aborted, int cachedFiles, long cachedBytes) {
+            this.requests = requests;
+            this.rangeRequests = rangeRequests;
+            this.notModified = notModified;
+            this.cacheHits = cacheHits;
+            this.bytesSent = bytesSent;
+            this.aborted = aborted;
+            this.cachedFiles = cachedFiles;
+            this.cachedBytes = cachedBytes;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getRangeRequests() {
+            return rangeRequests;
+        }
+
+        public long getNotModified() {
+            return notModified;
+        }
+
+        public long getCacheHits() {
+            return cacheHits;
+        }
+
+        public long getBytesSent() {
+            return bytesSent;
+        }
+
+        /**
+         * Responses cut short by the client (e.g. seeking away)
+         */
+        public long getAborted() {
+            return aborted;
+        }
+
+        public int getCachedFiles() {
+            return cachedFiles;
+        }
+
+        public long getCachedBytes() {
+            return cachedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("requests=%d, ranges=%d, notModified=%d, cacheHits=%d, sent=%d bytes, aborted=%d, cached=%d files/%d bytes",
+                    requests, rangeRequests, notModified, cacheHits, bytesSent, aborted, cachedFiles, cachedBytes);
+        }
+    }
+}
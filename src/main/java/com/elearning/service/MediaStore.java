@@ -0,0 +1,424 @@
+package com.elearning.service;
+
+import com.elearning.dao.MediaObjectDAO;
+import com.elearning.model.MediaObject;
+import com.elearning.util.ChunkedFileCopy;
+import com.elearning.util.FileUtil;
+import com.elearning.util.MaintenanceLock;
+import com.elearning.util.ThumbnailUtil;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed store for lesson videos and course thumbnails
+ * Files live once under media/objects/<first two hex digits>/<sha256><ext>,
+ * so uploading the same content again only adds a reference instead of a copy.
+ * lessons.video_path and courses.thumbnail_path hold the object's absolute
+ * path; media_objects counts those references. Releasing a path only drops a
+ * reference. A daily job moves legacy per-course files into the store (hard
+ * links, no copying), recounts references and deletes objects that stayed
+ * unreferenced for the grace period, together with their transcoded renditions
+ * (media/renditions/<sha256>/) and card thumbnails (see ThumbnailUtil).
+ * Singleton pattern for single instance across application
+ */
+public class MediaStore {
+    private static final String STORE_ROOT = "media/";
+    private static final long GRACE_SECONDS = TimeUnit.HOURS.toSeconds(24);
+    private static final int GC_BATCH_SIZE = 200;
+    private static final int ADOPT_PAGE_SIZE = 200;
+    private static final long INITIAL_DELAY_MINUTES = 10;
+    private static final long INTERVAL_HOURS = 24;
+
+    private final MediaObjectDAO mediaObjectDAO;
+    private final Path objectsRoot;
+    private final Path incomingRoot;
+    private final Path renditionsRoot;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+    private final AtomicLong adopted = new AtomicLong();
+    private final AtomicLong collected = new AtomicLong();
+    private final AtomicLong bytesReclaimed = new AtomicLong();
+
+    // Private constructor to prevent direct instantiation
+    private MediaStore() {
+        this.mediaObjectDAO = new MediaObjectDAO();
+        Path root = Paths.get(STORE_ROOT).toAbsolutePath().normalize();
+        this.objectsRoot = root.resolve("objects");
+        this.incomingRoot = root.resolve("incoming");
+        this.renditionsRoot = root.resolve("renditions");
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "media-store-gc");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Static inner holder class - lazily loaded and thread-safe
+    private static class SingletonHolder {
+        private static final MediaStore INSTANCE = new MediaStore();
+    }
+
+    // Public accessor method
+    public static MediaStore getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Schedule legacy adoption and garbage collection (first run shortly after startup)
+     * Not scheduled when maintenance.enabled is false.
+     */
+    public void start() {
+        if (!MaintenanceLock.isEnabled()) {
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(this::maintainQuietly,
+                TimeUnit.MINUTES.toSeconds(INITIAL_DELAY_MINUTES),
+                TimeUnit.HOURS.toSeconds(INTERVAL_HOURS), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Copy a file into the store and take one reference to it
+     * The copy is chunked, checksummed and resumable (see ChunkedFileCopy);
+     * if the content is already stored the copy is discarded.
+     */
+    public MediaObject store(Path source, ChunkedFileCopy.ProgressListener listener) throws IOException {
+        Path staged = incomingRoot.resolve(UUID.randomUUID() + extension(source));
+        ChunkedFileCopy.Result copy = ChunkedFileCopy.copy(source, staged, listener);
+        try {
+            return commit(copy.getSha256(), staged, copy.getSize(), extension(source), false);
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    /**
+     * Take one reference to an existing file's content without copying it
+     * A new object is hard-linked to the file (copied only if linking fails).
+     */
+    public MediaObject importFile(Path file) throws IOException {
+        return commit(ChunkedFileCopy.sha256Of(file), file, Files.size(file), extension(file), true);
+    }
+
+    /**
+     * Drop one reference to a stored path
+     * Returns false for paths outside the store, which callers handle as before.
+     * The file itself is removed later by the GC once nothing references it.
+     */
+    public boolean release(String path) {
+        return isManaged(path) && mediaObjectDAO.release(normalize(path));
+    }
+
+    /**
+     * True if the path points into the object store
+     */
+    public boolean isManaged(String path) {
+        return path != null && !path.isEmpty() && Paths.get(normalize(path)).startsWith(objectsRoot);
+    }
+
+    /**
+     * Directory holding the transcoded renditions of a stored object
+     */
+    public Path getRenditionDirectory(String sha256) {
+        return renditionsRoot.resolve(sha256);
+    }
+
+    /**
+     * Run adoption and garbage collection on the calling thread
+     */
+    public synchronized void maintain() {
+        adoptLegacyFiles();
+        collectGarbage();
+    }
+
+    /**
+     * Move lesson videos and course thumbnails stored outside the store into it
+     * Returns the number of references rewritten
+     */
+    public int adoptLegacyFiles() {
+        String prefix = objectsRoot.toString();
+        Map<String, MediaObject> imported = new HashMap<>();
+        int rewritten = 0;
+
+        int afterId = 0;
+        Map<Integer, String> page;
+        while (!(page = mediaObjectDAO.findLegacyVideoPaths(prefix, afterId, ADOPT_PAGE_SIZE)).isEmpty()) {
+            for (Map.Entry<Integer, String> entry : page.entrySet()) {
+                afterId = entry.getKey();
+                MediaObject object = adopt(entry.getValue(), imported);
+                if (object != null && mediaObjectDAO.replaceVideoPath(entry.getKey(), entry.getValue(), object.getStoragePath())) {
+                    rewritten++;
+                } else if (object != null) {
+                    mediaObjectDAO.release(object.getStoragePath());
+                }
+            }
+        }
+
+        afterId = 0;
+        while (!(page = mediaObjectDAO.findLegacyThumbnailPaths(prefix, afterId, ADOPT_PAGE_SIZE)).isEmpty()) {
+            for (Map.Entry<Integer, String> entry : page.entrySet()) {
+                afterId = entry.getKey();
+                MediaObject object = adopt(entry.getValue(), imported);
+                if (object != null && mediaObjectDAO.replaceThumbnailPath(entry.getKey(), entry.getValue(), object.getStoragePath())) {
+                    rewritten++;
+                } else if (object != null) {
+                    mediaObjectDAO.release(object.getStoragePath());
+                }
+            }
+        }
+
+        adopted.addAndGet(rewritten);
+        if (rewritten > 0) {
+            System.out.println("Media store adopted " + rewritten + " legacy file references");
+        }
+        return rewritten;
+    }
+
+    /**
+     * Recount references and delete objects unreferenced for the grace period
+     * Returns the number of objects deleted
+     */
+    public int collectGarbage() {
+        String prefix = objectsRoot.toString();
+        mediaObjectDAO.reconcileRefCounts(prefix);
+
+        int deleted = 0;
+        MediaObject last = null;
+        List<MediaObject> batch;
+        // Keyset paging: objects kept this run (touched, or file too new) are stepped over
+        while (!(batch = mediaObjectDAO.findCollectable(prefix, GRACE_SECONDS, last, GC_BATCH_SIZE)).isEmpty()) {
+            last = batch.get(batch.size() - 1);
+            for (MediaObject object : batch) {
+                if (!mediaObjectDAO.deleteIfUnreferenced(object, GRACE_SECONDS, this::deleteObjectFile)) {
+                    continue;
+                }
+                deleted++;
+                bytesReclaimed.addAndGet(object.getSizeBytes());
+                try {
+                    FileUtil.deleteRecursively(getRenditionDirectory(object.getSha256()));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                ThumbnailUtil.deleteThumbnails(object.getStoragePath());
+            }
+            if (batch.size() < GC_BATCH_SIZE) {
+                break;
+            }
+        }
+
+        collected.addAndGet(deleted);
+        if (deleted > 0) {
+            System.out.println("Media store deleted " + deleted + " unreferenced objects");
+        }
+        return deleted;
+    }
+
+    public StoreStats getStats() {
+        return new StoreStats(stored.get(), deduplicated.get(), bytesSaved.get(),
+                adopted.get(), collected.get(), bytesReclaimed.get());
+    }
+
+    /**
+     * Register the content and place the file unless an identical object already exists
+     */
+    private MediaObject commit(String sha256, Path file, long size, String extension, boolean link) throws IOException {
+        Path proposed = objectsRoot.resolve(sha256.substring(0, 2)).resolve(sha256 + extension);
+        // Registering first means the GC can no longer collect the object while the file is placed
+        MediaObject object = mediaObjectDAO.acquire(sha256, proposed.toString(), size, this::touchObjectFile);
+        if (object == null) {
+            throw new IOException("Could not register media object " + sha256);
+        }
+
+        Path target = Paths.get(object.getStoragePath());
+        if (Files.exists(target)) {
+            deduplicated.incrementAndGet();
+            bytesSaved.addAndGet(size);
+            return object;
+        }
+
+        try {
+            Files.createDirectories(target.getParent());
+            if (link) {
+                placeByLink(file, target);
+            } else {
+                placeByMove(file, target);
+                // Fresh mtime keeps a GC that raced with this store from deleting the new file
+                Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+            }
+        } catch (IOException e) {
+            mediaObjectDAO.release(object.getStoragePath());
+            throw e;
+        }
+        stored.incrementAndGet();
+        return object;
+    }
+
+    private void placeByMove(Path file, Path target) throws IOException {
+        try {
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void placeByLink(Path file, Path target) throws IOException {
+        try {
+            Files.createLink(target, file);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            // Different file system or no hard links: fall back to a copy placed atomically
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            Files.copy(file, temp, StandardCopyOption.REPLACE_EXISTING);
+            placeByMove(temp, target);
+        }
+    }
+
+    private MediaObject adopt(String legacyPath, Map<String, MediaObject> imported) {
+        Path file = Paths.get(legacyPath);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            MediaObject known = imported.get(legacyPath);
+            if (known != null) {
+                // Same file already hashed this run: only take another reference
+                return mediaObjectDAO.acquire(known.getSha256(), known.getStoragePath(), known.getSizeBytes(),
+                        this::touchObjectFile);
+            }
+            MediaObject object = importFile(file);
+            imported.put(legacyPath, object);
+            return object;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Refresh the mtime of an existing object file (runs while its row is locked by acquire)
+     * Together with the updated_at bump this keeps the GC from treating a
+     * deduplicated object as stale.
+     */
+    private boolean touchObjectFile(MediaObject object) {
+        Path file = Paths.get(object.getStoragePath());
+        try {
+            if (Files.exists(file)) {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            }
+        } catch (IOException e) {
+            // Read-only storage; updated_at alone still protects the object
+            System.err.println("Could not touch media object " + file + ": " + e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Delete an object file unless it was touched within the grace period
+     * Runs while the GC holds the object's row lock; false keeps the row.
+     */
+    private boolean deleteObjectFile(MediaObject object) {
+        Path file = Paths.get(object.getStoragePath());
+        try {
+            if (Files.exists(file)) {
+                long ageMillis = System.currentTimeMillis() - Files.getLastModifiedTime(file).toMillis();
+                if (ageMillis < TimeUnit.SECONDS.toMillis(GRACE_SECONDS)) {
+                    return false;
+                }
+                Files.delete(file);
+            }
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private void maintainQuietly() {
+        try {
+            // Instances sharing a store take turns; separate stores are collected independently
+            MaintenanceLock.runExclusive("media-store." + Integer.toHexString(objectsRoot.toString().hashCode()),
+                    this::maintain);
+        } catch (RuntimeException e) {
+            // Keep the scheduled task alive for the next run
+            e.printStackTrace();
+        }
+    }
+
+    private static String normalize(String path) {
+        return Paths.get(path).toAbsolutePath().normalize().toString();
+    }
+
+    private static String extension(Path file) {
+        String name = file.getFileName().toString();
+        int lastDot = name.lastIndexOf('.');
+        return lastDot > 0 && lastDot < name.length() - 1 ? name.substring(lastDot).toLowerCase() : "";
+    }
+
+    /**
+     * Counters for monitoring the store
+     */
+    public static class StoreStats {
+        private final long stored;
+        private final long deduplicated;
+        private final long bytesSaved;
+        private final long adopted;
+        private final long collected;
+        private final long bytesReclaimed;
+
+        public StoreStats(long stored, long deduplicated, long bytesSaved,
+                          long adopted, long collected, long bytesReclaimed) {
+            this.stored = stored;
+            this.deduplicated = deduplicated;
+            this.bytesSaved = bytesSaved;
+            this.adopted = adopted;
+            this.collected = collected;
+            this.bytesReclaimed = bytesReclaimed;
+        }
+
+        public long getStored() {
+            return stored;
+        }
+
+        public long getDeduplicated() {
+            return deduplicated;
+        }
+
+        public long getBytesSaved() {
+            return bytesSaved;
+        }
+
+        public long getAdopted() {
+            return adopted;
+        }
+
+        public long getCollected() {
+            return collected;
+        }
+
+        public long getBytesReclaimed() {
+            return bytesReclaimed;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("stored=%d, deduplicated=%d, bytesSaved=%d, adopted=%d, collected=%d, bytesReclaimed=%d",
+                    stored, deduplicated, bytesSaved, adopted, collected, bytesReclaimed);
+        }
+    }
+}
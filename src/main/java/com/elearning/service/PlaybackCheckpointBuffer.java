@@ -0,0 +1,135 @@
+package com.elearning.service;
+
+import com.elearning.dao.LessonProgressDAO;
+import com.elearning.model.LessonProgress;
+import com.elearning.util.WatchCoverage;
+import com.elearning.util.WriteBehindWriter;
+
+import java.util.List;
+
+/**
+ * Write-behind buffer for video playback checkpoints
+ * The player reports its position every few seconds; only the latest
+ * checkpoint per (user, lesson) is kept in memory and a WriteBehindWriter
+ * writes pending checkpoints as one batched transaction. Pending checkpoints
+ * are flushed on a clean JVM shutdown.
+ * Singleton pattern for single instance across application
+ */
+public class PlaybackCheckpointBuffer {
+    private static final long FLUSH_INTERVAL_SECONDS = 10;
+    private static final int MAX_PENDING = 50_000;   // Drop checkpoints of new lessons beyond this while the database is down
+
+    private final LessonProgressDAO lessonProgressDAO;
+    private final WriteBehindWriter<Long, LessonProgress> writer;
+
+    // Private constructor to prevent direct instantiation
+    private PlaybackCheckpointBuffer() {
+        this.lessonProgressDAO = new LessonProgressDAO();
+        this.writer = new WriteBehindWriter<>("Playback checkpoint buffer", FLUSH_INTERVAL_SECONDS, MAX_PENDING,
+                PlaybackCheckpointBuffer::newer, lessonProgressDAO::saveCheckpointsBatch);
+        Runtime.getRuntime().addShutdownHook(new Thread(writer::shutdown, "playback-checkpoint-shutdown"));
+    }
+
+    // Static inner holder class - lazily loaded and thread-safe
+    private static class SingletonHolder {
+        private static final PlaybackCheckpointBuffer INSTANCE = new PlaybackCheckpointBuffer();
+    }
+
+    // Public accessor method
+    public static PlaybackCheckpointBuffer getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Record where playback is and which seconds have been watched (never blocks on the database)
+     */
+    public void record(int userId, int lessonId, int positionSeconds, WatchCoverage watched) {
+        writer.record(key(userId, lessonId), toProgress(userId, lessonId, Math.max(0, positionSeconds),
+                watched != null ? watched.copy() : new WatchCoverage()));
+    }
+
+    /**
+     * The checkpoint not yet written for a lesson, or null
+     */
+    public LessonProgress getPending(int userId, int lessonId) {
+        LessonProgress checkpoint = writer.get(key(userId, lessonId));
+        return checkpoint != null ? copy(checkpoint) : null;
+    }
+
+    /**
+     * Copy pending positions and coverage onto progress rows read from the database
+     */
+    public void overlay(List<LessonProgress> progressList) {
+        if (writer.isEmpty()) {
+            return;
+        }
+        for (LessonProgress progress : progressList) {
+            LessonProgress checkpoint = writer.get(key(progress.getUserId(), progress.getLessonId()));
+            if (checkpoint != null) {
+                WatchCoverage watched = WatchCoverage.fromBytes(progress.getWatchedBitmap());
+                watched.merge(WatchCoverage.fromBytes(checkpoint.getWatchedBitmap()));
+                progress.setPositionSeconds(checkpoint.getPositionSeconds());
+                progress.setWatchedBitmap(watched.toBytes());
+                progress.setWatchedSeconds(watched.coveredSeconds());
+            }
+        }
+    }
+
+    /**
+     * Ask the background thread to flush soon (e.g. when a lesson window closes)
+     */
+    public void requestFlush() {
+        writer.requestFlush();
+    }
+
+    /**
+     * Flush all pending checkpoints on the calling thread
+     * Returns the number of checkpoints written
+     */
+    public int flush() {
+        return writer.flush();
+    }
+
+    /**
+     * Stop the background thread and write everything still pending
+     */
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    public int getPendingCount() {
+        return writer.getPendingCount();
+    }
+
+    public WriteBehindWriter.WriterStats getStats() {
+        return writer.getStats();
+    }
+
+    private static long key(int userId, int lessonId) {
+        return ((long) userId << 32) | (lessonId & 0xFFFFFFFFL);
+    }
+
+    private static LessonProgress toProgress(int userId, int lessonId, int positionSeconds, WatchCoverage watched) {
+        LessonProgress progress = new LessonProgress();
+        progress.setUserId(userId);
+        progress.setLessonId(lessonId);
+        progress.setPositionSeconds(positionSeconds);
+        progress.setWatchedBitmap(watched.toBytes());
+        progress.setWatchedSeconds(watched.coveredSeconds());
+        return progress;
+    }
+
+    private static LessonProgress copy(LessonProgress checkpoint) {
+        return toProgress(checkpoint.getUserId(), checkpoint.getLessonId(), checkpoint.getPositionSeconds(),
+                WatchCoverage.fromBytes(checkpoint.getWatchedBitmap()));
+    }
+
+    /**
+     * The later checkpoint's position, the seconds watched in either
+     */
+    private static LessonProgress newer(LessonProgress older, LessonProgress later) {
+        WatchCoverage watched = WatchCoverage.fromBytes(older.getWatchedBitmap());
+        watched.merge(WatchCoverage.fromBytes(later.getWatchedBitmap()));
+        return toProgress(later.getUserId(), later.getLessonId(), later.getPositionSeconds(), watched);
+    }
+}
@@ -0,0 +1,178 @@
+package com.elearning.service;
+
+import com.elearning.model.AnswerOption;
+import com.elearning.model.TestQuestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Precomputed question pools for question-bank tests
+ * Questions are loaded once and grouped into primitive index pools (by topic,
+ * difficulty or a single pool), so assembling an attempt only touches the
+ * drawn questions: O(N) per attempt, no queries, regardless of bank size.
+ * Instances are immutable and safe to share between windows.
+ */
+public class QuestionBank {
+    public static final String GROUP_NONE = "NONE";
+    public static final String GROUP_TOPIC = "TOPIC";
+    public static final String GROUP_DIFFICULTY = "DIFFICULTY";
+
+    private final TestQuestion[] questions;
+    private final String[] poolKeys;
+    private final int[][] pools;
+
+    private QuestionBank(TestQuestion[] questions, String[] poolKeys, int[][] pools) {
+        this.questions = questions;
+        this.poolKeys = poolKeys;
+        this.pools = pools;
+    }
+
+    /**
+     * Build the pools for a test's questions (options must already be attached)
+     */
+    public static QuestionBank build(List<TestQuestion> questionList, String groupBy) {
+        TestQuestion[] questions = questionList.toArray(new TestQuestion[0]);
+
+        // First pass: pool sizes per key, in first-seen order
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        String[] keys = new String[questions.length];
+        for (int i = 0; i < questions.length; i++) {
+            keys[i] = poolKey(questions[i], groupBy);
+            sizes.merge(keys[i], 1, Integer::sum);
+        }
+
+        // Second pass: fill the index arrays
+        String[] poolKeys = sizes.keySet().toArray(new String[0]);
+        int[][] pools = new int[poolKeys.length][];
+        Map<String, Integer> poolIndex = new HashMap<>();
+        for (int p = 0; p < poolKeys.length; p++) {
+            pools[p] = new int[sizes.get(poolKeys[p])];
+            poolIndex.put(poolKeys[p], p);
+        }
+        int[] fill = new int[poolKeys.length];
+        for (int i = 0; i < questions.length; i++) {
+            int p = poolIndex.get(keys[i]);
+            pools[p][fill[p]++] = i;
+        }
+
+        return new QuestionBank(questions, poolKeys, pools);
+    }
+
+    /**
+     * Draw up to drawCount questions from every pool
+     * The same seed always yields the same questions, order and option order
+     * for the same bank. Attempts also store the drawn question ids, which
+     * TestService.getAttemptQuestions prefers once the bank has changed.
+     * Without shuffleQuestions the drawn questions keep their order_index order.
+     * Returned questions are copies; shuffling never touches the cached bank.
+     */
+    public List<TestQuestion> assemble(int drawCount, long seed, boolean shuffleQuestions, boolean shuffleOptions) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] drawn = new int[getAttemptSize(drawCount)];
+        int count = 0;
+
+        for (int[] pool : pools) {
+            int take = Math.min(drawCount, pool.length);
+            // Partial Fisher-Yates over a virtual copy of the pool: only swapped
+            // positions are recorded, so cost is O(take) instead of O(pool size)
+            Map<Integer, Integer> swapped = new HashMap<>(take * 2);
+            for (int i = 0; i < take; i++) {
+                int j = i + random.nextInt(pool.length - i);
+                int atJ = swapped.getOrDefault(j, pool[j]);
+                swapped.put(j, swapped.getOrDefault(i, pool[i]));
+                drawn[count++] = atJ;
+            }
+        }
+
+        if (shuffleQuestions) {
+            for (int i = drawn.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = drawn[i];
+                drawn[i] = drawn[j];
+                drawn[j] = tmp;
+            }
+        } else {
+            // Questions are stored in order_index order
+            Arrays.sort(drawn);
+        }
+
+        List<TestQuestion> result = new ArrayList<>(drawn.length);
+        for (int index : drawn) {
+            result.add(copyOf(questions[index], shuffleOptions ? random : null));
+        }
+        return result;
+    }
+
+    /**
+     * Number of questions one attempt will contain
+     */
+    public int getAttemptSize(int drawCount) {
+        int size = 0;
+        for (int[] pool : pools) {
+            size += Math.min(drawCount, pool.length);
+        }
+        return size;
+    }
+
+    /**
+     * Draw every question (fixed-list tests)
+     */
+    public List<TestQuestion> assembleAll(long seed, boolean shuffleQuestions, boolean shuffleOptions) {
+        return assemble(Integer.MAX_VALUE, seed, shuffleQuestions, shuffleOptions);
+    }
+
+    public int getQuestionCount() {
+        return questions.length;
+    }
+
+    /**
+     * Pool sizes keyed by topic/difficulty (or "ALL")
+     */
+    public Map<String, Integer> getPoolSizes() {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int p = 0; p < poolKeys.length; p++) {
+            result.put(poolKeys[p], pools[p].length);
+        }
+        return result;
+    }
+
+    private static String poolKey(TestQuestion question, String groupBy) {
+        if (GROUP_TOPIC.equals(groupBy)) {
+            String topic = question.getTopic();
+            return topic == null || topic.isBlank() ? "General" : topic.trim();
+        }
+        if (GROUP_DIFFICULTY.equals(groupBy)) {
+            return question.getDifficulty() != null ? question.getDifficulty() : "MEDIUM";
+        }
+        return "ALL";
+    }
+
+    private static TestQuestion copyOf(TestQuestion source, SplittableRandom optionRandom) {
+        TestQuestion copy = new TestQuestion();
+        copy.setId(source.getId());
+        copy.setTestId(source.getTestId());
+        copy.setQuestionText(source.getQuestionText());
+        copy.setOrderIndex(source.getOrderIndex());
+        copy.setPoints(source.getPoints());
+        copy.setTopic(source.getTopic());
+        copy.setDifficulty(source.getDifficulty());
+
+        List<AnswerOption> options = new ArrayList<>(source.getOptions());
+        if (optionRandom != null) {
+            for (int i = options.size() - 1; i > 0; i--) {
+                int j = optionRandom.nextInt(i + 1);
+                AnswerOption tmp = options.get(i);
+                options.set(i, options.get(j));
+                options.set(j, tmp);
+            }
+        }
+        copy.setOptions(options);
+        return copy;
+    }
+}
@@ -4,8 +4,10 @@ import com.elearning.dao.CourseDAO;
 import com.elearning.dao.EnrollmentDAO;
 import com.elearning.dao.ReviewDAO;
 import com.elearning.model.Course;
+import com.elearning.model.DomainEvent;
 import com.elearning.model.Enrollment;
 import com.elearning.model.Review;
+import com.elearning.util.EventBus;
 
 import java.util.List;
 
@@ -91,7 +93,12 @@ public class ReviewService {
             throw new IllegalArgumentException("You have already reviewed this course. Use update instead.");
         }
 
-        return reviewDAO.insert(review);
+        boolean inserted = reviewDAO.insert(review);
+        if (inserted) {
+            EventBus.getInstance().publish(new DomainEvent.ReviewPosted(
+                    review.getId(), review.getCourseId(), userId, review.getRating()));
+        }
+        return inserted;
     }
 
     /**
@@ -0,0 +1,566 @@
+package com.elearning.service;
+
+import com.elearning.dao.StorageAuditDAO;
+import com.elearning.util.ChunkedFileCopy;
+import com.elearning.util.DBConnection;
+import com.elearning.util.MaintenanceLock;
+import com.elearning.util.ThumbnailUtil;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background auditor for media on disk
+ * Walks videos/, thumbnails/, certificates/ and media/ with Files.walkFileTree,
+ * checks every file against lessons, courses, certificates and media_objects
+ * in batched queries, and reports usage per course plus orphaned files.
+ * Files of a transcoded video (media/renditions/<sha256>/...) are looked up by
+ * their directory, which the transcoder records, and card thumbnails
+ * (<image>.thumb-<w>x<h>.png) by the image they were made from.
+ * Orphans are files nothing references that are older than a day (so a dialog
+ * that is still open never loses its upload) and unfinished upload parts older
+ * than a week. Runs are dry runs unless reclaiming is asked for; the daily run
+ * reclaims only when storage.audit.reclaim=true in config.properties.
+ * Singleton pattern for single instance across application
+ */
+public class StorageAuditor {
+    private static final String[] ROOTS = {"videos", "thumbnails", "certificates", "media"};
+    private static final String RENDITIONS_DIR = "media/renditions/";
+    private static final long MIN_ORPHAN_AGE_MILLIS = TimeUnit.HOURS.toMillis(24);
+    private static final long MAX_STAGING_AGE_MILLIS = TimeUnit.DAYS.toMillis(7);
+    private static final int LOOKUP_BATCH_SIZE = 200;
+    private static final long INITIAL_DELAY_MINUTES = 30;
+    private static final long INTERVAL_HOURS = 24;
+
+    private final StorageAuditDAO storageAuditDAO;
+    private final ScheduledExecutorService scheduler;
+    private volatile StorageReport lastReport;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong orphansFound = new AtomicLong();
+    private final AtomicLong filesReclaimed = new AtomicLong();
+    private final AtomicLong bytesReclaimed = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    // Private constructor to prevent direct instantiation
+    private StorageAuditor() {
+        this.storageAuditDAO = new StorageAuditDAO();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "storage-auditor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Static inner holder class - lazily loaded and thread-safe
+    private static class SingletonHolder {
+        private static final StorageAuditor INSTANCE = new StorageAuditor();
+    }
+
+    // Public accessor method
+    public static StorageAuditor getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Schedule the daily audit (first run shortly after startup)
+     * Not scheduled when maintenance.enabled is false.
+     */
+    public void start() {
+        if (!MaintenanceLock.isEnabled()) {
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(this::auditQuietly,
+                TimeUnit.MINUTES.toSeconds(INITIAL_DELAY_MINUTES),
+                TimeUnit.HOURS.toSeconds(INTERVAL_HOURS), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Scan storage on the calling thread
+     * With reclaim false nothing is deleted; the report lists what would be.
+     * If a reference lookup fails the run is marked failed and nothing is deleted.
+     */
+    public synchronized StorageReport audit(boolean reclaim) {
+        runs.incrementAndGet();
+        long startMillis = System.currentTimeMillis();
+        Path workingDir = Paths.get("").toAbsolutePath();
+
+        List<FileEntry> files = new ArrayList<>();
+        Map<String, Long> bytesByRoot = new LinkedHashMap<>();
+        List<Path> roots = new ArrayList<>();
+        Set<Object> fileKeys = new HashSet<>();
+        long diskBytes = 0;
+        for (String root : ROOTS) {
+            Path rootPath = workingDir.resolve(root);
+            bytesByRoot.put(root, 0L);
+            if (!Files.isDirectory(rootPath)) {
+                continue;
+            }
+            roots.add(rootPath);
+            try {
+                diskBytes += scan(rootPath, root, files, bytesByRoot, fileKeys);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        Map<Integer, long[]> usageByCourse = new HashMap<>();
+        List<OrphanFile> orphans = new ArrayList<>();
+        long storeOnlyBytes = 0;
+        int recentUnreferenced = 0;
+        boolean failed = false;
+
+        for (int start = 0; start < files.size() && !failed; start += LOOKUP_BATCH_SIZE) {
+            List<FileEntry> batch = files.subList(start, Math.min(files.size(), start + LOOKUP_BATCH_SIZE));
+            Set<String> keys = new LinkedHashSet<>();
+            for (FileEntry file : batch) {
+                keys.add(file.referencePath);
+                keys.add(file.referenceRelativePath);
+            }
+
+            Map<String, Set<Integer>> references = storageAuditDAO.findReferences(keys);
+            if (references == null) {
+                failed = true;
+                break;
+            }
+
+            for (FileEntry file : batch) {
+                long age = now - file.lastModified;
+                if (ChunkedFileCopy.isStagingFile(file.path)) {
+                    // Kept while a resume is still plausible
+                    if (age > MAX_STAGING_AGE_MILLIS) {
+                        orphans.add(new OrphanFile(file.absolutePath, file.root, file.size, file.lastModified, "Unfinished upload"));
+                    }
+                    continue;
+                }
+
+                Set<Integer> courses = new HashSet<>();
+                courses.addAll(references.getOrDefault(file.referencePath, Collections.emptySet()));
+                courses.addAll(references.getOrDefault(file.referenceRelativePath, Collections.emptySet()));
+                if (courses.isEmpty()) {
+                    if (age > MIN_ORPHAN_AGE_MILLIS) {
+                        orphans.add(new OrphanFile(file.absolutePath, file.root, file.size, file.lastModified, "Not referenced"));
+                    } else {
+                        recentUnreferenced++;
+                    }
+                    continue;
+                }
+
+                courses.remove(StorageAuditDAO.NO_COURSE);
+                if (courses.isEmpty()) {
+                    // Stored object without users: MediaStore's GC owns it
+                    storeOnlyBytes += file.size;
+                }
+                for (int courseId : courses) {
+                    long[] usage = usageByCourse.computeIfAbsent(courseId, id -> new long[2]);
+                    usage[0]++;
+                    usage[1] += file.size;
+                }
+            }
+        }
+
+        long orphanBytes = 0;
+        for (OrphanFile orphan : orphans) {
+            orphanBytes += orphan.getSize();
+        }
+        orphansFound.addAndGet(orphans.size());
+
+        int reclaimedFiles = 0;
+        long reclaimedBytes = 0;
+        if (reclaim && !failed) {
+            for (OrphanFile orphan : orphans) {
+                try {
+                    if (Files.deleteIfExists(Paths.get(orphan.getPath()))) {
+                        reclaimedFiles++;
+                        reclaimedBytes += orphan.getSize();
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            for (Path root : roots) {
+                pruneEmptyDirectories(root);
+            }
+            filesReclaimed.addAndGet(reclaimedFiles);
+            bytesReclaimed.addAndGet(reclaimedBytes);
+        }
+        if (failed) {
+            failures.incrementAndGet();
+        }
+
+        Map<Integer, String> titles = storageAuditDAO.findCourseTitles(usageByCourse.keySet());
+        List<CourseUsage> courseUsage = new ArrayList<>();
+        for (Map.Entry<Integer, long[]> entry : usageByCourse.entrySet()) {
+            courseUsage.add(new CourseUsage(entry.getKey(),
+                    titles.getOrDefault(entry.getKey(), "Course #" + entry.getKey()),
+                    (int) entry.getValue()[0], entry.getValue()[1]));
+        }
+        courseUsage.sort((a, b) -> Long.compare(b.getBytes(), a.getBytes()));
+        orphans.sort((a, b) -> Long.compare(b.getSize(), a.getSize()));
+
+        StorageReport report = new StorageReport(!reclaim, failed, files.size(), diskBytes, bytesByRoot,
+                courseUsage, orphans, orphanBytes, storeOnlyBytes, recentUnreferenced,
+                reclaimedFiles, reclaimedBytes, System.currentTimeMillis() - startMillis);
+        lastReport = report;
+        return report;
+    }
+
+    /**
+     * Most recent report, or null if no audit ran yet
+     */
+    public StorageReport getLastReport() {
+        return lastReport;
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public AuditStats getStats() {
+        return new AuditStats(runs.get(), orphansFound.get(), filesReclaimed.get(), bytesReclaimed.get(), failures.get());
+    }
+
+    private long scan(Path rootPath, String root, List<FileEntry> files, Map<String, Long> bytesByRoot,
+                      Set<Object> fileKeys) throws IOException {
+        Path workingDir = Paths.get("").toAbsolutePath();
+        long[] diskBytes = {0};
+        // Symbolic links are not followed, so the walk never leaves the storage roots
+        Files.walkFileTree(rootPath, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!attrs.isRegularFile()) {
+                    return FileVisitResult.CONTINUE;
+                }
+                Path absolute = file.toAbsolutePath().normalize();
+                String relative = workingDir.relativize(absolute).toString().replace('\\', '/');
+                files.add(new FileEntry(absolute, root, relative, attrs.size(), attrs.lastModifiedTime().toMillis()));
+                bytesByRoot.merge(root, attrs.size(), Long::sum);
+
+                // Hard links share one file key and take disk space once
+                Object key = attrs.fileKey();
+                if (key == null || fileKeys.add(key)) {
+                    diskBytes[0] += attrs.size();
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                System.err.println("Storage audit could not read " + file + ": " + e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return diskBytes[0];
+    }
+
+    private void pruneEmptyDirectories(Path root) {
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                    if (!dir.equals(root)) {
+                        try (java.util.stream.Stream<Path> entries = Files.list(dir)) {
+                            if (!entries.findAny().isPresent()) {
+                                Files.delete(dir);
+                            }
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void auditQuietly() {
+        try {
+            boolean reclaim = Boolean.parseBoolean(
+                    DBConnection.getInstance().getConfigProperty("storage.audit.reclaim", "false"));
+            MaintenanceLock.runExclusive("storage-audit",
+                    () -> System.out.println("Storage audit: " + audit(reclaim)));
+        } catch (RuntimeException e) {
+            // Keep the scheduled task alive for the next run
+            failures.incrementAndGet();
+            e.printStackTrace();
+        }
+    }
+
+    private static class FileEntry {
+        private final Path path;
+        private final String absolutePath;
+        private final String root;
+        private final String relativePath;
+        private final long size;
+        private final long lastModified;
+        // What the database references: the file itself, its rendition directory or its image
+        private final String referencePath;
+        private final String referenceRelativePath;
+
+        FileEntry(Path path, String root, String relativePath, long size, long lastModified) {
+            this.path = path;
+            this.absolutePath = path.toString();
+            this.root = root;
+            this.relativePath = relativePath;
+            this.size = size;
+            this.lastModified = lastModified;
+
+            int sourceEnd = relativePath.startsWith(RENDITIONS_DIR)
+                    ? relativePath.indexOf('/', RENDITIONS_DIR.length()) : -1;
+            if (sourceEnd > 0) {
+                // The absolute path ends with the relative one; cut both after the directory
+                this.referenceRelativePath = relativePath.substring(0, sourceEnd);
+                this.referencePath = absolutePath.substring(0, absolutePath.length() - (relativePath.length() - sourceEnd));
+            } else if (ThumbnailUtil.isThumbnail(relativePath)) {
+                this.referencePath = ThumbnailUtil.originalPath(absolutePath);
+                this.referenceRelativePath = ThumbnailUtil.originalPath(relativePath);
+            } else {
+                this.referencePath = absolutePath;
+                this.referenceRelativePath = relativePath;
+            }
+        }
+    }
+
+    /**
+     * Files and bytes referenced by one course (shared files count for every course using them)
+     */
+    public static class CourseUsage {
+        private final int courseId;
+        private final String title;
+        private final int files;
+        private final long bytes;
+
+        public CourseUsage(int courseId, String title, int files, long bytes) {
+            this.courseId = courseId;
+            this.title = title;
+            this.files = files;
+            this.bytes = bytes;
+        }
+
+        public int getCourseId() {
+            return courseId;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public int getFiles() {
+            return files;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+
+    /**
+     * A file the audit found no use for
+     */
+    public static class OrphanFile {
+        private final String path;
+        private final String root;
+        private final long size;
+        private final long lastModified;
+        private final String reason;
+
+        public OrphanFile(String path, String root, long size, long lastModified, String reason) {
+            this.path = path;
+            this.root = root;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.reason = reason;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getRoot() {
+            return root;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+
+    /**
+     * Result of one audit run
+     */
+    public static class StorageReport {
+        private final boolean dryRun;
+        private final boolean failed;
+        private final int scannedFiles;
+        private final long diskBytes;
+        private final Map<String, Long> bytesByRoot;
+        private final List<CourseUsage> courseUsage;
+        private final List<OrphanFile> orphans;
+        private final long orphanBytes;
+        private final long storeOnlyBytes;
+        private final int recentUnreferenced;
+        private final int reclaimedFiles;
+        private final long reclaimedBytes;
+        private final long durationMillis;
+
+        public StorageReport(boolean dryRun, boolean failed, int scannedFiles, long diskBytes,
+                             Map<String, Long> bytesByRoot, List<CourseUsage> courseUsage,
+                             List<OrphanFile> orphans, long orphanBytes, long storeOnlyBytes,
+                             int recentUnreferenced, int reclaimedFiles, long reclaimedBytes,
+                             long durationMillis) {
+            this.dryRun = dryRun;
+            this.failed = failed;
+            this.scannedFiles = scannedFiles;
+            this.diskBytes = diskBytes;
+            this.bytesByRoot = bytesByRoot;
+            this.courseUsage = courseUsage;
+            this.orphans = orphans;
+            this.orphanBytes = orphanBytes;
+            this.storeOnlyBytes = storeOnlyBytes;
+            this.recentUnreferenced = recentUnreferenced;
+            this.reclaimedFiles = reclaimedFiles;
+            this.reclaimedBytes = reclaimedBytes;
+            this.durationMillis = durationMillis;
+        }
+
+        public boolean isDryRun() {
+            return dryRun;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+
+        public int getScannedFiles() {
+            return scannedFiles;
+        }
+
+        /**
+         * Bytes on disk, counting hard-linked files once
+         */
+        public long getDiskBytes() {
+            return diskBytes;
+        }
+
+        public Map<String, Long> getBytesByRoot() {
+            return bytesByRoot;
+        }
+
+        public List<CourseUsage> getCourseUsage() {
+            return courseUsage;
+        }
+
+        public List<OrphanFile> getOrphans() {
+            return orphans;
+        }
+
+        public long getOrphanBytes() {
+            return orphanBytes;
+        }
+
+        /**
+         * Stored objects no lesson or course uses yet (left to MediaStore's GC)
+         */
+        public long getStoreOnlyBytes() {
+            return storeOnlyBytes;
+        }
+
+        /**
+         * Unreferenced files too new to be treated as orphans
+         */
+        public int getRecentUnreferenced() {
+            return recentUnreferenced;
+        }
+
+        public int getReclaimedFiles() {
+            return reclaimedFiles;
+        }
+
+        public long getReclaimedBytes() {
+            return reclaimedBytes;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s%sfiles=%d, disk=%d bytes, orphans=%d (%d bytes), reclaimed=%d (%d bytes), took %d ms",
+                    dryRun ? "[dry run] " : "", failed ? "[failed] " : "",
+                    scannedFiles, diskBytes, orphans.size(), orphanBytes, reclaimedFiles, reclaimedBytes, durationMillis);
+        }
+    }
+
+    /**
+     * Counters for monitoring the auditor
+     */
+    public static class AuditStats {
+        private final long runs;
+        private final long orphansFound;
+        private final long filesReclaimed;
+        private final long bytesReclaimed;
+        private final long failures;
+
+        public AuditStats(long runs, long orphansFound, long filesReclaimed, long bytesReclaimed, long failures) {
+            this.runs = runs;
+            this.orphansFound = orphansFound;
+            this.filesReclaimed = filesReclaimed;
+            this.bytesReclaimed = bytesReclaimed;
+            this.failures = failures;
+        }
+
+        public long getRuns() {
+            return runs;
+        }
+
+        public long getOrphansFound() {
+            return orphansFound;
+        }
+
+        public long getFilesReclaimed() {
+            return filesReclaimed;
+        }
+
+        public long getBytesReclaimed() {
+            return bytesReclaimed;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("runs=%d, orphansFound=%d, filesReclaimed=%d, bytesReclaimed=%d, failures=%d",
+                    runs, orphansFound, filesReclaimed, bytesReclaimed, failures);
+        }
+    }
+}
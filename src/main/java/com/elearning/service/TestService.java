@@ -3,14 +3,27 @@ package com.elearning.service;
 import com.elearning.dao.AnswerOptionDAO;
 import com.elearning.dao.CourseDAO;
 import com.elearning.dao.CourseTestDAO;
+import com.elearning.dao.TestAttemptDAO;
 import com.elearning.dao.TestQuestionDAO;
 import com.elearning.model.AnswerOption;
 import com.elearning.model.Course;
 import com.elearning.model.CourseTest;
+import com.elearning.model.DomainEvent;
+import com.elearning.model.TestAttempt;
 import com.elearning.model.TestQuestion;
+import com.elearning.util.EventBus;
+import com.elearning.util.ScoreDistribution;
 
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service for test management operations
@@ -21,6 +34,24 @@ public class TestService {
     private final TestQuestionDAO questionDAO;
     private final AnswerOptionDAO optionDAO;
     private final CourseDAO courseDAO;
+    private final TestAttemptDAO attemptDAO;
+
+    // Score distributions per test, loaded once and then updated incrementally
+    private final Map<Integer, ScoreDistribution> distributionCache = new ConcurrentHashMap<>();
+
+    // Precomputed question pools per test, rebuilt when questions change here or
+    // after the TTL, so edits made from another client are picked up
+    private static final long BANK_CACHE_TTL_NANOS = TimeUnit.MINUTES.toNanos(5);
+    private final Map<Integer, CachedBank> bankCache = new ConcurrentHashMap<>();
+
+    // Attempt starts that conflict with a concurrent start are retried
+    private static final int MAX_START_RETRIES = 3;
+    private final AtomicLong attemptsStarted = new AtomicLong();
+    private final AtomicLong lockConflicts = new AtomicLong();
+    private final AtomicLong duplicateKeys = new AtomicLong();
+    private final AtomicLong startRetries = new AtomicLong();
+    private final AtomicLong limitRejections = new AtomicLong();
+    private final AtomicLong startFailures = new AtomicLong();
 
     // Private constructor to prevent direct instantiation
     private TestService() {
@@ -28,6 +59,7 @@ public class TestService {
         this.questionDAO = new TestQuestionDAO();
         this.optionDAO = new AnswerOptionDAO();
         this.courseDAO = new CourseDAO();
+        this.attemptDAO = new TestAttemptDAO();
     }
 
     // Static inner holder class - lazily loaded and thread-safe
@@ -68,6 +100,7 @@ public class TestService {
             throw new SecurityException("You can only update tests for your own courses");
         }
 
+        bankCache.remove(test.getId());
         return testDAO.update(test);
     }
 
@@ -86,6 +119,7 @@ public class TestService {
             throw new SecurityException("You can only delete tests for your own courses");
         }
 
+        bankCache.remove(testId);
         return testDAO.delete(testId);
     }
 
@@ -105,14 +139,8 @@ public class TestService {
             return null;
         }
 
-        // Load questions
-        List<TestQuestion> questions = questionDAO.findByTestId(testId);
-
-        // Load options for each question
-        for (TestQuestion question : questions) {
-            List<AnswerOption> options = optionDAO.findByQuestionId(question.getId());
-            question.setOptions(options);
-        }
+        // Load questions with their options
+        List<TestQuestion> questions = loadQuestionsWithOptions(testId);
 
         // Set question count and total points
         test.setQuestionCount(questions.size());
@@ -141,6 +169,7 @@ public class TestService {
             question.setOrderIndex(questionDAO.getNextOrderIndex(question.getTestId()));
         }
 
+        bankCache.remove(question.getTestId());
         return questionDAO.create(question);
     }
 
@@ -160,16 +189,9 @@ public class TestService {
             throw new SecurityException("You can only add options to your own course tests");
         }
 
-        // Validate: must have exactly 4 options
-        if (options.size() != 4) {
-            throw new IllegalArgumentException("Must provide exactly 4 options (A, B, C, D)");
-        }
+        validateOptions(options);
 
-        // Validate: exactly 1 must be correct
-        long correctCount = options.stream().filter(AnswerOption::getIsCorrect).count();
-        if (correctCount != 1) {
-            throw new IllegalArgumentException("Exactly one option must be marked as correct");
-        }
+        bankCache.remove(question.getTestId());
 
         // Create all options
         List<AnswerOption> createdOptions = new ArrayList<>();
@@ -184,6 +206,42 @@ public class TestService {
         return createdOptions;
     }
 
+    /**
+     * Update a question and replace its answer options in one transaction (instructor only)
+     */
+    public boolean updateQuestion(TestQuestion question, List<AnswerOption> options, int instructorId) {
+        // Verify ownership
+        TestQuestion existing = questionDAO.findById(question.getId());
+        if (existing == null) {
+            throw new IllegalArgumentException("Question not found");
+        }
+
+        CourseTest test = testDAO.findById(existing.getTestId());
+        Course course = courseDAO.findById(test.getCourseId());
+        if (course == null || !course.getInstructorId().equals(instructorId)) {
+            throw new SecurityException("You can only edit questions of your own course tests");
+        }
+
+        validateOptions(options);
+
+        bankCache.remove(existing.getTestId());
+        return questionDAO.updateWithOptions(question, options);
+    }
+
+    /**
+     * Options must be exactly 4 (A, B, C, D) with exactly one correct
+     */
+    private void validateOptions(List<AnswerOption> options) {
+        if (options.size() != 4) {
+            throw new IllegalArgumentException("Must provide exactly 4 options (A, B, C, D)");
+        }
+
+        long correctCount = options.stream().filter(AnswerOption::getIsCorrect).count();
+        if (correctCount != 1) {
+            throw new IllegalArgumentException("Exactly one option must be marked as correct");
+        }
+    }
+
     /**
      * Publish a test (make it visible to students)
      */
@@ -204,7 +262,11 @@ public class TestService {
             throw new IllegalStateException("Cannot publish test: validation failed");
         }
 
-        return testDAO.publish(testId);
+        boolean published = testDAO.publish(testId);
+        if (published) {
+            EventBus.getInstance().publish(new DomainEvent.TestPublicationChanged(testId, test.getCourseId(), true));
+        }
+        return published;
     }
 
     /**
@@ -222,7 +284,11 @@ public class TestService {
             throw new SecurityException("You can only unpublish your own course tests");
         }
 
-        return testDAO.unpublish(testId);
+        boolean unpublished = testDAO.unpublish(testId);
+        if (unpublished) {
+            EventBus.getInstance().publish(new DomainEvent.TestPublicationChanged(testId, test.getCourseId(), false));
+        }
+        return unpublished;
     }
 
     /**
@@ -261,6 +327,7 @@ public class TestService {
             throw new SecurityException("You can only delete questions from your own course tests");
         }
 
+        bankCache.remove(question.getTestId());
         return questionDAO.delete(questionId);
     }
 
@@ -268,21 +335,323 @@ public class TestService {
      * Get all questions for a test
      */
     public List<TestQuestion> getQuestions(int testId) {
+        return loadQuestionsWithOptions(testId);
+    }
+
+    /**
+     * Load questions and attach their options using two queries instead of one per question
+     */
+    private List<TestQuestion> loadQuestionsWithOptions(int testId) {
         List<TestQuestion> questions = questionDAO.findByTestId(testId);
 
-        // Load options for each question
+        Map<Integer, TestQuestion> byId = new HashMap<>();
         for (TestQuestion question : questions) {
-            List<AnswerOption> options = optionDAO.findByQuestionId(question.getId());
-            question.setOptions(options);
+            question.setOptions(new ArrayList<>());
+            byId.put(question.getId(), question);
+        }
+        for (AnswerOption option : optionDAO.findByTestId(testId)) {
+            TestQuestion question = byId.get(option.getQuestionId());
+            if (question != null) {
+                question.addOption(option);
+            }
         }
 
         return questions;
     }
 
+    /**
+     * Get the precomputed question pools of a test (served from memory, reloaded after the TTL)
+     */
+    public QuestionBank getQuestionBank(CourseTest test) {
+        CachedBank cached = bankCache.get(test.getId());
+        if (cached == null || cached.isExpired()) {
+            cached = bankCache.compute(test.getId(), (id, current) -> current != null && !current.isExpired()
+                    ? current
+                    : new CachedBank(QuestionBank.build(loadQuestionsWithOptions(id), test.getBankGroupBy())));
+        }
+        return cached.bank;
+    }
+
+    /**
+     * Create a new random seed for assembling an attempt
+     */
+    public long newAssemblySeed() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    /**
+     * Assemble the questions of an attempt from the test's question pools
+     * Question-bank tests draw bankDrawCount questions per topic/difficulty group;
+     * fixed tests use every question. The seed makes the result reproducible.
+     */
+    public List<TestQuestion> assembleAttemptQuestions(CourseTest test, long seed) {
+        QuestionBank bank = getQuestionBank(test);
+        boolean shuffleQuestions = Boolean.TRUE.equals(test.getShuffleQuestions());
+        boolean shuffleOptions = Boolean.TRUE.equals(test.getShuffleOptions());
+
+        if (test.isQuestionBank()) {
+            return bank.assemble(test.getBankDrawCount(), seed, shuffleQuestions, shuffleOptions);
+        }
+        return bank.assembleAll(seed, shuffleQuestions, shuffleOptions);
+    }
+
+    /**
+     * Number of questions a student will get in one attempt
+     */
+    public int getAttemptQuestionCount(CourseTest test) {
+        QuestionBank bank = getQuestionBank(test);
+        return test.isQuestionBank() ? bank.getAttemptSize(test.getBankDrawCount()) : bank.getQuestionCount();
+    }
+
+    /**
+     * Rebuild the questions an attempt was given, in the order shown (for review or re-grading)
+     * Uses the stored question ids, so unanswered questions are included and
+     * later edits to the bank do not change which questions belong to the
+     * attempt; questions deleted since are left out. Attempts without stored
+     * ids are re-assembled from their seed.
+     */
+    public List<TestQuestion> getAttemptQuestions(CourseTest test, TestAttempt attempt) {
+        if (attempt.getQuestionIds() == null) {
+            return attempt.getAssemblySeed() != null
+                    ? assembleAttemptQuestions(test, attempt.getAssemblySeed())
+                    : getQuestions(test.getId());
+        }
+        Map<Integer, TestQuestion> byId = new HashMap<>();
+        for (TestQuestion question : loadQuestionsWithOptions(test.getId())) {
+            byId.put(question.getId(), question);
+        }
+        List<TestQuestion> questions = new ArrayList<>(attempt.getQuestionIds().size());
+        for (Integer questionId : attempt.getQuestionIds()) {
+            TestQuestion question = byId.get(questionId);
+            if (question != null) {
+                questions.add(question);
+            }
+        }
+        return questions;
+    }
+
     /**
      * Check if test exists for a course
      */
     public boolean hasTest(int courseId) {
         return testDAO.existsByCourseId(courseId);
     }
+
+    /**
+     * Start a new attempt for a student
+     * Checks maxAttempts and assigns the attempt number atomically in one transaction,
+     * retrying when a concurrent start (another window) conflicts.
+     * The seed and the drawn question ids are stored so the attempt can be rebuilt.
+     */
+    public TestAttempt startAttempt(CourseTest test, int userId, List<TestQuestion> questions, long assemblySeed) {
+        double totalPoints = questions.stream()
+                .mapToDouble(q -> q.getPoints() != null ? q.getPoints() : 1.0)
+                .sum();
+
+        TestAttempt attempt = new TestAttempt(test.getId(), userId, test.getCourseId());
+        attempt.setTotalQuestions(questions.size());
+        attempt.setTotalPoints(totalPoints);
+        attempt.setAssemblySeed(assemblySeed);
+        List<Integer> questionIds = new ArrayList<>(questions.size());
+        for (TestQuestion question : questions) {
+            questionIds.add(question.getId());
+        }
+        attempt.setQuestionIds(questionIds);
+
+        for (int tryNumber = 1; tryNumber <= MAX_START_RETRIES; tryNumber++) {
+            try {
+                TestAttempt created = attemptDAO.createNextAttempt(attempt, test.getMaxAttempts());
+                if (created == null) {
+                    limitRejections.incrementAndGet();
+                    throw new AttemptLimitReachedException("You have reached the maximum number of attempts for this test.");
+                }
+                attemptsStarted.incrementAndGet();
+                return created;
+            } catch (SQLException e) {
+                boolean transientConflict = isTransientConflict(e);
+                if (transientConflict) {
+                    if (e instanceof SQLIntegrityConstraintViolationException) {
+                        duplicateKeys.incrementAndGet();
+                    } else {
+                        lockConflicts.incrementAndGet();
+                    }
+                }
+                if (!transientConflict || tryNumber == MAX_START_RETRIES) {
+                    startFailures.incrementAndGet();
+                    System.err.println("Test attempt start failed after " + tryNumber + " tries: " +
+                            e.getMessage() + " (" + getStats() + ")");
+                    throw new IllegalStateException("Failed to start test attempt", e);
+                }
+                startRetries.incrementAndGet();
+                attempt.setStartedAt(null);
+                try {
+                    Thread.sleep(20L * tryNumber);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while starting test attempt", ie);
+                }
+            }
+        }
+        throw new IllegalStateException("Failed to start test attempt");
+    }
+
+    /**
+     * Get contention counters for attempt starts made by this client
+     */
+    public AttemptStartStats getStats() {
+        return new AttemptStartStats(attemptsStarted.get(), lockConflicts.get(), duplicateKeys.get(),
+                startRetries.get(), limitRejections.get(), startFailures.get());
+    }
+
+    /**
+     * Deadlocks (40001) and duplicate attempt numbers are safe to retry
+     */
+    private boolean isTransientConflict(SQLException e) {
+        return e instanceof SQLIntegrityConstraintViolationException
+                || "40001".equals(e.getSQLState())
+                || e.getErrorCode() == 1213  // MySQL deadlock
+                || e.getErrorCode() == 1205; // MySQL lock wait timeout
+    }
+
+    /**
+     * Get the score distribution (histogram, percentiles, learning curve) of a test
+     * The first call streams the completed attempts; later calls are served from memory.
+     * A snapshot is returned so callers never see a distribution that is being updated.
+     */
+    public ScoreDistribution getScoreDistribution(int testId) {
+        ScoreDistribution cached = distributionCache.computeIfAbsent(testId, attemptDAO::loadScoreDistribution);
+        return snapshot(cached);
+    }
+
+    /**
+     * Combined score distribution of the tests of all courses an instructor teaches
+     * Merges the per-test distributions (served from the cache like getScoreDistribution).
+     */
+    public ScoreDistribution getInstructorScoreDistribution(int instructorId) {
+        ScoreDistribution combined = new ScoreDistribution();
+        for (Course course : courseDAO.findByInstructorId(instructorId)) {
+            CourseTest test = testDAO.findByCourseId(course.getId());
+            if (test != null) {
+                combined.merge(getScoreDistribution(test.getId()));
+            }
+        }
+        return combined;
+    }
+
+    /**
+     * Add a just-completed attempt to the cached distribution of its test
+     */
+    public void recordCompletedAttempt(TestAttempt attempt) {
+        if (attempt == null || attempt.getTestId() == null) {
+            return;
+        }
+        ScoreDistribution distribution = distributionCache.get(attempt.getTestId());
+        if (distribution != null) {
+            synchronized (distribution) {
+                distribution.accept(attempt);
+            }
+        }
+        if (attempt.getId() != null && attempt.getUserId() != null && attempt.getCourseId() != null) {
+            EventBus.getInstance().publish(new DomainEvent.TestAttemptCompleted(
+                    attempt.getId(), attempt.getTestId(), attempt.getCourseId(), attempt.getUserId(),
+                    attempt.getScorePercentage() != null ? attempt.getScorePercentage() : 0.0,
+                    attempt.isPassed()));
+        }
+    }
+
+    private ScoreDistribution snapshot(ScoreDistribution distribution) {
+        synchronized (distribution) {
+            return new ScoreDistribution().merge(distribution);
+        }
+    }
+
+    /**
+     * Drop the cached distribution of a test so it is reloaded on next access
+     */
+    public void invalidateScoreDistribution(int testId) {
+        distributionCache.remove(testId);
+    }
+
+    /**
+     * A question bank and when it was built
+     */
+    private static class CachedBank {
+        private final QuestionBank bank;
+        private final long loadedAt = System.nanoTime();
+
+        CachedBank(QuestionBank bank) {
+            this.bank = bank;
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - loadedAt > BANK_CACHE_TTL_NANOS;
+        }
+    }
+
+    /**
+     * Inner class for attempt start contention counters
+     */
+    public static class AttemptStartStats {
+        private final long started;
+        private final long lockConflicts;
+        private final long duplicateKeys;
+        private final long retries;
+        private final long limitRejections;
+        private final long failures;
+
+        public AttemptStartStats(long started, long lockConflicts, long duplicateKeys,
+                                 long retries, long limitRejections, long failures) {
+            this.started = started;
+            this.lockConflicts = lockConflicts;
+            this.duplicateKeys = duplicateKeys;
+            this.retries = retries;
+            this.limitRejections = limitRejections;
+            this.failures = failures;
+        }
+
+        public long getStarted() {
+            return started;
+        }
+
+        /**
+         * Deadlocks and lock wait timeouts
+         */
+        public long getLockConflicts() {
+            return lockConflicts;
+        }
+
+        /**
+         * Attempt numbers taken by a concurrent start
+         */
+        public long getDuplicateKeys() {
+            return duplicateKeys;
+        }
+
+        public long getRetries() {
+            return retries;
+        }
+
+        public long getLimitRejections() {
+            return limitRejections;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("started=%d, lockConflicts=%d, duplicateKeys=%d, retries=%d, limitRejections=%d, failures=%d",
+                    started, lockConflicts, duplicateKeys, retries, limitRejections, failures);
+        }
+    }
+
+    /**
+     * Thrown by startAttempt when the student has used all attempts of a test
+     */
+    public static class AttemptLimitReachedException extends IllegalStateException {
+        public AttemptLimitReachedException(String message) {
+            super(message);
+        }
+    }
 }
@@ -0,0 +1,574 @@
+package com.elearning.service;
+
+import com.elearning.dao.MediaObjectDAO;
+import com.elearning.dao.TranscodeDAO;
+import com.elearning.model.DomainEvent;
+import com.elearning.model.MediaObject;
+import com.elearning.model.TranscodeJob;
+import com.elearning.model.VideoRendition;
+import com.elearning.util.DBConnection;
+import com.elearning.util.EventBus;
+import com.elearning.util.FileUtil;
+import com.elearning.util.VideoMetadataProbe;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background transcoder for lesson videos
+ * Stored videos are queued in transcode_jobs (by content hash) when a lesson
+ * gets a new video, and by a daily pass for older ones. Workers run the local
+ * ffmpeg binary to produce H.264/AAC MP4 renditions below the source resolution
+ * under media/renditions/<sha256>/. Failed jobs are
+ * retried with backoff up to MAX_ATTEMPTS. To stay out of the way of the UI,
+ * at most transcode.parallelism jobs run at once, ffmpeg gets a limited number
+ * of threads and a lower priority, and no new job starts while the system load
+ * is high. Without ffmpeg jobs stay queued and players use the original file.
+ * Only the media host should set transcode.enabled: renditions are written to
+ * the local media store, and only jobs whose source is on this machine are taken.
+ * Singleton pattern for single instance across application
+ */
+public class TranscodeService {
+    // Height and video bitrate (kbps) of each rendition; only those below the source are made
+    private static final int[][] LADDER = {{360, 800}, {540, 1400}, {720, 2800}, {1080, 5000}};
+    private static final int AUDIO_BITRATE_KBPS = 128;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_BASE_SECONDS = TimeUnit.MINUTES.toSeconds(5);
+    private static final long STALE_JOB_SECONDS = TimeUnit.HOURS.toSeconds(2);
+    private static final long MIN_TIMEOUT_SECONDS = TimeUnit.MINUTES.toSeconds(30);
+    private static final double MAX_LOAD_PER_CORE = 0.75;
+    private static final long POLL_SECONDS = 30;
+    private static final long INITIAL_DELAY_MINUTES = 5;
+    private static final long BACKFILL_INTERVAL_HOURS = 24;
+    private static final long RENDITION_CACHE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final TranscodeDAO transcodeDAO;
+    private final MediaObjectDAO mediaObjectDAO;
+    private final MediaStore mediaStore;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService workers;
+    private final String ffmpegPath;
+    private final int parallelism;
+    private final int ffmpegThreads;
+    private final boolean enabled;
+    private volatile boolean ffmpegAvailable;
+    private volatile String niceCommand;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Set<String> runningJobs = ConcurrentHashMap.newKeySet();
+    private final Set<Process> runningProcesses = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, CachedRenditions> renditionCache = new ConcurrentHashMap<>();
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong renditionsMade = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+
+    // Private constructor to prevent direct instantiation
+    private TranscodeService() {
+        this.transcodeDAO = new TranscodeDAO();
+        this.mediaObjectDAO = new MediaObjectDAO();
+        this.mediaStore = MediaStore.getInstance();
+
+        DBConnection db = DBConnection.getInstance();
+        int cores = Runtime.getRuntime().availableProcessors();
+        this.enabled = Boolean.parseBoolean(db.getConfigProperty("transcode.enabled", "false"));
+        this.ffmpegPath = db.getConfigProperty("transcode.ffmpeg", "ffmpeg");
+        this.parallelism = Math.max(1, parseInt(db.getConfigProperty("transcode.parallelism", ""), cores / 4));
+        // Leave at least half the cores to the rest of the machine
+        this.ffmpegThreads = Math.max(1, cores / (2 * parallelism));
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "transcode-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger workerCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "transcode-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+
+        EventBus.getInstance().subscribe(DomainEvent.LessonVideoChanged.class, event ->
+                scheduler.execute(() -> enqueueQuietly(event.getVideoPath())));
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "transcode-shutdown"));
+    }
+
+    // Static inner holder class - lazily loaded and thread-safe
+    private static class SingletonHolder {
+        private static final TranscodeService INSTANCE = new TranscodeService();
+    }
+
+    // Public accessor method
+    public static TranscodeService getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Look for ffmpeg and start working the queue (jobs are still queued without it)
+     */
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler.execute(() -> {
+            ffmpegAvailable = detectFfmpeg();
+            if (!ffmpegAvailable) {
+                System.out.println("Transcoding: ffmpeg not found (" + ffmpegPath + "), lessons play the original videos");
+                return;
+            }
+            niceCommand = detectNice();
+            transcodeDAO.requeueStale(STALE_JOB_SECONDS);
+            scheduler.scheduleWithFixedDelay(this::pollQuietly,
+                    TimeUnit.MINUTES.toSeconds(1), POLL_SECONDS, TimeUnit.SECONDS);
+            scheduler.scheduleWithFixedDelay(this::backfillQuietly,
+                    TimeUnit.MINUTES.toSeconds(INITIAL_DELAY_MINUTES),
+                    TimeUnit.HOURS.toSeconds(BACKFILL_INTERVAL_HOURS), TimeUnit.SECONDS);
+        });
+    }
+
+    /**
+     * Queue a lesson video for transcoding
+     * Only videos in the media store are queued; legacy files are picked up by
+     * the daily pass once the store has adopted them.
+     */
+    public boolean enqueue(String videoPath) {
+        if (!mediaStore.isManaged(videoPath)) {
+            return false;
+        }
+        MediaObject object = mediaObjectDAO.findByPath(videoPath);
+        if (object == null || !transcodeDAO.enqueue(object.getSha256())) {
+            return false;
+        }
+        if (ffmpegAvailable) {
+            scheduler.execute(this::pollQuietly);
+        }
+        return true;
+    }
+
+    /**
+     * Renditions of a video, lowest first (cached for a few minutes; blocks on a cache miss)
+     */
+    public List<VideoRendition> loadRenditions(String videoPath) {
+        if (videoPath == null || !mediaStore.isManaged(videoPath)) {
+            return Collections.emptyList();
+        }
+        CachedRenditions cached = renditionCache.get(videoPath);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt < RENDITION_CACHE_MILLIS) {
+            return cached.renditions;
+        }
+        List<VideoRendition> renditions = Collections.unmodifiableList(transcodeDAO.findRenditionsByPath(videoPath));
+        renditionCache.put(videoPath, new CachedRenditions(renditions));
+        return renditions;
+    }
+
+    /**
+     * Warm the rendition cache for a video without blocking the caller
+     * A cache miss is loaded on the scheduler thread; until it completes,
+     * selectSource keeps returning the original video.
+     */
+    public CompletableFuture<List<VideoRendition>> loadRenditionsAsync(String videoPath) {
+        if (videoPath == null || !mediaStore.isManaged(videoPath)) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        CachedRenditions cached = renditionCache.get(videoPath);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt < RENDITION_CACHE_MILLIS) {
+            return CompletableFuture.completedFuture(cached.renditions);
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> loadRenditions(videoPath), scheduler);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; play the original
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+    }
+
+    /**
+     * File to play for a video shown displayHeight pixels tall
+     * The smallest rendition at least that tall, or the original if none is.
+     * Never blocks: uses only renditions already loaded with loadRenditions(Async).
+     */
+    public String selectSource(String videoPath, int displayHeight) {
+        CachedRenditions cached = videoPath != null ? renditionCache.get(videoPath) : null;
+        if (cached == null || displayHeight <= 0) {
+            return videoPath;
+        }
+        for (VideoRendition rendition : cached.renditions) {
+            if (rendition.getHeight() >= displayHeight && MediaServer.getInstance().isPlayable(rendition.getFilePath())) {
+                return rendition.getFilePath();
+            }
+        }
+        return videoPath;
+    }
+
+    /**
+     * Queue every stored lesson video without a job yet
+     */
+    public int backfill() {
+        return transcodeDAO.enqueueMissing();
+    }
+
+    /**
+     * Stop the workers; jobs cut short go back to the queue
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+        for (Process process : runningProcesses) {
+            process.destroyForcibly();
+        }
+        for (String sha256 : runningJobs) {
+            transcodeDAO.requeue(sha256);
+        }
+    }
+
+    public boolean isFfmpegAvailable() {
+        return ffmpegAvailable;
+    }
+
+    public TranscodeStats getStats() {
+        return new TranscodeStats(completed.get(), renditionsMade.get(), retried.get(), failed.get(),
+                throttled.get(), inFlight.get());
+    }
+
+    /**
+     * Start due jobs while workers are free and the machine is not busy
+     */
+    private void poll() {
+        while (inFlight.get() < parallelism) {
+            if (systemBusy()) {
+                throttled.incrementAndGet();
+                return;
+            }
+            TranscodeJob job = transcodeDAO.claimNext(TranscodeService::isLocalFile);
+            if (job == null) {
+                return;
+            }
+            inFlight.incrementAndGet();
+            runningJobs.add(job.getSourceSha256());
+            workers.execute(() -> {
+                try {
+                    runJob(job);
+                } finally {
+                    runningJobs.remove(job.getSourceSha256());
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private void runJob(TranscodeJob job) {
+        String sha256 = job.getSourceSha256();
+        Path target = mediaStore.getRenditionDirectory(sha256);
+        Path work = target.resolveSibling(sha256 + ".tmp-" + UUID.randomUUID());
+        try {
+            Path source = Paths.get(job.getSourcePath());
+            if (!Files.isReadable(source)) {
+                // Removed since the claim; not this job's fault, so don't use up an attempt
+                transcodeDAO.requeue(sha256);
+                return;
+            }
+            VideoMetadataProbe.Metadata metadata = probe(source);
+            long timeoutSeconds = Math.max(MIN_TIMEOUT_SECONDS, metadata.getDurationMillis() / 1000 * 3);
+            Files.createDirectories(work);
+            Path log = work.resolve("ffmpeg.log");
+
+            List<VideoRendition> renditions = new ArrayList<>();
+            for (int[] rung : LADDER) {
+                int height = rung[0];
+                int bitrateKbps = rung[1];
+                if (!worthMaking(metadata, height, bitrateKbps)) {
+                    continue;
+                }
+                String name = height + "p";
+                runFfmpeg(encodeArguments(source, work.resolve(name + ".mp4"), height, bitrateKbps), log, timeoutSeconds);
+                transcodeDAO.heartbeat(sha256);
+
+                VideoRendition rendition = new VideoRendition(sha256, height, scaledWidth(metadata, height), bitrateKbps);
+                rendition.setFilePath(target.resolve(name + ".mp4").toString());
+                rendition.setSizeBytes(Files.size(work.resolve(name + ".mp4")));
+                renditions.add(rendition);
+            }
+
+            Files.deleteIfExists(log);
+            // Swap the finished directory in whole, so players never see a half-written rendition
+            FileUtil.deleteRecursively(target);
+            Files.move(work, target, StandardCopyOption.ATOMIC_MOVE);
+
+            if (!transcodeDAO.complete(sha256, target.toString(), renditions)) {
+                throw new IOException("Could not record renditions");
+            }
+            renditionCache.remove(job.getSourcePath());
+            completed.incrementAndGet();
+            renditionsMade.addAndGet(renditions.size());
+            System.out.println("Transcoding: " + renditions.size() + " renditions for " + source.getFileName());
+        } catch (InterruptedException e) {
+            // Shutting down: the job is handed back in shutdown()
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            boolean giveUp = job.getAttempts() >= MAX_ATTEMPTS;
+            (giveUp ? failed : retried).incrementAndGet();
+            System.err.println("Transcoding failed for " + sha256 + " (attempt " + job.getAttempts() + "): " + e.getMessage());
+            transcodeDAO.fail(sha256, e.getMessage(), RETRY_BASE_SECONDS << (job.getAttempts() - 1), giveUp);
+        } finally {
+            try {
+                FileUtil.deleteRecursively(work);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private List<String> encodeArguments(Path source, Path output, int height, int bitrateKbps) {
+        List<String> args = new ArrayList<>();
+        Collections.addAll(args, "-threads", String.valueOf(ffmpegThreads), "-i", source.toString(),
+                "-map", "0:v:0", "-map", "0:a:0?",
+                // Never upscale; -2 keeps the width even as H.264 requires
+                "-vf", "scale=-2:'min(" + height + ",ih)'",
+                "-c:v", "libx264", "-preset", "veryfast", "-profile:v", "main", "-pix_fmt", "yuv420p",
+                "-b:v", bitrateKbps + "k", "-maxrate", (bitrateKbps * 107 / 100) + "k", "-bufsize", (bitrateKbps * 2) + "k",
+                // Fixed GOP keeps seeking in the rendition fast
+                "-g", "48", "-keyint_min", "48", "-sc_threshold", "0",
+                "-c:a", "aac", "-b:a", AUDIO_BITRATE_KBPS + "k", "-ac", "2",
+                "-movflags", "+faststart", output.toString());
+        return args;
+    }
+
+    /**
+     * Whether a job's source video is on this machine (other jobs are left for the host that has it)
+     */
+    private static boolean isLocalFile(String path) {
+        return path != null && Files.isReadable(Paths.get(path));
+    }
+
+    /**
+     * Run ffmpeg at low priority; output goes to the log file, whose tail ends up in the error
+     */
+    private void runFfmpeg(List<String> args, Path log, long timeoutSeconds) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        if (niceCommand != null) {
+            Collections.addAll(command, niceCommand, "-n", "10");
+        }
+        Collections.addAll(command, ffmpegPath, "-hide_banner", "-nostdin", "-loglevel", "error", "-y");
+        command.addAll(args);
+
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        runningProcesses.add(process);
+        try {
+            if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                throw new IOException("ffmpeg timed out after " + timeoutSeconds + "s");
+            }
+            if (process.exitValue() != 0) {
+                throw new IOException("ffmpeg exited with " + process.exitValue() + ": " + tail(log));
+            }
+        } finally {
+            runningProcesses.remove(process);
+        }
+    }
+
+    /**
+     * Probe the source, treating unreadable headers as "unknown"
+     */
+    private static VideoMetadataProbe.Metadata probe(Path source) {
+        if (VideoMetadataProbe.canProbe(source.toString())) {
+            try {
+                return VideoMetadataProbe.probe(source);
+            } catch (IOException e) {
+                // ffmpeg reads more formats than the probe does
+            }
+        }
+        return new VideoMetadataProbe.Metadata(0, 0, 0, 0);
+    }
+
+    /**
+     * A rendition helps only if it is smaller than the source; with an unknown source only the lowest is made
+     */
+    private static boolean worthMaking(VideoMetadataProbe.Metadata metadata, int height, int bitrateKbps) {
+        if (metadata.getHeight() <= 0) {
+            return height == LADDER[0][0];
+        }
+        return height < metadata.getHeight()
+                && (metadata.getBitrateKbps() <= 0 || bitrateKbps < metadata.getBitrateKbps());
+    }
+
+    private static int scaledWidth(VideoMetadataProbe.Metadata metadata, int height) {
+        if (metadata.getWidth() <= 0 || metadata.getHeight() <= 0) {
+            return 0;
+        }
+        int width = (int) Math.round((double) metadata.getWidth() * height / metadata.getHeight());
+        return width + (width & 1);
+    }
+
+    private boolean systemBusy() {
+        double load = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+        // Negative where the platform does not report a load average
+        return load >= 0 && load > Runtime.getRuntime().availableProcessors() * MAX_LOAD_PER_CORE;
+    }
+
+    private boolean detectFfmpeg() {
+        try {
+            Process process = new ProcessBuilder(ffmpegPath, "-hide_banner", "-version")
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return false;
+            }
+            return process.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static String detectNice() {
+        for (String candidate : new String[]{"/usr/bin/nice", "/bin/nice"}) {
+            if (Files.isExecutable(Paths.get(candidate))) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static String tail(Path log) {
+        try {
+            List<String> lines = Files.readAllLines(log, StandardCharsets.UTF_8);
+            return String.join(" | ", lines.subList(Math.max(0, lines.size() - 3), lines.size()));
+        } catch (IOException e) {
+            return "(no output)";
+        }
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private void enqueueQuietly(String videoPath) {
+        try {
+            enqueue(videoPath);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            // Keep the scheduled task alive for the next run
+            e.printStackTrace();
+        }
+    }
+
+    private void backfillQuietly() {
+        try {
+            int queued = backfill();
+            if (queued > 0) {
+                System.out.println("Transcoding: queued " + queued + " videos");
+                poll();
+            }
+        } catch (RuntimeException e) {
+            // Keep the scheduled task alive for the next run
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Renditions of one video as loaded from the database
+     */
+    private static class CachedRenditions {
+        private final List<VideoRendition> renditions;
+        private final long loadedAt = System.currentTimeMillis();
+
+        CachedRenditions(List<VideoRendition> renditions) {
+            this.renditions = renditions;
+        }
+    }
+
+    /**
+     * Counters for monitoring the transcoder
+     */
+    public static class TranscodeStats {
+        private final long completed;
+        private final long renditions;
+        private final long retried;
+        private final long failed;
+        private final long throttled;
+        private final int running;
+
+        public TranscodeStats(long completed, long renditions, long retried, long failed, long throttled, int running) {
+            this.completed = completed;
+            this.renditions = renditions;
+            this.retried = retried;
+            this.failed = failed;
+            this.throttled = throttled;
+            this.running = running;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public long getRenditions() {
+            return renditions;
+        }
+
+        public long getRetried() {
+            return retried;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        /**
+         * Polls that started nothing because the system was busy
+         */
+        public long getThrottled() {
+            return throttled;
+        }
+
+        public int getRunning() {
+            return running;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("completed=%d, renditions=%d, retried=%d, failed=%d, throttled=%d, running=%d",
+                    completed, renditions, retried, failed, throttled, running);
+        }
+    }
+}
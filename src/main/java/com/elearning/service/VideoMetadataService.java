@@ -0,0 +1,216 @@
+package com.elearning.service;
+
+import com.elearning.dao.LessonDAO;
+import com.elearning.dao.MediaObjectDAO;
+import com.elearning.model.DomainEvent;
+import com.elearning.model.MediaObject;
+import com.elearning.util.EventBus;
+import com.elearning.util.VideoMetadataProbe;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background prober for lesson video metadata
+ * When a lesson gets a new video, its duration, resolution and bitrate are read
+ * from the MP4/MOV headers on a background thread and stored on the lesson; a
+ * known duration also fills in duration_minutes, so course totals no longer
+ * depend on what was typed in. Results for stored media are cached on the
+ * media_objects row, so a video shared by several lessons (same content hash)
+ * is probed once. A daily pass picks up lessons that were missed.
+ * Singleton pattern for single instance across application
+ */
+public class VideoMetadataService {
+    private static final VideoMetadataProbe.Metadata UNKNOWN = new VideoMetadataProbe.Metadata(0, 0, 0, 0);
+    private static final int BACKFILL_PAGE_SIZE = 200;
+    private static final long INITIAL_DELAY_MINUTES = 2;
+    private static final long INTERVAL_HOURS = 24;
+
+    private final LessonDAO lessonDAO;
+    private final MediaObjectDAO mediaObjectDAO;
+    private final MediaStore mediaStore;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong probed = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong unreadable = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    // Private constructor to prevent direct instantiation
+    private VideoMetadataService() {
+        this.lessonDAO = new LessonDAO();
+        this.mediaObjectDAO = new MediaObjectDAO();
+        this.mediaStore = MediaStore.getInstance();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "video-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        EventBus.getInstance().subscribe(DomainEvent.LessonVideoChanged.class, event ->
+                scheduler.execute(() -> probeLessonQuietly(event.getLessonId(), event.getVideoPath())));
+    }
+
+    // Static inner holder class - lazily loaded and thread-safe
+    private static class SingletonHolder {
+        private static final VideoMetadataService INSTANCE = new VideoMetadataService();
+    }
+
+    // Public accessor method
+    public static VideoMetadataService getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Schedule the daily pass over lessons without metadata (first run shortly after startup)
+     */
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::backfillQuietly,
+                TimeUnit.MINUTES.toSeconds(INITIAL_DELAY_MINUTES),
+                TimeUnit.HOURS.toSeconds(INTERVAL_HOURS), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Probe a lesson's video and store the result on the lesson
+     * Returns null if the file is missing (the lesson is retried on the next pass).
+     * Formats the probe cannot read are recorded with no duration so they are not retried.
+     */
+    public VideoMetadataProbe.Metadata probeLesson(int lessonId, String videoPath) {
+        VideoMetadataProbe.Metadata metadata = lookup(videoPath);
+        if (metadata != null) {
+            lessonDAO.updateVideoMetadata(lessonId, videoPath, metadata);
+        }
+        return metadata;
+    }
+
+    /**
+     * Probe every lesson that has a video but no metadata yet
+     * Returns the number of lessons probed.
+     */
+    public int backfill() {
+        int count = 0;
+        int afterId = 0;
+        while (true) {
+            Map<Integer, String> page = lessonDAO.findUnprobedVideos(afterId, BACKFILL_PAGE_SIZE);
+            for (Map.Entry<Integer, String> entry : page.entrySet()) {
+                afterId = entry.getKey();
+                if (probeLesson(entry.getKey(), entry.getValue()) != null) {
+                    count++;
+                }
+            }
+            if (page.size() < BACKFILL_PAGE_SIZE) {
+                return count;
+            }
+        }
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public ProbeStats getStats() {
+        return new ProbeStats(probed.get(), cacheHits.get(), unreadable.get(), failures.get());
+    }
+
+    /**
+     * Metadata for a video file, from the content-hash cache when the file is stored media
+     */
+    private VideoMetadataProbe.Metadata lookup(String videoPath) {
+        MediaObject object = mediaStore.isManaged(videoPath) ? mediaObjectDAO.findByPath(videoPath) : null;
+        if (object != null && object.getDurationMs() != null) {
+            cacheHits.incrementAndGet();
+            return new VideoMetadataProbe.Metadata(object.getDurationMs(), object.getVideoWidth(),
+                    object.getVideoHeight(), object.getBitrateKbps());
+        }
+
+        Path file = Paths.get(videoPath);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        VideoMetadataProbe.Metadata metadata = UNKNOWN;
+        if (VideoMetadataProbe.canProbe(videoPath)) {
+            try {
+                metadata = VideoMetadataProbe.probe(file);
+                probed.incrementAndGet();
+            } catch (IOException e) {
+                unreadable.incrementAndGet();
+                System.err.println("Could not read video metadata from " + videoPath + ": " + e.getMessage());
+            }
+        }
+
+        if (object != null) {
+            mediaObjectDAO.saveMetadata(object.getSha256(), metadata);
+        }
+        return metadata;
+    }
+
+    private void probeLessonQuietly(int lessonId, String videoPath) {
+        try {
+            probeLesson(lessonId, videoPath);
+        } catch (RuntimeException e) {
+            // Keep the probe thread alive for the next video
+            failures.incrementAndGet();
+            e.printStackTrace();
+        }
+    }
+
+    private void backfillQuietly() {
+        try {
+            int count = backfill();
+            if (count > 0) {
+                System.out.println("Video metadata: probed " + count + " lessons (" + getStats() + ")");
+            }
+        } catch (RuntimeException e) {
+            // Keep the scheduled task alive for the next run
+            failures.incrementAndGet();
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Counters for monitoring the prober
+     */
+    public static class ProbeStats {
+        private final long probed;
+        private final long cacheHits;
+        private final long unreadable;
+        private final long failures;
+
+        public ProbeStats(long probed, long cacheHits, long unreadable, long failures) {
+            this.probed = probed;
+            this.cacheHits = cacheHits;
+            this.unreadable = unreadable;
+            this.failures = failures;
+        }
+
+        public long getProbed() {
+            return probed;
+        }
+
+        public long getCacheHits() {
+            return cacheHits;
+        }
+
+        public long getUnreadable() {
+            return unreadable;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("probed=%d, cacheHits=%d, unreadable=%d, failures=%d",
+                    probed, cacheHits, unreadable, failures);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.elearning.service;
+
+import com.elearning.model.MediaObject;
+import com.elearning.util.ChunkedFileCopy;
+
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background executor for video uploads
+ * Uploads run off the UI thread into the MediaStore (chunked, checksummed,
+ * deduplicated by content); callers get a Future to wait on or cancel.
+ * Cancelling interrupts the copy and keeps its staging file, so uploading the
+ * same file again resumes instead of starting over.
+ * Singleton pattern for single instance across application
+ */
+public class VideoUploadService {
+    private static final int UPLOAD_THREADS = 2;
+
+    private final MediaStore mediaStore;
+    private final ExecutorService executor;
+
+    private final AtomicLong uploads = new AtomicLong();
+    private final AtomicLong bytesUploaded = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    // Private constructor to prevent direct instantiation
+    private VideoUploadService() {
+        this.mediaStore = MediaStore.getInstance();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(UPLOAD_THREADS, r -> {
+            Thread thread = new Thread(r, "video-upload-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Static inner holder class - lazily loaded and thread-safe
+    private static class SingletonHolder {
+        private static final VideoUploadService INSTANCE = new VideoUploadService();
+    }
+
+    // Public accessor method
+    public static VideoUploadService getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Start storing a file in the background; the result holds one reference
+     * The listener is called on the upload thread after every chunk.
+     */
+    public Future<MediaObject> upload(Path source, ChunkedFileCopy.ProgressListener listener) {
+        return executor.submit(() -> {
+            try {
+                MediaObject object = mediaStore.store(source, listener);
+                uploads.incrementAndGet();
+                bytesUploaded.addAndGet(object.getSizeBytes());
+                return object;
+            } catch (Exception e) {
+                failures.incrementAndGet();
+                throw e;
+            }
+        });
+    }
+
+    public UploadStats getStats() {
+        return new UploadStats(uploads.get(), bytesUploaded.get(), failures.get());
+    }
+
+    /**
+     * Counters for monitoring uploads
+     */
+    public static class UploadStats {
+        private final long uploads;
+        private final long bytesUploaded;
+        private final long failures;
+
+        public UploadStats(long uploads, long bytesUploaded, long failures) {
+            this.uploads = uploads;
+            this.bytesUploaded = bytesUploaded;
+            this.failures = failures;
+        }
+
+        public long getUploads() {
+            return uploads;
+        }
+
+        public long getBytesUploaded() {
+            return bytesUploaded;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("uploads=%d, bytes=%d, failures=%d", uploads, bytesUploaded, failures);
+        }
+    }
+}
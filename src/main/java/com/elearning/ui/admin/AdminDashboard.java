@@ -2,9 +2,11 @@ package com.elearning.ui.admin;
 
 import com.elearning.model.Course;
 import com.elearning.model.User;
+import com.elearning.service.ActiveUserService;
 import com.elearning.service.AnalyticsService;
 import com.elearning.service.CourseService;
 import com.elearning.service.LoginLogService;
+import com.elearning.service.StorageAuditor;
 import com.elearning.service.UserService;
 import com.elearning.ui.components.LoginCalendarPanel;
 import com.elearning.ui.components.ModernButton;
@@ -16,6 +18,7 @@ import com.elearning.ui.components.UITheme;
 import com.elearning.util.CourseCardImageUtil;
 import com.elearning.util.ChartUtil;
 import com.elearning.util.SessionManager;
+import com.elearning.util.VideoUtil;
 import org.jfree.chart.ChartPanel;
 
 import javax.swing.*;
@@ -54,6 +57,11 @@ public class AdminDashboard extends JFrame {
     private LoginCalendarPanel loginCalendarPanel;
     private JLabel calendarMonthLabel;
     private JLabel calendarSummaryLabel;
+    private DefaultTableModel storageUsageModel;
+    private DefaultTableModel storageOrphansModel;
+    private JLabel storageSummaryLabel;
+    private JButton storageScanButton;
+    private JButton storageReclaimButton;
 
     // Date filter components
     private JSpinner fromDateSpinner;
@@ -106,6 +114,7 @@ public class AdminDashboard extends JFrame {
         contentPanel.add(createUserManagementPanel(), "User Management");
         contentPanel.add(createStatisticsPanel(), "Statistics");
         contentPanel.add(createCalendarPanel(), "My Calendar");
+        contentPanel.add(createStoragePanel(), "Storage");
 
         contentArea.add(sidebar, BorderLayout.WEST);
         contentArea.add(contentPanel, BorderLayout.CENTER);
@@ -143,6 +152,7 @@ public class AdminDashboard extends JFrame {
         sidebar.add(createMenuItem("All Courses", "All Courses"));
         sidebar.add(createMenuItem("User Management", "User Management"));
         sidebar.add(createMenuItem("Statistics", "Statistics"));
+        sidebar.add(createMenuItem("Storage", "Storage"));
         // sidebar.add(createMenuItem("My Calendar", "My Calendar"));
 
         // Push logout button to bottom
@@ -544,6 +554,26 @@ public class AdminDashboard extends JFrame {
             mainContent.add(trendChartsPanel);
             mainContent.add(Box.createRigidArea(new Dimension(0, 15)));
 
+            // Active users (estimated from daily sketches)
+            JPanel activeUsersPanel = new JPanel(new BorderLayout());
+            activeUsersPanel.setBackground(Color.WHITE);
+            activeUsersPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, 280));
+
+            JLabel activeUsersTitle = new JLabel("Active Users (DAU / WAU / MAU)");
+            activeUsersTitle.setFont(new Font("Segoe UI", Font.BOLD, 12));
+            activeUsersTitle.setForeground(UITheme.TEXT);
+            activeUsersTitle.setBorder(BorderFactory.createEmptyBorder(0, 0, 5, 0));
+            activeUsersPanel.add(activeUsersTitle, BorderLayout.NORTH);
+
+            JLabel activeUsersLoading = new JLabel("Loading active users...", SwingConstants.CENTER);
+            activeUsersLoading.setForeground(UITheme.MUTED_TEXT);
+            activeUsersLoading.setPreferredSize(new Dimension(600, 260));
+            activeUsersPanel.add(activeUsersLoading, BorderLayout.CENTER);
+            loadActiveUsersTrend(activeUsersPanel, activeUsersTitle, activeUsersLoading);
+
+            mainContent.add(activeUsersPanel);
+            mainContent.add(Box.createRigidArea(new Dimension(0, 15)));
+
             // Detailed statistics card at the bottom
             JPanel detailsCardWrapper = new JPanel(new BorderLayout());
             detailsCardWrapper.setBackground(Color.WHITE);
@@ -574,6 +604,54 @@ public class AdminDashboard extends JFrame {
         return panel;
     }
 
+    /**
+     * Load the DAU/WAU/MAU trend in the background (it may backfill sketches) and show it when ready
+     */
+    private void loadActiveUsersTrend(JPanel panel, JLabel title, JLabel loading) {
+        LocalDate from = filterFromDate;
+        LocalDate to = filterToDate;
+        SwingWorker<Map<LocalDate, ActiveUserService.ActiveUserCounts>, Void> worker = new SwingWorker<>() {
+            @Override
+            protected Map<LocalDate, ActiveUserService.ActiveUserCounts> doInBackground() {
+                return ActiveUserService.getInstance().getTrend(from, to);
+            }
+
+            @Override
+            protected void done() {
+                Map<LocalDate, ActiveUserService.ActiveUserCounts> activeTrend;
+                try {
+                    activeTrend = get();
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                    loading.setText("Could not load active users: " + ex.getMessage());
+                    return;
+                }
+
+                if (!activeTrend.isEmpty()) {
+                    List<ActiveUserService.ActiveUserCounts> days = new java.util.ArrayList<>(activeTrend.values());
+                    ActiveUserService.ActiveUserCounts latest = days.get(days.size() - 1);
+                    String text = String.format("Active Users (DAU / WAU / MAU): %d / %d / %d",
+                            latest.getDailyActive(), latest.getWeeklyActive(), latest.getMonthlyActive());
+                    LocalDate shownFrom = days.get(0).getDay();
+                    if (shownFrom.isAfter(from)) {
+                        // The trend is capped; say which part of the chosen range is plotted
+                        text += String.format(" - showing the last %d days (%s to %s)",
+                                ActiveUserService.MAX_TREND_DAYS, shownFrom, latest.getDay());
+                    }
+                    title.setText(text);
+                }
+
+                ChartPanel activeUsersChart = ChartUtil.createActiveUsersTrendChart(activeTrend);
+                activeUsersChart.setPreferredSize(new Dimension(600, 260));
+                panel.remove(loading);
+                panel.add(activeUsersChart, BorderLayout.CENTER);
+                panel.revalidate();
+                panel.repaint();
+            }
+        };
+        worker.execute();
+    }
+
     private JPanel createStatCard(String title, String value, Color color) {
         JPanel card = new JPanel(new BorderLayout());
         card.setBackground(Color.WHITE);
@@ -788,6 +866,176 @@ public class AdminDashboard extends JFrame {
         }
     }
 
+    private JPanel createStoragePanel() {
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBackground(Color.WHITE);
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        // Top panel with title, summary and actions
+        JPanel topPanel = new JPanel(new BorderLayout(10, 5));
+        topPanel.setBackground(Color.WHITE);
+        JLabel titleLabel = new JLabel("Storage");
+        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 18));
+        titleLabel.setForeground(UITheme.TEXT);
+
+        storageSummaryLabel = new JLabel("Run a scan to see storage usage");
+        storageSummaryLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        storageSummaryLabel.setForeground(UITheme.TEXT);
+
+        JPanel actionsPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 8, 0));
+        actionsPanel.setBackground(Color.WHITE);
+        storageScanButton = new JButton("Scan (Dry Run)");
+        storageScanButton.setBackground(UITheme.PRIMARY);
+        storageScanButton.setForeground(Color.WHITE);
+        storageScanButton.setFocusPainted(false);
+        storageScanButton.setBorderPainted(false);
+        storageScanButton.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        storageScanButton.addActionListener(e -> runStorageAudit(false));
+
+        storageReclaimButton = new JButton("Reclaim Orphans");
+        storageReclaimButton.setBackground(UITheme.DANGER);
+        storageReclaimButton.setForeground(Color.WHITE);
+        storageReclaimButton.setFocusPainted(false);
+        storageReclaimButton.setBorderPainted(false);
+        storageReclaimButton.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        storageReclaimButton.addActionListener(e -> {
+            int confirm = JOptionPane.showConfirmDialog(this,
+                    "Delete files that no lesson, course or certificate references?\n" +
+                    "Files changed in the last 24 hours are kept.",
+                    "Reclaim Orphaned Files", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+            if (confirm == JOptionPane.YES_OPTION) {
+                runStorageAudit(true);
+            }
+        });
+
+        actionsPanel.add(storageScanButton);
+        actionsPanel.add(storageReclaimButton);
+
+        topPanel.add(titleLabel, BorderLayout.WEST);
+        topPanel.add(actionsPanel, BorderLayout.EAST);
+        topPanel.add(storageSummaryLabel, BorderLayout.SOUTH);
+
+        // Per-course usage and orphan tables
+        storageUsageModel = new DefaultTableModel(new String[]{"Course ID", "Title", "Files", "Size"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        storageOrphansModel = new DefaultTableModel(new String[]{"Path", "Folder", "Size", "Last Modified", "Reason"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+
+        JPanel tablesPanel = new JPanel(new GridLayout(2, 1, 0, 10));
+        tablesPanel.setBackground(Color.WHITE);
+        tablesPanel.add(createStorageTableSection("Usage by Course", storageUsageModel));
+        tablesPanel.add(createStorageTableSection("Orphaned Files", storageOrphansModel));
+
+        panel.add(topPanel, BorderLayout.NORTH);
+        panel.add(tablesPanel, BorderLayout.CENTER);
+
+        StorageAuditor.StorageReport lastReport = StorageAuditor.getInstance().getLastReport();
+        if (lastReport != null) {
+            showStorageReport(lastReport);
+        }
+        return panel;
+    }
+
+    private JPanel createStorageTableSection(String title, DefaultTableModel model) {
+        JPanel section = new JPanel(new BorderLayout(0, 5));
+        section.setBackground(Color.WHITE);
+
+        JLabel label = new JLabel(title);
+        label.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        label.setForeground(UITheme.TEXT);
+
+        JTable table = new JTable(model);
+        table.setBackground(Color.WHITE);
+        table.setForeground(UITheme.TEXT);
+        table.setGridColor(UITheme.BORDER);
+        table.setRowHeight(26);
+
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setBackground(Color.WHITE);
+        scrollPane.getViewport().setBackground(Color.WHITE);
+
+        section.add(label, BorderLayout.NORTH);
+        section.add(scrollPane, BorderLayout.CENTER);
+        return section;
+    }
+
+    private void runStorageAudit(boolean reclaim) {
+        storageScanButton.setEnabled(false);
+        storageReclaimButton.setEnabled(false);
+        storageSummaryLabel.setText(reclaim ? "Reclaiming orphaned files..." : "Scanning storage...");
+
+        // Walking the media folders can take a while, keep it off the UI thread
+        SwingWorker<StorageAuditor.StorageReport, Void> worker = new SwingWorker<>() {
+            @Override
+            protected StorageAuditor.StorageReport doInBackground() {
+                return StorageAuditor.getInstance().audit(reclaim);
+            }
+
+            @Override
+            protected void done() {
+                storageScanButton.setEnabled(true);
+                storageReclaimButton.setEnabled(true);
+                try {
+                    showStorageReport(get());
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                    storageSummaryLabel.setText("Storage scan failed: " + ex.getMessage());
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    private void showStorageReport(StorageAuditor.StorageReport report) {
+        storageUsageModel.setRowCount(0);
+        for (StorageAuditor.CourseUsage usage : report.getCourseUsage()) {
+            storageUsageModel.addRow(new Object[]{
+                    usage.getCourseId(),
+                    usage.getTitle(),
+                    usage.getFiles(),
+                    VideoUtil.formatFileSize(usage.getBytes())
+            });
+        }
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        storageOrphansModel.setRowCount(0);
+        for (StorageAuditor.OrphanFile orphan : report.getOrphans()) {
+            storageOrphansModel.addRow(new Object[]{
+                    orphan.getPath(),
+                    orphan.getRoot(),
+                    VideoUtil.formatFileSize(orphan.getSize()),
+                    formatter.format(new Date(orphan.getLastModified()).toInstant().atZone(ZoneId.systemDefault())),
+                    orphan.getReason()
+            });
+        }
+
+        StringBuilder summary = new StringBuilder();
+        if (report.isFailed()) {
+            summary.append("Database lookup failed, nothing was deleted. ");
+        }
+        summary.append(report.getScannedFiles()).append(" files, ")
+                .append(VideoUtil.formatFileSize(report.getDiskBytes())).append(" on disk");
+        for (Map.Entry<String, Long> entry : report.getBytesByRoot().entrySet()) {
+            summary.append(" | ").append(entry.getKey()).append(": ")
+                    .append(VideoUtil.formatFileSize(entry.getValue()));
+        }
+        summary.append(" | ").append(report.getOrphans().size()).append(" orphaned (")
+                .append(VideoUtil.formatFileSize(report.getOrphanBytes())).append(")");
+        if (!report.isDryRun()) {
+            summary.append(", reclaimed ").append(report.getReclaimedFiles()).append(" (")
+                    .append(VideoUtil.formatFileSize(report.getReclaimedBytes())).append(")");
+        }
+        storageSummaryLabel.setText(summary.toString());
+    }
+
     private JPanel createDateFilterPanel() {
         JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 15, 10));
         filterPanel.setBackground(Color.WHITE);
@@ -993,13 +1241,13 @@ public class AdminDashboard extends JFrame {
         JLabel imageLabel = new JLabel();
         imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
         imageLabel.setVerticalAlignment(SwingConstants.CENTER);
-        ImageIcon icon = CourseCardImageUtil.loadCourseThumbnail(
+        CourseCardImageUtil.applyCourseThumbnail(
+                imageLabel,
                 course.getThumbnailPath(),
                 course.getTitle(),
                 280,
                 140
         );
-        imageLabel.setIcon(icon);
         imagePanel.add(imageLabel, BorderLayout.CENTER);
 
         JPanel body = new JPanel();
@@ -13,10 +13,14 @@ import java.util.List;
  * Reusable panel for displaying and posting comments on lessons
  */
 public class CommentsPanel extends JPanel {
+    private static final int PAGE_SIZE = 20;
+    private static final int MAX_REPLY_INDENT_DEPTH = 3;
+
     private final CommentService commentService;
     private final User currentUser;
     private final int lessonId;
     private JPanel commentsListPanel;
+    private Comment lastRoot; // Keyset cursor for "Load more"
 
     public CommentsPanel(User currentUser, int lessonId) {
         this.commentService = CommentService.getInstance();
@@ -120,31 +124,13 @@ public class CommentsPanel extends JPanel {
     private void loadComments() {
         commentsListPanel.removeAll();
 
+        lastRoot = null;
         try {
-            List<Comment> comments = commentService.getTopLevelComments(lessonId);
-
-            if (comments.isEmpty()) {
+            if (!appendPage()) {
                 JLabel noCommentsLabel = new JLabel("No comments yet. Be the first to comment!");
                 noCommentsLabel.setForeground(new Color(154, 164, 178));
                 noCommentsLabel.setBorder(BorderFactory.createEmptyBorder(20, 10, 20, 10));
                 commentsListPanel.add(noCommentsLabel);
-            } else {
-                for (Comment comment : comments) {
-                    commentsListPanel.add(createCommentCard(comment));
-                    commentsListPanel.add(Box.createVerticalStrut(10));
-
-                    // Load replies
-                    List<Comment> replies = commentService.getReplies(comment.getId());
-                    for (Comment reply : replies) {
-                        JPanel replyCard = createCommentCard(reply);
-                        replyCard.setBorder(BorderFactory.createCompoundBorder(
-                            BorderFactory.createEmptyBorder(0, 30, 0, 0),
-                            replyCard.getBorder()
-                        ));
-                        commentsListPanel.add(replyCard);
-                        commentsListPanel.add(Box.createVerticalStrut(5));
-                    }
-                }
             }
         } catch (Exception e) {
             JLabel errorLabel = new JLabel("Error loading comments: " + e.getMessage());
@@ -156,6 +142,56 @@ public class CommentsPanel extends JPanel {
         commentsListPanel.repaint();
     }
 
+    /**
+     * Load the next page of threads (one query) and append it
+     * Returns false when the page was empty
+     */
+    private boolean appendPage() {
+        List<Comment> threads = commentService.getCommentThreads(lessonId, lastRoot, PAGE_SIZE);
+        if (threads.isEmpty()) {
+            return false;
+        }
+
+        for (Comment comment : threads) {
+            commentsListPanel.add(createCommentCard(comment));
+            commentsListPanel.add(Box.createVerticalStrut(10));
+            addReplies(comment, 1);
+        }
+        lastRoot = threads.get(threads.size() - 1);
+
+        if (threads.size() == PAGE_SIZE) {
+            JButton loadMoreButton = new JButton("Load more comments");
+            loadMoreButton.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+            loadMoreButton.addActionListener(e -> {
+                commentsListPanel.remove(loadMoreButton);
+                try {
+                    appendPage();
+                } catch (Exception ex) {
+                    JLabel errorLabel = new JLabel("Error loading comments: " + ex.getMessage());
+                    errorLabel.setForeground(Color.RED);
+                    commentsListPanel.add(errorLabel);
+                }
+                commentsListPanel.revalidate();
+                commentsListPanel.repaint();
+            });
+            commentsListPanel.add(loadMoreButton);
+        }
+        return true;
+    }
+
+    private void addReplies(Comment parent, int depth) {
+        for (Comment reply : parent.getReplies()) {
+            JPanel replyCard = createCommentCard(reply);
+            replyCard.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createEmptyBorder(0, 30 * Math.min(depth, MAX_REPLY_INDENT_DEPTH), 0, 0),
+                replyCard.getBorder()
+            ));
+            commentsListPanel.add(replyCard);
+            commentsListPanel.add(Box.createVerticalStrut(5));
+            addReplies(reply, depth + 1);
+        }
+    }
+
     private JPanel createCommentCard(Comment comment) {
         JPanel card = new JPanel(new BorderLayout(5, 5));
         card.setBackground(UITheme.BACKGROUND);
@@ -123,7 +123,8 @@ public class LessonDialog extends JDialog {
         if (result == JFileChooser.APPROVE_OPTION) {
             File selectedFile = fileChooser.getSelectedFile();
             selectedVideoPath = selectedFile.getAbsolutePath();
-            videoInfoLabel.setText(selectedFile.getName());
+            videoInfoLabel.setText(VideoUtil.getVideoInfo(selectedVideoPath));
+            VideoUtil.fillDurationFromVideo(durationSpinner, selectedVideoPath);
         }
     }
 
@@ -210,56 +211,7 @@ public class LessonDialog extends JDialog {
      * @return Absolute path to stored video, or null if copy failed
      */
     private String copyVideoToStorage(String sourcePath, int courseId, int lessonId) {
-        try {
-            File sourceFile = new File(sourcePath);
-            if (!sourceFile.exists()) {
-                JOptionPane.showMessageDialog(this,
-                    "Selected video file not found: " + sourcePath,
-                    "File Error",
-                    JOptionPane.ERROR_MESSAGE);
-                return null;
-            }
-
-            // Create directory structure: videos/course_X/
-            String destDir = "videos/course_" + courseId + "/";
-            java.nio.file.Path dirPath = java.nio.file.Paths.get(destDir);
-            java.nio.file.Files.createDirectories(dirPath);
-
-            // Generate unique filename with timestamp
-            String timestamp = java.time.LocalDateTime.now()
-                .format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String extension = getFileExtension(sourceFile.getName());
-            String filename = "lesson_" + lessonId + "_" + timestamp + extension;
-            java.nio.file.Path destination = java.nio.file.Paths.get(destDir + filename);
-
-            // Copy file to destination
-            java.nio.file.Files.copy(sourceFile.toPath(), destination,
-                java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-
-            System.out.println("Video copied to: " + destination.toAbsolutePath());
-            return destination.toAbsolutePath().toString();
-
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this,
-                "Failed to copy video: " + e.getMessage(),
-                "Upload Error",
-                JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
-            return null;
-        }
-    }
-
-    /**
-     * Get file extension including the dot
-     * @param filename File name
-     * @return Extension (e.g., ".mp4"), or empty string if no extension
-     */
-    private String getFileExtension(String filename) {
-        int lastDot = filename.lastIndexOf('.');
-        if (lastDot > 0 && lastDot < filename.length() - 1) {
-            return filename.substring(lastDot);
-        }
-        return "";
+        return VideoUtil.uploadVideo(this, new File(sourcePath), courseId, lessonId);
     }
 
     public boolean isSuccess() { return success; }
@@ -0,0 +1,248 @@
+package com.elearning.ui.components;
+
+import com.elearning.service.MediaServer;
+import javafx.application.Platform;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+import javafx.scene.media.MediaView;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared JavaFX media resources for VideoPlayerPanel
+ * The FX toolkit is started once in the background at application startup, so
+ * opening the first lesson does not pay for it. Media players are kept by video
+ * path: the next lesson's player is created while the current one plays (Media
+ * parsing and buffering happen ahead of time), and the player a panel lets go
+ * of is kept for going back. At most MAX_IDLE_PLAYERS idle players are kept,
+ * least recently used ones are disposed. One MediaView is pooled between panels.
+ * Pool state is only touched on the FX application thread.
+ * Singleton pattern for single instance across application
+ */
+public class MediaPlayerPool {
+    private static final int MAX_IDLE_PLAYERS = 3;
+
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private final AtomicBoolean warmUpStarted = new AtomicBoolean();
+    // Access order, so iteration starts at the least recently used player
+    private final LinkedHashMap<String, MediaPlayer> idlePlayers = new LinkedHashMap<>(16, 0.75f, true);
+    private MediaView idleView;
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong prefetched = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    // Private constructor to prevent direct instantiation
+    private MediaPlayerPool() {
+    }
+
+    // Static inner holder class - lazily loaded and thread-safe
+    private static class SingletonHolder {
+        private static final MediaPlayerPool INSTANCE = new MediaPlayerPool();
+    }
+
+    // Public accessor method
+    public static MediaPlayerPool getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Start the FX toolkit on a background thread (only the first call does anything)
+     */
+    public void warmUp() {
+        if (!warmUpStarted.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                Platform.startup(() -> ready.complete(null));
+            } catch (IllegalStateException e) {
+                // Already started, e.g. by a JFXPanel created first
+                Platform.runLater(() -> ready.complete(null));
+            } catch (RuntimeException | Error e) {
+                System.err.println("JavaFX could not be started: " + e.getMessage());
+                ready.completeExceptionally(e);
+                return;
+            }
+            // Keep the toolkit alive when the last video window closes
+            Platform.setImplicitExit(false);
+        }, "fx-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Run an action on the FX thread once the toolkit is up
+     */
+    public void whenReady(Runnable action) {
+        warmUp();
+        ready.thenRun(() -> Platform.runLater(action));
+    }
+
+    /**
+     * Create the player for a video ahead of time (no-op if one is already idle)
+     */
+    public void prefetch(String videoPath) {
+        if (videoPath == null || videoPath.isEmpty() || !MediaServer.getInstance().isPlayable(videoPath)) {
+            return;
+        }
+        String key = key(videoPath);
+        whenReady(() -> {
+            if (idlePlayers.containsKey(key)) {
+                return;
+            }
+            try {
+                idlePlayers.put(key, newPlayer(videoPath));
+                prefetched.incrementAndGet();
+                trim();
+            } catch (RuntimeException e) {
+                // Unsupported format; the panel reports it when the lesson is opened
+                System.err.println("Could not prefetch " + videoPath + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * A player for the video: an idle or prefetched one if present, otherwise a new one
+     * FX thread only. Throws MediaException for media JavaFX cannot open.
+     */
+    MediaPlayer acquire(String videoPath) {
+        MediaPlayer player = idlePlayers.remove(key(videoPath));
+        if (player != null) {
+            if (player.getError() == null && player.getStatus() != MediaPlayer.Status.HALTED
+                    && player.getStatus() != MediaPlayer.Status.DISPOSED) {
+                reused.incrementAndGet();
+                return player;
+            }
+            player.dispose();
+        }
+        return newPlayer(videoPath);
+    }
+
+    /**
+     * Take back a player a panel no longer shows (FX thread only)
+     */
+    void release(String videoPath, MediaPlayer player) {
+        if (player == null) {
+            return;
+        }
+        player.stop();
+        if (videoPath == null || player.getError() != null) {
+            player.dispose();
+            return;
+        }
+        MediaPlayer previous = idlePlayers.put(key(videoPath), player);
+        if (previous != null && previous != player) {
+            previous.dispose();
+        }
+        trim();
+    }
+
+    /**
+     * The pooled MediaView, or a new one if it is in use (FX thread only)
+     */
+    MediaView acquireView() {
+        MediaView view = idleView;
+        idleView = null;
+        if (view == null) {
+            view = new MediaView();
+            view.setPreserveRatio(true);
+            view.setSmooth(true);
+        }
+        return view;
+    }
+
+    /**
+     * Return a MediaView to the pool (FX thread only)
+     */
+    void releaseView(MediaView view) {
+        if (view == null) {
+            return;
+        }
+        view.setMediaPlayer(null);
+        view.fitWidthProperty().unbind();
+        view.fitHeightProperty().unbind();
+        idleView = view;
+    }
+
+    /**
+     * Dispose every idle player (for example when memory is tight)
+     */
+    public void clear() {
+        whenReady(() -> {
+            for (MediaPlayer player : idlePlayers.values()) {
+                player.dispose();
+            }
+            idlePlayers.clear();
+        });
+    }
+
+    public PoolStats getStats() {
+        return new PoolStats(created.get(), reused.get(), prefetched.get(), evicted.get());
+    }
+
+    private MediaPlayer newPlayer(String videoPath) {
+        MediaPlayer player = new MediaPlayer(new Media(MediaServer.getInstance().urlFor(videoPath)));
+        created.incrementAndGet();
+        return player;
+    }
+
+    private void trim() {
+        Iterator<Map.Entry<String, MediaPlayer>> it = idlePlayers.entrySet().iterator();
+        while (idlePlayers.size() > MAX_IDLE_PLAYERS && it.hasNext()) {
+            it.next().getValue().dispose();
+            it.remove();
+            evicted.incrementAndGet();
+        }
+    }
+
+    private static String key(String videoPath) {
+        return new File(videoPath).getAbsoluteFile().toPath().normalize().toString();
+    }
+
+    /**
+     * Counters for monitoring the pool
+     */
+    public static class PoolStats {
+        private final long created;
+        private final long reused;
+        private final long prefetched;
+        private final long evicted;
+
+        public PoolStats(long created, long reused, long prefetched, long evicted) {
+            this.created = created;
+            this.reused = reused;
+            this.prefetched = prefetched;
+            this.evicted = evicted;
+        }
+
+        public long getCreated() {
+            return created;
+        }
+
+        public long getReused() {
+            return reused;
+        }
+
+        public long getPrefetched() {
+            return prefetched;
+        }
+
+        public long getEvicted() {
+            return evicted;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("created=%d, reused=%d, prefetched=%d, evicted=%d",
+                    created, reused, prefetched, evicted);
+        }
+    }
+}
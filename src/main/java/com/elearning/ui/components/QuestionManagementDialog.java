@@ -433,6 +433,8 @@ class QuestionEditDialog extends JDialog {
     // Form components
     private JTextArea questionTextArea;
     private JSpinner pointsSpinner;
+    private JTextField topicField;
+    private JComboBox<String> difficultyCombo;
     private JTextField[] optionFields = new JTextField[4];
     private JRadioButton[] correctButtons = new JRadioButton[4];
     private ButtonGroup correctGroup;
@@ -513,6 +515,34 @@ class QuestionEditDialog extends JDialog {
 
         row++;
 
+        // Topic (question bank grouping)
+        gbc.gridx = 0; gbc.gridy = row; gbc.weightx = 0; gbc.fill = GridBagConstraints.NONE;
+        JLabel topicLabel = new JLabel("Topic:");
+        topicLabel.setFont(new Font("Segoe UI", Font.BOLD, 13));
+        formPanel.add(topicLabel, gbc);
+
+        gbc.gridx = 1; gbc.weightx = 1.0; gbc.fill = GridBagConstraints.HORIZONTAL;
+        topicField = new JTextField();
+        topicField.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        topicField.setPreferredSize(new Dimension(0, 35));
+        formPanel.add(topicField, gbc);
+
+        row++;
+
+        // Difficulty
+        gbc.gridx = 0; gbc.gridy = row; gbc.weightx = 0; gbc.fill = GridBagConstraints.NONE;
+        JLabel difficultyLabel = new JLabel("Difficulty:");
+        difficultyLabel.setFont(new Font("Segoe UI", Font.BOLD, 13));
+        formPanel.add(difficultyLabel, gbc);
+
+        gbc.gridx = 1; gbc.weightx = 1.0; gbc.fill = GridBagConstraints.HORIZONTAL;
+        difficultyCombo = new JComboBox<>(new String[]{"EASY", "MEDIUM", "HARD"});
+        difficultyCombo.setSelectedItem("MEDIUM");
+        difficultyCombo.setPreferredSize(new Dimension(0, 35));
+        formPanel.add(difficultyCombo, gbc);
+
+        row++;
+
         // Answer options
         gbc.gridx = 0; gbc.gridy = row; gbc.gridwidth = 2; gbc.weightx = 1.0; gbc.fill = GridBagConstraints.HORIZONTAL;
         JLabel optionsLabel = new JLabel("Answer Options (select the correct one):");
@@ -590,6 +620,8 @@ class QuestionEditDialog extends JDialog {
     private void populateFields() {
         questionTextArea.setText(existingQuestion.getQuestionText());
         pointsSpinner.setValue(existingQuestion.getPoints());
+        topicField.setText(existingQuestion.getTopic() != null ? existingQuestion.getTopic() : "");
+        difficultyCombo.setSelectedItem(existingQuestion.getDifficulty() != null ? existingQuestion.getDifficulty() : "MEDIUM");
 
         List<AnswerOption> options = existingQuestion.getOptions();
         if (options != null && options.size() == 4) {
@@ -653,36 +685,50 @@ class QuestionEditDialog extends JDialog {
             question.setTestId(testId);
             question.setQuestionText(questionText);
             question.setPoints((Double) pointsSpinner.getValue());
+            String topic = topicField.getText().trim();
+            question.setTopic(topic.isEmpty() ? null : topic);
+            question.setDifficulty((String) difficultyCombo.getSelectedItem());
 
-            TestQuestion savedQuestion;
-            if (existingQuestion == null) {
-                savedQuestion = testService.addQuestion(question, currentUserId);
-            } else {
-                // For updates, we need to handle this through the service
-                // This is a simplified approach - in a real app you'd have updateQuestion method
-                savedQuestion = question;
-                // Update question logic would go here
+            // Answer options A-D
+            List<AnswerOption> options = new ArrayList<>();
+            String[] letters = {"A", "B", "C", "D"};
+            for (int i = 0; i < 4; i++) {
+                AnswerOption option = new AnswerOption();
+                option.setOptionText(optionTexts.get(i));
+                option.setOptionLetter(letters[i]);
+                option.setIsCorrect(i == correctIndex);
+                options.add(option);
             }
 
+            if (existingQuestion != null) {
+                // Question and options are replaced together, so a failure leaves the old version intact
+                if (testService.updateQuestion(question, options, currentUserId)) {
+                    this.success = true;
+                    JOptionPane.showMessageDialog(this,
+                        "Question updated successfully!",
+                        "Success",
+                        JOptionPane.INFORMATION_MESSAGE);
+                    dispose();
+                } else {
+                    JOptionPane.showMessageDialog(this,
+                        "Failed to save question. Please try again.",
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                }
+                return;
+            }
+
+            TestQuestion savedQuestion = testService.addQuestion(question, currentUserId);
             if (savedQuestion != null && savedQuestion.getId() > 0) {
-                // Create answer options
-                List<AnswerOption> options = new ArrayList<>();
-                String[] letters = {"A", "B", "C", "D"};
-                
-                for (int i = 0; i < 4; i++) {
-                    AnswerOption option = new AnswerOption();
+                for (AnswerOption option : options) {
                     option.setQuestionId(savedQuestion.getId());
-                    option.setOptionText(optionTexts.get(i));
-                    option.setOptionLetter(letters[i]);
-                    option.setIsCorrect(i == correctIndex);
-                    options.add(option);
                 }
 
                 List<AnswerOption> savedOptions = testService.addOptions(savedQuestion.getId(), options, currentUserId);
                 if (savedOptions != null && savedOptions.size() == 4) {
                     this.success = true;
                     JOptionPane.showMessageDialog(this,
-                        "Question " + (existingQuestion == null ? "added" : "updated") + " successfully!",
+                        "Question added successfully!",
                         "Success",
                         JOptionPane.INFORMATION_MESSAGE);
                     dispose();
@@ -8,17 +8,28 @@ import com.elearning.service.ReviewService;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Reusable panel for displaying and posting course reviews
  */
 public class ReviewsPanel extends JPanel {
+    private static final int COMMENT_BATCH_SIZE = 10;   // Reviews per comment query
+    private static final int PREFETCH_MARGIN_PX = 400;  // Load comments slightly before cards scroll in
+    private static final int MAX_REPLY_INDENT_DEPTH = 3;
+
     private final ReviewService reviewService;
     private final CourseReviewCommentService reviewCommentService;
     private final User currentUser;
     private final int courseId;
     private JPanel reviewsListPanel;
+    private JScrollPane reviewsScrollPane;
+    // Review cards whose comments are not loaded yet, in display order
+    private final Map<Integer, PendingComments> pendingComments = new LinkedHashMap<>();
     private JLabel averageRatingLabel;
     private JLabel totalReviewsLabel;
     private StarRatingPanel averageStarsPanel;
@@ -158,10 +169,11 @@ public class ReviewsPanel extends JPanel {
         reviewsListPanel.setLayout(new BoxLayout(reviewsListPanel, BoxLayout.Y_AXIS));
         reviewsListPanel.setBackground(Color.WHITE);
 
-        JScrollPane reviewsScrollPane = new JScrollPane(reviewsListPanel);
+        reviewsScrollPane = new JScrollPane(reviewsListPanel);
         reviewsScrollPane.setBorder(null);
         reviewsScrollPane.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS);
         reviewsScrollPane.getVerticalScrollBar().setUnitIncrement(16);
+        reviewsScrollPane.getViewport().addChangeListener(e -> loadVisibleReviewComments());
 
         // Assemble
         JPanel topPanel = new JPanel(new BorderLayout(10, 10));
@@ -175,6 +187,7 @@ public class ReviewsPanel extends JPanel {
 
     private void loadReviews() {
         reviewsListPanel.removeAll();
+        pendingComments.clear();
 
         try {
             List<Review> reviews = reviewService.getCourseReviews(courseId);
@@ -205,6 +218,9 @@ public class ReviewsPanel extends JPanel {
 
         reviewsListPanel.revalidate();
         reviewsListPanel.repaint();
+
+        // Comments are fetched once cards have been laid out and can be seen
+        SwingUtilities.invokeLater(this::loadVisibleReviewComments);
     }
 
     private JPanel createReviewCard(Review review) {
@@ -259,16 +275,13 @@ public class ReviewsPanel extends JPanel {
         footerPanel.add(timeLabel, BorderLayout.WEST);
         footerPanel.add(replyButton, BorderLayout.EAST);
 
-        JPanel commentsPanel = createReviewCommentsPanel(review.getId());
+        JPanel commentsPanel = createReviewCommentsPanel();
 
         JPanel bodyPanel = new JPanel();
         bodyPanel.setLayout(new BoxLayout(bodyPanel, BoxLayout.Y_AXIS));
         bodyPanel.setBackground(UITheme.BACKGROUND);
         bodyPanel.add(contentArea);
-        if (commentsPanel.getComponentCount() > 0) {
-            bodyPanel.add(Box.createRigidArea(new Dimension(0, 6)));
-            bodyPanel.add(commentsPanel);
-        }
+        bodyPanel.add(commentsPanel);
 
         JScrollPane bodyScrollPane = new JScrollPane(bodyPanel);
         bodyScrollPane.setBorder(null);
@@ -281,24 +294,75 @@ public class ReviewsPanel extends JPanel {
         card.add(bodyScrollPane, BorderLayout.CENTER);
         card.add(footerPanel, BorderLayout.SOUTH);
 
+        pendingComments.put(review.getId(), new PendingComments(card, commentsPanel));
         return card;
     }
 
-    private JPanel createReviewCommentsPanel(int reviewId) {
+    private JPanel createReviewCommentsPanel() {
         JPanel container = new JPanel();
         container.setLayout(new BoxLayout(container, BoxLayout.Y_AXIS));
         container.setBackground(UITheme.BACKGROUND);
         container.setBorder(BorderFactory.createEmptyBorder(6, 8, 0, 0));
+        return container;
+    }
+
+    /**
+     * Load comments for review cards in (or near) the viewport
+     * Visible cards plus the next pending ones, up to COMMENT_BATCH_SIZE,
+     * are fetched with one query instead of one query per review and reply.
+     */
+    private void loadVisibleReviewComments() {
+        if (pendingComments.isEmpty()) {
+            return;
+        }
 
-        List<CourseReviewComment> comments = reviewCommentService.getTopLevelComments(reviewId);
-        for (CourseReviewComment comment : comments) {
-            container.add(createReviewCommentCard(comment, reviewId, 0));
-            List<CourseReviewComment> replies = reviewCommentService.getReplies(comment.getId());
-            for (CourseReviewComment reply : replies) {
-                container.add(createReviewCommentCard(reply, reviewId, 18));
+        Rectangle view = reviewsScrollPane.getViewport().getViewRect();
+        view.grow(0, PREFETCH_MARGIN_PX);
+
+        List<Integer> batch = new ArrayList<>();
+        boolean foundVisible = false;
+        for (Map.Entry<Integer, PendingComments> entry : pendingComments.entrySet()) {
+            boolean visible = entry.getValue().card.getBounds().intersects(view);
+            if (visible || (foundVisible && batch.size() < COMMENT_BATCH_SIZE)) {
+                foundVisible = true;
+                batch.add(entry.getKey());
+            } else if (foundVisible) {
+                break;
             }
         }
-        return container;
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, List<CourseReviewComment>> threads;
+        try {
+            threads = reviewCommentService.getCommentThreads(batch);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return;
+        }
+        if (threads == null) {
+            // Query failed: the cards stay pending and are retried on the next scroll
+            return;
+        }
+
+        Iterator<Integer> ids = batch.iterator();
+        while (ids.hasNext()) {
+            int reviewId = ids.next();
+            PendingComments pending = pendingComments.remove(reviewId);
+            for (CourseReviewComment comment : threads.getOrDefault(reviewId, List.of())) {
+                addReviewCommentThread(pending.container, comment, reviewId, 0);
+            }
+            pending.container.revalidate();
+        }
+        reviewsListPanel.repaint();
+    }
+
+    private void addReviewCommentThread(JPanel container, CourseReviewComment comment, int reviewId, int depth) {
+        container.add(createReviewCommentCard(comment, reviewId, Math.min(depth, MAX_REPLY_INDENT_DEPTH) * 18));
+        for (CourseReviewComment reply : comment.getReplies()) {
+            addReviewCommentThread(container, reply, reviewId, depth + 1);
+        }
     }
 
     private JPanel createReviewCommentCard(CourseReviewComment comment, int reviewId, int indent) {
@@ -426,5 +490,17 @@ public class ReviewsPanel extends JPanel {
     public void refresh() {
         loadReviews();
     }
-}
 
+    /**
+     * A review card waiting for its comments
+     */
+    private static class PendingComments {
+        private final JPanel card;
+        private final JPanel container;
+
+        PendingComments(JPanel card, JPanel container) {
+            this.card = card;
+            this.container = container;
+        }
+    }
+}
@@ -28,6 +28,9 @@ public class TestCreationDialog extends JDialog {
     private JCheckBox shuffleOptionsCheckBox;
     private JSpinner maxAttemptsSpinner;
     private JCheckBox unlimitedAttemptsCheckBox;
+    private JCheckBox questionBankCheckBox;
+    private JSpinner bankDrawCountSpinner;
+    private JComboBox<String> bankGroupByCombo;
 
     public TestCreationDialog(Dialog owner, int courseId, CourseTest existingTest) {
         super(owner, existingTest == null ? "Create Test" : "Edit Test", true);
@@ -237,6 +240,48 @@ public class TestCreationDialog extends JDialog {
         randomPanel.add(shuffleOptionsCheckBox);
         formPanel.add(randomPanel, gbc);
 
+        row++;
+
+        // Question Bank
+        gbc.gridx = 0; gbc.gridy = row;
+        gbc.weightx = 0; gbc.fill = GridBagConstraints.NONE;
+        JLabel bankLbl = new JLabel("Question Bank:");
+        bankLbl.setFont(new Font("Segoe UI", Font.BOLD, 13));
+        bankLbl.setForeground(UITheme.TEXT);
+        formPanel.add(bankLbl, gbc);
+
+        gbc.gridx = 1; gbc.weightx = 1.0; gbc.fill = GridBagConstraints.HORIZONTAL;
+        JPanel bankPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        bankPanel.setOpaque(false);
+
+        questionBankCheckBox = new JCheckBox("Draw");
+        questionBankCheckBox.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        questionBankCheckBox.setOpaque(false);
+
+        bankDrawCountSpinner = new JSpinner(new SpinnerNumberModel(5, 1, 500, 1));
+        bankDrawCountSpinner.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        bankDrawCountSpinner.setPreferredSize(new Dimension(80, 35));
+        bankDrawCountSpinner.setEnabled(false);
+
+        JLabel perLbl = new JLabel(" random questions per ");
+        perLbl.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+
+        bankGroupByCombo = new JComboBox<>(new String[]{"NONE", "TOPIC", "DIFFICULTY"});
+        bankGroupByCombo.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        bankGroupByCombo.setPreferredSize(new Dimension(130, 35));
+        bankGroupByCombo.setEnabled(false);
+
+        questionBankCheckBox.addActionListener(e -> {
+            bankDrawCountSpinner.setEnabled(questionBankCheckBox.isSelected());
+            bankGroupByCombo.setEnabled(questionBankCheckBox.isSelected());
+        });
+
+        bankPanel.add(questionBankCheckBox);
+        bankPanel.add(bankDrawCountSpinner);
+        bankPanel.add(perLbl);
+        bankPanel.add(bankGroupByCombo);
+        formPanel.add(bankPanel, gbc);
+
         // Add info panel
         row++;
         gbc.gridx = 0; gbc.gridy = row;
@@ -299,6 +344,7 @@ public class TestCreationDialog extends JDialog {
         JLabel infoText = new JLabel("<html>" +
             "• After creating the test, you'll be able to add questions<br/>" +
             "• Each question must have exactly 4 answer options (A, B, C, D)<br/>" +
+            "• Question bank: each attempt draws random questions per group (NONE = whole bank)<br/>" +
             "• Tests must be published for students to access them<br/>" +
             "• Students need to complete 100% of lessons before taking the test" +
             "</html>");
@@ -338,6 +384,14 @@ public class TestCreationDialog extends JDialog {
         
         shuffleQuestionsCheckBox.setSelected(existingTest.getShuffleQuestions());
         shuffleOptionsCheckBox.setSelected(existingTest.getShuffleOptions());
+
+        if (existingTest.isQuestionBank()) {
+            questionBankCheckBox.setSelected(true);
+            bankDrawCountSpinner.setValue(existingTest.getBankDrawCount());
+            bankDrawCountSpinner.setEnabled(true);
+            bankGroupByCombo.setEnabled(true);
+        }
+        bankGroupByCombo.setSelectedItem(existingTest.getBankGroupBy() != null ? existingTest.getBankGroupBy() : "NONE");
     }
 
     private void saveTest(ActionEvent e) {
@@ -387,6 +441,15 @@ public class TestCreationDialog extends JDialog {
             test.setShuffleQuestions(shuffleQuestionsCheckBox.isSelected());
             test.setShuffleOptions(shuffleOptionsCheckBox.isSelected());
 
+            // Set question bank mode
+            if (questionBankCheckBox.isSelected()) {
+                test.setBankDrawCount((Integer) bankDrawCountSpinner.getValue());
+                test.setBankGroupBy((String) bankGroupByCombo.getSelectedItem());
+            } else {
+                test.setBankDrawCount(null);
+                test.setBankGroupBy("NONE");
+            }
+
             boolean success;
             int currentUserId = SessionManager.getInstance().getCurrentUser().getId();
             
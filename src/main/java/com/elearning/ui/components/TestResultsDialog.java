@@ -2,15 +2,25 @@ package com.elearning.ui.components;
 
 import com.elearning.dao.TestAnswerDAO;
 import com.elearning.dao.TestAttemptDAO;
+import com.elearning.model.AnswerOption;
 import com.elearning.model.CourseTest;
+import com.elearning.model.TestAnswer;
 import com.elearning.model.TestAttempt;
+import com.elearning.model.TestQuestion;
 import com.elearning.service.TestService;
+import com.elearning.util.ChartUtil;
+import com.elearning.util.ScoreDistribution;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Dialog for viewing test results and analytics
@@ -19,10 +29,12 @@ public class TestResultsDialog extends JDialog {
     private final CourseTest test;
     private final TestAttemptDAO attemptDAO;
     private final TestAnswerDAO answerDAO;
+    private final TestService testService;
 
     // Components
     private JTable attemptsTable;
     private DefaultTableModel attemptsTableModel;
+    private List<TestAttempt> attempts = new ArrayList<>();
     private JPanel statisticsPanel;
 
     public TestResultsDialog(Dialog owner, CourseTest test) {
@@ -30,6 +42,7 @@ public class TestResultsDialog extends JDialog {
         this.test = test;
         this.attemptDAO = new TestAttemptDAO();
         this.answerDAO = new TestAnswerDAO();
+        this.testService = TestService.getInstance();
 
         initComponents();
         loadData();
@@ -43,6 +56,7 @@ public class TestResultsDialog extends JDialog {
         this.test = test;
         this.attemptDAO = new TestAttemptDAO();
         this.answerDAO = new TestAnswerDAO();
+        this.testService = TestService.getInstance();
 
         initComponents();
         loadData();
@@ -85,7 +99,10 @@ public class TestResultsDialog extends JDialog {
         JButton refreshButton = new JButton("Refresh");
         refreshButton.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         refreshButton.setPreferredSize(new Dimension(100, 40));
-        refreshButton.addActionListener(e -> loadData());
+        refreshButton.addActionListener(e -> {
+            testService.invalidateScoreDistribution(test.getId());
+            loadData();
+        });
         
         JButton closeButton = new JButton("Close");
         closeButton.setFont(new Font("Segoe UI", Font.PLAIN, 14));
@@ -154,6 +171,17 @@ public class TestResultsDialog extends JDialog {
         attemptsTable.getColumnModel().getColumn(5).setPreferredWidth(120); // Completed
         attemptsTable.getColumnModel().getColumn(6).setPreferredWidth(100); // Time Spent
         attemptsTable.getColumnModel().getColumn(7).setPreferredWidth(80);  // Passed
+        attemptsTable.setToolTipText("Double-click an attempt to review its answers");
+
+        attemptsTable.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = attemptsTable.getSelectedRow();
+                if (e.getClickCount() == 2 && row >= 0 && row < attempts.size()) {
+                    showAttemptReview(attempts.get(row));
+                }
+            }
+        });
 
         JScrollPane tableScrollPane = new JScrollPane(attemptsTable);
         tableScrollPane.setBackground(Color.WHITE);
@@ -255,8 +283,9 @@ public class TestResultsDialog extends JDialog {
 
     private void loadAttempts() {
         attemptsTableModel.setRowCount(0);
+        attempts = new ArrayList<>();
         try {
-            List<TestAttempt> attempts = attemptDAO.findByTestId(test.getId());
+            attempts = attemptDAO.findByTestId(test.getId());
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
 
             for (TestAttempt attempt : attempts) {
@@ -285,6 +314,55 @@ public class TestResultsDialog extends JDialog {
         }
     }
 
+    /**
+     * Show every question the attempt was given with the chosen and correct option
+     */
+    private void showAttemptReview(TestAttempt attempt) {
+        List<TestQuestion> questions = testService.getAttemptQuestions(test, attempt);
+        Map<Integer, TestAnswer> answers = new HashMap<>();
+        for (TestAnswer answer : answerDAO.findByAttemptId(attempt.getId())) {
+            answers.put(answer.getQuestionId(), answer);
+        }
+
+        StringBuilder review = new StringBuilder();
+        int number = 1;
+        for (TestQuestion question : questions) {
+            review.append(number++).append(". ").append(question.getQuestionText()).append('\n');
+
+            TestAnswer answer = answers.get(question.getId());
+            if (answer == null || answer.getSelectedOptionId() == null) {
+                review.append("   Answer: Not answered\n");
+            } else {
+                review.append("   Answer: ").append(answer.getSelectedOptionLetter()).append(". ")
+                      .append(answer.getSelectedOptionText())
+                      .append(answer.isCorrect() ? "  (correct)" : "  (wrong)").append('\n');
+            }
+
+            AnswerOption correct = question.getCorrectOption();
+            if (correct != null) {
+                review.append("   Correct: ").append(correct.getOptionLetter()).append(". ")
+                      .append(correct.getOptionText()).append('\n');
+            }
+            review.append('\n');
+        }
+        if (questions.isEmpty()) {
+            review.append("The questions of this attempt are no longer available.");
+        }
+
+        JTextArea reviewArea = new JTextArea(review.toString());
+        reviewArea.setEditable(false);
+        reviewArea.setLineWrap(true);
+        reviewArea.setWrapStyleWord(true);
+        reviewArea.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        JScrollPane scrollPane = new JScrollPane(reviewArea);
+        scrollPane.setPreferredSize(new Dimension(600, 450));
+
+        String student = attempt.getUserName() != null ? attempt.getUserName() : "User " + attempt.getUserId();
+        JOptionPane.showMessageDialog(this, scrollPane,
+            student + " - Attempt #" + attempt.getAttemptNumber(),
+            JOptionPane.PLAIN_MESSAGE);
+    }
+
     private void loadStatistics() {
         statisticsPanel.removeAll();
         
@@ -319,6 +397,7 @@ public class TestResultsDialog extends JDialog {
                 String.valueOf(test.getMaxAttempts()) : "Unlimited"));
 
             statisticsPanel.add(detailsPanel);
+            statisticsPanel.add(createDistributionPanel(testService.getScoreDistribution(test.getId())));
 
         } catch (Exception e) {
             JLabel errorLabel = new JLabel("Error loading statistics: " + e.getMessage());
@@ -330,6 +409,32 @@ public class TestResultsDialog extends JDialog {
         statisticsPanel.repaint();
     }
 
+    private JPanel createDistributionPanel(ScoreDistribution distribution) {
+        JPanel panel = new JPanel();
+        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+        panel.setBackground(Color.WHITE);
+        panel.setBorder(BorderFactory.createTitledBorder("Score Distribution"));
+
+        if (distribution.getCount() == 0) {
+            panel.add(createDetailRow("Completed Attempts:", "0"));
+            return panel;
+        }
+
+        panel.add(createDetailRow("Score Percentiles (P10 / P50 / P90):", String.format("%.1f%% / %.1f%% / %.1f%%",
+            distribution.getScorePercentile(10), distribution.getScorePercentile(50), distribution.getScorePercentile(90))));
+        panel.add(createDetailRow("Time Spent (P50 / P90):",
+            formatTimeSpent((int) distribution.getTimePercentile(50)) + " / " +
+            formatTimeSpent((int) distribution.getTimePercentile(90))));
+
+        JPanel chartsPanel = new JPanel(new GridLayout(1, 2, 15, 15));
+        chartsPanel.setBackground(Color.WHITE);
+        chartsPanel.add(ChartUtil.createScoreHistogramChart(distribution.getScoreHistogram()));
+        chartsPanel.add(ChartUtil.createLearningCurveChart(distribution.getLearningCurve()));
+        panel.add(chartsPanel);
+
+        return panel;
+    }
+
     private JPanel createStatCard(String title, String value, Color color) {
         JPanel card = new JPanel(new BorderLayout(5, 5));
         card.setBackground(Color.WHITE);
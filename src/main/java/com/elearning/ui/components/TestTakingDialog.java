@@ -110,18 +110,7 @@ public class TestTakingDialog extends JDialog {
     }
 
     private boolean canTakeTest() {
-        JLabel messageLabel1 = new JLabel("You have reached the maximum number of attempts for this test.");
-        messageLabel1.setForeground(Color.WHITE);
-        // Check if user can take another attempt
-        if (!attemptDAO.canTakeAnotherAttempt(userId, test.getId(), test.getMaxAttempts())) {
-            JOptionPane.showMessageDialog(this,
-                messageLabel1,
-                "Cannot Take Test",
-                JOptionPane.WARNING_MESSAGE);
-            dispose();
-            return false;
-        }
-
+        // Attempt limit is enforced atomically when the attempt is started (see startTest)
         JLabel messageLabel2 = new JLabel("This test is not yet available.");
         messageLabel2.setForeground(Color.WHITE);
         // Check if test is published
@@ -306,8 +295,9 @@ public class TestTakingDialog extends JDialog {
 
     private void startTest() {
         try {
-            // Load questions
-            questions = testService.getQuestions(test.getId());
+            // Assemble questions from the precomputed pools (drawn/shuffled per attempt seed)
+            long assemblySeed = testService.newAssemblySeed();
+            questions = testService.assembleAttemptQuestions(test, assemblySeed);
             JLabel messageLabel3 = new JLabel("This test has no questions.");
             messageLabel3.setForeground(Color.WHITE);
             if (questions.isEmpty()) {
@@ -319,44 +309,20 @@ public class TestTakingDialog extends JDialog {
                 return;
             }
 
-            // Shuffle questions if enabled
-            if (test.getShuffleQuestions()) {
-                Collections.shuffle(questions);
-            }
-
-            // Shuffle options for each question if enabled
-            if (test.getShuffleOptions()) {
-                for (TestQuestion question : questions) {
-                    if (question.getOptions() != null) {
-                        Collections.shuffle(question.getOptions());
-                    }
-                }
-            }
-
             // Initialize selected answers array
             selectedAnswers = new ArrayList<>(Collections.nCopies(questions.size(), null));
 
-            // Create test attempt
-            currentAttempt = new TestAttempt(test.getId(), userId, test.getCourseId());
-            currentAttempt.setAttemptNumber(attemptDAO.getNextAttemptNumber(userId, test.getId()));
-            currentAttempt.setTotalQuestions(questions.size());
-            
-            // Calculate total points
-            double totalPoints = questions.stream()
-                .mapToDouble(q -> q.getPoints() != null ? q.getPoints() : 1.0)
-                .sum();
-            currentAttempt.setTotalPoints(totalPoints);
-            currentAttempt.setStartedAt(LocalDateTime.now());
-
-            // Save attempt to database
-            currentAttempt = attemptDAO.create(currentAttempt);
-            if (currentAttempt == null || currentAttempt.getId() == null) {
-                JLabel messageLabel4 = new JLabel("Failed to start test. Please try again.");
-                messageLabel4.setForeground(Color.WHITE);
+            // Create test attempt (checks max attempts and assigns the attempt number atomically)
+            try {
+                currentAttempt = testService.startAttempt(test, userId, questions, assemblySeed);
+            } catch (IllegalStateException e) {
+                JLabel messageLabel1 = new JLabel(e instanceof TestService.AttemptLimitReachedException ? e.getMessage()
+                    : "Failed to start test. Please try again.");
+                messageLabel1.setForeground(Color.WHITE);
                 JOptionPane.showMessageDialog(this,
-                    messageLabel4,
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
+                    messageLabel1,
+                    "Cannot Take Test",
+                    JOptionPane.WARNING_MESSAGE);
                 dispose();
                 return;
             }
@@ -551,6 +517,8 @@ public class TestTakingDialog extends JDialog {
             boolean updated = attemptDAO.update(currentAttempt);
             
             if (updated) {
+                testService.recordCompletedAttempt(currentAttempt);
+
                 // Generate certificate if student passed
                 Certificate certificate = null;
                 if (currentAttempt.isPassed()) {
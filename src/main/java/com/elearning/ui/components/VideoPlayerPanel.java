@@ -1,6 +1,9 @@
 package com.elearning.ui.components;
 
+import com.elearning.service.MediaServer;
+import com.elearning.util.WatchCoverage;
 import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
 import javafx.embed.swing.JFXPanel;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
@@ -17,6 +20,7 @@ import javafx.scene.layout.Region;
 import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
 import javafx.scene.media.MediaView;
+import javafx.stage.Screen;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import javafx.util.Duration;
@@ -26,20 +30,25 @@ import javafx.animation.KeyFrame;
 
 import javax.swing.*;
 import java.awt.*;
-import java.io.File;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 
 /**
  * Video player component using JavaFX Media embedded in Swing
  * Provides play, pause, seek, and volume controls
  */
 public class VideoPlayerPanel extends JPanel {
+    private static final double SAMPLE_SECONDS = 1;
+    private static final long CHECKPOINT_NANOS = 5_000_000_000L;
+    private static final double MAX_PLAYBACK_RATE = 2.5;           // Faster jumps are seeks, not watching
+    private static final double RESTART_NEAR_END_SECONDS = 5;      // Resuming this close to the end starts over
+    private static final int RESELECT_DELAY_MILLIS = 750;          // Wait for resizing to settle before switching files
+
     private JFXPanel fxPanel;
     private MediaPlayer mediaPlayer;
     private MediaView mediaView;
-    private String videoPath;
-    private boolean isInitialized = false;
+    private volatile Playback requested;
+    private volatile boolean isInitialized = false;
     private volatile boolean disposed = false;
     private Stage fullscreenStage = null;
     private BorderPane originalParent = null;
@@ -47,93 +56,84 @@ public class VideoPlayerPanel extends JPanel {
     private HBox fullscreenControlsRef = null;
     private Timeline controlsHideTimer = null;
 
-    // Static initializer to configure JavaFX Platform
+    // Controls of the embedded scene, re-attached to each player the panel shows
+    private Scene playerScene;
+    private Button playPauseButton;
+    private Slider volumeSlider;
+    private ChangeListener<Duration> progressListener;
+    private Playback loaded;
+    private String playingPath;    // File the current player was opened from (the video or a rendition)
+    private volatile SourceSelector sourceSelector;
+    private javax.swing.Timer reselectTimer;
+
+    // Playback tracking for checkpoints (FX thread)
+    private volatile PlaybackListener playbackListener;
+    private Timeline playbackTimer;
+    private WatchCoverage coverage = new WatchCoverage();
+    private double lastPosition = -1;
+    private long lastSampleNanos;
+    private long lastReportNanos;
+    private int reportedPosition = -1;
+    private int reportedWatched = -1;
+
+    /**
+     * Receives playback checkpoints every few seconds, on the FX application thread
+     */
+    public interface PlaybackListener {
+        /**
+         * @param contentId id passed with the video (e.g. the lesson id)
+         * @param watched seconds of the video played through (a copy), seeks and replays excluded
+         * @param durationSeconds 0 while the duration is not known yet
+         */
+        void onCheckpoint(int contentId, int positionSeconds, WatchCoverage watched, int durationSeconds);
+    }
+
+    /**
+     * Picks the file to play for a video shown displayHeight device pixels tall
+     * Called on the FX application thread, so it must not block.
+     */
+    public interface SourceSelector {
+        String select(String videoPath, int displayHeight);
+    }
+
+    // Start the FX toolkit if the application did not already warm it up
     static {
-        // Prevent JavaFX Platform from exiting when all windows are closed
-        // This is crucial for multiple JFXPanel instances
-        try {
-            Platform.setImplicitExit(false);
-            System.out.println("JavaFX Platform implicit exit disabled");
-        } catch (IllegalStateException e) {
-            // Platform might already be initialized
-            System.out.println("JavaFX Platform already initialized: " + e.getMessage());
-        }
+        MediaPlayerPool.getInstance().warmUp();
     }
 
     public VideoPlayerPanel(String videoPath) {
-        System.out.println("=== VideoPlayerPanel constructor called for: " + videoPath);
-        this.videoPath = videoPath;
+        this(videoPath, 0, 0, null);
+    }
+
+    /**
+     * Player that resumes at startSeconds and adds to the coverage already watched (may be null)
+     */
+    public VideoPlayerPanel(String videoPath, int contentId, double startSeconds, WatchCoverage watched) {
+        this.requested = new Playback(videoPath, contentId, startSeconds, watched);
 
         setLayout(new BorderLayout());
         setBackground(Color.BLACK);
         setPreferredSize(new Dimension(800, 450));
 
-        System.out.println("Creating JFXPanel...");
-        // Create and initialize JFXPanel
-        // This implicitly initializes JavaFX toolkit if needed
         fxPanel = new JFXPanel();
         add(fxPanel, BorderLayout.CENTER);
-        System.out.println("JFXPanel created and added");
-
-        // Add a hierarchy listener to know when the component is actually displayed
-        addHierarchyListener(e -> {
-            if ((e.getChangeFlags() & java.awt.event.HierarchyEvent.SHOWING_CHANGED) != 0) {
-                if (isShowing() && !isInitialized && !disposed) {
-                    System.out.println("VideoPlayerPanel is now showing, triggering initialization");
-                    scheduleInitialization();
-                }
+
+        // A much larger or smaller panel may call for another rendition
+        reselectTimer = new javax.swing.Timer(RESELECT_DELAY_MILLIS, e -> Platform.runLater(() -> {
+            if (!isFullscreen) {
+                switchSource(displayHeight());
+            }
+        }));
+        reselectTimer.setRepeats(false);
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                reselectTimer.restart();
             }
         });
 
-        // Also try immediate initialization
-        System.out.println("Attempting immediate initialization...");
-        scheduleInitialization();
-    }
-
-    /**
-     * Schedule initialization on JavaFX thread with debug logging
-     */
-    private void scheduleInitialization() {
-        System.out.println("scheduleInitialization() called for: " + videoPath);
-
-        // Create a CountDownLatch to track initialization
-        final CountDownLatch initLatch = new CountDownLatch(1);
-
-        // Schedule initialization on JavaFX thread
-        try {
-            System.out.println("Calling Platform.runLater...");
-            Platform.runLater(() -> {
-                System.out.println("*** Platform.runLater EXECUTING for: " + videoPath + " ***");
-                try {
-                    if (!isInitialized && !disposed) {
-                        initFX();
-                    } else {
-                        System.out.println("Skipping initFX - already initialized or disposed");
-                    }
-                } finally {
-                    initLatch.countDown();
-                }
-            });
-            System.out.println("Platform.runLater CALLED successfully");
-        } catch (Exception e) {
-            System.err.println("!!! ERROR calling Platform.runLater: " + e.getMessage());
-            e.printStackTrace();
-            initLatch.countDown();
-        }
-
-        // Monitor initialization in background thread
-        new Thread(() -> {
-            try {
-                if (initLatch.await(5, TimeUnit.SECONDS)) {
-                    System.out.println("initFX completed for: " + videoPath);
-                } else {
-                    System.err.println("!!! WARNING: initFX did NOT execute within 5 seconds for: " + videoPath);
-                    System.err.println("!!! Platform.runLater may not be working. isInitialized=" + isInitialized + ", disposed=" + disposed);
-                }
-            } catch (InterruptedException e) {
-                System.err.println("Wait interrupted");
-            }
-        }, "InitMonitor-" + videoPath).start();
+        // Runs as soon as the (usually pre-warmed) toolkit is ready
+        MediaPlayerPool.getInstance().whenReady(this::initFX);
     }
 
     /**
@@ -141,52 +141,21 @@ public class VideoPlayerPanel extends JPanel {
      * Must be called on JavaFX Application Thread
      */
     private void initFX() {
-        System.out.println("initFX for VideoPlayerPanel: " + videoPath);
-
-        // Check if we're on the JavaFX Application Thread
-        if (!Platform.isFxApplicationThread()) {
-            System.err.println("WARNING: initFX called from non-FX thread, rescheduling...");
-            Platform.runLater(this::initFX);
-            return;
-        }
-
-        // Check if already disposed
-        if (disposed) {
-            System.out.println("VideoPlayerPanel already disposed, skipping initFX for: " + videoPath);
+        if (disposed || isInitialized) {
             return;
         }
 
+        Playback playback = requested;
         try {
-            System.out.println("VideoPlayerPanel.initFX() starting for: " + videoPath);
-
-            // Validate video file
-            File videoFile = new File(videoPath);
-            if (!videoFile.exists()) {
-                System.err.println("Video file not found: " + videoPath);
-                showError("Video file not found: " + videoPath);
-                return;
-            }
-
-            System.out.println("Video file exists, creating Media object...");
-
-            // Check again if disposed during file validation
-            if (disposed) {
-                System.out.println("VideoPlayerPanel disposed during initialization for: " + videoPath);
+            // Validate video file (local, or on the remote media host)
+            if (!MediaServer.getInstance().isPlayable(playback.path)) {
+                System.err.println("Video file not found: " + playback.path);
+                showError("Video file not found: " + playback.path);
                 return;
             }
 
-            // Create Media and MediaPlayer
-            String mediaUrl = videoFile.toURI().toString();
-            System.out.println("Media URL: " + mediaUrl);
-            Media media = new Media(mediaUrl);
-            mediaPlayer = new MediaPlayer(media);
-            mediaView = new MediaView(mediaPlayer);
-
-            System.out.println("MediaPlayer created successfully");
-
-            // Configure MediaView
-            mediaView.setPreserveRatio(true);
-            mediaView.setSmooth(true);
+            MediaPlayerPool pool = MediaPlayerPool.getInstance();
+            mediaView = pool.acquireView();
 
             // Create UI
             BorderPane root = new BorderPane();
@@ -207,18 +176,16 @@ public class VideoPlayerPanel extends JPanel {
             root.setBottom(controls);
 
             // Create scene
-            Scene scene = new Scene(root);
-            fxPanel.setScene(scene);
+            playerScene = new Scene(root);
+            fxPanel.setScene(playerScene);
 
-            isInitialized = true;
-            System.out.println("VideoPlayerPanel initialized successfully, ready to play");
+            playbackTimer = new Timeline(new KeyFrame(Duration.seconds(SAMPLE_SECONDS), e -> samplePlayback()));
+            playbackTimer.setCycleCount(Timeline.INDEFINITE);
+            playbackTimer.play();
 
-            // Handle media errors
-            mediaPlayer.setOnError(() -> {
-                String errorMsg = "Media error: " + mediaPlayer.getError().getMessage();
-                System.err.println(errorMsg);
-                showError(errorMsg);
-            });
+            String source = sourceFor(playback.path, displayHeight());
+            attachPlayer(pool.acquire(source), playback, source);
+            isInitialized = true;
 
         } catch (Exception e) {
             System.err.println("Failed to initialize VideoPlayerPanel: " + e.getMessage());
@@ -227,6 +194,236 @@ public class VideoPlayerPanel extends JPanel {
         }
     }
 
+    /**
+     * Show a player in the view and point the controls at it (FX thread)
+     */
+    private void attachPlayer(MediaPlayer player, Playback playback, String source) {
+        mediaPlayer = player;
+        loaded = playback;
+        playingPath = source;
+        coverage = playback.watched != null ? playback.watched.copy() : new WatchCoverage();
+        lastPosition = -1;
+        reportedPosition = -1;
+        reportedWatched = -1;
+        mediaView.setMediaPlayer(player);
+        player.currentTimeProperty().addListener(progressListener);
+        player.volumeProperty().bind(volumeSlider.valueProperty().divide(100));
+        playPauseButton.setText("\u25B6");
+
+        if (fxPanel.getScene() != playerScene) {
+            // A previous lesson's error screen replaced the player
+            fxPanel.setScene(playerScene);
+        }
+
+        // Handle media errors
+        player.setOnError(() -> {
+            String errorMsg = "Media error: " + player.getError().getMessage();
+            System.err.println(errorMsg);
+            showError(errorMsg);
+        });
+
+        player.setOnEndOfMedia(() -> {
+            samplePlayback();
+            reportCheckpoint();
+        });
+        seekToStart(player, playback.startSeconds, false);
+    }
+
+    /**
+     * Continue where the viewer left off once the player knows its duration (FX thread)
+     */
+    private void seekToStart(MediaPlayer player, double startSeconds, boolean play) {
+        if (startSeconds <= 0) {
+            if (play) {
+                player.play();
+            }
+            return;
+        }
+        Runnable seek = () -> {
+            double total = player.getTotalDuration().toSeconds();
+            // Watched to the end last time: start over
+            if (Double.isNaN(total) || startSeconds < total - RESTART_NEAR_END_SECONDS) {
+                player.seek(Duration.seconds(startSeconds));
+            }
+            if (play) {
+                player.play();
+            }
+        };
+        MediaPlayer.Status status = player.getStatus();
+        if (status == MediaPlayer.Status.UNKNOWN) {
+            player.setOnReady(seek);
+        } else if (status == MediaPlayer.Status.STOPPED) {
+            // Pooled players come back stopped, and a stopped player ignores seek
+            player.setOnPaused(() -> {
+                player.setOnPaused(null);
+                seek.run();
+            });
+            player.pause();
+        } else {
+            seek.run();
+        }
+    }
+
+    /**
+     * Take the current player out of the view (FX thread)
+     */
+    private MediaPlayer detachPlayer() {
+        MediaPlayer player = mediaPlayer;
+        if (player == null) {
+            return null;
+        }
+        // Last checkpoint for the video being left
+        samplePlayback();
+        reportCheckpoint();
+
+        player.currentTimeProperty().removeListener(progressListener);
+        player.volumeProperty().unbind();
+        player.setOnError(null);
+        player.setOnReady(null);
+        player.setOnPaused(null);
+        player.setOnEndOfMedia(null);
+        mediaView.setMediaPlayer(null);
+        mediaPlayer = null;
+        loaded = null;
+        playingPath = null;
+        return player;
+    }
+
+    /**
+     * Switch to the file that suits the display height, keeping position and play state (FX thread)
+     */
+    private void switchSource(int displayHeight) {
+        MediaPlayer player = mediaPlayer;
+        Playback playback = loaded;
+        if (player == null || playback == null) {
+            return;
+        }
+        String source = sourceFor(playback.path, displayHeight);
+        if (source.equals(playingPath)) {
+            return;
+        }
+
+        boolean playing = player.getStatus() == MediaPlayer.Status.PLAYING;
+        double position = player.getCurrentTime().toSeconds();
+        samplePlayback();
+        WatchCoverage watched = coverage;
+
+        MediaPlayerPool pool = MediaPlayerPool.getInstance();
+        pool.release(playingPath, detachPlayer());
+        try {
+            MediaPlayer next = pool.acquire(source);
+            attachPlayer(next, new Playback(playback.path, playback.contentId, 0, watched), source);
+            seekToStart(next, position, playing);
+            if (playing) {
+                playPauseButton.setText("\u23F8");
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to switch video source: " + e.getMessage());
+            showError("Failed to load video: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The file to open for a video: a rendition if a selector is set, otherwise the video itself
+     */
+    private String sourceFor(String videoPath, int displayHeight) {
+        SourceSelector selector = sourceSelector;
+        String source = selector != null ? selector.select(videoPath, displayHeight) : null;
+        return source != null ? source : videoPath;
+    }
+
+    /**
+     * Height the video is shown at, in device pixels (FX thread)
+     */
+    private int displayHeight() {
+        if (isFullscreen) {
+            Screen screen = Screen.getPrimary();
+            return (int) Math.round(screen.getBounds().getHeight() * screen.getOutputScaleY());
+        }
+        return getDisplayHeight();
+    }
+
+    /**
+     * Choose which file is played for each video (e.g. a lower-bitrate rendition for a small window)
+     * Takes effect for the next video and on the next resize.
+     */
+    public void setSourceSelector(SourceSelector selector) {
+        this.sourceSelector = selector;
+    }
+
+    /**
+     * Height the video is shown at, for picking renditions ahead of time (e.g. for prefetching)
+     */
+    public int getDisplayHeight() {
+        // Not laid out yet: assume the preferred size
+        int height = getHeight() > 0 ? getHeight() : getPreferredSize().height;
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        double scale = configuration != null ? configuration.getDefaultTransform().getScaleY() : 1.0;
+        return (int) Math.round(height * scale);
+    }
+
+    /**
+     * Mark the seconds played since the last sample, and report every few seconds (FX thread)
+     */
+    private void samplePlayback() {
+        MediaPlayer player = mediaPlayer;
+        if (player == null || loaded == null) {
+            return;
+        }
+        boolean playing = player.getStatus() == MediaPlayer.Status.PLAYING;
+        double position = player.getCurrentTime().toSeconds();
+        long now = System.nanoTime();
+
+        if (playing && lastPosition >= 0) {
+            double advanced = position - lastPosition;
+            double elapsed = (now - lastSampleNanos) / 1e9;
+            // Moving forward faster than playback can is a seek
+            if (advanced > 0 && advanced <= elapsed * MAX_PLAYBACK_RATE + SAMPLE_SECONDS / 2) {
+                coverage.mark(lastPosition, position);
+            }
+        }
+        // Paused time is not counted; the next stretch starts at the next sample
+        lastPosition = playing ? position : -1;
+        lastSampleNanos = now;
+
+        if (now - lastReportNanos >= CHECKPOINT_NANOS) {
+            reportCheckpoint();
+        }
+    }
+
+    /**
+     * Tell the listener where playback is, if anything changed since the last report (FX thread)
+     */
+    private void reportCheckpoint() {
+        MediaPlayer player = mediaPlayer;
+        if (player == null || loaded == null) {
+            return;
+        }
+        lastReportNanos = System.nanoTime();
+
+        double total = player.getTotalDuration().toSeconds();
+        int duration = Double.isNaN(total) || Double.isInfinite(total) ? 0 : (int) Math.round(total);
+        int position = (int) player.getCurrentTime().toSeconds();
+        int watched = duration > 0 ? coverage.coveredSeconds(duration) : coverage.coveredSeconds();
+        if (position == reportedPosition && watched == reportedWatched) {
+            return;
+        }
+        reportedPosition = position;
+        reportedWatched = watched;
+
+        PlaybackListener listener = playbackListener;
+        if (listener != null) {
+            listener.onCheckpoint(loaded.contentId, position, coverage.copy(), duration);
+        }
+    }
+
+    /**
+     * Receive playback checkpoints (called on the FX application thread)
+     */
+    public void setPlaybackListener(PlaybackListener listener) {
+        this.playbackListener = listener;
+    }
+
     /**
      * Create player controls
      */
@@ -236,6 +433,7 @@ public class VideoPlayerPanel extends JPanel {
 
         // Play/Pause button
         Button playPauseBtn = new Button("\u25B6");
+        playPauseButton = playPauseBtn;
         playPauseBtn.setStyle("-fx-font-size: 16px; -fx-background-color: #3498db; -fx-text-fill: white;");
         playPauseBtn.setOnAction(e -> {
             if (mediaPlayer != null && mediaPlayer.getStatus() == MediaPlayer.Status.PLAYING) {
@@ -269,8 +467,8 @@ public class VideoPlayerPanel extends JPanel {
         HBox.setHgrow(progressSlider, Priority.ALWAYS);
         progressSlider.setStyle("-fx-background-color: transparent;");
 
-        // Update progress slider and time label
-        mediaPlayer.currentTimeProperty().addListener((obs, oldTime, newTime) -> {
+        // Update progress slider and time label (attached to whichever player is shown)
+        progressListener = (obs, oldTime, newTime) -> {
             if (!progressSlider.isValueChanging() && mediaPlayer != null) {
                 Duration total = mediaPlayer.getTotalDuration();
                 if (total != null && total.toMillis() > 0) {
@@ -278,7 +476,7 @@ public class VideoPlayerPanel extends JPanel {
                     timeLabel.setText(formatTime(newTime) + " / " + formatTime(total));
                 }
             }
-        });
+        };
 
         // Seek when slider is moved
         progressSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
@@ -291,14 +489,12 @@ public class VideoPlayerPanel extends JPanel {
         });
 
         // Volume slider
-        Slider volumeSlider = new Slider(0, 100, 50);
+        volumeSlider = new Slider(0, 100, 50);
         volumeSlider.setPrefWidth(100);
         volumeSlider.setStyle("-fx-background-color: transparent;");
         Label volumeLabel = new Label("\uD83D\uDD0A");
         volumeLabel.setStyle("-fx-text-fill: white; -fx-font-size: 14px;");
 
-        mediaPlayer.volumeProperty().bind(volumeSlider.valueProperty().divide(100));
-
         // Fullscreen button
         Button fullscreenBtn = new Button("\u26F6");
         fullscreenBtn.setStyle("-fx-font-size: 16px; -fx-background-color: #9b59b6; -fx-text-fill: white;");
@@ -475,95 +671,58 @@ public class VideoPlayerPanel extends JPanel {
 
     /**
      * Load a new video source without recreating the entire player
-     * This reuses the existing MediaView and just swaps the MediaPlayer
-     * @return true if video loaded successfully, false otherwise
+     * Returns at once: the swap happens on the FX thread, using the pooled player
+     * for this video if it was prefetched. If the panel is still initializing,
+     * initialization picks up the new path.
+     * @return false if the panel is disposed or the file does not exist
      */
     public boolean loadVideo(String newVideoPath) {
-        System.out.println("VideoPlayerPanel.loadVideo() called for: " + newVideoPath);
+        return loadVideo(newVideoPath, 0, 0, null);
+    }
 
+    /**
+     * Load a new video, resuming at startSeconds with the coverage already watched (may be null)
+     * Checkpoints for it carry contentId. Same behaviour as loadVideo(String) otherwise.
+     */
+    public boolean loadVideo(String newVideoPath, int contentId, double startSeconds, WatchCoverage watched) {
         if (disposed) {
             System.err.println("Cannot load video - panel is disposed");
             return false;
         }
 
-        // Wait for initialization to complete (max 5 seconds)
-        int attempts = 0;
-        while (!isInitialized && attempts < 50) {
-            try {
-                Thread.sleep(100);
-                attempts++;
-            } catch (InterruptedException e) {
-                System.err.println("Wait for initialization interrupted");
-                return false;
-            }
-        }
-
-        if (!isInitialized) {
-            System.err.println("Cannot load video - panel initialization timed out");
+        if (!MediaServer.getInstance().isPlayable(newVideoPath)) {
+            System.err.println("Video file not found: " + newVideoPath);
+            showError("Video file not found: " + newVideoPath);
             return false;
         }
 
-        this.videoPath = newVideoPath;
-
-        final boolean[] success = {false};
-        CountDownLatch latch = new CountDownLatch(1);
+        Playback playback = new Playback(newVideoPath, contentId, startSeconds, watched);
+        this.requested = playback;
+        MediaPlayerPool.getInstance().whenReady(() -> {
+            if (disposed) {
+                return;
+            }
+            if (!isInitialized) {
+                initFX();
+                return;
+            }
+            // A later call may already have moved on to another lesson
+            if (playback != requested || playback.sameContent(loaded)) {
+                return;
+            }
 
-        Platform.runLater(() -> {
+            MediaPlayerPool pool = MediaPlayerPool.getInstance();
+            pool.release(playingPath, detachPlayer());
             try {
-                // Validate new video file
-                File videoFile = new File(newVideoPath);
-                if (!videoFile.exists()) {
-                    System.err.println("Video file not found: " + newVideoPath);
-                    showError("Video file not found: " + newVideoPath);
-                    latch.countDown();
-                    return;
-                }
-
-                // Dispose old MediaPlayer
-                if (mediaPlayer != null) {
-                    System.out.println("Disposing old MediaPlayer");
-                    mediaPlayer.stop();
-                    mediaPlayer.dispose();
-                }
-
-                // Create new MediaPlayer with new video
-                String mediaUrl = videoFile.toURI().toString();
-                System.out.println("Loading new video: " + mediaUrl);
-                Media media = new Media(mediaUrl);
-                mediaPlayer = new MediaPlayer(media);
-
-                // Update the MediaView to use the new MediaPlayer
-                mediaView.setMediaPlayer(mediaPlayer);
-
-                // Handle media errors
-                mediaPlayer.setOnError(() -> {
-                    String errorMsg = "Media error: " + mediaPlayer.getError().getMessage();
-                    System.err.println(errorMsg);
-                    showError(errorMsg);
-                });
-
-                System.out.println("Video loaded successfully");
-                success[0] = true;
-
+                String source = sourceFor(newVideoPath, displayHeight());
+                attachPlayer(pool.acquire(source), playback, source);
             } catch (Exception e) {
                 System.err.println("Failed to load video: " + e.getMessage());
                 e.printStackTrace();
                 showError("Failed to load video: " + e.getMessage());
-                success[0] = false;
-            } finally {
-                latch.countDown();
             }
         });
-
-        // Wait for video loading to complete
-        try {
-            latch.await(2000, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            System.err.println("Video loading wait interrupted");
-            return false;
-        }
-
-        return success[0];
+        return true;
     }
 
     /**
@@ -591,6 +750,10 @@ public class VideoPlayerPanel extends JPanel {
 
         Platform.runLater(() -> {
             try {
+                // Full screen may deserve a sharper rendition; switch before the controls attach to the player
+                Screen screen = Screen.getPrimary();
+                switchSource((int) Math.round(screen.getBounds().getHeight() * screen.getOutputScaleY()));
+
                 // Store reference to original parent
                 originalParent = (BorderPane) mediaView.getParent();
                 
@@ -691,6 +854,7 @@ public class VideoPlayerPanel extends JPanel {
                 }
 
                 isFullscreen = false;
+                switchSource(displayHeight());
                 System.out.println("Exited fullscreen mode");
 
             } catch (Exception e) {
@@ -789,10 +953,9 @@ public class VideoPlayerPanel extends JPanel {
     /**
      * Release resources
      * IMPORTANT: Call this when disposing the panel
+     * The player and view go back to the pool, so reopening the lesson is quick.
      */
     public void dispose() {
-        System.out.println("VideoPlayerPanel.dispose() called for: " + videoPath);
-
         // Exit fullscreen if currently in fullscreen mode
         if (isFullscreen) {
             exitFullscreen();
@@ -800,60 +963,29 @@ public class VideoPlayerPanel extends JPanel {
 
         // Mark as disposed to prevent any pending initFX from running
         disposed = true;
+        reselectTimer.stop();
         isInitialized = false;
 
-        if (mediaPlayer != null) {
-            final MediaPlayer playerToDispose = mediaPlayer;
-            final JFXPanel panelToClean = fxPanel;
-            mediaPlayer = null;
-
-            CountDownLatch latch = new CountDownLatch(1);
-
-            Platform.runLater(() -> {
-                try {
-                    System.out.println("Disposing MediaPlayer on FX thread");
-                    playerToDispose.stop();
-                    playerToDispose.dispose();
-
-                    // Clear MediaView reference
-                    if (mediaView != null) {
-                        mediaView.setMediaPlayer(null);
-                        mediaView = null;
-                    }
-
-                    // Also clear the scene
-                    if (panelToClean != null) {
-                        panelToClean.setScene(null);
-                        System.out.println("JFXPanel scene cleared");
-                    }
-
-                    System.out.println("MediaPlayer disposed successfully");
-                } catch (Exception e) {
-                    System.err.println("Error during MediaPlayer disposal: " + e.getMessage());
-                    e.printStackTrace();
-                } finally {
-                    latch.countDown();
-                }
-            });
-
-            // Wait for disposal to complete
+        final JFXPanel panelToClean = fxPanel;
+        Platform.runLater(() -> {
             try {
-                latch.await(1000, TimeUnit.MILLISECONDS);
-                System.out.println("Disposal completed");
-            } catch (InterruptedException e) {
-                System.err.println("Disposal wait interrupted");
-            }
-        } else if (fxPanel != null) {
-            // Even if no media player, still clear the scene
-            Platform.runLater(() -> {
-                try {
-                    fxPanel.setScene(null);
-                    System.out.println("JFXPanel scene cleared (no media player)");
-                } catch (Exception e) {
-                    System.err.println("Error clearing scene: " + e.getMessage());
+                MediaPlayerPool pool = MediaPlayerPool.getInstance();
+                if (playbackTimer != null) {
+                    playbackTimer.stop();
                 }
-            });
-        }
+                if (mediaView != null) {
+                    pool.release(playingPath, detachPlayer());
+                    pool.releaseView(mediaView);
+                    mediaView = null;
+                }
+                if (panelToClean != null) {
+                    panelToClean.setScene(null);
+                }
+            } catch (Exception e) {
+                System.err.println("Error during MediaPlayer disposal: " + e.getMessage());
+                e.printStackTrace();
+            }
+        });
     }
 
     /**
@@ -869,4 +1001,25 @@ public class VideoPlayerPanel extends JPanel {
     public boolean isInitialized() {
         return isInitialized;
     }
+
+    /**
+     * A video the panel was asked to show, and where to start it
+     */
+    private static class Playback {
+        private final String path;
+        private final int contentId;
+        private final double startSeconds;
+        private final WatchCoverage watched;
+
+        Playback(String path, int contentId, double startSeconds, WatchCoverage watched) {
+            this.path = path;
+            this.contentId = contentId;
+            this.startSeconds = startSeconds;
+            this.watched = watched;
+        }
+
+        boolean sameContent(Playback other) {
+            return other != null && contentId == other.contentId && path.equals(other.path);
+        }
+    }
 }
@@ -8,6 +8,7 @@ import com.elearning.service.CourseService;
 import com.elearning.service.EnrollmentService;
 import com.elearning.service.LessonService;
 import com.elearning.service.LoginLogService;
+import com.elearning.service.TestService;
 import com.elearning.ui.components.LoginCalendarPanel;
 import com.elearning.ui.components.ModernButton;
 import com.elearning.ui.components.ModernTextField;
@@ -16,6 +17,7 @@ import com.elearning.util.ChartUtil;
 import com.elearning.ui.components.StarRatingPanel;
 import com.elearning.util.CourseCardImageUtil;
 import com.elearning.util.FileUtil;
+import com.elearning.util.ScoreDistribution;
 import com.elearning.util.SessionManager;
 import com.elearning.util.VideoUtil;
 import org.jfree.chart.ChartPanel;
@@ -451,8 +453,7 @@ public class InstructorDashboard extends JFrame {
         JLabel imageLabel = new JLabel();
         imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
         imageLabel.setVerticalAlignment(SwingConstants.CENTER);
-        ImageIcon icon = CourseCardImageUtil.loadCourseThumbnail(course.getThumbnailPath(), course.getTitle(), 280, 140);
-        imageLabel.setIcon(icon);
+        CourseCardImageUtil.applyCourseThumbnail(imageLabel, course.getThumbnailPath(), course.getTitle(), 280, 140);
         imagePanel.add(imageLabel, BorderLayout.CENTER);
 
         JPanel body = new JPanel();
@@ -715,7 +716,8 @@ public class InstructorDashboard extends JFrame {
             contentPanel.add(statsCardsPanel);
 
             // Charts panel
-            JPanel chartsPanel = new JPanel(new GridLayout(1, 1, 15, 15));
+            ScoreDistribution scores = TestService.getInstance().getInstructorScoreDistribution(currentUser.getId());
+            JPanel chartsPanel = new JPanel(new GridLayout(1, scores.getCount() > 0 ? 2 : 1, 15, 15));
             chartsPanel.setBackground(Color.WHITE);
             chartsPanel.setBorder(BorderFactory.createEmptyBorder(0, 20, 20, 20));
 
@@ -727,6 +729,11 @@ public class InstructorDashboard extends JFrame {
             );
             chartsPanel.add(performanceChart);
 
+            // Test scores across all of the instructor's courses
+            if (scores.getCount() > 0) {
+                chartsPanel.add(ChartUtil.createScoreHistogramChart(scores.getScoreHistogram()));
+            }
+
             contentPanel.add(chartsPanel);
 
         } catch (Exception e) {
@@ -912,11 +919,11 @@ public class InstructorDashboard extends JFrame {
         topPanel.add(buttonPanel, BorderLayout.EAST);
 
         // Lessons table
-        String[] columnNames = {"Order", "ID", "Title", "Duration (min)", "Preview", "Video", "Actions"};
+        String[] columnNames = {"Order", "ID", "Title", "Duration (min)", "Preview", "Video", "Views", "Likes", "Actions"};
         DefaultTableModel lessonsModel = new DefaultTableModel(columnNames, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
-                return column == 6; // Only Actions column
+                return column == 8; // Only Actions column
             }
         };
 
@@ -939,6 +946,8 @@ public class InstructorDashboard extends JFrame {
                         lesson.getDurationMinutes() != null ? lesson.getDurationMinutes() : 0,
                         lesson.isPreview() ? "Yes" : "No",
                         lesson.getVideoPath() != null ? "\u2713" : "\u2717",
+                        lesson.getViewCount(),
+                        lesson.getLikeCount(),
                         "Actions"
                 };
                 lessonsModel.addRow(row);
@@ -1053,8 +1062,8 @@ public class InstructorDashboard extends JFrame {
                 }
 
                 selectedVideoPath[0] = selectedFile.getAbsolutePath();
-                videoLabel.setText("Selected: " + selectedFile.getName() + " (" +
-                        VideoUtil.formatFileSize(selectedFile.length()) + ")");
+                videoLabel.setText("Selected: " + VideoUtil.getVideoInfo(selectedVideoPath[0]));
+                VideoUtil.fillDurationFromVideo(durationSpinner, selectedVideoPath[0]);
             }
         });
 
@@ -1118,9 +1127,9 @@ public class InstructorDashboard extends JFrame {
                     // Now upload video if one was selected
                     if (selectedVideoPath[0] != null && !selectedVideoPath[0].isEmpty()) {
                         try {
-                            // Copy video file to project directory
+                            // Copy the already selected file to project directory
                             File sourceFile = new File(selectedVideoPath[0]);
-                            String uploadedPath = VideoUtil.uploadVideo(dialog, courseId, lesson.getId());
+                            String uploadedPath = VideoUtil.uploadVideo(dialog, sourceFile, courseId, lesson.getId());
 
                             if (uploadedPath != null) {
                                 // Update lesson with video path
@@ -1228,8 +1237,8 @@ public class InstructorDashboard extends JFrame {
             String newVideoPath = VideoUtil.updateVideo(dialog, courseId, lessonId, lesson.getVideoPath());
             if (newVideoPath != null) {
                 selectedVideoPath[0] = newVideoPath;
-                videoLabel.setText("New video: " + new File(newVideoPath).getName() +
-                        " (" + VideoUtil.getVideoInfo(newVideoPath) + ")");
+                videoLabel.setText("New video: " + VideoUtil.getVideoInfo(newVideoPath));
+                VideoUtil.fillDurationFromVideo(durationSpinner, newVideoPath);
             }
         });
 
@@ -7,10 +7,15 @@ import com.elearning.model.Lesson;
 import com.elearning.model.LessonProgress;
 import com.elearning.service.CommentService;
 import com.elearning.service.EnrollmentService;
+import com.elearning.service.LessonLikeService;
 import com.elearning.service.LessonService;
+import com.elearning.service.MediaServer;
+import com.elearning.service.TranscodeService;
+import com.elearning.ui.components.MediaPlayerPool;
 import com.elearning.ui.components.VideoPlayerPanel;
 import com.elearning.ui.components.UITheme;
 import com.elearning.util.SessionManager;
+import com.elearning.util.WatchCoverage;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -24,6 +29,9 @@ import java.util.Map;
  * FEATURE 2 & 3: Video Viewing and Progress Tracking
  */
 public class LessonViewerDialog extends JDialog {
+    private static final int COMMENT_PAGE_SIZE = 20;
+    private static final int MAX_REPLY_INDENT_DEPTH = 3;
+
     private final Course course;
     private final int userId;
     private List<Lesson> lessons;
@@ -39,8 +47,10 @@ public class LessonViewerDialog extends JDialog {
     private JButton postCommentButton;
     private JScrollPane commentsScrollPane;
     private JLabel commentsTitleLabel;
+    private Comment lastCommentRoot; // Keyset cursor for "Load more"
     private VideoPlayerPanel videoPlayer;
     private JButton markCompleteBtn;
+    private JButton likeButton;
     private JLabel progressLabel;
     private JProgressBar courseProgressBar;
 
@@ -48,6 +58,8 @@ public class LessonViewerDialog extends JDialog {
     private final EnrollmentService enrollmentService;
     private final LessonProgressDAO progressDAO;
     private final CommentService commentService;
+    private final LessonLikeService lessonLikeService;
+    private final TranscodeService transcodeService;
     private final String currentUserRole;
     private final boolean allowLessonComments;
     private final boolean allowLessonCompletion;
@@ -60,6 +72,8 @@ public class LessonViewerDialog extends JDialog {
         this.enrollmentService = EnrollmentService.getInstance();
         this.progressDAO = new LessonProgressDAO();
         this.commentService = CommentService.getInstance();
+        this.lessonLikeService = LessonLikeService.getInstance();
+        this.transcodeService = TranscodeService.getInstance();
         this.progressMap = new HashMap<>();
         this.currentUserRole = SessionManager.getInstance().getCurrentUser().getRole();
         this.allowLessonComments = "USER".equals(currentUserRole) || "INSTRUCTOR".equals(currentUserRole);
@@ -69,6 +83,11 @@ public class LessonViewerDialog extends JDialog {
         loadLessons();
         loadProgress();
 
+        // Open the first lesson once its progress (completion, resume position) is known
+        if (!lessons.isEmpty()) {
+            lessonList.setSelectedIndex(0);
+        }
+
         // Add window closing listener for cleanup
         addWindowListener(new java.awt.event.WindowAdapter() {
             @Override
@@ -228,6 +247,13 @@ public class LessonViewerDialog extends JDialog {
         }
         markCompleteBtn.addActionListener(e -> markLessonComplete());
 
+        likeButton = new JButton("Like");
+        likeButton.setFont(new Font("Segoe UI", Font.BOLD, 11));
+        likeButton.setFocusPainted(false);
+        likeButton.setPreferredSize(new Dimension(110, 34));
+        likeButton.setEnabled(false);
+        likeButton.addActionListener(e -> toggleLike());
+
         JPanel descPanel = new JPanel(new BorderLayout(5, 5));
         descPanel.setBackground(Color.WHITE);
         descPanel.add(descLabel, BorderLayout.NORTH);
@@ -305,6 +331,7 @@ public class LessonViewerDialog extends JDialog {
 
             JPanel actions = new JPanel(new FlowLayout(FlowLayout.RIGHT, 8, 0));
             actions.setBackground(Color.WHITE);
+            actions.add(likeButton);
             actions.add(postCommentButton);
             actions.add(markCompleteBtn);
 
@@ -329,18 +356,23 @@ public class LessonViewerDialog extends JDialog {
         for (Lesson lesson : lessons) {
             lessonListModel.addElement(lesson);
         }
-
-        // Select first lesson if available
-        if (!lessons.isEmpty()) {
-            lessonList.setSelectedIndex(0);
-        }
     }
 
     private void loadProgress() {
         try {
+            // Students: one query, including playback checkpoints not written yet
+            Map<Integer, LessonProgress> stored = new HashMap<>();
+            if (allowLessonCompletion) {
+                for (LessonProgress progress : enrollmentService.getCourseProgress(userId, course.getId())) {
+                    stored.put(progress.getLessonId(), progress);
+                }
+            }
+
             // Load progress for all lessons
             for (Lesson lesson : lessons) {
-                LessonProgress progress = progressDAO.findByUserAndLesson(userId, lesson.getId());
+                LessonProgress progress = allowLessonCompletion
+                        ? stored.get(lesson.getId())
+                        : progressDAO.findByUserAndLesson(userId, lesson.getId());
                 if (progress != null) {
                     progressMap.put(lesson.getId(), progress);
                 } else {
@@ -383,9 +415,10 @@ public class LessonViewerDialog extends JDialog {
 
         // Handle video
         if (lesson.getVideoPath() != null && !lesson.getVideoPath().isEmpty()) {
-            // Validate video file exists first
-            java.io.File videoFile = new java.io.File(lesson.getVideoPath());
-            if (!videoFile.exists()) {
+            // Lets the player pick a rendition for its size once loaded; until then it plays the original
+            transcodeService.loadRenditionsAsync(lesson.getVideoPath());
+            // Validate video file exists first (locally, or on the remote media host)
+            if (!MediaServer.getInstance().isPlayable(lesson.getVideoPath())) {
                 System.err.println("Video file not found: " + lesson.getVideoPath());
                 // Dispose broken video player if it exists
                 if (videoPlayer != null) {
@@ -395,7 +428,7 @@ public class LessonViewerDialog extends JDialog {
                 }
                 // Show error message
                 centerPanel.removeAll();
-                JLabel errorLabel = new JLabel("Video file not found: " + videoFile.getName(), SwingConstants.CENTER);
+                JLabel errorLabel = new JLabel("Video file not found: " + new java.io.File(lesson.getVideoPath()).getName(), SwingConstants.CENTER);
                 errorLabel.setForeground(Color.RED);
                 centerPanel.add(errorLabel, BorderLayout.CENTER);
                 centerPanel.revalidate();
@@ -405,7 +438,7 @@ public class LessonViewerDialog extends JDialog {
                 centerPanel.removeAll();
                 try {
                     System.out.println("Creating video player for first lesson: " + lesson.getVideoPath());
-                    videoPlayer = new VideoPlayerPanel(lesson.getVideoPath());
+                    videoPlayer = createVideoPlayer(lesson);
                     centerPanel.add(videoPlayer, BorderLayout.CENTER);
                     centerPanel.revalidate();
                     centerPanel.repaint();
@@ -420,34 +453,12 @@ public class LessonViewerDialog extends JDialog {
                     centerPanel.revalidate();
                     centerPanel.repaint();
                 }
-            } else if (!videoPlayer.isInitialized()) {
-                // Video player exists but failed to initialize - recreate it
-                System.out.println("Video player not initialized, disposing and recreating");
-                videoPlayer.dispose();
-                videoPlayer = null;
-                centerPanel.removeAll();
-                try {
-                    System.out.println("Recreating video player: " + lesson.getVideoPath());
-                    videoPlayer = new VideoPlayerPanel(lesson.getVideoPath());
-                    centerPanel.add(videoPlayer, BorderLayout.CENTER);
-                    centerPanel.revalidate();
-                    centerPanel.repaint();
-                    System.out.println("Video player recreated successfully");
-                } catch (Exception ex) {
-                    System.err.println("Error recreating video player: " + ex.getMessage());
-                    ex.printStackTrace();
-                    videoPlayer = null;
-                    JLabel errorLabel = new JLabel("Error loading video: " + ex.getMessage(), SwingConstants.CENTER);
-                    errorLabel.setForeground(Color.RED);
-                    centerPanel.add(errorLabel, BorderLayout.CENTER);
-                    centerPanel.revalidate();
-                    centerPanel.repaint();
-                }
             } else {
-                // Reuse existing player and just change the video source
-                System.out.println("Disposing resources for video: " + videoPlayer.getName());
+                // Reuse existing player and just change the video source (prefetched if it is the next lesson)
                 System.out.println("Reusing video player, loading new video: " + lesson.getVideoPath());
-                boolean loadSuccess = videoPlayer.loadVideo(lesson.getVideoPath());
+                LessonProgress resume = progressMap.get(lesson.getId());
+                boolean loadSuccess = videoPlayer.loadVideo(lesson.getVideoPath(), lesson.getId(),
+                        resumeSeconds(resume), watchedCoverage(resume));
                 if (!loadSuccess) {
                     System.err.println("Failed to load video, disposing and recreating player");
                     videoPlayer.dispose();
@@ -455,7 +466,7 @@ public class LessonViewerDialog extends JDialog {
                     centerPanel.removeAll();
                     try {
                         System.out.println("Recreating video player after load failure: " + lesson.getVideoPath());
-                        videoPlayer = new VideoPlayerPanel(lesson.getVideoPath());
+                        videoPlayer = createVideoPlayer(lesson);
                         centerPanel.add(videoPlayer, BorderLayout.CENTER);
                         centerPanel.revalidate();
                         centerPanel.repaint();
@@ -489,27 +500,10 @@ public class LessonViewerDialog extends JDialog {
             centerPanel.revalidate();
             centerPanel.repaint();
         }
+        prefetchNextVideo(lesson);
 
         // Update mark complete button
-        LessonProgress progress = progressMap.get(lesson.getId());
-        if (allowLessonCompletion) {
-            if (progress != null && progress.isCompleted()) {
-                markCompleteBtn.setText("Completed");
-                markCompleteBtn.setEnabled(false);
-                markCompleteBtn.setBackground(new Color(148, 163, 184)); // Gray
-                markCompleteBtn.setToolTipText("Completed");
-            } else {
-                markCompleteBtn.setText("Complete");
-                markCompleteBtn.setEnabled(true);
-                markCompleteBtn.setBackground(UITheme.ACCENT); // Green
-                markCompleteBtn.setToolTipText("Mark Complete");
-            }
-        } else {
-            markCompleteBtn.setText("Complete");
-            markCompleteBtn.setEnabled(false);
-            markCompleteBtn.setBackground(new Color(148, 163, 184));
-            markCompleteBtn.setToolTipText("Students only");
-        }
+        updateCompleteButton(lesson, 0);
 
         // Mark lesson as opened
         try {
@@ -518,6 +512,12 @@ public class LessonViewerDialog extends JDialog {
             // Ignore errors for opening lesson
         }
 
+        // Count the view (students only, so instructors previewing do not inflate it)
+        if (allowLessonCompletion) {
+            lessonLikeService.recordView(userId, lesson.getId());
+        }
+        updateLikeButton(lessonLikeService.isLiked(lesson.getId(), userId), lesson.getLikeCount());
+
         if (allowLessonComments) {
             commentInputArea.setEnabled(true);
             postCommentButton.setEnabled(true);
@@ -535,25 +535,16 @@ public class LessonViewerDialog extends JDialog {
             return;
         }
 
+        lastCommentRoot = null;
         try {
-            List<Comment> comments = commentService.getTopLevelComments(currentLesson.getId());
             int totalCount = commentService.getCommentCount(currentLesson.getId());
             commentsTitleLabel.setText("Lesson Comments (" + totalCount + ")");
 
-            if (comments.isEmpty()) {
+            if (!appendCommentPage()) {
                 JLabel emptyLabel = new JLabel("No comments yet. Start the discussion.");
                 emptyLabel.setFont(new Font("Segoe UI", Font.PLAIN, 11));
                 emptyLabel.setForeground(UITheme.MUTED_TEXT);
                 commentsListPanel.add(emptyLabel);
-            } else {
-                for (Comment comment : comments) {
-                    commentsListPanel.add(createCommentCard(comment, 0));
-                    List<Comment> replies = commentService.getReplies(comment.getId());
-                    for (Comment reply : replies) {
-                        commentsListPanel.add(createCommentCard(reply, 18));
-                    }
-                    commentsListPanel.add(Box.createRigidArea(new Dimension(0, 8)));
-                }
             }
         } catch (Exception e) {
             JLabel errorLabel = new JLabel("Error loading comments: " + e.getMessage());
@@ -565,6 +556,50 @@ public class LessonViewerDialog extends JDialog {
         commentsListPanel.repaint();
     }
 
+    /**
+     * Load the next page of comment threads (one query) and append it
+     * Returns false when the page was empty
+     */
+    private boolean appendCommentPage() {
+        List<Comment> threads = commentService.getCommentThreads(currentLesson.getId(), lastCommentRoot, COMMENT_PAGE_SIZE);
+        if (threads.isEmpty()) {
+            return false;
+        }
+
+        for (Comment comment : threads) {
+            addCommentThread(comment, 0);
+            commentsListPanel.add(Box.createRigidArea(new Dimension(0, 8)));
+        }
+        lastCommentRoot = threads.get(threads.size() - 1);
+
+        if (threads.size() == COMMENT_PAGE_SIZE) {
+            JButton loadMoreBtn = new JButton("Load more comments");
+            loadMoreBtn.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+            loadMoreBtn.setFocusPainted(false);
+            loadMoreBtn.addActionListener(e -> {
+                commentsListPanel.remove(loadMoreBtn);
+                try {
+                    appendCommentPage();
+                } catch (Exception ex) {
+                    JLabel errorLabel = new JLabel("Error loading comments: " + ex.getMessage());
+                    errorLabel.setForeground(UITheme.DANGER);
+                    commentsListPanel.add(errorLabel);
+                }
+                commentsListPanel.revalidate();
+                commentsListPanel.repaint();
+            });
+            commentsListPanel.add(loadMoreBtn);
+        }
+        return true;
+    }
+
+    private void addCommentThread(Comment comment, int depth) {
+        commentsListPanel.add(createCommentCard(comment, Math.min(depth, MAX_REPLY_INDENT_DEPTH) * 18));
+        for (Comment reply : comment.getReplies()) {
+            addCommentThread(reply, depth + 1);
+        }
+    }
+
     private JPanel createCommentCard(Comment comment, int indent) {
         JPanel card = new JPanel(new BorderLayout(4, 4));
         card.setBackground(new Color(236, 254, 255));
@@ -698,25 +733,31 @@ public class LessonViewerDialog extends JDialog {
             return;
         }
 
+        completeLesson(currentLesson.getId(), false);
+    }
+
+    /**
+     * Complete a lesson; automatic completions (from watch time) only pop up for the whole course
+     */
+    private void completeLesson(int lessonId, boolean automatic) {
         try {
-            boolean success = enrollmentService.completeLesson(userId, currentLesson.getId());
+            boolean success = enrollmentService.completeLesson(userId, lessonId);
 
             if (success) {
                 // Update local progress map
-                LessonProgress progress = progressMap.get(currentLesson.getId());
+                LessonProgress progress = progressMap.get(lessonId);
                 if (progress == null) {
                     progress = new LessonProgress();
                     progress.setUserId(userId);
-                    progress.setLessonId(currentLesson.getId());
-                    progressMap.put(currentLesson.getId(), progress);
+                    progress.setLessonId(lessonId);
+                    progressMap.put(lessonId, progress);
                 }
                 progress.setCompleted(true);
 
                 // Update UI
-                markCompleteBtn.setText("Completed");
-                markCompleteBtn.setEnabled(false);
-                markCompleteBtn.setBackground(new Color(148, 163, 184)); // Gray
-                markCompleteBtn.setToolTipText("Completed");
+                if (currentLesson != null && currentLesson.getId() == lessonId) {
+                    updateCompleteButton(currentLesson, 0);
+                }
 
                 // Repaint lesson list to show checkmark
                 lessonList.repaint();
@@ -736,7 +777,7 @@ public class LessonViewerDialog extends JDialog {
                             UITheme.ACCENT,
                             UITheme.TEXT
                     );
-                } else {
+                } else if (!automatic) {
                     showStatusDialog(
                             "Success",
                             "Lesson marked as complete!",
@@ -744,6 +785,9 @@ public class LessonViewerDialog extends JDialog {
                             UITheme.TEXT
                     );
                 }
+            } else if (automatic) {
+                // Retried on the next playback checkpoint
+                System.err.println("Could not auto-complete lesson " + lessonId);
             } else {
                 showStatusDialog(
                         "Error",
@@ -753,6 +797,10 @@ public class LessonViewerDialog extends JDialog {
                 );
             }
         } catch (Exception e) {
+            if (automatic) {
+                System.err.println("Could not auto-complete lesson " + lessonId + ": " + e.getMessage());
+                return;
+            }
             showStatusDialog(
                     "Error",
                     "Error: " + e.getMessage(),
@@ -762,6 +810,89 @@ public class LessonViewerDialog extends JDialog {
         }
     }
 
+    /**
+     * Player for a lesson video, resuming where the student left off
+     */
+    private VideoPlayerPanel createVideoPlayer(Lesson lesson) {
+        LessonProgress progress = progressMap.get(lesson.getId());
+        VideoPlayerPanel player = new VideoPlayerPanel(lesson.getVideoPath(), lesson.getId(),
+                resumeSeconds(progress), watchedCoverage(progress));
+        player.setSourceSelector(transcodeService::selectSource);
+        if (allowLessonCompletion) {
+            player.setPlaybackListener(this::onPlaybackCheckpoint);
+        }
+        return player;
+    }
+
+    private static double resumeSeconds(LessonProgress progress) {
+        return progress != null ? progress.getPositionSeconds() : 0;
+    }
+
+    private static WatchCoverage watchedCoverage(LessonProgress progress) {
+        return WatchCoverage.fromBytes(progress != null ? progress.getWatchedBitmap() : null);
+    }
+
+    /**
+     * Playback checkpoint from the video player (FX thread)
+     * The checkpoint is buffered by the service; once enough of the video has
+     * been covered the lesson completes without a click.
+     */
+    private void onPlaybackCheckpoint(int lessonId, int positionSeconds, WatchCoverage watched, int durationSeconds) {
+        boolean watchedEnough = enrollmentService.recordPlayback(
+                userId, lessonId, positionSeconds, watched, durationSeconds);
+
+        SwingUtilities.invokeLater(() -> {
+            LessonProgress progress = progressMap.get(lessonId);
+            if (progress == null) {
+                return;
+            }
+            WatchCoverage merged = watchedCoverage(progress);
+            merged.merge(watched);
+            progress.setPositionSeconds(positionSeconds);
+            progress.setWatchedBitmap(merged.toBytes());
+            progress.setWatchedSeconds(durationSeconds > 0 ? merged.coveredSeconds(durationSeconds) : merged.coveredSeconds());
+
+            if (watchedEnough && !progress.isCompleted()) {
+                completeLesson(lessonId, true);
+            } else if (currentLesson != null && currentLesson.getId() == lessonId) {
+                updateCompleteButton(currentLesson, durationSeconds);
+            }
+        });
+    }
+
+    /**
+     * Show whether the lesson is done; for videos, how much has been watched so far
+     */
+    private void updateCompleteButton(Lesson lesson, int durationSeconds) {
+        LessonProgress progress = progressMap.get(lesson.getId());
+        if (!allowLessonCompletion) {
+            markCompleteBtn.setText("Complete");
+            markCompleteBtn.setEnabled(false);
+            markCompleteBtn.setBackground(new Color(148, 163, 184));
+            markCompleteBtn.setToolTipText("Students only");
+        } else if (progress != null && progress.isCompleted()) {
+            markCompleteBtn.setText("Completed");
+            markCompleteBtn.setEnabled(false);
+            markCompleteBtn.setBackground(new Color(148, 163, 184)); // Gray
+            markCompleteBtn.setToolTipText("Completed");
+        } else {
+            markCompleteBtn.setText("Complete");
+            markCompleteBtn.setEnabled(true);
+            markCompleteBtn.setBackground(UITheme.ACCENT); // Green
+            markCompleteBtn.setToolTipText("Mark Complete");
+
+            if (durationSeconds <= 0 && lesson.getDurationSeconds() != null) {
+                durationSeconds = lesson.getDurationSeconds();
+            }
+            if (videoPlayer != null && durationSeconds > 0) {
+                int watched = progress != null ? progress.getWatchedSeconds() : 0;
+                int percent = (int) Math.min(100, watched * 100L / durationSeconds);
+                markCompleteBtn.setToolTipText(String.format("Watched %d%% - completes automatically at %d%%",
+                        percent, EnrollmentService.AUTO_COMPLETE_PERCENT));
+            }
+        }
+    }
+
     private void updateCourseProgress() {
         if (lessons == null || lessons.isEmpty()) {
             return;
@@ -784,7 +915,48 @@ public class LessonViewerDialog extends JDialog {
         courseProgressBar.setString(progressInt + "%");
     }
 
+    private void toggleLike() {
+        if (currentLesson == null) {
+            return;
+        }
+        try {
+            boolean liked = lessonLikeService.toggleLike(currentLesson.getId(), userId, currentUserRole);
+            int likeCount = lessonLikeService.getLikeCount(currentLesson.getId());
+            currentLesson.setLikeCount(likeCount);
+            updateLikeButton(liked, likeCount);
+        } catch (SecurityException | IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Let the player pool open the next lesson's video while this one plays
+     */
+    private void prefetchNextVideo(Lesson lesson) {
+        int index = lessons.indexOf(lesson);
+        if (index >= 0 && index + 1 < lessons.size()) {
+            // Prefetch the file the player will pick, which may be a rendition
+            String nextPath = lessons.get(index + 1).getVideoPath();
+            transcodeService.loadRenditionsAsync(nextPath).thenRun(() -> SwingUtilities.invokeLater(() -> {
+                if (!isDisplayable()) {
+                    return;
+                }
+                int displayHeight = videoPlayer != null ? videoPlayer.getDisplayHeight() : 0;
+                MediaPlayerPool.getInstance().prefetch(transcodeService.selectSource(nextPath, displayHeight));
+            }));
+        }
+    }
+
+    private void updateLikeButton(boolean liked, int likeCount) {
+        likeButton.setText((liked ? "\u2665 " : "\u2661 ") + likeCount);
+        likeButton.setToolTipText(liked ? "Unlike" : "Like");
+        likeButton.setForeground(liked ? UITheme.DANGER : UITheme.TEXT);
+        likeButton.setEnabled(allowLessonComments);
+    }
+
     private void disposeResources() {
+        enrollmentService.flushLessonAccess();
+        lessonLikeService.flushViews();
         if (videoPlayer != null) {
             try {
                 System.out.println("Disposing resources for video: " + videoPlayer.getName());
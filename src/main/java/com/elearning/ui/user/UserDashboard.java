@@ -516,7 +516,9 @@ public class UserDashboard extends JFrame {
                 String lastLoginText = lastLogin != null
                         ? lastLogin.format(DateTimeFormatter.ofPattern("MMM dd, yyyy"))
                         : "N/A";
-                calendarSummaryLabel.setText("Logged in on " + loginDates.size() + " day(s). Last: " + lastLoginText);
+                LoginLogService.LoginStats stats = loginLogService.getLoginStats(currentUser.getId(), calendarMonth);
+                calendarSummaryLabel.setText("Logged in on " + loginDates.size() + " day(s). Last: " + lastLoginText
+                        + ". Streak: " + stats.getCurrentStreak() + " (best " + stats.getLongestStreak() + ")");
             }
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this,
@@ -657,8 +659,7 @@ public class UserDashboard extends JFrame {
         JLabel imageLabel = new JLabel();
         imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
         imageLabel.setVerticalAlignment(SwingConstants.CENTER);
-        ImageIcon icon = CourseCardImageUtil.loadCourseThumbnail(thumbnailPath, title, 280, 140);
-        imageLabel.setIcon(icon);
+        CourseCardImageUtil.applyCourseThumbnail(imageLabel, thumbnailPath, title, 280, 140);
         imagePanel.add(imageLabel, BorderLayout.CENTER);
 
         JPanel body = new JPanel();
@@ -884,7 +885,7 @@ public class UserDashboard extends JFrame {
                 "Max Attempts: %s\n\n" +
                 "Are you ready to take the test?",
                 test.getTitle(),
-                testService.getQuestions(test.getId()).size(),
+                testService.getAttemptQuestionCount(test),
                 test.getPassingScore(),
                 test.getTimeLimitMinutes() != null ? test.getTimeLimitMinutes() + " minutes" : "No limit",
                 test.getMaxAttempts() != null ? String.valueOf(test.getMaxAttempts()) : "Unlimited"
@@ -974,6 +975,7 @@ public class UserDashboard extends JFrame {
     }
 
     private void logout() {
+        enrollmentService.flushLessonAccess();
         SessionManager.getInstance().logout();
         dispose();
         SwingUtilities.invokeLater(() -> {
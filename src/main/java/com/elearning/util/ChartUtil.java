@@ -1,5 +1,6 @@
 package com.elearning.util;
 
+import com.elearning.service.ActiveUserService;
 import com.elearning.service.AnalyticsService;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
@@ -117,6 +118,129 @@ public class ChartUtil {
         return chartPanel;
     }
 
+    /**
+     * Create a test score histogram bar chart
+     */
+    public static ChartPanel createScoreHistogramChart(long[] histogram) {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+
+        for (int i = 0; i < histogram.length; i++) {
+            dataset.addValue(histogram[i], "Attempts", ScoreDistribution.getBucketLabel(i));
+        }
+
+        JFreeChart chart = ChartFactory.createBarChart(
+                "Score Distribution",
+                "Score",
+                "Attempts",
+                dataset,
+                PlotOrientation.VERTICAL,
+                false,
+                true,
+                false
+        );
+
+        // Customize chart appearance
+        CategoryPlot plot = chart.getCategoryPlot();
+        plot.setBackgroundPaint(Color.WHITE);
+        plot.setRangeGridlinePaint(Color.GRAY);
+        plot.getDomainAxis().setCategoryLabelPositions(CategoryLabelPositions.UP_45);
+        chart.setBackgroundPaint(Color.WHITE);
+
+        ChartPanel chartPanel = new ChartPanel(chart);
+        chartPanel.setPreferredSize(new Dimension(500, 300));
+        return chartPanel;
+    }
+
+    /**
+     * Create a learning curve line chart (average score per attempt number)
+     */
+    public static ChartPanel createLearningCurveChart(double[] averageScoreByAttempt) {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+
+        for (int i = 0; i < averageScoreByAttempt.length; i++) {
+            if (!Double.isNaN(averageScoreByAttempt[i])) {
+                dataset.addValue(averageScoreByAttempt[i], "Average Score", "#" + (i + 1));
+            }
+        }
+
+        JFreeChart chart = ChartFactory.createLineChart(
+                "Learning Curve",
+                "Attempt",
+                "Average Score (%)",
+                dataset,
+                PlotOrientation.VERTICAL,
+                false,
+                true,
+                false
+        );
+
+        // Customize chart appearance
+        CategoryPlot plot = chart.getCategoryPlot();
+        plot.setBackgroundPaint(Color.WHITE);
+        plot.setRangeGridlinePaint(new Color(230, 230, 230));
+        chart.setBackgroundPaint(Color.WHITE);
+
+        LineAndShapeRenderer renderer = new LineAndShapeRenderer();
+        renderer.setSeriesPaint(0, new Color(47, 111, 235));
+        renderer.setSeriesStroke(0, new BasicStroke(2.5f));
+        renderer.setSeriesShapesVisible(0, true);
+        plot.setRenderer(renderer);
+
+        ChartPanel chartPanel = new ChartPanel(chart);
+        chartPanel.setPreferredSize(new Dimension(500, 300));
+        return chartPanel;
+    }
+
+    /**
+     * Create a DAU/WAU/MAU line chart, one point per day
+     */
+    public static ChartPanel createActiveUsersTrendChart(Map<LocalDate, ActiveUserService.ActiveUserCounts> trend) {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd");
+
+        for (ActiveUserService.ActiveUserCounts counts : trend.values()) {
+            String label = counts.getDay().format(formatter);
+            dataset.addValue(counts.getDailyActive(), "DAU", label);
+            dataset.addValue(counts.getWeeklyActive(), "WAU", label);
+            dataset.addValue(counts.getMonthlyActive(), "MAU", label);
+        }
+
+        JFreeChart chart = ChartFactory.createLineChart(
+                null,
+                "Date",
+                "Active Users",
+                dataset,
+                PlotOrientation.VERTICAL,
+                true,
+                true,
+                false
+        );
+
+        // Customize chart appearance
+        CategoryPlot plot = chart.getCategoryPlot();
+        plot.setBackgroundPaint(Color.WHITE);
+        plot.setRangeGridlinePaint(new Color(230, 230, 230));
+        chart.setBackgroundPaint(Color.WHITE);
+
+        CategoryAxis domainAxis = plot.getDomainAxis();
+        domainAxis.setCategoryLabelPositions(CategoryLabelPositions.UP_45);
+        domainAxis.setTickLabelFont(new Font("Segoe UI", Font.PLAIN, 9));
+
+        LineAndShapeRenderer renderer = new LineAndShapeRenderer();
+        renderer.setSeriesPaint(0, new Color(47, 111, 235));
+        renderer.setSeriesPaint(1, new Color(46, 204, 113));
+        renderer.setSeriesPaint(2, new Color(155, 89, 182));
+        for (int i = 0; i < 3; i++) {
+            renderer.setSeriesStroke(i, new BasicStroke(2.0f));
+            renderer.setSeriesShapesVisible(i, trend.size() <= 31);
+        }
+        plot.setRenderer(renderer);
+
+        ChartPanel chartPanel = new ChartPanel(chart);
+        chartPanel.setPreferredSize(new Dimension(600, 260));
+        return chartPanel;
+    }
+
     /**
      * Create a user role distribution pie chart (Students and Instructors only)
      */
@@ -0,0 +1,268 @@
+package com.elearning.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Resumable, checksummed file copy for large uploads
+ * Bytes go through FileChannel.transferTo in fixed-size chunks into a staging
+ * ".part" file next to the destination, and a SHA-256 of the content is
+ * computed on the way through. The staging name is derived from the source
+ * (path, size, modification time), so copying the same file into the same
+ * directory after a crash or cancel continues from the last complete chunk.
+ * On success the staging file is moved onto the destination in one step;
+ * readers never see a half-written video.
+ */
+public final class ChunkedFileCopy {
+    public static final int CHUNK_SIZE = 8 * 1024 * 1024;
+    private static final String STAGING_PREFIX = ".upload-";
+    private static final String STAGING_SUFFIX = ".part";
+
+    private ChunkedFileCopy() {
+    }
+
+    /**
+     * Receives progress after every chunk (called on the copying thread)
+     */
+    public interface ProgressListener {
+        void onProgress(long bytesCopied, long totalBytes);
+    }
+
+    /**
+     * Copy source to destination, resuming a previous partial copy if one exists
+     * Throws CancellationException when the thread is interrupted; the staging
+     * file is kept so the next call can resume.
+     */
+    public static Result copy(Path source, Path destination, ProgressListener listener) throws IOException {
+        long size = Files.size(source);
+        long modified = Files.getLastModifiedTime(source).toMillis();
+        Path directory = destination.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path staging = directory.resolve(stagingName(source, size, modified));
+
+        MessageDigest digest = sha256();
+        long resumedFrom = prepareStaging(staging, size, digest);
+
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(staging, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            DigestingChannel target = new DigestingChannel(out, digest);
+            out.position(resumedFrom);
+
+            long position = resumedFrom;
+            notify(listener, position, size);
+            while (position < size) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Copy cancelled at " + position + " of " + size + " bytes");
+                }
+                long chunkEnd = Math.min(size, position + CHUNK_SIZE);
+                while (position < chunkEnd) {
+                    long transferred = in.transferTo(position, chunkEnd - position, target);
+                    if (transferred <= 0) {
+                        throw new IOException("Source ended early at byte " + position + " of " + size);
+                    }
+                    position += transferred;
+                }
+                notify(listener, position, size);
+            }
+            out.force(true);
+        }
+
+        if (Files.getLastModifiedTime(source).toMillis() != modified || Files.size(source) != size) {
+            Files.deleteIfExists(staging);
+            throw new IOException("Source file changed while it was being copied");
+        }
+
+        moveIntoPlace(staging, destination);
+        return new Result(destination.toAbsolutePath(), size, toHex(digest.digest()), resumedFrom);
+    }
+
+    /**
+     * SHA-256 of a file's content as lowercase hex
+     */
+    public static String sha256Of(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1024 * 1024);
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (in.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Staging file a copy of this source into this directory would use
+     */
+    public static Path stagingFile(Path source, Path directory) throws IOException {
+        long size = Files.size(source);
+        long modified = Files.getLastModifiedTime(source).toMillis();
+        return directory.toAbsolutePath().resolve(stagingName(source, size, modified));
+    }
+
+    /**
+     * True for staging files left behind by unfinished copies
+     */
+    public static boolean isStagingFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(STAGING_PREFIX) && name.endsWith(STAGING_SUFFIX);
+    }
+
+    /**
+     * Trim a leftover staging file back to its last full chunk and hash that prefix
+     * The tail of an interrupted write is not trusted, so resuming costs at most one chunk.
+     */
+    private static long prepareStaging(Path staging, long size, MessageDigest digest) throws IOException {
+        if (!Files.exists(staging)) {
+            return 0;
+        }
+        long existing = Files.size(staging);
+        long keep = existing > size ? 0 : Math.max(0, (existing / CHUNK_SIZE - 1) * CHUNK_SIZE);
+
+        try (FileChannel part = FileChannel.open(staging, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            part.truncate(keep);
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            long position = 0;
+            while (position < keep) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), keep - position));
+                int read = part.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                buffer.flip();
+                digest.update(buffer);
+                position += read;
+            }
+        }
+        return keep;
+    }
+
+    private static void moveIntoPlace(Path staging, Path destination) throws IOException {
+        try {
+            Files.move(staging, destination, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Same directory, so this only happens on unusual file systems
+            Files.move(staging, destination, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String stagingName(Path source, long size, long modified) {
+        String identity = source.toAbsolutePath().normalize() + "|" + size + "|" + modified;
+        byte[] hash = sha256().digest(identity.getBytes(StandardCharsets.UTF_8));
+        return STAGING_PREFIX + toHex(hash).substring(0, 24) + STAGING_SUFFIX;
+    }
+
+    private static void notify(ProgressListener listener, long copied, long total) {
+        if (listener != null) {
+            listener.onProgress(copied, total);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Target channel that hashes every byte it writes
+     * transferTo falls back to a buffered copy for non-file targets, which is
+     * what lets the checksum be computed without reading the source twice.
+     */
+    private static class DigestingChannel implements WritableByteChannel {
+        private final FileChannel out;
+        private final MessageDigest digest;
+
+        DigestingChannel(FileChannel out, MessageDigest digest) {
+            this.out = out;
+            this.digest = digest;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            ByteBuffer view = src.duplicate();
+            int written = out.write(src);
+            view.limit(view.position() + written);
+            digest.update(view);
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return out.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Outcome of a finished copy
+     */
+    public static class Result {
+        private final Path path;
+        private final long size;
+        private final String sha256;
+        private final long resumedFrom;
+
+        public Result(Path path, long size, String sha256, long resumedFrom) {
+            this.path = path;
+            this.size = size;
+            this.sha256 = sha256;
+            this.resumedFrom = resumedFrom;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        /**
+         * Bytes reused from an earlier interrupted copy (0 for a fresh copy)
+         */
+        public long getResumedFrom() {
+            return resumedFrom;
+        }
+
+        public boolean isResumed() {
+            return resumedFrom > 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%d bytes, sha256=%s, resumedFrom=%d)", path, size, sha256, resumedFrom);
+        }
+    }
+}
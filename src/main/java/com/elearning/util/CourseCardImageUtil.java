@@ -1,20 +1,62 @@
 package com.elearning.util;
 
 import javax.swing.ImageIcon;
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.GradientPaint;
 import java.awt.Graphics2D;
-import java.awt.Image;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
 import java.awt.RenderingHints;
+import java.awt.Transparency;
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Utility for course card thumbnails with a graceful placeholder.
+ * Thumbnails are generated at the card sizes when an image is uploaded (see
+ * ThumbnailUtil) and kept in a memory-bounded LRU keyed by (path, width, height).
+ * Cards show the placeholder at once and swap the thumbnail in when a
+ * background thread has loaded it. Placeholders are rendered once per
+ * (palette, initials, size) and kept in a second bounded LRU. Cached images
+ * use the screen's compatible format, so painting them is a plain blit.
  */
 public final class CourseCardImageUtil {
+    /**
+     * Sizes course cards show thumbnails at ({width, height})
+     */
+    public static final int[][] CARD_SIZES = {{280, 140}};
+
+    private static final long MAX_CACHE_BYTES = 32L * 1024 * 1024;
+    private static final String PENDING_PATH_PROPERTY = "courseCardImage.path";
+
+    // Access order, so iteration starts at the least recently used thumbnail
+    private static final LinkedHashMap<String, BufferedImage> CACHE = new LinkedHashMap<>(64, 0.75f, true);
+    private static long cachedBytes;
+    // Placeholders depend only on palette, initials and size, so thousands of courses share a few
+    private static final long MAX_PLACEHOLDER_BYTES = 16L * 1024 * 1024;
+    private static final LinkedHashMap<String, ImageIcon> PLACEHOLDERS = new LinkedHashMap<>(64, 0.75f, true);
+    private static long placeholderBytes;
+    private static final ConcurrentHashMap<String, CompletableFuture<BufferedImage>> LOADING = new ConcurrentHashMap<>();
+    private static final AtomicInteger LOADER_COUNT = new AtomicInteger();
+    private static final ExecutorService LOADER = Executors.newFixedThreadPool(2, r -> {
+        Thread thread = new Thread(r, "course-thumbnail-" + LOADER_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
     private static final Color[][] PALETTES = new Color[][]{
             {new Color(47, 111, 235), new Color(99, 102, 241)},
             {new Color(34, 197, 94), new Color(16, 185, 129)},
@@ -26,34 +68,160 @@ public final class CourseCardImageUtil {
     private CourseCardImageUtil() {
     }
 
-    public static ImageIcon loadCourseThumbnail(String path, String title, int width, int height) {
-        ImageIcon icon = loadFromPath(path, width, height);
-        if (icon != null) {
-            return icon;
+    /**
+     * Show a course thumbnail on a label without blocking the EDT
+     * A cached thumbnail is set right away; otherwise the placeholder is shown
+     * and replaced once the thumbnail is loaded, unless the label has been given
+     * another image meanwhile.
+     */
+    public static void applyCourseThumbnail(JLabel label, String path, String title, int width, int height) {
+        BufferedImage cached = isImageFile(path) ? getCached(key(path, width, height)) : null;
+        label.putClientProperty(PENDING_PATH_PROPERTY, cached == null ? path : null);
+        if (cached != null) {
+            label.setIcon(new ImageIcon(cached));
+            return;
         }
-        return createPlaceholder(title, width, height);
+        label.setIcon(createPlaceholder(title, width, height));
+        if (!isImageFile(path)) {
+            return;
+        }
+        load(path, width, height).thenAccept(image -> {
+            if (image == null) {
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (Objects.equals(label.getClientProperty(PENDING_PATH_PROPERTY), path)) {
+                    label.putClientProperty(PENDING_PATH_PROPERTY, null);
+                    label.setIcon(new ImageIcon(image));
+                }
+            });
+        });
     }
 
-    private static ImageIcon loadFromPath(String path, int width, int height) {
-        if (path == null || path.isEmpty()) {
-            return null;
+    /**
+     * Generate the card thumbnails of a newly uploaded image in the background
+     */
+    public static void pregenerate(String path) {
+        if (!isImageFile(path)) {
+            return;
         }
-        File file = new File(path);
-        if (!file.exists()) {
-            return null;
+        LOADER.execute(() -> {
+            try {
+                BufferedImage[] thumbnails = ThumbnailUtil.generate(path, CARD_SIZES);
+                if (thumbnails != null) {
+                    for (int i = 0; i < CARD_SIZES.length; i++) {
+                        putCached(key(path, CARD_SIZES[i][0], CARD_SIZES[i][1]), toCompatible(thumbnails[i]));
+                    }
+                }
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Thumbnail from memory, then from disk, else scaled from the image and stored; null if unreadable
+     * Concurrent requests for the same thumbnail share one load.
+     */
+    private static CompletableFuture<BufferedImage> load(String path, int width, int height) {
+        String key = key(path, width, height);
+        BufferedImage cached = getCached(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<BufferedImage> loading = new CompletableFuture<>();
+        CompletableFuture<BufferedImage> existing = LOADING.putIfAbsent(key, loading);
+        if (existing != null) {
+            return existing;
+        }
+        LOADER.execute(() -> {
+            BufferedImage image = null;
+            try {
+                image = ThumbnailUtil.readThumbnail(path, width, height);
+                if (image == null) {
+                    // Uploaded before thumbnails were generated, or a size added later
+                    BufferedImage[] generated = ThumbnailUtil.generate(path, new int[][]{{width, height}});
+                    image = generated != null ? generated[0] : null;
+                }
+                if (image != null) {
+                    image = toCompatible(image);
+                    putCached(key, image);
+                }
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            } finally {
+                LOADING.remove(key, loading);
+                loading.complete(image);
+            }
+        });
+        return loading;
+    }
+
+    private static BufferedImage getCached(String key) {
+        synchronized (CACHE) {
+            return CACHE.get(key);
+        }
+    }
+
+    private static void putCached(String key, BufferedImage image) {
+        synchronized (CACHE) {
+            BufferedImage previous = CACHE.put(key, image);
+            cachedBytes += sizeOf(image) - (previous != null ? sizeOf(previous) : 0);
+            Iterator<BufferedImage> it = CACHE.values().iterator();
+            while (cachedBytes > MAX_CACHE_BYTES && it.hasNext()) {
+                cachedBytes -= sizeOf(it.next());
+                it.remove();
+            }
         }
-        ImageIcon icon = new ImageIcon(path);
-        Image scaled = icon.getImage().getScaledInstance(width, height, Image.SCALE_SMOOTH);
-        return new ImageIcon(scaled);
     }
 
+    private static long sizeOf(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+
+    private static String key(String path, int width, int height) {
+        return path + "|" + width + "x" + height;
+    }
+
+    private static boolean isImageFile(String path) {
+        return path != null && !path.isEmpty() && new File(path).isFile();
+    }
+
+    /**
+     * Placeholder for a course, rendered once per (palette, initials, size) and then shared
+     */
     private static ImageIcon createPlaceholder(String title, int width, int height) {
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int paletteIndex = Math.floorMod(title != null ? title.hashCode() : 0, PALETTES.length);
+        String initials = getInitials(title);
+        String key = paletteIndex + "|" + initials + "|" + width + "x" + height;
+        synchronized (PLACEHOLDERS) {
+            ImageIcon cached = PLACEHOLDERS.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        ImageIcon icon = new ImageIcon(renderPlaceholder(PALETTES[paletteIndex], initials, width, height));
+        synchronized (PLACEHOLDERS) {
+            ImageIcon previous = PLACEHOLDERS.put(key, icon);
+            placeholderBytes += (long) width * height * 4
+                    - (previous != null ? (long) previous.getIconWidth() * previous.getIconHeight() * 4 : 0);
+            Iterator<ImageIcon> it = PLACEHOLDERS.values().iterator();
+            while (placeholderBytes > MAX_PLACEHOLDER_BYTES && it.hasNext()) {
+                ImageIcon evicted = it.next();
+                placeholderBytes -= (long) evicted.getIconWidth() * evicted.getIconHeight() * 4;
+                it.remove();
+            }
+        }
+        return icon;
+    }
+
+    private static BufferedImage renderPlaceholder(Color[] palette, String initials, int width, int height) {
+        BufferedImage image = createCompatibleImage(width, height, Transparency.OPAQUE);
         Graphics2D g2 = image.createGraphics();
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
 
-        Color[] palette = PALETTES[Math.abs((title != null ? title.hashCode() : 0)) % PALETTES.length];
         GradientPaint paint = new GradientPaint(0, 0, palette[0], width, height, palette[1]);
         g2.setPaint(paint);
         g2.fillRect(0, 0, width, height);
@@ -62,7 +230,6 @@ public final class CourseCardImageUtil {
         g2.fillOval(-20, height - 90, 120, 120);
         g2.fillOval(width - 100, -30, 120, 120);
 
-        String initials = getInitials(title);
         Font font = new Font("Segoe UI", Font.BOLD, Math.max(28, height / 4));
         g2.setFont(font);
         FontMetrics fm = g2.getFontMetrics();
@@ -74,7 +241,38 @@ public final class CourseCardImageUtil {
         g2.drawString(initials, x, y);
 
         g2.dispose();
-        return new ImageIcon(image);
+        return image;
+    }
+
+    /**
+     * Copy an image into the screen's pixel format, so painting it is a plain blit
+     */
+    private static BufferedImage toCompatible(BufferedImage image) {
+        GraphicsConfiguration config = screenConfiguration();
+        if (config == null || image.getColorModel().equals(config.getColorModel(image.getTransparency()))) {
+            return image;
+        }
+        BufferedImage compatible = config.createCompatibleImage(image.getWidth(), image.getHeight(), image.getTransparency());
+        Graphics2D g2 = compatible.createGraphics();
+        g2.drawImage(image, 0, 0, null);
+        g2.dispose();
+        return compatible;
+    }
+
+    private static BufferedImage createCompatibleImage(int width, int height, int transparency) {
+        GraphicsConfiguration config = screenConfiguration();
+        if (config != null) {
+            return config.createCompatibleImage(width, height, transparency);
+        }
+        return new BufferedImage(width, height,
+                transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+    }
+
+    private static GraphicsConfiguration screenConfiguration() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return null;
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
     }
 
     private static String getInitials(String title) {
@@ -6,6 +6,9 @@ import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
 import java.util.Properties;
 
 /**
@@ -57,6 +60,48 @@ public class DBConnection {
         return connection;
     }
 
+    /**
+     * Open a dedicated connection that the caller must close
+     * Background threads use this instead of the shared connection, which
+     * the UI thread opens and closes around every DAO call.
+     */
+    public Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(
+                config.getProperty("db.url"),
+                config.getProperty("db.username"),
+                config.getProperty("db.password")
+        );
+    }
+
+    /**
+     * SQL dialect of the configured database
+     */
+    public SqlDialect getDialect() {
+        return SqlDialect.fromJdbcUrl(config.getProperty("db.url"));
+    }
+
+    /**
+     * True if a statement failed because of the connection or a lock conflict, not its data
+     * Such writes can be retried unchanged; anything else will fail again the same way.
+     */
+    public static boolean isRetryable(SQLException e) {
+        String state = e.getSQLState() != null ? e.getSQLState() : "";
+        return e instanceof SQLTransientException             // Timeouts, deadlock rollbacks
+                || e instanceof SQLRecoverableException
+                || e instanceof SQLNonTransientConnectionException
+                || state.startsWith("08")                      // Connection exception
+                || state.equals("40001") || state.equals("40P01")
+                || e.getErrorCode() == 1213                    // MySQL deadlock
+                || e.getErrorCode() == 1205;                   // MySQL lock wait timeout
+    }
+
+    /**
+     * Read an application setting from config.properties
+     */
+    public String getConfigProperty(String key, String defaultValue) {
+        return config.getProperty(key, defaultValue);
+    }
+
     /**
      * Close database connection
      */
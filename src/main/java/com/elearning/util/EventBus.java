@@ -0,0 +1,272 @@
+package com.elearning.util;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * In-process publish/subscribe bus for domain events
+ * Subscribers register for an event type and also receive its subtypes.
+ * Synchronous subscribers run on the publisher's thread before publish()
+ * returns; asynchronous ones are handed to a single dispatcher thread through
+ * a bounded ring buffer (ArrayBlockingQueue), so publishing never blocks the
+ * UI. When the buffer is full the event is dropped for async subscribers and
+ * counted. A failing subscriber is logged and never affects the publisher or
+ * other subscribers.
+ * Singleton pattern for single instance across application
+ */
+public class EventBus {
+    private static final int RING_CAPACITY = 4096;
+
+    private final ConcurrentHashMap<Class<?>, CopyOnWriteArrayList<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    // Resolved subscribers per concrete event class, cleared on (un)subscribe
+    private final ConcurrentHashMap<Class<?>, Subscriber[]> resolved = new ConcurrentHashMap<>();
+    private final BlockingQueue<Object> ring = new ArrayBlockingQueue<>(RING_CAPACITY);
+    private final Thread dispatcher;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    // Private constructor to prevent direct instantiation
+    private EventBus() {
+        dispatcher = new Thread(this::dispatchLoop, "event-bus-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    // Static inner holder class - lazily loaded and thread-safe
+    private static class SingletonHolder {
+        private static final EventBus INSTANCE = new EventBus();
+    }
+
+    // Public accessor method
+    public static EventBus getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Run the handler on the publishing thread
+     */
+    public <E> Subscription subscribe(Class<E> eventType, Consumer<? super E> handler) {
+        return register(eventType, handler, false);
+    }
+
+    /**
+     * Run the handler later on the dispatcher thread
+     */
+    public <E> Subscription subscribeAsync(Class<E> eventType, Consumer<? super E> handler) {
+        return register(eventType, handler, true);
+    }
+
+    /**
+     * Deliver an event to every subscriber of its type (or a supertype)
+     */
+    public void publish(Object event) {
+        if (event == null) {
+            return;
+        }
+        published.incrementAndGet();
+
+        boolean hasAsync = false;
+        for (Subscriber subscriber : subscribersFor(event.getClass())) {
+            if (subscriber.async) {
+                hasAsync = true;
+            } else {
+                deliver(subscriber, event);
+            }
+        }
+
+        if (hasAsync && !ring.offer(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Wait until the async buffer is empty (shutdown, diagnostics)
+     */
+    public boolean awaitIdle(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!ring.isEmpty()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public BusStats getStats() {
+        return new BusStats(published.get(), delivered.get(), dropped.get(), failures.get(), ring.size());
+    }
+
+    private synchronized <E> Subscription register(Class<E> eventType, Consumer<? super E> handler, boolean async) {
+        Subscriber subscriber = new Subscriber(eventType, handler, async);
+        subscribers.computeIfAbsent(eventType, type -> new CopyOnWriteArrayList<>()).add(subscriber);
+        resolved.clear();
+        return new Subscription(subscriber);
+    }
+
+    private synchronized void unregister(Subscriber subscriber) {
+        List<Subscriber> list = subscribers.get(subscriber.eventType);
+        if (list != null && list.remove(subscriber)) {
+            resolved.clear();
+        }
+    }
+
+    private Subscriber[] subscribersFor(Class<?> eventClass) {
+        Subscriber[] cached = resolved.get(eventClass);
+        return cached != null ? cached : resolve(eventClass);
+    }
+
+    /**
+     * Locked with register/unregister so a stale list is never cached
+     */
+    private synchronized Subscriber[] resolve(Class<?> eventClass) {
+        Subscriber[] cached = resolved.get(eventClass);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Walk the class and all its supertypes once, then cache the result
+        List<Subscriber> result = new ArrayList<>();
+        Set<Class<?>> seen = new HashSet<>();
+        Deque<Class<?>> pending = new ArrayDeque<>();
+        pending.add(eventClass);
+        while (!pending.isEmpty()) {
+            Class<?> type = pending.poll();
+            if (!seen.add(type)) {
+                continue;
+            }
+            List<Subscriber> list = subscribers.get(type);
+            if (list != null) {
+                result.addAll(list);
+            }
+            if (type.getSuperclass() != null) {
+                pending.add(type.getSuperclass());
+            }
+            for (Class<?> iface : type.getInterfaces()) {
+                pending.add(iface);
+            }
+        }
+
+        Subscriber[] array = result.toArray(new Subscriber[0]);
+        resolved.put(eventClass, array);
+        return array;
+    }
+
+    private void dispatchLoop() {
+        while (true) {
+            Object event;
+            try {
+                event = ring.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            for (Subscriber subscriber : subscribersFor(event.getClass())) {
+                if (subscriber.async) {
+                    deliver(subscriber, event);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deliver(Subscriber subscriber, Object event) {
+        try {
+            ((Consumer<Object>) subscriber.handler).accept(event);
+            delivered.incrementAndGet();
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            System.err.println("Event subscriber failed for " + event.getClass().getSimpleName() + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static class Subscriber {
+        private final Class<?> eventType;
+        private final Consumer<?> handler;
+        private final boolean async;
+
+        Subscriber(Class<?> eventType, Consumer<?> handler, boolean async) {
+            this.eventType = eventType;
+            this.handler = handler;
+            this.async = async;
+        }
+    }
+
+    /**
+     * Handle returned by subscribe; cancel() stops further deliveries
+     */
+    public final class Subscription {
+        private final Subscriber subscriber;
+
+        private Subscription(Subscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        public void cancel() {
+            unregister(subscriber);
+        }
+    }
+
+    /**
+     * Counters for monitoring the bus
+     */
+    public static class BusStats {
+        private final long published;
+        private final long delivered;
+        private final long dropped;
+        private final long failures;
+        private final int queued;
+
+        public BusStats(long published, long delivered, long dropped, long failures, int queued) {
+            this.published = published;
+            this.delivered = delivered;
+            this.dropped = dropped;
+            this.failures = failures;
+            this.queued = queued;
+        }
+
+        public long getPublished() {
+            return published;
+        }
+
+        public long getDelivered() {
+            return delivered;
+        }
+
+        public long getDropped() {
+            return dropped;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public int getQueued() {
+            return queued;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("published=%d, delivered=%d, dropped=%d, failures=%d, queued=%d",
+                    published, delivered, dropped, failures, queued);
+        }
+    }
+}
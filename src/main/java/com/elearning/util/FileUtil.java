@@ -1,5 +1,7 @@
 package com.elearning.util;
 
+import com.elearning.service.MediaStore;
+
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
@@ -12,7 +14,6 @@ import java.time.format.DateTimeFormatter;
  * Utility class for file operations, including hero image and video uploads
  */
 public class FileUtil {
-    private static final String VIDEO_BASE_PATH = "videos/";
     private static final String THUMBNAIL_BASE_PATH = "thumbnails/";
     private static final String[] VIDEO_EXTENSIONS = {"mp4", "avi", "mkv", "mov", "wmv", "flv"};
     private static final String[] IMAGE_EXTENSIONS = {"jpg", "jpeg", "png", "gif", "bmp"};
@@ -20,45 +21,19 @@ public class FileUtil {
 
     /**
      * Open file chooser and upload video to course folder
+     * The file goes into the MediaStore in the background with a progress dialog (see VideoUtil)
      */
     public static String uploadVideo(int courseId, int lessonOrder) {
-        JFileChooser fileChooser = new JFileChooser();
-        fileChooser.setDialogTitle("Select Video File");
-        fileChooser.setFileFilter(new FileNameExtensionFilter("Video Files", VIDEO_EXTENSIONS));
-
-        int result = fileChooser.showOpenDialog(null);
-        if (result != JFileChooser.APPROVE_OPTION) {
-            return null;
-        }
-
-        File sourceFile = fileChooser.getSelectedFile();
-        String extension = getFileExtension(sourceFile.getName());
-
-        // Create destination path
-        String destFolder = VIDEO_BASE_PATH + "course_" + courseId + "/";
-        String destFileName = "lesson_" + lessonOrder + "." + extension;
-        String destPath = destFolder + destFileName;
-
-        try {
-            // Create directory if not exists
-            Files.createDirectories(Paths.get(destFolder));
-
-            // Copy file to destination
-            Files.copy(sourceFile.toPath(), Paths.get(destPath),
-                    StandardCopyOption.REPLACE_EXISTING);
-
-            return destPath;
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(null,
-                    "Failed to upload video: " + e.getMessage(),
-                    "Upload Error", JOptionPane.ERROR_MESSAGE);
+        File sourceFile = VideoUtil.chooseVideoFile(null);
+        if (sourceFile == null) {
             return null;
         }
+        return VideoUtil.uploadVideo(null, sourceFile, courseId, lessonOrder);
     }
 
     /**
      * Upload hero image (thumbnail) for course
-     * Stores in thumbnails/course_X/ directory with timestamp-based naming
+     * Stores in the content-addressed MediaStore, so a reused image is kept once
      *
      * @param parent Parent component for dialogs
      * @param courseId Course ID for organizing files
@@ -88,22 +63,10 @@ public class FileUtil {
         }
 
         try {
-            // Create directory structure: thumbnails/course_X/
-            String destDir = THUMBNAIL_BASE_PATH + "course_" + courseId + "/";
-            Path dirPath = Paths.get(destDir);
-            Files.createDirectories(dirPath);
-
-            // Generate unique filename with timestamp
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String extension = getFileExtension(sourceFile.getName());
-            String filename = "course_" + courseId + "_" + timestamp + "." + extension;
-            Path destination = Paths.get(destDir + filename);
-
-            // Copy file to destination
-            Files.copy(sourceFile.toPath(), destination, StandardCopyOption.REPLACE_EXISTING);
-
-            // Return absolute path
-            return destination.toAbsolutePath().toString();
+            // Return absolute path of the stored object; card thumbnails are made in the background
+            String storagePath = MediaStore.getInstance().store(sourceFile.toPath(), null).getStoragePath();
+            CourseCardImageUtil.pregenerate(storagePath);
+            return storagePath;
 
         } catch (IOException e) {
             JOptionPane.showMessageDialog(parent,
@@ -117,7 +80,7 @@ public class FileUtil {
 
     /**
      * Upload hero image for temporary course (before course ID is assigned)
-     * Uses temp directory
+     * The stored object does not depend on the course, so no later move is needed
      *
      * @param parent Parent component for dialogs
      * @return Absolute path to the stored image file, or null if upload failed
@@ -146,22 +109,10 @@ public class FileUtil {
         }
 
         try {
-            // Create temp directory
-            String destDir = THUMBNAIL_BASE_PATH + "temp/";
-            Path dirPath = Paths.get(destDir);
-            Files.createDirectories(dirPath);
-
-            // Generate unique filename with timestamp
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String extension = getFileExtension(sourceFile.getName());
-            String filename = "course_temp_" + timestamp + "." + extension;
-            Path destination = Paths.get(destDir + filename);
-
-            // Copy file to destination
-            Files.copy(sourceFile.toPath(), destination, StandardCopyOption.REPLACE_EXISTING);
-
-            // Return absolute path
-            return destination.toAbsolutePath().toString();
+            // Return absolute path of the stored object; card thumbnails are made in the background
+            String storagePath = MediaStore.getInstance().store(sourceFile.toPath(), null).getStoragePath();
+            CourseCardImageUtil.pregenerate(storagePath);
+            return storagePath;
 
         } catch (IOException e) {
             JOptionPane.showMessageDialog(parent,
@@ -175,6 +126,7 @@ public class FileUtil {
 
     /**
      * Move thumbnail from temp directory to course directory
+     * Stored objects are already in their final place and are returned unchanged
      *
      * @param tempPath Temporary file path
      * @param courseId Course ID
@@ -184,6 +136,9 @@ public class FileUtil {
         if (tempPath == null || tempPath.isEmpty()) {
             return null;
         }
+        if (MediaStore.getInstance().isManaged(tempPath)) {
+            return tempPath;
+        }
 
         try {
             File tempFile = new File(tempPath);
@@ -203,6 +158,8 @@ public class FileUtil {
 
             // Move file
             Files.move(tempFile.toPath(), destination, StandardCopyOption.REPLACE_EXISTING);
+            ThumbnailUtil.deleteThumbnails(tempPath);
+            CourseCardImageUtil.pregenerate(destination.toAbsolutePath().toString());
 
             return destination.toAbsolutePath().toString();
 
@@ -242,6 +199,32 @@ public class FileUtil {
         return false;
     }
 
+    /**
+     * Delete a directory and everything in it (no-op if it does not exist)
+     * Symbolic links are deleted, not followed.
+     */
+    public static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, java.nio.file.attribute.BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                if (e != null) {
+                    throw e;
+                }
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
     /**
      * Get file size in MB
      */
@@ -304,11 +287,19 @@ public class FileUtil {
 
     /**
      * Delete thumbnail image
+     * Stored objects only lose one reference; legacy files are deleted directly
      *
      * @param thumbnailPath Absolute path to thumbnail file
-     * @return true if deletion was successful
+     * @return true if the reference was dropped or the file deleted
      */
     public static boolean deleteThumbnail(String thumbnailPath) {
+        if (MediaStore.getInstance().isManaged(thumbnailPath)) {
+            // The object and its card thumbnails go when the media store collects it
+            return MediaStore.getInstance().release(thumbnailPath);
+        }
+        if (thumbnailPath != null) {
+            ThumbnailUtil.deleteThumbnails(thumbnailPath);
+        }
         return deleteFile(thumbnailPath);
     }
 
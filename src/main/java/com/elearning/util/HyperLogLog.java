@@ -0,0 +1,137 @@
+package com.elearning.util;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable distinct-count sketch (HyperLogLog)
+ * Each of the 2^p registers keeps the longest run of leading zeros seen among
+ * hashes routed to it; the harmonic mean of the registers estimates how many
+ * distinct values were added. Memory is fixed (one byte per register), and two
+ * sketches merge by taking the register-wise maximum, so the union of any set
+ * of days is counted without ever storing user ids.
+ * With the default precision of 12 (4096 registers) the standard error is about 1.6%.
+ * Not thread-safe: callers synchronize or merge partial sketches.
+ */
+public class HyperLogLog {
+    public static final int DEFAULT_PRECISION = 12;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("Precision must be between 4 and 16");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Rebuild a sketch from its serialized registers
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        int precision = Integer.numberOfTrailingZeros(bytes.length);
+        if (bytes.length != 1 << precision) {
+            throw new IllegalArgumentException("Register count must be a power of two");
+        }
+        HyperLogLog sketch = new HyperLogLog(precision);
+        System.arraycopy(bytes, 0, sketch.registers, 0, bytes.length);
+        return sketch;
+    }
+
+    /**
+     * Add a value (e.g. a user id)
+     */
+    public void add(long value) {
+        long hash = mix(value);
+        int index = (int) (hash >>> (64 - precision));
+        // Rank of the first set bit in the remaining bits; the guard bit caps it
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Merge another sketch into this one (the other sketch is left unchanged)
+     */
+    public void merge(HyperLogLog other) {
+        if (other == null) {
+            return;
+        }
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches with different precision");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * Estimated number of distinct values added
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0.0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double alpha = 0.7213 / (1.0 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+
+        // Small cardinalities: linear counting over empty registers is more accurate
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    /**
+     * Serialized registers (one byte each)
+     */
+    public byte[] toBytes() {
+        return registers.clone();
+    }
+
+    public HyperLogLog copy() {
+        return fromBytes(registers);
+    }
+
+    /**
+     * 64-bit finalizer from MurmurHash3; spreads sequential ids over all bits
+     */
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,138 @@
+package com.elearning.util;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bit operations on per-month login bitmaps
+ * Bit (day - 1) of an int is set when the user logged in on that day of the
+ * month, so a whole month fits in 31 bits and is stored as one INT column.
+ */
+public final class LoginBitmap {
+
+    private LoginBitmap() {
+    }
+
+    /**
+     * Month key stored in the database (yyyymm)
+     */
+    public static int monthKey(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+
+    /**
+     * Bitmap with only the given date's day set
+     */
+    public static int dayBit(LocalDate date) {
+        return 1 << (date.getDayOfMonth() - 1);
+    }
+
+    /**
+     * Expand a bitmap into the dates it marks, in ascending order
+     */
+    public static Set<LocalDate> toDates(YearMonth month, int bits) {
+        Set<LocalDate> dates = new LinkedHashSet<>();
+        int remaining = bits & fullMonth(month);
+        while (remaining != 0) {
+            int day = Integer.numberOfTrailingZeros(remaining) + 1;
+            dates.add(month.atDay(day));
+            remaining &= remaining - 1; // Clear lowest set bit
+        }
+        return dates;
+    }
+
+    /**
+     * Number of days with a login
+     */
+    public static int activeDays(int bits) {
+        return Integer.bitCount(bits);
+    }
+
+    /**
+     * Consecutive login days ending on the given day (0 if that day is not set)
+     */
+    public static int runEndingAt(int bits, int day) {
+        // Move the day's bit to bit 31 and count leading ones
+        return Integer.numberOfLeadingZeros(~(bits << (32 - day)));
+    }
+
+    /**
+     * Consecutive login days starting on day 1
+     */
+    public static int runFromStart(int bits) {
+        return Integer.numberOfTrailingZeros(~bits);
+    }
+
+    /**
+     * Longest run of consecutive login days inside one bitmap
+     */
+    public static int longestRun(int bits) {
+        // Each x & (x << 1) shortens every run by one; count steps until empty
+        int length = 0;
+        while (bits != 0) {
+            bits &= bits << 1;
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Current streak: consecutive login days ending today, or yesterday if the
+     * user has not logged in yet today
+     * bitmaps.get(0) is today's month, each following entry the month before.
+     */
+    public static int currentStreak(List<Integer> bitmaps, LocalDate today) {
+        if (bitmaps.isEmpty()) {
+            return 0;
+        }
+        LocalDate end = (bitmaps.get(0) & dayBit(today)) != 0 ? today : today.minusDays(1);
+        int index = YearMonth.from(end).equals(YearMonth.from(today)) ? 0 : 1;
+        YearMonth month = YearMonth.from(end);
+        int day = end.getDayOfMonth();
+
+        int streak = 0;
+        while (index < bitmaps.size()) {
+            int run = runEndingAt(bitmaps.get(index), day);
+            streak += run;
+            if (run < day) {
+                break;
+            }
+            // Whole month prefix was set: continue at the end of the previous month
+            month = month.minusMonths(1);
+            day = month.lengthOfMonth();
+            index++;
+        }
+        return streak;
+    }
+
+    /**
+     * Longest streak over consecutive months
+     * bitmaps.get(0) is the oldest month (starting at firstMonth), each following entry the next month.
+     */
+    public static int longestStreak(List<Integer> bitmaps, YearMonth firstMonth) {
+        int best = 0;
+        int carry = 0; // Run that reached the last day of the previous month
+        YearMonth month = firstMonth;
+        for (int bits : bitmaps) {
+            int length = month.lengthOfMonth();
+            int head = Math.min(runFromStart(bits), length);
+            if (head == length) {
+                carry += length;
+            } else {
+                best = Math.max(best, Math.max(carry + head, longestRun(bits & fullMonth(month))));
+                carry = runEndingAt(bits, length);
+            }
+            best = Math.max(best, carry);
+            month = month.plusMonths(1);
+        }
+        return best;
+    }
+
+    private static int fullMonth(YearMonth month) {
+        int length = month.lengthOfMonth();
+        return length >= 32 ? -1 : (1 << length) - 1;
+    }
+}
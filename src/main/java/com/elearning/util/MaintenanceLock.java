@@ -0,0 +1,63 @@
+package com.elearning.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Coordination of background maintenance jobs across application instances
+ * Every lab client runs the same scheduled jobs (counter reconciliation, login
+ * log compaction, media GC, storage audit). maintenance.enabled=false in
+ * config.properties keeps a client from scheduling them at all, and each run
+ * holds a named database lock (GET_LOCK / pg_try_advisory_lock) so that two
+ * instances that do schedule a job never run it at the same time.
+ */
+public final class MaintenanceLock {
+    private static final String LOCK_PREFIX = "elearning.";
+
+    private MaintenanceLock() {
+    }
+
+    /**
+     * Whether this instance should schedule maintenance jobs
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(DBConnection.getInstance().getConfigProperty("maintenance.enabled", "true"));
+    }
+
+    /**
+     * Run a job while holding its database lock
+     * Returns false without running it if another instance holds the lock or the
+     * lock cannot be taken. The lock is held on a dedicated connection and is
+     * released by the server if this process dies.
+     */
+    public static boolean runExclusive(String job, Runnable task) {
+        DBConnection db = DBConnection.getInstance();
+        SqlDialect dialect = db.getDialect();
+        String lockName = LOCK_PREFIX + job;
+
+        try (Connection conn = db.openConnection()) {
+            try (PreparedStatement lockStmt = conn.prepareStatement(dialect.tryAdvisoryLock())) {
+                lockStmt.setString(1, lockName);
+                ResultSet rs = lockStmt.executeQuery();
+                if (!rs.next() || !rs.getBoolean(1)) {
+                    System.out.println("Skipping " + job + ": running on another instance");
+                    return false;
+                }
+            }
+            try {
+                task.run();
+                return true;
+            } finally {
+                try (PreparedStatement unlockStmt = conn.prepareStatement(dialect.releaseAdvisoryLock())) {
+                    unlockStmt.setString(1, lockName);
+                    unlockStmt.executeQuery();
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,228 @@
+package com.elearning.util;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch (merging t-digest variant)
+ * Values are buffered and periodically compressed into weighted centroids,
+ * so memory stays bounded no matter how many values are added.
+ * Two digests can be merged, which lets per-test results be combined
+ * into course-level or platform-level distributions.
+ * Not thread-safe: callers merge partial digests instead of sharing one.
+ */
+public class QuantileDigest {
+    private static final double DEFAULT_COMPRESSION = 100.0;
+
+    private final double compression;
+
+    // Compressed centroids, sorted by mean
+    private double[] means;
+    private double[] weights;
+    private int centroidCount;
+
+    // Unmerged incoming values
+    private final double[] buffer;
+    private int bufferCount;
+
+    private long totalCount;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    public QuantileDigest() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    public QuantileDigest(double compression) {
+        if (compression < 10) {
+            throw new IllegalArgumentException("Compression must be at least 10");
+        }
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression * 2) + 8;
+        this.means = new double[capacity];
+        this.weights = new double[capacity];
+        this.buffer = new double[capacity * 4];
+    }
+
+    /**
+     * Add a single value
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (bufferCount == buffer.length) {
+            compress();
+        }
+        buffer[bufferCount++] = value;
+        totalCount++;
+        min = Double.isNaN(min) ? value : Math.min(min, value);
+        max = Double.isNaN(max) ? value : Math.max(max, value);
+    }
+
+    /**
+     * Merge another digest into this one (the other digest is left unchanged)
+     */
+    public void merge(QuantileDigest other) {
+        if (other == null || other.totalCount == 0) {
+            return;
+        }
+        compress();
+
+        // The other digest's buffered values are read as weight-1 centroids instead of compressing it
+        int combined = centroidCount + other.centroidCount + other.bufferCount;
+        double[] mergedMeans = new double[combined];
+        double[] mergedWeights = new double[combined];
+        System.arraycopy(means, 0, mergedMeans, 0, centroidCount);
+        System.arraycopy(weights, 0, mergedWeights, 0, centroidCount);
+        System.arraycopy(other.means, 0, mergedMeans, centroidCount, other.centroidCount);
+        System.arraycopy(other.weights, 0, mergedWeights, centroidCount, other.centroidCount);
+        int offset = centroidCount + other.centroidCount;
+        for (int i = 0; i < other.bufferCount; i++) {
+            mergedMeans[offset + i] = other.buffer[i];
+            mergedWeights[offset + i] = 1.0;
+        }
+
+        totalCount += other.totalCount;
+        min = Double.isNaN(min) ? other.min : Math.min(min, other.min);
+        max = Double.isNaN(max) ? other.max : Math.max(max, other.max);
+
+        mergeCentroids(mergedMeans, mergedWeights, combined);
+    }
+
+    /**
+     * Estimate the value at quantile q (0.0 - 1.0)
+     */
+    public double quantile(double q) {
+        if (q < 0.0 || q > 1.0) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+        compress();
+        if (centroidCount == 0) {
+            return Double.NaN;
+        }
+        if (centroidCount == 1) {
+            return means[0];
+        }
+
+        double target = q * totalCount;
+        if (target <= weights[0] / 2) {
+            return interpolate(min, means[0], target / (weights[0] / 2));
+        }
+
+        double cumulative = weights[0] / 2;
+        for (int i = 0; i < centroidCount - 1; i++) {
+            double step = (weights[i] + weights[i + 1]) / 2;
+            if (cumulative + step >= target) {
+                return interpolate(means[i], means[i + 1], (target - cumulative) / step);
+            }
+            cumulative += step;
+        }
+
+        double lastHalf = weights[centroidCount - 1] / 2;
+        double fraction = lastHalf > 0 ? (target - cumulative) / lastHalf : 1.0;
+        return interpolate(means[centroidCount - 1], max, Math.min(1.0, fraction));
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Number of centroids currently held (useful for checking memory use)
+     */
+    public int getCentroidCount() {
+        compress();
+        return centroidCount;
+    }
+
+    /**
+     * Fold buffered values into the centroid list
+     */
+    private void compress() {
+        if (bufferCount == 0) {
+            return;
+        }
+        int combined = centroidCount + bufferCount;
+        double[] mergedMeans = new double[combined];
+        double[] mergedWeights = new double[combined];
+        System.arraycopy(means, 0, mergedMeans, 0, centroidCount);
+        System.arraycopy(weights, 0, mergedWeights, 0, centroidCount);
+        for (int i = 0; i < bufferCount; i++) {
+            mergedMeans[centroidCount + i] = buffer[i];
+            mergedWeights[centroidCount + i] = 1.0;
+        }
+        bufferCount = 0;
+        mergeCentroids(mergedMeans, mergedWeights, combined);
+    }
+
+    /**
+     * Sort candidate centroids by mean and greedily merge neighbours while
+     * the merged weight stays under the t-digest size bound for its quantile
+     */
+    private void mergeCentroids(double[] candidateMeans, double[] candidateWeights, int count) {
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(candidateMeans[a], candidateMeans[b]));
+
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            total += candidateWeights[i];
+        }
+
+        double[] outMeans = new double[Math.max(means.length, 8)];
+        double[] outWeights = new double[outMeans.length];
+        int out = 0;
+
+        double weightSoFar = 0;
+        double currentMean = candidateMeans[order[0]];
+        double currentWeight = candidateWeights[order[0]];
+
+        for (int i = 1; i < count; i++) {
+            int idx = order[i];
+            double proposed = currentWeight + candidateWeights[idx];
+            double q = (weightSoFar + proposed / 2) / total;
+            double limit = Math.max(1.0, 4 * total * q * (1 - q) / compression);
+
+            if (proposed <= limit) {
+                currentMean += (candidateMeans[idx] - currentMean) * candidateWeights[idx] / proposed;
+                currentWeight = proposed;
+            } else {
+                if (out == outMeans.length) {
+                    outMeans = Arrays.copyOf(outMeans, out * 2);
+                    outWeights = Arrays.copyOf(outWeights, out * 2);
+                }
+                outMeans[out] = currentMean;
+                outWeights[out] = currentWeight;
+                out++;
+                weightSoFar += currentWeight;
+                currentMean = candidateMeans[idx];
+                currentWeight = candidateWeights[idx];
+            }
+        }
+        if (out == outMeans.length) {
+            outMeans = Arrays.copyOf(outMeans, out + 1);
+            outWeights = Arrays.copyOf(outWeights, out + 1);
+        }
+        outMeans[out] = currentMean;
+        outWeights[out] = currentWeight;
+        out++;
+
+        this.means = outMeans;
+        this.weights = outWeights;
+        this.centroidCount = out;
+    }
+
+    private double interpolate(double from, double to, double fraction) {
+        return from + (to - from) * Math.max(0.0, Math.min(1.0, fraction));
+    }
+}
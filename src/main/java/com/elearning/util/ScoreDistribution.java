@@ -0,0 +1,129 @@
+package com.elearning.util;
+
+import com.elearning.model.TestAttempt;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable distribution of completed test attempts
+ * Holds a score histogram, score/time quantile digests and a per-attempt-number
+ * learning curve. Distributions are built incrementally from streamed rows and
+ * can be merged, which is also how consistent snapshots are copied.
+ */
+public class ScoreDistribution {
+    public static final int HISTOGRAM_BUCKETS = 10; // 0-10%, 10-20%, ... 90-100%
+    private static final int MAX_TRACKED_ATTEMPT = 10; // attempts beyond this are grouped
+
+    private final long[] scoreHistogram = new long[HISTOGRAM_BUCKETS];
+    private final QuantileDigest scoreDigest = new QuantileDigest();
+    private final QuantileDigest timeDigest = new QuantileDigest();
+
+    // Learning curve: index = attempt number - 1
+    private final double[] scoreSumByAttempt = new double[MAX_TRACKED_ATTEMPT];
+    private final long[] countByAttempt = new long[MAX_TRACKED_ATTEMPT];
+
+    private long passedCount;
+
+    /**
+     * Add one completed attempt
+     */
+    public void accept(int attemptNumber, double scorePercentage, int timeSpentSeconds, boolean passed) {
+        double score = Math.max(0.0, Math.min(100.0, scorePercentage));
+        int bucket = Math.min(HISTOGRAM_BUCKETS - 1, (int) (score / (100.0 / HISTOGRAM_BUCKETS)));
+        scoreHistogram[bucket]++;
+        scoreDigest.add(score);
+        if (timeSpentSeconds > 0) {
+            timeDigest.add(timeSpentSeconds);
+        }
+
+        int slot = Math.max(1, Math.min(MAX_TRACKED_ATTEMPT, attemptNumber)) - 1;
+        scoreSumByAttempt[slot] += score;
+        countByAttempt[slot]++;
+
+        if (passed) {
+            passedCount++;
+        }
+    }
+
+    /**
+     * Add one completed attempt from a model object
+     */
+    public void accept(TestAttempt attempt) {
+        if (attempt == null || !"COMPLETED".equals(attempt.getStatus())) {
+            return;
+        }
+        accept(attempt.getAttemptNumber() != null ? attempt.getAttemptNumber() : 1,
+                attempt.getScorePercentage() != null ? attempt.getScorePercentage() : 0.0,
+                attempt.getTimeSpentSeconds() != null ? attempt.getTimeSpentSeconds() : 0,
+                attempt.isPassed());
+    }
+
+    /**
+     * Merge another distribution into this one and return this
+     */
+    public ScoreDistribution merge(ScoreDistribution other) {
+        if (other == null) {
+            return this;
+        }
+        for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+            scoreHistogram[i] += other.scoreHistogram[i];
+        }
+        for (int i = 0; i < MAX_TRACKED_ATTEMPT; i++) {
+            scoreSumByAttempt[i] += other.scoreSumByAttempt[i];
+            countByAttempt[i] += other.countByAttempt[i];
+        }
+        scoreDigest.merge(other.scoreDigest);
+        timeDigest.merge(other.timeDigest);
+        passedCount += other.passedCount;
+        return this;
+    }
+
+    public long getCount() {
+        return scoreDigest.getCount();
+    }
+
+    public long getPassedCount() {
+        return passedCount;
+    }
+
+    public double getScorePercentile(double percentile) {
+        return scoreDigest.getCount() == 0 ? 0.0 : scoreDigest.quantile(percentile / 100.0);
+    }
+
+    public double getTimePercentile(double percentile) {
+        return timeDigest.getCount() == 0 ? 0.0 : timeDigest.quantile(percentile / 100.0);
+    }
+
+    /**
+     * Attempt counts per 10-point score bucket
+     */
+    public long[] getScoreHistogram() {
+        return Arrays.copyOf(scoreHistogram, scoreHistogram.length);
+    }
+
+    /**
+     * Label for a histogram bucket, e.g. "70-80%"
+     */
+    public static String getBucketLabel(int bucket) {
+        int width = 100 / HISTOGRAM_BUCKETS;
+        return (bucket * width) + "-" + ((bucket + 1) * width) + "%";
+    }
+
+    /**
+     * Average score by attempt number (index 0 = first attempt); NaN where no data
+     * The last entry groups all attempts at or beyond {@value #MAX_TRACKED_ATTEMPT}
+     */
+    public double[] getLearningCurve() {
+        int last = 0;
+        for (int i = 0; i < MAX_TRACKED_ATTEMPT; i++) {
+            if (countByAttempt[i] > 0) {
+                last = i + 1;
+            }
+        }
+        double[] curve = new double[last];
+        for (int i = 0; i < last; i++) {
+            curve[i] = countByAttempt[i] > 0 ? scoreSumByAttempt[i] / countByAttempt[i] : Double.NaN;
+        }
+        return curve;
+    }
+}
@@ -0,0 +1,137 @@
+package com.elearning.util;
+
+/**
+ * SQL fragments that differ between supported databases
+ * Used by DAOs that need single-statement upserts instead of SELECT-then-INSERT/UPDATE
+ */
+public enum SqlDialect {
+    MYSQL {
+        @Override
+        public String onConflictUpdate(String... keyColumns) {
+            return "ON DUPLICATE KEY UPDATE ";
+        }
+
+        @Override
+        public String inserted(String column) {
+            // VALUES() rather than the row-alias syntax so MariaDB keeps working
+            return "VALUES(" + column + ")";
+        }
+
+        @Override
+        public String secondsAgo() {
+            return "NOW() - INTERVAL ? SECOND";
+        }
+
+        @Override
+        public String insertOrIgnore(String insertSql) {
+            return insertSql.replaceFirst("^INSERT ", "INSERT IGNORE ");
+        }
+
+        @Override
+        public String jsonParameter() {
+            // MariaDB's JSON is LONGTEXT and rejects CAST(... AS JSON)
+            return "?";
+        }
+
+        @Override
+        public String tryAdvisoryLock() {
+            return "SELECT GET_LOCK(?, 0)";
+        }
+
+        @Override
+        public String releaseAdvisoryLock() {
+            return "SELECT RELEASE_LOCK(?)";
+        }
+    },
+
+    POSTGRESQL {
+        @Override
+        public String onConflictUpdate(String... keyColumns) {
+            return "ON CONFLICT (" + String.join(", ", keyColumns) + ") DO UPDATE SET ";
+        }
+
+        @Override
+        public String inserted(String column) {
+            return "EXCLUDED." + column;
+        }
+
+        @Override
+        public String secondsAgo() {
+            return "NOW() - (? * INTERVAL '1 second')";
+        }
+
+        @Override
+        public String insertOrIgnore(String insertSql) {
+            return insertSql + " ON CONFLICT DO NOTHING";
+        }
+
+        @Override
+        public String jsonParameter() {
+            return "CAST(? AS JSON)";
+        }
+
+        @Override
+        public String tryAdvisoryLock() {
+            return "SELECT pg_try_advisory_lock(hashtext(?))";
+        }
+
+        @Override
+        public String releaseAdvisoryLock() {
+            return "SELECT pg_advisory_unlock(hashtext(?))";
+        }
+    };
+
+    /**
+     * Clause that turns an INSERT into an upsert on the given unique key
+     * (MySQL ignores the columns and uses whichever unique key conflicts)
+     */
+    public abstract String onConflictUpdate(String... keyColumns);
+
+    /**
+     * Reference to the value the INSERT tried to write, for use in the update part
+     */
+    public abstract String inserted(String column);
+
+    /**
+     * Server timestamp minus a bound number of seconds
+     */
+    public abstract String secondsAgo();
+
+    /**
+     * Turn an INSERT into one that silently skips rows hitting a unique key
+     * (affected rows is then 0, which callers use for idempotent toggles)
+     */
+    public abstract String insertOrIgnore(String insertSql);
+
+    /**
+     * Placeholder for a JSON column value bound with setString
+     */
+    public abstract String jsonParameter();
+
+    /**
+     * Query taking a named session lock without waiting; the single column is true if it was taken
+     */
+    public abstract String tryAdvisoryLock();
+
+    /**
+     * Query releasing a named session lock taken with tryAdvisoryLock
+     */
+    public abstract String releaseAdvisoryLock();
+
+    /**
+     * Build "INSERT ... upsert-clause assignments"
+     */
+    public String upsert(String insertSql, String[] keyColumns, String assignments) {
+        return insertSql + " " + onConflictUpdate(keyColumns) + assignments;
+    }
+
+    /**
+     * Pick the dialect from a JDBC URL (defaults to MySQL/MariaDB)
+     */
+    public static SqlDialect fromJdbcUrl(String url) {
+        if (url != null && url.startsWith("jdbc:postgresql:")) {
+            return POSTGRESQL;
+        }
+        return MYSQL;
+    }
+}
@@ -0,0 +1,165 @@
+package com.elearning.util;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Pre-scaled thumbnails stored next to an uploaded image
+ * A thumbnail of "abc.jpg" at 280x140 is "abc.jpg.thumb-280x140.png" in the
+ * same directory, so it can always be traced back to its original. Images are
+ * shrunk by halving with bilinear interpolation until the target size is
+ * reached, which is much cheaper than Image.SCALE_SMOOTH and looks as good.
+ */
+public final class ThumbnailUtil {
+    private static final String SUFFIX_PREFIX = ".thumb-";
+    private static final String SUFFIX_EXTENSION = ".png";
+    private static final Pattern THUMBNAIL_NAME = Pattern.compile(".+\\.thumb-\\d+x\\d+\\.png$");
+
+    private ThumbnailUtil() {
+    }
+
+    /**
+     * Where the thumbnail of an image at the given size is stored
+     */
+    public static Path thumbnailPath(String imagePath, int width, int height) {
+        Path image = Paths.get(imagePath);
+        return image.resolveSibling(image.getFileName() + SUFFIX_PREFIX + width + "x" + height + SUFFIX_EXTENSION);
+    }
+
+    /**
+     * True if the path names a generated thumbnail
+     */
+    public static boolean isThumbnail(String path) {
+        return path != null && THUMBNAIL_NAME.matcher(path).matches();
+    }
+
+    /**
+     * The image a thumbnail path was generated from (the path itself if it is not a thumbnail)
+     */
+    public static String originalPath(String thumbnailPath) {
+        if (!isThumbnail(thumbnailPath)) {
+            return thumbnailPath;
+        }
+        return thumbnailPath.substring(0, thumbnailPath.lastIndexOf(SUFFIX_PREFIX));
+    }
+
+    /**
+     * Read a stored thumbnail, or null if it is missing or older than its image
+     */
+    public static BufferedImage readThumbnail(String imagePath, int width, int height) {
+        Path thumbnail = thumbnailPath(imagePath, width, height);
+        try {
+            if (!Files.isRegularFile(thumbnail)
+                    || Files.getLastModifiedTime(thumbnail).compareTo(Files.getLastModifiedTime(Paths.get(imagePath))) < 0) {
+                return null;
+            }
+            BufferedImage image = ImageIO.read(thumbnail.toFile());
+            return image != null && image.getWidth() == width && image.getHeight() == height ? image : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Decode an image and store its thumbnails at each size ({width, height} pairs)
+     * Returns the thumbnails in the same order, or null if the image cannot be read.
+     * A thumbnail that cannot be written is still returned.
+     */
+    public static BufferedImage[] generate(String imagePath, int[][] sizes) {
+        BufferedImage source;
+        try {
+            source = ImageIO.read(Paths.get(imagePath).toFile());
+        } catch (IOException e) {
+            System.err.println("Could not read image " + imagePath + ": " + e.getMessage());
+            return null;
+        }
+        if (source == null) {
+            // No ImageIO reader for the format
+            return null;
+        }
+
+        BufferedImage[] thumbnails = new BufferedImage[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            thumbnails[i] = scale(source, sizes[i][0], sizes[i][1]);
+            write(thumbnails[i], thumbnailPath(imagePath, sizes[i][0], sizes[i][1]));
+        }
+        return thumbnails;
+    }
+
+    /**
+     * Scale an image to exactly width x height, halving step by step while shrinking
+     */
+    public static BufferedImage scale(BufferedImage source, int width, int height) {
+        int type = source.getTransparency() == Transparency.OPAQUE
+                ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            // Never shrink by more than half in one step; enlarge in one step
+            currentWidth = currentWidth > width ? Math.max(width, currentWidth / 2) : width;
+            currentHeight = currentHeight > height ? Math.max(height, currentHeight / 2) : height;
+
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, type);
+            Graphics2D g2 = next.createGraphics();
+            g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g2.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            g2.dispose();
+            current = next;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    /**
+     * Delete every stored thumbnail of an image
+     */
+    public static void deleteThumbnails(String imagePath) {
+        Path image = Paths.get(imagePath);
+        Path directory = image.toAbsolutePath().getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        String glob = image.getFileName() + SUFFIX_PREFIX + "*" + SUFFIX_EXTENSION;
+        try (DirectoryStream<Path> thumbnails = Files.newDirectoryStream(directory, glob)) {
+            for (Path thumbnail : thumbnails) {
+                Files.deleteIfExists(thumbnail);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Write through a temporary file, so readers never see a half-written thumbnail
+     */
+    private static void write(BufferedImage image, Path target) {
+        Path temp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            if (!ImageIO.write(image, "png", temp.toFile())) {
+                return;
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Read-only or full storage; the thumbnail is generated again next time
+            System.err.println("Could not store thumbnail " + target + ": " + e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Left for the storage auditor
+            }
+        }
+    }
+}
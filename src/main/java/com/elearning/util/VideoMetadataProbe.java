@@ -0,0 +1,309 @@
+package com.elearning.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Reads duration, resolution and bitrate from MP4/MOV files without decoding
+ * Both formats are ISO base media files: a sequence of boxes, each starting with
+ * a 32-bit size and a 4-character type. Only box headers and the few small boxes
+ * that carry metadata are read (mvhd for duration, tkhd for frame size, hdlr for
+ * the track kind); mdat and the sample tables are skipped by seeking, so probing
+ * a multi-gigabyte video reads a few kilobytes.
+ */
+public final class VideoMetadataProbe {
+    private static final String[] PROBED_FORMATS = {".mp4", ".m4v", ".mov"};
+    private static final int MAX_DEPTH = 8;
+    private static final int MAX_BOXES = 10_000;   // Stop on corrupt files instead of walking forever
+    private static final int MAX_SMALL_BOX = 4096;
+
+    private VideoMetadataProbe() {
+    }
+
+    /**
+     * True if the file name has an extension this probe understands
+     */
+    public static boolean canProbe(String fileName) {
+        if (fileName == null) {
+            return false;
+        }
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        for (String format : PROBED_FORMATS) {
+            if (lower.endsWith(format)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Probe a video file
+     * Throws IOException if the file is not an MP4/MOV container or has no movie header.
+     */
+    public static Metadata probe(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Walk walk = new Walk(channel);
+            walk.children(0, channel.size(), 0);
+            if (!walk.sawMovieHeader) {
+                throw new IOException("No MP4/MOV movie header in " + file.getFileName());
+            }
+
+            long durationMillis = walk.timescale > 0 ? walk.duration * 1000 / walk.timescale : 0;
+            // Media bytes over playing time; the whole file if mdat could not be found
+            long mediaBytes = walk.mediaBytes > 0 ? walk.mediaBytes : channel.size();
+            int bitrateKbps = durationMillis > 0 ? (int) (mediaBytes * 8 / durationMillis) : 0;
+            return new Metadata(durationMillis, walk.width, walk.height, bitrateKbps);
+        }
+    }
+
+    /**
+     * State of one pass over the box tree
+     */
+    private static class Walk {
+        private final FileChannel channel;
+        private final ByteBuffer header = ByteBuffer.allocate(16);
+        private int boxes;
+
+        private boolean sawMovieHeader;
+        private long timescale;
+        private long duration;
+        private long mediaBytes;
+        private int width;
+        private int height;
+
+        // Frame size of the track being walked, kept only if its handler says video
+        private int trackWidth;
+        private int trackHeight;
+        private boolean trackIsVideo;
+
+        Walk(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void children(long start, long end, int depth) throws IOException {
+            long position = start;
+            while (position + 8 <= end) {
+                if (++boxes > MAX_BOXES) {
+                    throw new IOException("Too many boxes, file looks corrupt");
+                }
+                header.clear();
+                header.limit(8);
+                readFully(header, position);
+                header.flip();
+                long size = Integer.toUnsignedLong(header.getInt());
+                String type = fourCC(header);
+                long headerSize = 8;
+
+                if (size == 1) {
+                    // 64-bit size follows the type
+                    header.clear();
+                    header.limit(8);
+                    readFully(header, position + 8);
+                    header.flip();
+                    size = header.getLong();
+                    headerSize = 16;
+                } else if (size == 0) {
+                    // Box runs to the end of its parent
+                    size = end - position;
+                }
+                if (size < headerSize || position + size > end) {
+                    if (depth == 0 && position > 0 && "mdat".equals(type)) {
+                        // Truncated download: the media data is cut short but the header may be fine
+                        mediaBytes += end - position - headerSize;
+                        return;
+                    }
+                    throw new IOException("Bad box '" + type + "' at byte " + position);
+                }
+
+                long bodyStart = position + headerSize;
+                long bodyEnd = position + size;
+                visit(type, bodyStart, bodyEnd, depth);
+                position = bodyEnd;
+            }
+        }
+
+        private void visit(String type, long bodyStart, long bodyEnd, int depth) throws IOException {
+            switch (type) {
+                case "moov":
+                case "mdia":
+                    if (depth < MAX_DEPTH) {
+                        children(bodyStart, bodyEnd, depth + 1);
+                    }
+                    break;
+                case "trak":
+                    trackWidth = 0;
+                    trackHeight = 0;
+                    trackIsVideo = false;
+                    if (depth < MAX_DEPTH) {
+                        children(bodyStart, bodyEnd, depth + 1);
+                    }
+                    if (trackIsVideo && width == 0 && trackWidth > 0) {
+                        width = trackWidth;
+                        height = trackHeight;
+                    }
+                    break;
+                case "mvhd":
+                    readMovieHeader(small(bodyStart, bodyEnd));
+                    break;
+                case "tkhd":
+                    readTrackHeader(small(bodyStart, bodyEnd));
+                    break;
+                case "hdlr":
+                    ByteBuffer hdlr = small(bodyStart, bodyEnd);
+                    if (hdlr.remaining() >= 12) {
+                        hdlr.position(8);   // version/flags, pre_defined
+                        trackIsVideo = "vide".equals(fourCC(hdlr));
+                    }
+                    break;
+                case "mdat":
+                    mediaBytes += bodyEnd - bodyStart;
+                    break;
+                default:
+                    // Sample tables, free space, user data: skipped without reading
+                    break;
+            }
+        }
+
+        private void readMovieHeader(ByteBuffer box) throws IOException {
+            requireRemaining(box, 4, "mvhd");
+            int version = box.get() & 0xFF;
+            box.position(4);
+            if (version == 1) {
+                requireRemaining(box, 28, "mvhd");
+                box.position(box.position() + 16);   // creation and modification time
+                timescale = Integer.toUnsignedLong(box.getInt());
+                duration = box.getLong();
+            } else {
+                requireRemaining(box, 16, "mvhd");
+                box.position(box.position() + 8);
+                timescale = Integer.toUnsignedLong(box.getInt());
+                duration = Integer.toUnsignedLong(box.getInt());
+            }
+            // All bits set means "unknown" (e.g. fragmented files)
+            if (duration == 0xFFFFFFFFL || duration < 0) {
+                duration = 0;
+            }
+            sawMovieHeader = true;
+        }
+
+        private void readTrackHeader(ByteBuffer box) throws IOException {
+            requireRemaining(box, 4, "tkhd");
+            int version = box.get() & 0xFF;
+            box.position(4);
+            // Times, track id, reserved and duration differ in width by version
+            int skip = version == 1 ? 32 : 20;
+            requireRemaining(box, skip + 60, "tkhd");
+            box.position(box.position() + skip + 8 + 8);   // reserved, layer, group, volume, reserved
+            int a = box.getInt();
+            int b = box.getInt();
+            box.position(box.position() + 4 * 7);   // rest of the 3x3 matrix
+            int w = box.getInt() >>> 16;   // 16.16 fixed point
+            int h = box.getInt() >>> 16;
+
+            // Rotated by 90 or 270 degrees: the player shows it portrait
+            if (a == 0 && b != 0) {
+                trackWidth = h;
+                trackHeight = w;
+            } else {
+                trackWidth = w;
+                trackHeight = h;
+            }
+        }
+
+        private ByteBuffer small(long bodyStart, long bodyEnd) throws IOException {
+            int length = (int) Math.min(bodyEnd - bodyStart, MAX_SMALL_BOX);
+            ByteBuffer box = ByteBuffer.allocate(length);
+            readFully(box, bodyStart);
+            box.flip();
+            return box;
+        }
+
+        private void readFully(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of file at byte " + position);
+                }
+                position += read;
+            }
+        }
+
+        private static void requireRemaining(ByteBuffer box, int bytes, String type) throws IOException {
+            if (box.remaining() < bytes) {
+                throw new IOException("Short '" + type + "' box");
+            }
+        }
+
+        private static String fourCC(ByteBuffer buffer) {
+            byte[] code = new byte[4];
+            buffer.get(code);
+            return new String(code, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    /**
+     * What a probe found; zero means the file did not say
+     */
+    public static class Metadata {
+        private final long durationMillis;
+        private final int width;
+        private final int height;
+        private final int bitrateKbps;
+
+        public Metadata(long durationMillis, int width, int height, int bitrateKbps) {
+            this.durationMillis = durationMillis;
+            this.width = width;
+            this.height = height;
+            this.bitrateKbps = bitrateKbps;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public int getDurationSeconds() {
+            return (int) ((durationMillis + 500) / 1000);
+        }
+
+        /**
+         * Whole minutes for the lesson duration field, at least 1 for any non-empty video
+         */
+        public int getDurationMinutes() {
+            return durationMillis > 0 ? (int) Math.max(1, (durationMillis + 30_000) / 60_000) : 0;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public int getBitrateKbps() {
+            return bitrateKbps;
+        }
+
+        public boolean hasDuration() {
+            return durationMillis > 0;
+        }
+
+        @Override
+        public String toString() {
+            long seconds = getDurationSeconds();
+            String text = String.format("%d:%02d", seconds / 60, seconds % 60);
+            if (width > 0 && height > 0) {
+                text += ", " + width + "x" + height;
+            }
+            if (bitrateKbps > 0) {
+                text += ", " + bitrateKbps + " kbps";
+            }
+            return text;
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.elearning.util;
 
+import com.elearning.model.MediaObject;
+import com.elearning.service.MediaStore;
+import com.elearning.service.VideoUploadService;
+
 import javax.swing.*;
 import java.awt.*;
 import java.io.File;
@@ -7,9 +11,10 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Utility class for handling video uploads and playback
@@ -18,10 +23,11 @@ public class VideoUtil {
     private static final String VIDEO_STORAGE_BASE = "videos/";
     private static final String[] SUPPORTED_FORMATS = {".mp4", ".avi", ".mov", ".mkv", ".flv", ".wmv"};
     private static final long MAX_FILE_SIZE = 500 * 1024 * 1024; // 500 MB
+    private static final int PROGRESS_SCALE = 1000;
 
     /**
      * Upload video file for a lesson
-     * Copies the file to project video storage directory
+     * Lets the user pick a file, then copies it with a progress dialog
      *
      * @param parent Parent component for dialogs
      * @param courseId Course ID for organizing files
@@ -29,6 +35,58 @@ public class VideoUtil {
      * @return Absolute path to the stored video file, or null if upload failed
      */
     public static String uploadVideo(Component parent, int courseId, int lessonId) {
+        File selectedFile = chooseVideoFile(parent);
+        if (selectedFile == null) {
+            return null;
+        }
+        return uploadVideo(parent, selectedFile, courseId, lessonId);
+    }
+
+    /**
+     * Upload an already selected video file for a lesson
+     * The file goes into the content-addressed MediaStore on a background
+     * thread (chunked, checksummed, resumable) while a progress dialog keeps
+     * the UI responsive. Content that is already stored is not copied again.
+     *
+     * @param parent Parent component for dialogs
+     * @param sourceFile Video file to copy into storage
+     * @param courseId Course ID (for the upload log)
+     * @param lessonId Lesson ID (for the upload log)
+     * @return Absolute path to the stored video file, or null if upload failed or was cancelled
+     */
+    public static String uploadVideo(Component parent, File sourceFile, int courseId, int lessonId) {
+        if (!sourceFile.isFile()) {
+            JOptionPane.showMessageDialog(parent,
+                "Selected video file not found: " + sourceFile.getAbsolutePath(),
+                "File Error",
+                JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
+        if (sourceFile.length() > MAX_FILE_SIZE) {
+            JOptionPane.showMessageDialog(parent,
+                "File size exceeds maximum allowed size (500 MB)",
+                "File Too Large",
+                JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
+
+        MediaObject stored = storeWithProgress(parent, sourceFile.toPath());
+        if (stored == null) {
+            return null;
+        }
+        System.out.println("Video for course " + courseId + ", lesson " + lessonId + " stored: " + stored);
+
+        // Return absolute path
+        return stored.getStoragePath();
+    }
+
+    /**
+     * Show a file chooser for videos and validate the selected file's size
+     *
+     * @param parent Parent component for dialogs
+     * @return Selected file, or null if cancelled or too large
+     */
+    public static File chooseVideoFile(Component parent) {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setDialogTitle("Select Video File");
         fileChooser.setFileFilter(new javax.swing.filechooser.FileFilter() {
@@ -37,13 +95,7 @@ public class VideoUtil {
                 if (f.isDirectory()) {
                     return true;
                 }
-                String name = f.getName().toLowerCase();
-                for (String format : SUPPORTED_FORMATS) {
-                    if (name.endsWith(format)) {
-                        return true;
-                    }
-                }
-                return false;
+                return isValidVideoFormat(f.getName());
             }
 
             @Override
@@ -53,50 +105,126 @@ public class VideoUtil {
         });
 
         int result = fileChooser.showOpenDialog(parent);
-        if (result == JFileChooser.APPROVE_OPTION) {
-            File selectedFile = fileChooser.getSelectedFile();
+        if (result != JFileChooser.APPROVE_OPTION) {
+            return null;
+        }
 
-            // Validate file size
-            if (selectedFile.length() > MAX_FILE_SIZE) {
-                JOptionPane.showMessageDialog(parent,
-                    "File size exceeds maximum allowed size (500 MB)",
-                    "File Too Large",
-                    JOptionPane.ERROR_MESSAGE);
-                return null;
-            }
+        File selectedFile = fileChooser.getSelectedFile();
 
-            try {
-                // Create directory structure: videos/course_X/
-                String destDir = VIDEO_STORAGE_BASE + "course_" + courseId + "/";
-                Path dirPath = Paths.get(destDir);
-                Files.createDirectories(dirPath);
+        // Validate file size
+        if (selectedFile.length() > MAX_FILE_SIZE) {
+            JOptionPane.showMessageDialog(parent,
+                "File size exceeds maximum allowed size (500 MB)",
+                "File Too Large",
+                JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
+        return selectedFile;
+    }
 
-                // Generate unique filename with timestamp
-                String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-                String extension = getFileExtension(selectedFile.getName());
-                String filename = "lesson_" + lessonId + "_" + timestamp + extension;
-                Path destination = Paths.get(destDir + filename);
+    /**
+     * Store a file on the upload executor while a modal progress dialog is shown
+     * The dialog's own event loop keeps the rest of the UI painting. Cancel
+     * stops the copy and keeps the partial file for a later resume.
+     *
+     * @return Stored object (holding one reference), or null if the upload failed or was cancelled
+     */
+    static MediaObject storeWithProgress(Component parent, Path source) {
+        Window owner = parent == null ? null
+                : parent instanceof Window ? (Window) parent : SwingUtilities.getWindowAncestor(parent);
+        JDialog dialog = new JDialog(owner, "Uploading Video", Dialog.ModalityType.DOCUMENT_MODAL);
+        dialog.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+
+        JPanel panel = new JPanel(new BorderLayout(0, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        JLabel fileLabel = new JLabel(source.getFileName().toString());
+        JProgressBar progressBar = new JProgressBar(0, PROGRESS_SCALE);
+        progressBar.setStringPainted(true);
+        JLabel statusLabel = new JLabel("Preparing...");
+        JButton cancelButton = new JButton("Cancel");
 
-                // Copy file to destination
-                Files.copy(selectedFile.toPath(), destination, StandardCopyOption.REPLACE_EXISTING);
+        JPanel center = new JPanel(new BorderLayout(0, 5));
+        center.add(progressBar, BorderLayout.CENTER);
+        center.add(statusLabel, BorderLayout.SOUTH);
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
+        buttons.add(cancelButton);
+        panel.add(fileLabel, BorderLayout.NORTH);
+        panel.add(center, BorderLayout.CENTER);
+        panel.add(buttons, BorderLayout.SOUTH);
+        dialog.add(panel);
+        dialog.setSize(420, 150);
+        dialog.setLocationRelativeTo(parent);
+
+        // Coalesce chunk callbacks into at most one pending repaint
+        AtomicBoolean updateQueued = new AtomicBoolean();
+        long startNanos = System.nanoTime();
+        ChunkedFileCopy.ProgressListener listener = (copied, total) -> {
+            if (updateQueued.compareAndSet(false, true)) {
+                SwingUtilities.invokeLater(() -> {
+                    updateQueued.set(false);
+                    progressBar.setValue(total == 0 ? PROGRESS_SCALE : (int) (copied * PROGRESS_SCALE / total));
+                    double seconds = Math.max(0.001, (System.nanoTime() - startNanos) / 1_000_000_000.0);
+                    statusLabel.setText(formatFileSize(copied) + " of " + formatFileSize(total)
+                            + " (" + formatFileSize((long) (copied / seconds)) + "/s)");
+                });
+            }
+        };
 
-                // Return absolute path
-                return destination.toAbsolutePath().toString();
+        Future<MediaObject> upload = VideoUploadService.getInstance().upload(source, listener);
+        cancelButton.addActionListener(e -> {
+            cancelButton.setEnabled(false);
+            statusLabel.setText("Cancelling...");
+            upload.cancel(true);
+        });
+
+        // Close the dialog when the copy ends, whichever way it ends
+        Thread watcher = new Thread(() -> {
+            try {
+                upload.get();
+            } catch (Exception ignored) {
+                // Reported below on the UI thread
+            }
+            SwingUtilities.invokeLater(dialog::dispose);
+        }, "video-upload-watch");
+        watcher.setDaemon(true);
+        watcher.start();
 
-            } catch (IOException e) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            dialog.setVisible(true);
+        }
+
+        try {
+            return upload.get();
+        } catch (CancellationException e) {
+            JOptionPane.showMessageDialog(parent,
+                "Upload cancelled. Uploading the same file again continues where it stopped.",
+                "Upload Cancelled",
+                JOptionPane.INFORMATION_MESSAGE);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CancellationException) {
                 JOptionPane.showMessageDialog(parent,
-                    "Failed to upload video: " + e.getMessage(),
+                    "Upload cancelled. Uploading the same file again continues where it stopped.",
+                    "Upload Cancelled",
+                    JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(parent,
+                    "Failed to upload video: " + cause.getMessage(),
                     "Upload Error",
                     JOptionPane.ERROR_MESSAGE);
-                e.printStackTrace();
+                cause.printStackTrace();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            dialog.dispose();
         }
         return null;
     }
 
     /**
      * Update video for an existing lesson
-     * Optionally deletes old video file
+     * Releases the old video if it is in the media store, otherwise optionally deletes it
      *
      * @param parent Parent component for dialogs
      * @param courseId Course ID
@@ -107,8 +235,9 @@ public class VideoUtil {
     public static String updateVideo(Component parent, int courseId, int lessonId, String oldVideoPath) {
         String newPath = uploadVideo(parent, courseId, lessonId);
 
-        if (newPath != null && oldVideoPath != null && !oldVideoPath.isEmpty()) {
-            // Optionally delete old video file
+        if (newPath != null && oldVideoPath != null && !oldVideoPath.isEmpty()
+                && !newPath.equals(oldVideoPath) && !MediaStore.getInstance().release(oldVideoPath)) {
+            // Legacy file outside the store: optionally delete it
             int confirm = JOptionPane.showConfirmDialog(parent,
                 "Delete old video file?",
                 "Confirm Deletion",
@@ -124,14 +253,19 @@ public class VideoUtil {
 
     /**
      * Delete a video file from storage
+     * Stored objects only lose one reference; the GC removes the file once
+     * nothing points at it. Legacy files are deleted directly.
      *
      * @param videoPath Absolute path to video file
-     * @return true if deletion was successful
+     * @return true if the reference was dropped or the file deleted
      */
     public static boolean deleteVideo(String videoPath) {
         if (videoPath == null || videoPath.isEmpty()) {
             return false;
         }
+        if (MediaStore.getInstance().isManaged(videoPath)) {
+            return MediaStore.getInstance().release(videoPath);
+        }
 
         try {
             Path path = Paths.get(videoPath);
@@ -175,9 +309,49 @@ public class VideoUtil {
         long sizeInBytes = videoFile.length();
         double sizeInMB = sizeInBytes / (1024.0 * 1024.0);
 
+        VideoMetadataProbe.Metadata metadata = probe(videoPath);
+        if (metadata != null && metadata.hasDuration()) {
+            return String.format("%s (%.2f MB, %s)", videoFile.getName(), sizeInMB, metadata);
+        }
         return String.format("%s (%.2f MB)", videoFile.getName(), sizeInMB);
     }
 
+    /**
+     * Read duration, resolution and bitrate from an MP4/MOV file's headers
+     *
+     * @param videoPath Path to video file
+     * @return Metadata, or null for other formats and unreadable files
+     */
+    public static VideoMetadataProbe.Metadata probe(String videoPath) {
+        if (!VideoMetadataProbe.canProbe(videoPath) || !videoExists(videoPath)) {
+            return null;
+        }
+        try {
+            return VideoMetadataProbe.probe(Paths.get(videoPath));
+        } catch (IOException e) {
+            System.err.println("Could not read video metadata from " + videoPath + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Set a duration spinner (minutes) from the video's own length, if it can be read
+     *
+     * @param spinner Spinner with a SpinnerNumberModel
+     * @param videoPath Path to video file
+     * @return true if the spinner was updated
+     */
+    public static boolean fillDurationFromVideo(JSpinner spinner, String videoPath) {
+        VideoMetadataProbe.Metadata metadata = probe(videoPath);
+        if (metadata == null || !metadata.hasDuration()) {
+            return false;
+        }
+        SpinnerNumberModel model = (SpinnerNumberModel) spinner.getModel();
+        int max = ((Number) model.getMaximum()).intValue();
+        spinner.setValue(Math.min(metadata.getDurationMinutes(), max));
+        return true;
+    }
+
     /**
      * Get file extension including the dot
      *
@@ -0,0 +1,107 @@
+package com.elearning.util;
+
+import java.util.Arrays;
+
+/**
+ * Which seconds of a video have been watched
+ * Bit n is set once playback has run through second n, so replaying a part
+ * never counts twice and the number of set bits is the length of video
+ * covered. Intervals from several sessions are merged with OR. Stored as a
+ * BLOB of at most MAX_SECONDS / 8 bytes (videos longer than that count only
+ * their first MAX_SECONDS).
+ */
+public final class WatchCoverage {
+    public static final int MAX_SECONDS = 6 * 60 * 60;
+
+    private byte[] bits;
+
+    public WatchCoverage() {
+        this(new byte[0]);
+    }
+
+    private WatchCoverage(byte[] bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * Coverage stored as bytes (null or empty means nothing watched)
+     */
+    public static WatchCoverage fromBytes(byte[] bytes) {
+        if (bytes == null) {
+            return new WatchCoverage();
+        }
+        return new WatchCoverage(Arrays.copyOf(bytes, Math.min(bytes.length, MAX_SECONDS / 8)));
+    }
+
+    /**
+     * Mark the seconds played between two positions (in seconds, from before to)
+     * A second counts once playback has passed its midpoint.
+     */
+    public void mark(double fromSeconds, double toSeconds) {
+        int first = (int) Math.max(0, Math.ceil(fromSeconds - 0.5));
+        int last = (int) Math.min(MAX_SECONDS, Math.floor(toSeconds - 0.5) + 1);   // Exclusive
+        for (int second = first; second < last; second++) {
+            int index = second >>> 3;
+            if (index >= bits.length) {
+                bits = Arrays.copyOf(bits, Math.min(MAX_SECONDS / 8, Math.max(index + 1, bits.length * 2)));
+            }
+            bits[index] |= (byte) (1 << (second & 7));
+        }
+    }
+
+    /**
+     * Add everything another coverage has watched
+     */
+    public void merge(WatchCoverage other) {
+        if (other == null) {
+            return;
+        }
+        if (other.bits.length > bits.length) {
+            bits = Arrays.copyOf(bits, other.bits.length);
+        }
+        for (int i = 0; i < other.bits.length; i++) {
+            bits[i] |= other.bits[i];
+        }
+    }
+
+    /**
+     * Seconds of video watched at least once
+     */
+    public int coveredSeconds() {
+        int count = 0;
+        for (byte b : bits) {
+            count += Integer.bitCount(b & 0xFF);
+        }
+        return count;
+    }
+
+    /**
+     * Seconds watched at least once within the first durationSeconds of the video
+     */
+    public int coveredSeconds(int durationSeconds) {
+        int count = 0;
+        int fullBytes = Math.min(bits.length, durationSeconds >>> 3);
+        for (int i = 0; i < fullBytes; i++) {
+            count += Integer.bitCount(bits[i] & 0xFF);
+        }
+        if (fullBytes < bits.length && (durationSeconds & 7) != 0) {
+            count += Integer.bitCount(bits[fullBytes] & ((1 << (durationSeconds & 7)) - 1));
+        }
+        return count;
+    }
+
+    public WatchCoverage copy() {
+        return new WatchCoverage(bits.clone());
+    }
+
+    /**
+     * Bytes to store, without trailing unwatched bytes
+     */
+    public byte[] toBytes() {
+        int length = bits.length;
+        while (length > 0 && bits[length - 1] == 0) {
+            length--;
+        }
+        return Arrays.copyOf(bits, length);
+    }
+}
@@ -0,0 +1,353 @@
+package com.elearning.util;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BinaryOperator;
+
+/**
+ * Batched write-behind queue shared by the ingestion buffers
+ * Entries are recorded in memory (never blocking on the database) and a
+ * background thread writes them in JDBC batches every few seconds, oldest
+ * first. An entry recorded under a key that is still pending is merged into it,
+ * so the latest state per key costs one row write; entries that must not be
+ * coalesced use unique keys. Beyond maxPending keys new entries are dropped.
+ * A batch that fails on the connection (DBConnection.isRetryable) is re-queued
+ * for the next run; any other failure is retried row by row, dropping only the
+ * rows the database rejects. Owners call shutdown() from their shutdown hook.
+ *
+ * @param <K> key an entry is coalesced on
+ * @param <V> entry written to the database
+ */
+public class WriteBehindWriter<K, V> {
+    public static final int MAX_BATCH_SIZE = 500;
+
+    /**
+     * Database side of a writer (the owning buffer's DAO calls)
+     */
+    public interface Sink<V> {
+        /**
+         * Write entries in one transaction
+         * @return the number written; the rest were skipped by the database
+         * @throws SQLException if the batch was rolled back
+         */
+        int writeBatch(List<V> batch) throws SQLException;
+
+        /**
+         * Write a single entry (used to isolate the row that made a batch fail)
+         * @return false if the database skipped it
+         */
+        default boolean writeOne(V entry) throws SQLException {
+            return writeBatch(List.of(entry)) > 0;
+        }
+
+        /**
+         * Called on the flushing thread after every flush
+         */
+        default void afterFlush() {
+        }
+    }
+
+    private final String name;
+    private final int maxPending;
+    private final BinaryOperator<V> merge;
+    private final Sink<V> sink;
+    private final ConcurrentHashMap<K, V> pending = new ConcurrentHashMap<>();
+    // Keys in the order they became pending; a key whose entry was discarded is skipped
+    private final ConcurrentLinkedQueue<K> order = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService scheduler;
+    private final Object flushLock = new Object();
+
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    /**
+     * @param name          shown in log messages and used for the flush thread's name
+     * @param flushSeconds  delay between background flushes
+     * @param maxPending    keys kept while the database is down; new keys beyond it are dropped
+     * @param merge         combines a pending entry (first argument) with a later one
+     */
+    public WriteBehindWriter(String name, long flushSeconds, int maxPending, BinaryOperator<V> merge, Sink<V> sink) {
+        this.name = name;
+        this.maxPending = maxPending;
+        this.merge = merge;
+        this.sink = sink;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name.toLowerCase().replace(' ', '-') + "-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushSeconds, flushSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Writer for entries recorded under unique keys (a repeated key replaces the pending entry)
+     */
+    public WriteBehindWriter(String name, long flushSeconds, int maxPending, Sink<V> sink) {
+        this(name, flushSeconds, maxPending, (current, later) -> later, sink);
+    }
+
+    /**
+     * Queue an entry, merging it into the pending entry of the same key
+     * Returns false if it was dropped because too many keys are pending
+     */
+    public boolean record(K key, V entry) {
+        if (!pending.containsKey(key) && pending.size() >= maxPending) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        recorded.incrementAndGet();
+        boolean[] added = {false};
+        pending.compute(key, (k, current) -> {
+            if (current == null) {
+                added[0] = true;
+                return entry;
+            }
+            coalesced.incrementAndGet();
+            return merge.apply(current, entry);
+        });
+        if (added[0]) {
+            order.add(key);
+        }
+        return true;
+    }
+
+    /**
+     * The entry not yet written for a key, or null
+     */
+    public V get(K key) {
+        return pending.get(key);
+    }
+
+    /**
+     * Drop the pending entry of a key that is about to be written directly
+     * Waits for an in-flight flush, so the caller's own write cannot race it
+     */
+    public void discard(K key) {
+        synchronized (flushLock) {
+            pending.remove(key);
+        }
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Ask the background thread to flush soon
+     */
+    public void requestFlush() {
+        if (!scheduler.isShutdown() && !pending.isEmpty()) {
+            scheduler.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Write all pending entries on the calling thread
+     * Returns the number of entries written
+     */
+    public int flush() {
+        synchronized (flushLock) {
+            int total = 0;
+            try {
+                while (true) {
+                    List<K> keys = new ArrayList<>(MAX_BATCH_SIZE);
+                    List<V> batch = new ArrayList<>(MAX_BATCH_SIZE);
+                    K key;
+                    while (batch.size() < MAX_BATCH_SIZE && (key = order.poll()) != null) {
+                        V entry = pending.remove(key);
+                        if (entry != null) {
+                            keys.add(key);
+                            batch.add(entry);
+                        }
+                    }
+                    if (batch.isEmpty()) {
+                        break;
+                    }
+
+                    int retryFrom;
+                    try {
+                        int count = sink.writeBatch(batch);
+                        total += count;
+                        written.addAndGet(count);
+                        rejected.addAndGet(batch.size() - count);
+                        continue;
+                    } catch (SQLException e) {
+                        failedFlushes.incrementAndGet();
+                        if (DBConnection.isRetryable(e)) {
+                            e.printStackTrace();
+                            retryFrom = 0;
+                        } else {
+                            // One bad row would fail every retry of the whole batch; isolate it
+                            long writtenBefore = written.get();
+                            retryFrom = writeOneByOne(batch);
+                            total += (int) (written.get() - writtenBefore);
+                            if (retryFrom == batch.size()) {
+                                continue;
+                            }
+                        }
+                    }
+
+                    // The database is unreachable; retry on the next run
+                    for (int i = retryFrom; i < batch.size(); i++) {
+                        requeue(keys.get(i), batch.get(i));
+                    }
+                    break;
+                }
+            } finally {
+                sink.afterFlush();
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Stop the background thread and write everything still pending
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (!pending.isEmpty()) {
+            System.err.println(name + ": " + pending.size() + " entries could not be saved");
+        }
+    }
+
+    public WriterStats getStats() {
+        return new WriterStats(recorded.get(), coalesced.get(), dropped.get(), written.get(),
+                rejected.get(), failedFlushes.get(), pending.size());
+    }
+
+    /**
+     * Write a batch the database rejected row by row, dropping the rows it rejects
+     * Returns the index of the first row not attempted because the connection failed.
+     */
+    private int writeOneByOne(List<V> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            V entry = batch.get(i);
+            try {
+                if (sink.writeOne(entry)) {
+                    written.incrementAndGet();
+                } else {
+                    rejected.incrementAndGet();
+                }
+            } catch (SQLException e) {
+                if (DBConnection.isRetryable(e)) {
+                    return i;
+                }
+                // Would fail on every retry (e.g. a row deleted since the entry was recorded)
+                rejected.incrementAndGet();
+                System.err.println(name + " dropped " + entry + ": " + e.getMessage());
+            }
+        }
+        return batch.size();
+    }
+
+    /**
+     * Put a failed entry back without overwriting what was recorded for its key meanwhile
+     */
+    private void requeue(K key, V entry) {
+        boolean[] added = {false};
+        pending.compute(key, (k, current) -> {
+            if (current == null) {
+                added[0] = true;
+                return entry;
+            }
+            return merge.apply(entry, current);
+        });
+        if (added[0]) {
+            order.add(key);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Keep the scheduled task alive; the entries stay queued
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Counters for monitoring a writer
+     */
+    public static class WriterStats {
+        private final long recorded;
+        private final long coalesced;
+        private final long dropped;
+        private final long written;
+        private final long rejected;
+        private final long failedFlushes;
+        private final int pending;
+
+        public WriterStats(long recorded, long coalesced, long dropped, long written, long rejected,
+                           long failedFlushes, int pending) {
+            this.recorded = recorded;
+            this.coalesced = coalesced;
+            this.dropped = dropped;
+            this.written = written;
+            this.rejected = rejected;
+            this.failedFlushes = failedFlushes;
+            this.pending = pending;
+        }
+
+        public long getRecorded() {
+            return recorded;
+        }
+
+        /**
+         * Entries merged into a pending entry instead of becoming a row write
+         */
+        public long getCoalesced() {
+            return coalesced;
+        }
+
+        public long getDropped() {
+            return dropped;
+        }
+
+        public long getWritten() {
+            return written;
+        }
+
+        /**
+         * Entries the database would never accept (e.g. their lesson was deleted before the flush)
+         */
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getFailedFlushes() {
+            return failedFlushes;
+        }
+
+        public int getPending() {
+            return pending;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("recorded=%d, coalesced=%d, written=%d, dropped=%d, rejected=%d, pending=%d, failedFlushes=%d",
+                    recorded, coalesced, written, dropped, rejected, pending, failedFlushes);
+        }
+    }
+}
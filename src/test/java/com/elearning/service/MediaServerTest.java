@@ -0,0 +1,47 @@
+package com.elearning.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MediaServerTest {
+
+    @Test
+    void closedRange() {
+        assertArrayEquals(new long[]{0, 99}, MediaServer.parseRange("bytes=0-99", 1000));
+        assertArrayEquals(new long[]{500, 500}, MediaServer.parseRange("bytes=500-500", 1000));
+    }
+
+    @Test
+    void openEndedRange() {
+        assertArrayEquals(new long[]{200, 999}, MediaServer.parseRange("bytes=200-", 1000));
+    }
+
+    @Test
+    void endIsClampedToSize() {
+        assertArrayEquals(new long[]{900, 999}, MediaServer.parseRange("bytes=900-5000", 1000));
+    }
+
+    @Test
+    void suffixRange() {
+        assertArrayEquals(new long[]{900, 999}, MediaServer.parseRange("bytes=-100", 1000));
+        assertArrayEquals(new long[]{0, 999}, MediaServer.parseRange("bytes=-5000", 1000));
+    }
+
+    @Test
+    void unsatisfiableRange() {
+        assertArrayEquals(new long[0], MediaServer.parseRange("bytes=1000-", 1000));
+        assertArrayEquals(new long[0], MediaServer.parseRange("bytes=500-100", 1000));
+        assertArrayEquals(new long[0], MediaServer.parseRange("bytes=-0", 1000));
+        assertArrayEquals(new long[0], MediaServer.parseRange("bytes=0-", 0));
+    }
+
+    @Test
+    void malformedRangeIsIgnored() {
+        assertNull(MediaServer.parseRange("items=0-99", 1000));
+        assertNull(MediaServer.parseRange("bytes=0-99,200-299", 1000));
+        assertNull(MediaServer.parseRange("bytes=abc-", 1000));
+        assertNull(MediaServer.parseRange("bytes=100", 1000));
+    }
+}
@@ -0,0 +1,98 @@
+package com.elearning.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    private static HyperLogLog sketchOf(long from, long to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long value = from; value < to; value++) {
+            sketch.add(value);
+        }
+        return sketch;
+    }
+
+    private static void assertClose(long expected, long actual) {
+        // About four standard errors at the default precision
+        double error = Math.abs(actual - expected) / (double) expected;
+        assertTrue(error < 0.065, "expected about " + expected + " but was " + actual);
+    }
+
+    @Test
+    void emptySketch() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertTrue(sketch.isEmpty());
+        assertEquals(0, sketch.estimate());
+    }
+
+    @Test
+    void smallCardinalityIsExact() {
+        HyperLogLog sketch = sketchOf(1, 11);
+        assertFalse(sketch.isEmpty());
+        assertEquals(10, sketch.estimate());
+    }
+
+    @Test
+    void estimatesLargeCardinality() {
+        assertClose(100_000, sketchOf(0, 100_000).estimate());
+    }
+
+    @Test
+    void duplicatesAreNotCounted() {
+        HyperLogLog sketch = sketchOf(0, 5_000);
+        long before = sketch.estimate();
+        for (long value = 0; value < 5_000; value++) {
+            sketch.add(value);
+        }
+        assertEquals(before, sketch.estimate());
+    }
+
+    @Test
+    void mergeCountsUnion() {
+        HyperLogLog first = sketchOf(0, 30_000);
+        HyperLogLog second = sketchOf(20_000, 50_000);
+        byte[] secondBefore = second.toBytes();
+
+        first.merge(second);
+        assertClose(50_000, first.estimate());
+        assertArrayEquals(secondBefore, second.toBytes());
+    }
+
+    @Test
+    void mergeRejectsDifferentPrecision() {
+        HyperLogLog sketch = new HyperLogLog(10);
+        assertThrows(IllegalArgumentException.class, () -> sketch.merge(new HyperLogLog(12)));
+    }
+
+    @Test
+    void precisionOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(17));
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        HyperLogLog sketch = sketchOf(0, 1_000);
+        HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+        assertEquals(sketch.estimate(), restored.estimate());
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[100]));
+    }
+
+    @Test
+    void copyIsIndependent() {
+        HyperLogLog sketch = sketchOf(0, 100);
+        long before = sketch.estimate();
+        HyperLogLog copy = sketch.copy();
+        copy.add(1_000_000);
+        copy.clear();
+        assertTrue(copy.isEmpty());
+        assertEquals(before, sketch.estimate());
+        assertClose(100, before);
+    }
+}
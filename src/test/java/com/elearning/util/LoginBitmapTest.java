@@ -0,0 +1,134 @@
+package com.elearning.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LoginBitmapTest {
+
+    private static int days(int... days) {
+        int bits = 0;
+        for (int day : days) {
+            bits |= 1 << (day - 1);
+        }
+        return bits;
+    }
+
+    private static int allDays(YearMonth month) {
+        int bits = 0;
+        for (int day = 1; day <= month.lengthOfMonth(); day++) {
+            bits |= 1 << (day - 1);
+        }
+        return bits;
+    }
+
+    @Test
+    void runEndingAtMonthEnd() {
+        assertEquals(3, LoginBitmap.runEndingAt(days(29, 30, 31), 31));
+        assertEquals(31, LoginBitmap.runEndingAt(allDays(YearMonth.of(2024, 1)), 31));
+        assertEquals(0, LoginBitmap.runEndingAt(days(29, 30), 31));
+    }
+
+    @Test
+    void dayBitForLastDayOfMonth() {
+        assertEquals(1 << 30, LoginBitmap.dayBit(LocalDate.of(2024, 1, 31)));
+        assertEquals(1, LoginBitmap.activeDays(LoginBitmap.dayBit(LocalDate.of(2024, 1, 31))));
+    }
+
+    @Test
+    void toDatesOfLeapFebruary() {
+        YearMonth february = YearMonth.of(2024, 2);
+        assertEquals(29, LoginBitmap.toDates(february, allDays(february)).size());
+        assertEquals(LocalDate.of(2024, 2, 29),
+                LoginBitmap.toDates(february, days(29)).iterator().next());
+        // Day 29 does not exist in 2023
+        assertEquals(0, LoginBitmap.toDates(YearMonth.of(2023, 2), days(29)).size());
+    }
+
+    @Test
+    void currentStreakCarriesIntoPreviousMonth() {
+        LocalDate today = LocalDate.of(2024, 2, 2);
+        assertEquals(4, LoginBitmap.currentStreak(List.of(days(1, 2), days(30, 31)), today));
+    }
+
+    @Test
+    void currentStreakOnFirstDayBeforeLogin() {
+        LocalDate today = LocalDate.of(2024, 3, 1);
+        assertEquals(2, LoginBitmap.currentStreak(List.of(0, days(28, 29)), today));
+    }
+
+    @Test
+    void currentStreakThroughLeapFebruary() {
+        LocalDate today = LocalDate.of(2024, 3, 1);
+        int february = allDays(YearMonth.of(2024, 2));
+        assertEquals(29 + 1 + 1, LoginBitmap.currentStreak(List.of(days(1), february, days(31)), today));
+    }
+
+    @Test
+    void currentStreakThroughNonLeapFebruary() {
+        LocalDate today = LocalDate.of(2023, 3, 1);
+        // A stray day-29 bit must not stretch February to 29 days
+        int february = allDays(YearMonth.of(2023, 2)) | days(29);
+        assertEquals(28 + 1 + 1, LoginBitmap.currentStreak(List.of(days(1), february, days(31)), today));
+    }
+
+    @Test
+    void currentStreakStopsAtEmptyMonth() {
+        LocalDate today = LocalDate.of(2024, 3, 1);
+        assertEquals(1, LoginBitmap.currentStreak(List.of(days(1), 0, days(31)), today));
+        assertEquals(0, LoginBitmap.currentStreak(List.of(0, 0), today));
+        assertEquals(0, LoginBitmap.currentStreak(List.of(), today));
+    }
+
+    @Test
+    void currentStreakDoesNotCarryAcrossGap() {
+        // Logged in on Jan 31 and Feb 2, not on Feb 1
+        LocalDate today = LocalDate.of(2024, 2, 2);
+        assertEquals(1, LoginBitmap.currentStreak(List.of(days(2), days(31)), today));
+    }
+
+    @Test
+    void longestStreakAcrossMonthEnd() {
+        YearMonth first = YearMonth.of(2024, 1);
+        assertEquals(5, LoginBitmap.longestStreak(List.of(days(30, 31), days(1, 2, 3)), first));
+    }
+
+    @Test
+    void longestStreakDoesNotCarryAcrossGap() {
+        YearMonth first = YearMonth.of(2024, 1);
+        assertEquals(3, LoginBitmap.longestStreak(List.of(days(30, 31), days(2, 3, 4)), first));
+        assertEquals(2, LoginBitmap.longestStreak(List.of(days(30), days(1, 2)), first));
+    }
+
+    @Test
+    void longestStreakThroughLeapFebruary() {
+        YearMonth first = YearMonth.of(2024, 1);
+        int february = allDays(YearMonth.of(2024, 2));
+        assertEquals(1 + 29 + 2, LoginBitmap.longestStreak(List.of(days(31), february, days(1, 2)), first));
+    }
+
+    @Test
+    void longestStreakThroughNonLeapFebruary() {
+        YearMonth first = YearMonth.of(2023, 1);
+        int february = allDays(YearMonth.of(2023, 2)) | days(29);
+        assertEquals(1 + 28 + 2, LoginBitmap.longestStreak(List.of(days(31), february, days(1, 2)), first));
+    }
+
+    @Test
+    void longestStreakWithEmptyMonths() {
+        YearMonth first = YearMonth.of(2024, 1);
+        assertEquals(0, LoginBitmap.longestStreak(List.of(0, 0, 0), first));
+        assertEquals(0, LoginBitmap.longestStreak(List.of(), first));
+        assertEquals(1, LoginBitmap.longestStreak(List.of(days(31), 0, days(1)), first));
+    }
+
+    @Test
+    void longestStreakInsideOneMonth() {
+        YearMonth first = YearMonth.of(2024, 4);
+        assertEquals(4, LoginBitmap.longestStreak(List.of(days(1, 2, 10, 11, 12, 13, 20)), first));
+    }
+}
@@ -0,0 +1,140 @@
+package com.elearning.util;
+
+import com.elearning.dao.LessonProgressDAO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Microbenchmark: round-trips and latency per lesson completion
+ * Compares the old SELECT-then-INSERT/UPDATE flow with the single upsert used by
+ * LessonProgressDAO. Runs against a session-scoped temporary copy of
+ * lesson_progress, so real progress data is never touched.
+ *
+ * Kept with the tests so it is not packaged with the application.
+ *
+ * Usage: mvn -q test-compile exec:java -Dexec.classpathScope=test
+ *            -Dexec.mainClass=com.elearning.util.ProgressUpsertBenchmark [-Dexec.args=2000]
+ */
+public class ProgressUpsertBenchmark {
+    private static final String TABLE = "bench_lesson_progress";
+    private static final int BENCH_USER_ID = 1;
+
+    private int statements;
+
+    public static void main(String[] args) throws SQLException {
+        int lessons = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        SqlDialect dialect = DBConnection.getInstance().getDialect();
+
+        try (Connection conn = DBConnection.getInstance().openConnection()) {
+            ProgressUpsertBenchmark benchmark = new ProgressUpsertBenchmark();
+            benchmark.createTable(conn, dialect);
+
+            System.out.println("Dialect: " + dialect + ", completions per run: " + lessons);
+            System.out.println("(each run completes every lesson twice: first time inserts, second time updates)");
+
+            benchmark.run(conn, dialect, "SELECT + INSERT/UPDATE", lessons, true);
+            benchmark.run(conn, dialect, "Single upsert", lessons, false);
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("DROP TABLE " + TABLE);
+            }
+        }
+    }
+
+    private void run(Connection conn, SqlDialect dialect, String label, int lessons, boolean legacy) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM " + TABLE);
+        }
+
+        long serverBefore = serverQuestions(conn, dialect);
+        statements = 0;
+        long start = System.nanoTime();
+
+        for (int pass = 0; pass < 2; pass++) {
+            for (int lessonId = 1; lessonId <= lessons; lessonId++) {
+                if (legacy) {
+                    completeLegacy(conn, BENCH_USER_ID, lessonId);
+                } else {
+                    completeUpsert(conn, dialect, BENCH_USER_ID, lessonId);
+                }
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        long serverAfter = serverQuestions(conn, dialect);
+        int completions = lessons * 2;
+
+        System.out.printf("%-24s %.2f round-trips/completion, %.1f us/completion%s%n",
+                label,
+                statements / (double) completions,
+                elapsedNanos / 1000.0 / completions,
+                serverBefore >= 0
+                        // The counter also sees the SHOW STATUS query itself
+                        ? String.format(" (server counted %.2f)", (serverAfter - serverBefore - 1) / (double) completions)
+                        : "");
+    }
+
+    /**
+     * The flow LessonProgressDAO.markAsCompleted used before switching to upserts
+     */
+    private void completeLegacy(Connection conn, int userId, int lessonId) throws SQLException {
+        boolean exists;
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT * FROM " + TABLE + " WHERE user_id = ? AND lesson_id = ?")) {
+            stmt.setInt(1, userId);
+            stmt.setInt(2, lessonId);
+            statements++;
+            try (ResultSet rs = stmt.executeQuery()) {
+                exists = rs.next();
+            }
+        }
+
+        String sql = exists
+                ? "UPDATE " + TABLE + " SET is_completed = TRUE, completed_at = NOW(), " +
+                  "last_opened_at = NOW() WHERE user_id = ? AND lesson_id = ?"
+                : "INSERT INTO " + TABLE + " (user_id, lesson_id, is_completed, completed_at, last_opened_at) " +
+                  "VALUES (?, ?, TRUE, NOW(), NOW())";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            stmt.setInt(2, lessonId);
+            statements++;
+            stmt.executeUpdate();
+        }
+    }
+
+    private void completeUpsert(Connection conn, SqlDialect dialect, int userId, int lessonId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(LessonProgressDAO.markCompletedSql(dialect, TABLE))) {
+            stmt.setInt(1, userId);
+            stmt.setInt(2, lessonId);
+            statements++;
+            stmt.executeUpdate();
+        }
+    }
+
+    private void createTable(Connection conn, SqlDialect dialect) throws SQLException {
+        // Copies columns and the uk_user_lesson unique key, but not the foreign keys
+        String sql = dialect == SqlDialect.POSTGRESQL
+                ? "CREATE TEMP TABLE " + TABLE + " (LIKE lesson_progress INCLUDING ALL)"
+                : "CREATE TEMPORARY TABLE " + TABLE + " LIKE lesson_progress";
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    /**
+     * Server-side statement counter for this session (MySQL/MariaDB only, -1 otherwise)
+     */
+    private long serverQuestions(Connection conn, SqlDialect dialect) throws SQLException {
+        if (dialect != SqlDialect.MYSQL) {
+            return -1;
+        }
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SHOW SESSION STATUS LIKE 'Questions'")) {
+            return rs.next() ? rs.getLong(2) : -1;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.elearning.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VideoMetadataProbeTest {
+
+    @TempDir
+    Path dir;
+
+    private static byte[] box(String type, byte[]... children) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (byte[] child : children) {
+            body.writeBytes(child);
+        }
+        return ByteBuffer.allocate(8 + body.size())
+                .putInt(8 + body.size())
+                .put(type.getBytes(StandardCharsets.ISO_8859_1))
+                .put(body.toByteArray())
+                .array();
+    }
+
+    private static byte[] mvhd(int timescale, int duration) {
+        ByteBuffer body = ByteBuffer.allocate(100);
+        body.putInt(0);   // Version 0, flags
+        body.putInt(0).putInt(0);   // Creation and modification time
+        body.putInt(timescale).putInt(duration);
+        return box("mvhd", body.array());
+    }
+
+    private static byte[] tkhd(int width, int height, boolean rotated) {
+        ByteBuffer body = ByteBuffer.allocate(84);
+        body.putInt(0);
+        body.position(4 + 20 + 8 + 8);   // Times and duration, reserved, layer/group/volume
+        int one = 0x10000;
+        int[] matrix = rotated
+                ? new int[]{0, one, 0, -one, 0, 0, 0, 0, 0x40000000}
+                : new int[]{one, 0, 0, 0, one, 0, 0, 0, 0x40000000};
+        for (int value : matrix) {
+            body.putInt(value);
+        }
+        body.putInt(width << 16).putInt(height << 16);
+        return box("tkhd", body.array());
+    }
+
+    private static byte[] hdlr(String handler) {
+        ByteBuffer body = ByteBuffer.allocate(25);
+        body.putInt(0).putInt(0);
+        body.put(handler.getBytes(StandardCharsets.ISO_8859_1));
+        return box("hdlr", body.array());
+    }
+
+    private static byte[] track(String handler, int width, int height, boolean rotated) {
+        return box("trak", tkhd(width, height, rotated), box("mdia", hdlr(handler)));
+    }
+
+    private Path write(String name, byte[]... boxes) throws IOException {
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        for (byte[] box : boxes) {
+            file.writeBytes(box);
+        }
+        return Files.write(dir.resolve(name), file.toByteArray());
+    }
+
+    @Test
+    void canProbeByExtension() {
+        assertTrue(VideoMetadataProbe.canProbe("lesson.MP4"));
+        assertTrue(VideoMetadataProbe.canProbe("clip.mov"));
+        assertTrue(VideoMetadataProbe.canProbe("clip.m4v"));
+        assertFalse(VideoMetadataProbe.canProbe("clip.webm"));
+        assertFalse(VideoMetadataProbe.canProbe(null));
+    }
+
+    @Test
+    void readsDurationSizeAndBitrate() throws IOException {
+        Path file = write("lesson.mp4",
+                box("ftyp", "isom".getBytes(StandardCharsets.ISO_8859_1)),
+                box("moov", mvhd(1000, 10_000),
+                        track("soun", 0, 0, false),
+                        track("vide", 1280, 720, false)),
+                box("mdat", new byte[10_000]));
+
+        VideoMetadataProbe.Metadata metadata = VideoMetadataProbe.probe(file);
+        assertEquals(10_000, metadata.getDurationMillis());
+        assertEquals(10, metadata.getDurationSeconds());
+        assertEquals(1, metadata.getDurationMinutes());
+        assertEquals(1280, metadata.getWidth());
+        assertEquals(720, metadata.getHeight());
+        assertEquals(8, metadata.getBitrateKbps());
+        assertTrue(metadata.hasDuration());
+    }
+
+    @Test
+    void rotatedTrackIsPortrait() throws IOException {
+        Path file = write("phone.mov",
+                box("moov", mvhd(600, 600 * 90), track("vide", 1920, 1080, true)),
+                box("mdat", new byte[16]));
+
+        VideoMetadataProbe.Metadata metadata = VideoMetadataProbe.probe(file);
+        assertEquals(1080, metadata.getWidth());
+        assertEquals(1920, metadata.getHeight());
+        assertEquals(2, metadata.getDurationMinutes());
+    }
+
+    @Test
+    void unknownDurationIsZero() throws IOException {
+        Path file = write("live.mp4", box("moov", mvhd(1000, -1)));
+
+        VideoMetadataProbe.Metadata metadata = VideoMetadataProbe.probe(file);
+        assertFalse(metadata.hasDuration());
+        assertEquals(0, metadata.getBitrateKbps());
+    }
+
+    @Test
+    void truncatedMediaDataStillProbes() throws IOException {
+        byte[] mdat = box("mdat", new byte[1000]);
+        byte[] cut = java.util.Arrays.copyOf(mdat, 508);
+        Path file = write("partial.mp4", box("moov", mvhd(1000, 1000)), cut);
+
+        assertEquals(1000, VideoMetadataProbe.probe(file).getDurationMillis());
+        assertEquals(4, VideoMetadataProbe.probe(file).getBitrateKbps());
+    }
+
+    @Test
+    void rejectsFileWithoutMovieHeader() throws IOException {
+        Path file = write("notes.mp4", "this is not a video".getBytes(StandardCharsets.US_ASCII));
+        assertThrows(IOException.class, () -> VideoMetadataProbe.probe(file));
+
+        Path empty = write("empty.mp4", box("mdat", new byte[8]));
+        assertThrows(IOException.class, () -> VideoMetadataProbe.probe(empty));
+    }
+}
@@ -0,0 +1,84 @@
+package com.elearning.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WatchCoverageTest {
+
+    @Test
+    void emptyCoverage() {
+        assertEquals(0, new WatchCoverage().coveredSeconds(600));
+        assertEquals(0, WatchCoverage.fromBytes(null).coveredSeconds(600));
+        assertEquals(0, new WatchCoverage().toBytes().length);
+    }
+
+    @Test
+    void secondCountsPastItsMidpoint() {
+        WatchCoverage coverage = new WatchCoverage();
+        coverage.mark(0, 0.4);
+        assertEquals(0, coverage.coveredSeconds(60));
+        coverage.mark(0, 0.6);
+        assertEquals(1, coverage.coveredSeconds(60));
+    }
+
+    @Test
+    void replayIsCountedOnce() {
+        WatchCoverage coverage = new WatchCoverage();
+        coverage.mark(0, 10);
+        coverage.mark(5, 15);
+        coverage.mark(0, 10);
+        assertEquals(15, coverage.coveredSeconds(60));
+    }
+
+    @Test
+    void coveredSecondsStopsAtDuration() {
+        WatchCoverage coverage = new WatchCoverage();
+        coverage.mark(0, 20);
+        assertEquals(13, coverage.coveredSeconds(13));
+        assertEquals(20, coverage.coveredSeconds(100));
+    }
+
+    @Test
+    void mergeAddsOtherSessions() {
+        WatchCoverage first = new WatchCoverage();
+        first.mark(0, 10);
+        WatchCoverage second = new WatchCoverage();
+        second.mark(100, 110);
+
+        first.merge(second);
+        first.merge(null);
+        assertEquals(20, first.coveredSeconds(200));
+        assertEquals(10, second.coveredSeconds(200));
+    }
+
+    @Test
+    void bytesRoundTripWithoutTrailingZeros() {
+        WatchCoverage coverage = new WatchCoverage();
+        coverage.mark(0, 3);
+        coverage.mark(1000, 1001);
+        coverage.mark(0, 0);   // Grows nothing
+
+        byte[] bytes = coverage.toBytes();
+        assertEquals(1000 / 8 + 1, bytes.length);
+        assertEquals(4, WatchCoverage.fromBytes(bytes).coveredSeconds(2000));
+    }
+
+    @Test
+    void copyIsIndependent() {
+        WatchCoverage coverage = new WatchCoverage();
+        coverage.mark(0, 5);
+        WatchCoverage copy = coverage.copy();
+        copy.mark(5, 10);
+        assertEquals(5, coverage.coveredSeconds(60));
+        assertEquals(10, copy.coveredSeconds(60));
+    }
+
+    @Test
+    void cappedAtMaxSeconds() {
+        WatchCoverage coverage = new WatchCoverage();
+        coverage.mark(WatchCoverage.MAX_SECONDS - 10, WatchCoverage.MAX_SECONDS + 100);
+        assertEquals(10, coverage.coveredSeconds(WatchCoverage.MAX_SECONDS + 1000));
+        assertEquals(WatchCoverage.MAX_SECONDS / 8, coverage.toBytes().length);
+    }
+}